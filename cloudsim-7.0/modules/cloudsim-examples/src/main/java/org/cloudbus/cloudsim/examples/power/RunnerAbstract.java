@@ -123,6 +123,8 @@ public abstract class RunnerAbstract {
 					+ getExperimentName(workload, vmAllocationPolicy, vmSelectionPolicy, parameter) + ".txt");
 			file.createNewFile();
 			Log.setOutput(new FileOutputStream(file));
+			// nothing else writes to the log file, so its output can be buffered
+			Log.setBufferSize(1 << 16);
 		}
 	}
 
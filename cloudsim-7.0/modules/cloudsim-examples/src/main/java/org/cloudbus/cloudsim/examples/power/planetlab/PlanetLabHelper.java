@@ -3,6 +3,7 @@ package org.cloudbus.cloudsim.examples.power.planetlab;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Cloudlet;
@@ -10,6 +11,7 @@ import org.cloudbus.cloudsim.UtilizationModel;
 import org.cloudbus.cloudsim.UtilizationModelNull;
 import org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemory;
 import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.util.TraceCache;
 
 /**
  * A helper class for the running examples for the PlanetLab workload.
@@ -28,15 +30,22 @@ import org.cloudbus.cloudsim.examples.power.Constants;
 public class PlanetLabHelper {
 
 	/**
-	 * Creates the cloudlet list planet lab.
+	 * Creates the cloudlet list planet lab, a cloudlet per trace. The traces are taken in the
+	 * order of their file names, which is the order of a {@link TraceCache} of the folder, so that
+	 * each cloudlet gets the same trace from the folder and from its cache, on any file system.
 	 * 
 	 * @param brokerId the broker id
-	 * @param inputFolderName the input folder name
+	 * @param inputFolderName the input folder name, or the path of a {@link TraceCache} of the
+	 *        folder (see {@link TraceCache#convertPlanetLab(String, String)})
 	 * @return the list
 	 * @throws FileNotFoundException the file not found exception
 	 */
 	public static List<Cloudlet> createCloudletListPlanetLab(int brokerId, String inputFolderName)
 			throws FileNotFoundException {
+		if (TraceCache.isCache(inputFolderName)) {
+			return createCloudletListPlanetLabCache(brokerId, inputFolderName);
+		}
+
 		List<Cloudlet> list = new ArrayList<>();
 
 		long fileSize = 300;
@@ -44,7 +53,8 @@ public class PlanetLabHelper {
 		UtilizationModel utilizationModelNull = new UtilizationModelNull();
 
 		File inputFolder = new File(inputFolderName);
-		File[] files = inputFolder.listFiles();
+		File[] files = inputFolder.listFiles(File::isFile);
+		Arrays.sort(files);
 
 		for (int i = 0; i < files.length; i++) {
 			Cloudlet cloudlet = null;
@@ -70,4 +80,43 @@ public class PlanetLabHelper {
 		return list;
 	}
 
+	/**
+	 * Creates the cloudlet list planet lab from a cache of the traces, a cloudlet per trace.
+	 * 
+	 * @param brokerId the broker id
+	 * @param cacheFileName the path of the cache
+	 * @return the list
+	 * @throws FileNotFoundException the file not found exception
+	 */
+	private static List<Cloudlet> createCloudletListPlanetLabCache(int brokerId, String cacheFileName)
+			throws FileNotFoundException {
+		TraceCache cache = null;
+		try {
+			cache = TraceCache.open(cacheFileName);
+		} catch (FileNotFoundException e) {
+			throw e;
+		} catch (Exception e) {
+			e.printStackTrace();
+			System.exit(0);
+		}
+
+		List<Cloudlet> list = new ArrayList<>();
+		UtilizationModel utilizationModelNull = new UtilizationModelNull();
+		for (int i = 0; i < cache.getColumnCount(); i++) {
+			Cloudlet cloudlet = new Cloudlet(
+					i,
+					Constants.CLOUDLET_LENGTH,
+					Constants.CLOUDLET_PES,
+					300,
+					300,
+					new UtilizationModelPlanetLabInMemory(cache, i, Constants.SCHEDULING_INTERVAL),
+					utilizationModelNull,
+					utilizationModelNull);
+			cloudlet.setUserId(brokerId);
+			cloudlet.setGuestId(i);
+			list.add(cloudlet);
+		}
+		return list;
+	}
+
 }
@@ -0,0 +1,46 @@
+package org.cloudbus.cloudsim.examples.power.planetlab;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.util.TraceCache;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the cloudlets created from a folder of PlanetLab traces and from its cache get the
+ * same traces.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class PlanetLabHelperTest {
+
+	@Test
+	public void testFolderAndCacheAssignTheSameTraces() throws Exception {
+		String inputFolder = PlanetLabHelperTest.class.getClassLoader()
+				.getResource("workload/planetlab/20110303").getPath();
+		Path cacheFile = Files.createTempFile("planetlab", TraceCache.EXTENSION);
+		try {
+			TraceCache.convertPlanetLab(inputFolder, cacheFile.toString());
+
+			List<Cloudlet> fromFolder = PlanetLabHelper.createCloudletListPlanetLab(0, inputFolder);
+			List<Cloudlet> fromCache = PlanetLabHelper.createCloudletListPlanetLab(0, cacheFile.toString());
+
+			assertEquals(fromFolder.size(), fromCache.size());
+			for (int i = 0; i < fromFolder.size(); i++) {
+				Cloudlet expected = fromFolder.get(i);
+				Cloudlet actual = fromCache.get(i);
+				assertEquals(expected.getGuestId(), actual.getGuestId());
+				for (double time = 0; time < 24 * 60 * 60; time += 150) {
+					assertEquals(expected.getUtilizationOfCpu(time), actual.getUtilizationOfCpu(time), 0,
+							"cloudlet " + i + " at " + time);
+				}
+			}
+		} finally {
+			Files.delete(cacheFile);
+		}
+	}
+}
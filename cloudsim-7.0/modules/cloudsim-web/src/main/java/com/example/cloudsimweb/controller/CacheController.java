@@ -0,0 +1,24 @@
+package com.example.cloudsimweb.controller;
+
+import com.example.cloudsimweb.model.CacheStats;
+import com.example.cloudsimweb.service.SimulationResultCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    @Autowired
+    private SimulationResultCache simulationResultCache;
+
+    @GetMapping("/stats")
+    public CacheStats stats() {
+        return simulationResultCache.getStats();
+    }
+
+    @DeleteMapping
+    public void clear() {
+        simulationResultCache.clear();
+    }
+}
@@ -2,21 +2,29 @@ package com.example.cloudsimweb.controller;
 
 import com.example.cloudsimweb.model.CloudletResult;
 import com.example.cloudsimweb.examples.*;
+import com.example.cloudsimweb.service.SimulationResultCache;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/examples")
 public class ExampleController {
 
+    @Autowired
+    private SimulationResultCache simulationResultCache;
+
     @PostMapping("/run")
     public List<CloudletResult> runExample(@RequestParam(defaultValue = "1") int exampleId) {
-        return switch (exampleId) {
-            case 1 -> CloudSimExample1Wrapper.run();
-            case 2 -> CloudSimExample2Wrapper.run();
-            case 3 -> CloudSimExample3Wrapper.run();
+        Supplier<List<CloudletResult>> example = switch (exampleId) {
+            case 1 -> CloudSimExample1Wrapper::run;
+            case 2 -> CloudSimExample2Wrapper::run;
+            case 3 -> CloudSimExample3Wrapper::run;
             default -> throw new IllegalArgumentException("不支持的示例 ID: " + exampleId);
         };
+        // 示例没有参数，结果固定，按示例 ID 缓存
+        return simulationResultCache.get("example-" + exampleId, example);
     }
 }
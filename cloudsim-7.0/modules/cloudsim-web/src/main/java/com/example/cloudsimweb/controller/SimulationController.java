@@ -2,6 +2,8 @@ package com.example.cloudsimweb.controller;
 
 import com.example.cloudsimweb.model.SimulationRequest;
 import com.example.cloudsimweb.model.CloudletResult;
+import com.example.cloudsimweb.service.SimulationKey;
+import com.example.cloudsimweb.service.SimulationResultCache;
 import com.example.cloudsimweb.service.SimulationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +17,9 @@ public class SimulationController {
     @Autowired
     private SimulationService simulationService;
 
+    @Autowired
+    private SimulationResultCache simulationResultCache;
+
     @PostMapping("/simulate")
     public List<CloudletResult> simulate(@RequestBody SimulationRequest request) {
         // 获取前端传来的算法字段，如果为空则默认使用 "timeshared"
@@ -27,12 +32,15 @@ public class SimulationController {
         // 调试信息：输出前端传来的 VM MIPS 列表
         System.out.println("收到的 VM MIPS 列表: " + request.getVmMipsList());
 
-        // 调用支持 MIPS 参数的方法
-        return simulationService.runSimulation(
+        // 调用支持 MIPS 参数的方法，相同的请求直接返回缓存的结果
+        String lowerAlgorithm = algorithm.toLowerCase();
+        SimulationKey key = SimulationKey.of(request.getVmCount(), request.getCloudletCount(),
+                lowerAlgorithm, request.getVmMipsList());
+        return simulationResultCache.get(key, () -> simulationService.runSimulation(
                 request.getVmCount(),
                 request.getCloudletCount(),
-                algorithm.toLowerCase(),
+                lowerAlgorithm,
                 request.getVmMipsList()
-        );
+        ));
     }
 }
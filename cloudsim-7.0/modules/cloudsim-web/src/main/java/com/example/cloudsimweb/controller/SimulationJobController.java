@@ -0,0 +1,54 @@
+package com.example.cloudsimweb.controller;
+
+import com.example.cloudsimweb.model.JobProgress;
+import com.example.cloudsimweb.model.ResultPage;
+import com.example.cloudsimweb.model.SimulationRequest;
+import com.example.cloudsimweb.service.SimulationJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class SimulationJobController {
+
+    @Autowired
+    private SimulationJobService simulationJobService;
+
+    // 提交模拟任务，立即返回任务 ID，模拟在后台线程池中运行
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public JobProgress submit(@RequestBody SimulationRequest request) {
+        String algorithm = request.getAlgorithm();
+        if (algorithm == null || algorithm.isBlank()) {
+            algorithm = "timeshared";
+        }
+
+        return simulationJobService.submit(
+                request.getVmCount(),
+                request.getCloudletCount(),
+                algorithm.toLowerCase(),
+                request.getVmMipsList()
+        ).toProgress();
+    }
+
+    @GetMapping("/{jobId}")
+    public JobProgress status(@PathVariable String jobId) {
+        return simulationJobService.getJob(jobId).toProgress();
+    }
+
+    // SSE 进度流：progress 事件推送模拟时钟和已完成的 Cloudlet 数，done 事件表示任务结束
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable String jobId) {
+        return simulationJobService.subscribe(jobId);
+    }
+
+    @GetMapping("/{jobId}/results")
+    public ResultPage results(@PathVariable String jobId,
+                              @RequestParam(defaultValue = "0") int page,
+                              @RequestParam(defaultValue = "50") int size) {
+        return simulationJobService.getResults(jobId, page, size);
+    }
+}
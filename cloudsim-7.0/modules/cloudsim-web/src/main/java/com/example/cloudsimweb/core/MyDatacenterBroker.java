@@ -3,16 +3,24 @@ package com.example.cloudsimweb.core;
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.DatacenterBroker;
 import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.SimEvent;
 
 import java.util.List;
 
 public class MyDatacenterBroker extends DatacenterBroker {
 
+    private ProgressListener progressListener;
+
     public MyDatacenterBroker(String name) throws Exception {
         super(name);
     }
 
+    // 设置进度回调，为 null 时不上报进度
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
     // ✅ 提交虚拟机列表
     public void submitMyVmList(List<Vm> list) {
         submitGuestList(list); // Vm 实现了 GuestEntity，因此可作为 GuestEntity 提交
@@ -39,6 +47,9 @@ public class MyDatacenterBroker extends DatacenterBroker {
     @Override
     protected void processCloudletReturn(SimEvent ev) {
         super.processCloudletReturn(ev);
+        if (progressListener != null) {
+            progressListener.onProgress(CloudSim.clock(), getCloudletReceivedList().size());
+        }
     }
 
     @Override
@@ -0,0 +1,8 @@
+package com.example.cloudsimweb.core;
+
+// 模拟进度回调，由事件循环在每个 Cloudlet 返回时调用
+@FunctionalInterface
+public interface ProgressListener {
+
+    void onProgress(double clock, int finishedCloudlets);
+}
@@ -0,0 +1,29 @@
+package com.example.cloudsimweb.model;
+
+// 结果缓存的统计信息
+public class CacheStats {
+    private long hits;
+    private long misses;
+    private long coalesced;
+    private long evictions;
+    private int size;
+
+    public CacheStats(long hits, long misses, long coalesced, long evictions, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.coalesced = coalesced;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getCoalesced() { return coalesced; }
+    public long getEvictions() { return evictions; }
+    public int getSize() { return size; }
+
+    public double getHitRate() {
+        long requests = hits + misses + coalesced;
+        return requests == 0 ? 0 : (double) (hits + coalesced) / requests;
+    }
+}
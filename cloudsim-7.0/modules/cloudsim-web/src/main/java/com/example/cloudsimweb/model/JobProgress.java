@@ -0,0 +1,27 @@
+package com.example.cloudsimweb.model;
+
+// 模拟任务的状态快照，提交任务、查询任务和 SSE 进度推送都返回它
+public class JobProgress {
+    private String jobId;
+    private JobStatus status;
+    private double clock;
+    private int finishedCloudlets;
+    private int totalCloudlets;
+    private String error;
+
+    public JobProgress(String jobId, JobStatus status, double clock, int finishedCloudlets, int totalCloudlets, String error) {
+        this.jobId = jobId;
+        this.status = status;
+        this.clock = clock;
+        this.finishedCloudlets = finishedCloudlets;
+        this.totalCloudlets = totalCloudlets;
+        this.error = error;
+    }
+
+    public String getJobId() { return jobId; }
+    public JobStatus getStatus() { return status; }
+    public double getClock() { return clock; }
+    public int getFinishedCloudlets() { return finishedCloudlets; }
+    public int getTotalCloudlets() { return totalCloudlets; }
+    public String getError() { return error; }
+}
@@ -0,0 +1,8 @@
+package com.example.cloudsimweb.model;
+
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,23 @@
+package com.example.cloudsimweb.model;
+
+import java.util.List;
+
+// 分页返回的 Cloudlet 结果
+public class ResultPage {
+    private List<CloudletResult> content;
+    private int page;
+    private int size;
+    private int total;
+
+    public ResultPage(List<CloudletResult> content, int page, int size, int total) {
+        this.content = content;
+        this.page = page;
+        this.size = size;
+        this.total = total;
+    }
+
+    public List<CloudletResult> getContent() { return content; }
+    public int getPage() { return page; }
+    public int getSize() { return size; }
+    public int getTotal() { return total; }
+}
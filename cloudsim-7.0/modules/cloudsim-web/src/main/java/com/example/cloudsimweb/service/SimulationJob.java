@@ -0,0 +1,76 @@
+package com.example.cloudsimweb.service;
+
+import com.example.cloudsimweb.model.CloudletResult;
+import com.example.cloudsimweb.model.JobProgress;
+import com.example.cloudsimweb.model.JobStatus;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// 一个异步模拟任务：进度由模拟线程写入，由请求线程读取
+public class SimulationJob {
+    private final String id;
+    private final int totalCloudlets;
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    private volatile JobStatus status = JobStatus.QUEUED;
+    private volatile double clock;
+    private volatile int finishedCloudlets;
+    private volatile List<CloudletResult> results;
+    private volatile String error;
+    private volatile long finishedAt;
+
+    // 上次推送进度的时间，仅由模拟线程访问
+    private long lastPushAt;
+
+    public SimulationJob(String id, int totalCloudlets) {
+        this.id = id;
+        this.totalCloudlets = totalCloudlets;
+    }
+
+    public String getId() { return id; }
+    public JobStatus getStatus() { return status; }
+    public List<CloudletResult> getResults() { return results; }
+    public long getFinishedAt() { return finishedAt; }
+    List<SseEmitter> getEmitters() { return emitters; }
+
+    public boolean isFinished() {
+        return status == JobStatus.COMPLETED || status == JobStatus.FAILED;
+    }
+
+    void start() {
+        status = JobStatus.RUNNING;
+    }
+
+    void update(double clock, int finishedCloudlets) {
+        this.clock = clock;
+        this.finishedCloudlets = finishedCloudlets;
+    }
+
+    // 距上次推送超过 intervalMillis 时返回 true，用于限制 SSE 推送频率
+    boolean shouldPush(long now, long intervalMillis) {
+        if (now - lastPushAt < intervalMillis) {
+            return false;
+        }
+        lastPushAt = now;
+        return true;
+    }
+
+    void complete(List<CloudletResult> results) {
+        this.results = List.copyOf(results);
+        this.finishedCloudlets = results.size();
+        this.finishedAt = System.currentTimeMillis();
+        this.status = JobStatus.COMPLETED;
+    }
+
+    void fail(String error) {
+        this.error = error;
+        this.finishedAt = System.currentTimeMillis();
+        this.status = JobStatus.FAILED;
+    }
+
+    public JobProgress toProgress() {
+        return new JobProgress(id, status, clock, finishedCloudlets, totalCloudlets, error);
+    }
+}
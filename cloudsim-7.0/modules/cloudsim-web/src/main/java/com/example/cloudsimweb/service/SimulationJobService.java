@@ -0,0 +1,177 @@
+package com.example.cloudsimweb.service;
+
+import com.example.cloudsimweb.model.CloudletResult;
+import com.example.cloudsimweb.model.JobStatus;
+import com.example.cloudsimweb.model.ResultPage;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 在有界线程池中异步运行模拟，任务结果保留一段时间供分页查询
+@Service
+public class SimulationJobService {
+
+    private final SimulationService simulationService;
+    private final SimulationResultCache simulationResultCache;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, SimulationJob> jobs = new ConcurrentHashMap<>();
+    private final long retentionMillis;
+    private final long progressIntervalMillis;
+    private final long emitterTimeoutMillis;
+
+    public SimulationJobService(SimulationService simulationService,
+                                SimulationResultCache simulationResultCache,
+                                @Value("${cloudsim.jobs.threads:2}") int threads,
+                                @Value("${cloudsim.jobs.queue-capacity:16}") int queueCapacity,
+                                @Value("${cloudsim.jobs.retention-minutes:30}") long retentionMinutes,
+                                @Value("${cloudsim.jobs.progress-interval-ms:200}") long progressIntervalMillis,
+                                @Value("${cloudsim.jobs.emitter-timeout-minutes:30}") long emitterTimeoutMinutes) {
+        this.simulationService = simulationService;
+        this.simulationResultCache = simulationResultCache;
+        this.retentionMillis = TimeUnit.MINUTES.toMillis(retentionMinutes);
+        this.progressIntervalMillis = progressIntervalMillis;
+        this.emitterTimeoutMillis = TimeUnit.MINUTES.toMillis(emitterTimeoutMinutes);
+
+        // 队列满时直接拒绝，避免无限堆积任务
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "simulation-job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public SimulationJob submit(int vmCount, int cloudletCount, String algorithm, List<Integer> vmMipsList) {
+        evictExpiredJobs();
+
+        SimulationJob job = new SimulationJob(UUID.randomUUID().toString(), cloudletCount);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, vmCount, cloudletCount, algorithm, vmMipsList));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "模拟任务队列已满，请稍后重试");
+        }
+        return job;
+    }
+
+    public SimulationJob getJob(String jobId) {
+        SimulationJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "模拟任务不存在: " + jobId);
+        }
+        return job;
+    }
+
+    public SseEmitter subscribe(String jobId) {
+        SimulationJob job = getJob(jobId);
+        SseEmitter emitter = createEmitter();
+        emitter.onCompletion(() -> job.getEmitters().remove(emitter));
+        emitter.onTimeout(() -> job.getEmitters().remove(emitter));
+        emitter.onError(e -> job.getEmitters().remove(emitter));
+
+        // 与 finish 互斥，保证订阅者要么收到结束事件，要么在此处直接结束；
+        // 初始进度也在锁内发送，避免它排在结束事件之后
+        synchronized (job) {
+            if (job.isFinished()) {
+                send(job, emitter, "done");
+                emitter.complete();
+                return emitter;
+            }
+            job.getEmitters().add(emitter);
+            send(job, emitter, "progress");
+        }
+        return emitter;
+    }
+
+    public ResultPage getResults(String jobId, int page, int size) {
+        SimulationJob job = getJob(jobId);
+        if (job.getStatus() != JobStatus.COMPLETED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "模拟任务尚未完成: " + jobId);
+        }
+        if (page < 0 || size <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "分页参数无效");
+        }
+
+        List<CloudletResult> results = job.getResults();
+        int from = (int) Math.min((long) page * size, results.size());
+        int to = (int) Math.min((long) from + size, results.size());
+        return new ResultPage(results.subList(from, to), page, size, results.size());
+    }
+
+    private void run(SimulationJob job, int vmCount, int cloudletCount, String algorithm, List<Integer> vmMipsList) {
+        job.start();
+        broadcast(job, "progress");
+        try {
+            // 命中缓存时不会有中间进度，直接结束
+            SimulationKey key = SimulationKey.of(vmCount, cloudletCount, algorithm, vmMipsList);
+            List<CloudletResult> results = simulationResultCache.get(key, () -> simulationService.runSimulation(
+                    vmCount, cloudletCount, algorithm, vmMipsList,
+                    (clock, finishedCloudlets) -> {
+                        job.update(clock, finishedCloudlets);
+                        if (job.shouldPush(System.currentTimeMillis(), progressIntervalMillis)) {
+                            broadcast(job, "progress");
+                        }
+                    }));
+            finish(job, () -> job.complete(results));
+        } catch (RuntimeException e) {
+            finish(job, () -> job.fail(e.getMessage() != null ? e.getMessage() : e.toString()));
+        }
+    }
+
+    private void finish(SimulationJob job, Runnable outcome) {
+        synchronized (job) {
+            outcome.run();
+            for (SseEmitter emitter : job.getEmitters()) {
+                send(job, emitter, "done");
+                emitter.complete();
+            }
+            job.getEmitters().clear();
+        }
+    }
+
+    // 测试可替换为记录事件的 emitter
+    SseEmitter createEmitter() {
+        return new SseEmitter(emitterTimeoutMillis);
+    }
+
+    private void broadcast(SimulationJob job, String eventName) {
+        for (SseEmitter emitter : job.getEmitters()) {
+            send(job, emitter, eventName);
+        }
+    }
+
+    private void send(SimulationJob job, SseEmitter emitter, String eventName) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(job.toProgress()));
+        } catch (IOException | IllegalStateException e) {
+            // 客户端已断开
+            job.getEmitters().remove(emitter);
+        }
+    }
+
+    private void evictExpiredJobs() {
+        long now = System.currentTimeMillis();
+        jobs.values().removeIf(job -> job.isFinished() && now - job.getFinishedAt() > retentionMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.cloudsimweb.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// 规范化后的模拟请求，作为结果缓存的键：结果相同的请求得到相同的键
+public record SimulationKey(int vmCount, int cloudletCount, String algorithm, List<Integer> vmMipsList) {
+
+    private static final int DEFAULT_MIPS = 1000;
+
+    public static SimulationKey of(int vmCount, int cloudletCount, String algorithm, List<Integer> vmMipsList) {
+        // 与 SimulationService 一致：未知算法按 timeshared 处理
+        String canonicalAlgorithm = algorithm == null ? "timeshared" : algorithm.toLowerCase();
+        if (!canonicalAlgorithm.equals("spaceshared") && !canonicalAlgorithm.equals("mct")) {
+            canonicalAlgorithm = "timeshared";
+        }
+
+        // 只有前 vmCount 个 MIPS 生效，缺少的取默认值
+        List<Integer> mips = new ArrayList<>();
+        for (int i = 0; i < vmCount; i++) {
+            mips.add(vmMipsList != null && i < vmMipsList.size() ? vmMipsList.get(i) : DEFAULT_MIPS);
+        }
+        return new SimulationKey(vmCount, cloudletCount, canonicalAlgorithm, Collections.unmodifiableList(mips));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.cloudsimweb.service;
+
+import com.example.cloudsimweb.model.CacheStats;
+import com.example.cloudsimweb.model.CloudletResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// 确定性模拟的结果缓存：按条目数（LRU）和存活时间淘汰，相同请求并发到达时只运行一次模拟
+@Service
+public class SimulationResultCache {
+
+    private record Entry(List<CloudletResult> results, long expiresAt) {
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    // 按访问顺序排列，最久未使用的在前
+    private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Object, CompletableFuture<List<CloudletResult>>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public SimulationResultCache(@Value("${cloudsim.cache.max-entries:128}") int maxEntries,
+                                 @Value("${cloudsim.cache.ttl-minutes:10}") long ttlMinutes) {
+        this(maxEntries, TimeUnit.MINUTES.toMillis(ttlMinutes), System::currentTimeMillis);
+    }
+
+    // 测试用：传入可控制的时钟（毫秒）
+    SimulationResultCache(int maxEntries, long ttlMillis, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    // 返回缓存的结果，没有时调用 loader 运行模拟；失败的模拟不会被缓存
+    public List<CloudletResult> get(Object key, Supplier<List<CloudletResult>> loader) {
+        List<CloudletResult> cached = lookup(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        CompletableFuture<List<CloudletResult>> future = new CompletableFuture<>();
+        CompletableFuture<List<CloudletResult>> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return join(running);
+        }
+
+        try {
+            // 另一个线程可能在查询缓存之后刚刚完成同一个模拟
+            List<CloudletResult> results = lookup(key);
+            if (results != null) {
+                hits.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+                results = List.copyOf(loader.get());
+                store(key, results);
+            }
+            future.complete(results);
+            return results;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    public CacheStats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(hits.get(), misses.get(), coalesced.get(), evictions.get(), size);
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private List<CloudletResult> lookup(Object key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() <= clock.getAsLong()) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return entry.results();
+        }
+    }
+
+    private void store(Object key, List<CloudletResult> results) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry(results, clock.getAsLong() + ttlMillis));
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries) {
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static List<CloudletResult> join(CompletableFuture<List<CloudletResult>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
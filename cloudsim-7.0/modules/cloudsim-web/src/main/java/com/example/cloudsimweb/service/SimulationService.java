@@ -1,6 +1,7 @@
 package com.example.cloudsimweb.service;
 
 import com.example.cloudsimweb.core.MyDatacenterBroker;
+import com.example.cloudsimweb.core.ProgressListener;
 import com.example.cloudsimweb.model.CloudletResult;
 import org.cloudbus.cloudsim.*;
 import org.cloudbus.cloudsim.core.CloudSim;
@@ -24,6 +25,11 @@ public class SimulationService {
     }
 
     public List<CloudletResult> runSimulation(int vmCount, int cloudletCount, String algorithm, List<Integer> vmMipsList) {
+        return runSimulation(vmCount, cloudletCount, algorithm, vmMipsList, null);
+    }
+
+    public List<CloudletResult> runSimulation(int vmCount, int cloudletCount, String algorithm, List<Integer> vmMipsList,
+                                              ProgressListener progressListener) {
         CloudSim.init(1, Calendar.getInstance(), false);
         Datacenter datacenter = createDatacenter("Datacenter_0");
 
@@ -33,6 +39,7 @@ public class SimulationService {
         } catch (Exception e) {
             throw new RuntimeException("创建 Broker 失败", e);
         }
+        broker.setProgressListener(progressListener);
 
         List<Vm> vmList = createVms(vmCount, broker.getId(), algorithm, vmMipsList);
         List<Cloudlet> cloudletList = createCloudlets(cloudletCount, broker.getId());
@@ -0,0 +1,181 @@
+package com.example.cloudsimweb.service;
+
+import com.example.cloudsimweb.core.ProgressListener;
+import com.example.cloudsimweb.model.CloudletResult;
+import com.example.cloudsimweb.model.JobStatus;
+import com.example.cloudsimweb.model.ResultPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 检查任务队列满时的拒绝、结果分页的边界，以及 SSE 订阅与任务结束同时发生时每个订阅者恰好收到一次结束事件
+public class SimulationJobServiceTest {
+
+    private static final int CLOUDLETS = 5;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private SimulationJobService service;
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void testSubmitIsRejectedWhenQueueIsFull() throws Exception {
+        service = createService(1, 1);
+        SimulationJob running = service.submit(2, CLOUDLETS, "timeshared", null);
+        SimulationJob queued = service.submit(2, CLOUDLETS, "timeshared", null);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.submit(2, CLOUDLETS, "timeshared", null));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+
+        release.countDown();
+        awaitFinished(running);
+        awaitFinished(queued);
+        awaitFinished(service.submit(2, CLOUDLETS, "timeshared", null));
+    }
+
+    @Test
+    public void testResultPagesStayWithinBounds() throws Exception {
+        service = createService(1, 1);
+        SimulationJob job = service.submit(2, CLOUDLETS, "timeshared", null);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.getResults(job.getId(), 0, 2));
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        release.countDown();
+        awaitFinished(job);
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+
+        assertPage(service.getResults(job.getId(), 0, 2), 0, 2);
+        assertPage(service.getResults(job.getId(), 2, 2), 4, 1);
+        assertPage(service.getResults(job.getId(), 3, 2), 5, 0);
+        assertPage(service.getResults(job.getId(), 0, Integer.MAX_VALUE), 0, CLOUDLETS);
+        // page * size 超出 int 范围时不能溢出
+        assertPage(service.getResults(job.getId(), Integer.MAX_VALUE, Integer.MAX_VALUE), 5, 0);
+
+        for (int[] invalid : new int[][] {{-1, 2}, {0, 0}, {0, -3}}) {
+            e = assertThrows(ResponseStatusException.class,
+                    () -> service.getResults(job.getId(), invalid[0], invalid[1]));
+            assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        }
+        e = assertThrows(ResponseStatusException.class, () -> service.getResults("unknown", 0, 2));
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+    }
+
+    @Test
+    public void testSubscriberRacingCompletionReceivesDoneOnce() throws Exception {
+        service = createService(4, 64);
+        release.countDown();
+        for (int round = 0; round < 200; round++) {
+            emitters.clear();
+            SimulationJob job = service.submit(2, CLOUDLETS, "timeshared", null);
+            // 在任务运行和结束的同时不断订阅
+            while (!job.isFinished()) {
+                service.subscribe(job.getId());
+            }
+            service.subscribe(job.getId());
+
+            assertFalse(emitters.isEmpty());
+            for (RecordingEmitter emitter : emitters) {
+                assertTrue(emitter.completed, "订阅者没有结束");
+                assertEquals(1, emitter.events.stream().filter("done"::equals).count(), emitter.events.toString());
+                assertEquals("done", emitter.events.get(emitter.events.size() - 1));
+                assertFalse(emitter.sentAfterCompletion);
+            }
+            assertTrue(job.getEmitters().isEmpty());
+        }
+    }
+
+    private SimulationJobService createService(int threads, int queueCapacity) {
+        SimulationService simulationService = new SimulationService() {
+            @Override
+            public List<CloudletResult> runSimulation(int vmCount, int cloudletCount, String algorithm,
+                                                      List<Integer> vmMipsList, ProgressListener progressListener) {
+                try {
+                    assertTrue(release.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+                List<CloudletResult> results = new ArrayList<>();
+                for (int i = 0; i < cloudletCount; i++) {
+                    progressListener.onProgress(i, i);
+                    results.add(new CloudletResult(i, i % vmCount, 0.1, 10.0 + i));
+                }
+                return results;
+            }
+        };
+        // 不缓存结果，每个任务都运行模拟
+        SimulationResultCache cache = new SimulationResultCache(0, 10);
+        return new SimulationJobService(simulationService, cache, threads, queueCapacity, 30, 0, 30) {
+            @Override
+            SseEmitter createEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    private static void awaitFinished(SimulationJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!job.isFinished()) {
+            assertTrue(System.currentTimeMillis() < deadline, "任务没有结束");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void assertPage(ResultPage page, int firstCloudlet, int size) {
+        assertEquals(CLOUDLETS, page.getTotal());
+        assertEquals(size, page.getContent().size());
+        for (int i = 0; i < size; i++) {
+            assertEquals(firstCloudlet + i, page.getContent().get(i).getCloudletId());
+        }
+    }
+
+    // 记录发送的事件名，不写入任何响应
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private volatile boolean completed;
+        private volatile boolean sentAfterCompletion;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (completed) {
+                sentAfterCompletion = true;
+                throw new IllegalStateException("已结束的 emitter 不能再发送事件");
+            }
+            StringBuilder text = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof String part) {
+                    text.append(part);
+                }
+            }
+            int start = text.indexOf("event:") + "event:".length();
+            events.add(text.substring(start, text.indexOf("\n", start)));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.cloudsimweb.service;
+
+import com.example.cloudsimweb.model.CacheStats;
+import com.example.cloudsimweb.model.CloudletResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 检查结果缓存的 LRU 淘汰、过期淘汰，以及相同请求并发到达时只运行一次模拟
+public class SimulationResultCacheTest {
+
+    private static final long TTL_MILLIS = 1000;
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        SimulationResultCache cache = new SimulationResultCache(2, TTL_MILLIS, now::get);
+        cache.get("a", () -> load(1));
+        cache.get("b", () -> load(2));
+        // 访问 a 后 b 成为最久未使用的条目
+        cache.get("a", () -> load(1));
+        cache.get("c", () -> load(3));
+        assertStats(cache.getStats(), 1, 3, 1, 2);
+
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.get("a", () -> load(1)).get(0).getCloudletId());
+        assertEquals(3, cache.get("c", () -> load(3)).get(0).getCloudletId());
+        assertEquals(3, loads.get());
+        cache.get("b", () -> load(2));
+        assertEquals(4, loads.get());
+        // b 重新加入后淘汰 a
+        assertStats(cache.getStats(), 3, 4, 2, 2);
+        cache.get("a", () -> load(1));
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    public void testExpiredEntryIsLoadedAgain() {
+        SimulationResultCache cache = new SimulationResultCache(2, TTL_MILLIS, now::get);
+        List<CloudletResult> first = cache.get("a", () -> load(1));
+        now.addAndGet(TTL_MILLIS - 1);
+        assertSame(first, cache.get("a", () -> load(1)));
+        assertStats(cache.getStats(), 1, 1, 0, 1);
+
+        now.addAndGet(1);
+        assertNotSame(first, cache.get("a", () -> load(1)));
+        assertEquals(2, loads.get());
+        assertStats(cache.getStats(), 1, 2, 1, 1);
+    }
+
+    @Test
+    public void testNothingIsStoredWithoutEntries() {
+        SimulationResultCache cache = new SimulationResultCache(0, TTL_MILLIS, now::get);
+        cache.get("a", () -> load(1));
+        cache.get("a", () -> load(1));
+        assertEquals(2, loads.get());
+        assertStats(cache.getStats(), 0, 2, 0, 0);
+    }
+
+    @Test
+    public void testConcurrentIdenticalRequestsAreCoalesced() throws Exception {
+        SimulationResultCache cache = new SimulationResultCache(2, TTL_MILLIS, now::get);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<CloudletResult>> first = executor.submit(() -> cache.get("a", () -> {
+                started.countDown();
+                await(release);
+                return load(1);
+            }));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            Future<List<CloudletResult>> second = executor.submit(() -> cache.get("a", () -> load(1)));
+
+            // 第二个请求等待第一个请求的模拟结束
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (cache.getStats().getCoalesced() == 0) {
+                assertTrue(System.currentTimeMillis() < deadline, "第二个请求没有合并");
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+            assertStats(cache.getStats(), 0, 1, 0, 1);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailedLoadIsNotCached() {
+        SimulationResultCache cache = new SimulationResultCache(2, TTL_MILLIS, now::get);
+        assertThrows(IllegalStateException.class, () -> cache.get("a", () -> {
+            throw new IllegalStateException("模拟失败");
+        }));
+        cache.get("a", () -> load(1));
+        assertEquals(1, loads.get());
+        assertStats(cache.getStats(), 0, 2, 0, 1);
+    }
+
+    private List<CloudletResult> load(long cloudletId) {
+        loads.incrementAndGet();
+        return List.of(new CloudletResult(cloudletId, 0, 0.1, 10.0));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void assertStats(CacheStats stats, long hits, long misses, long evictions, int size) {
+        assertEquals(hits, stats.getHits(), "hits");
+        assertEquals(misses, stats.getMisses(), "misses");
+        assertEquals(evictions, stats.getEvictions(), "evictions");
+        assertEquals(size, stats.getSize(), "size");
+    }
+}
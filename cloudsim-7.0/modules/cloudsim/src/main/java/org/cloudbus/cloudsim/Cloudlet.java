@@ -7,7 +7,7 @@
  */
 package org.cloudbus.cloudsim;
 
-import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -137,26 +137,34 @@ public class Cloudlet {
 
     /**
      * Indicates if transaction history records for this Cloudlet is to be
-     * outputted.
+     * outputted. The records are kept in the {@link CloudletHistory} of the
+     * simulation.
      */
     private final boolean record;
 
     /**
-     * Stores the operating system line separator.
+     * The history the records of this Cloudlet are kept in, which is the one of
+     * the simulation that wrote the first record, or null if none was written.
      */
-    private String newline;
+    private CloudletHistory history;
+
+    /** The index of the first record of this Cloudlet in {@link #history}, or -1 if none. */
+    private int firstRecord = -1;
+
+    /** The index of the last record of this Cloudlet in {@link #history}, or -1 if none. */
+    private int lastRecord = -1;
 
     /**
-     * The cloudlet transaction history.
+     * The latest resource where the cloudlet has been executed, or null if none.
      */
-    private StringBuffer history;
+    private Resource resource;
 
     /**
-     * The list of every resource where the cloudlet has been executed. In case
-     * it starts and finishes executing in a single cloud resource, without
-     * being migrated, this list will have only one item.
+     * The list of every resource where the cloudlet has been executed. It is
+     * only created when the cloudlet is migrated to a second resource, as most
+     * cloudlets start and finish executing in a single cloud resource.
      */
-    private final List<Resource> resList;
+    private List<Resource> resList;
 
     /**
      * The classType or priority of this Cloudlet for scheduling on a resource.
@@ -168,11 +176,6 @@ public class Cloudlet {
      */
     private int netToS;
 
-    /**
-     * The format of decimal numbers.
-     */
-    private DecimalFormat num;
-
     /**
      * The id of the guest entity that is planned to execute the cloudlet.
      */
@@ -267,7 +270,6 @@ public class Cloudlet {
         guestId = -1;
         accumulatedBwCost = 0;
         costPerBw = 0;
-        requiredFiles = new LinkedList<>();
     }
 
     /**
@@ -419,21 +421,16 @@ public class Cloudlet {
         this.cloudletOutputSize = Math.max(1, cloudletOutputSize);
 
         // Normally, a Cloudlet is only executed on a resource without being
-        // migrated to others. Hence, to reduce memory consumption, set the
-        // size of this ArrayList to be less than the default one.
-        resList = new LinkedList<>();
+        // migrated to others, so the list of resources is only created on migration.
         this.record = record;
 
         guestId = -1;
         accumulatedBwCost = 0.0;
         costPerBw = 0.0;
 
-        requiredFiles = new LinkedList<>();
-
         setUtilizationModelCpu(utilizationModelCpu);
         setUtilizationModelRam(utilizationModelRam);
         setUtilizationModelBw(utilizationModelBw);
-        updateUid();
     }
 
     /** Backward compatibility with ResCloudlet class in CloudSim6G */
@@ -445,7 +442,8 @@ public class Cloudlet {
     /**
      * Internal class that keeps track of Cloudlet's movement in different
      * CloudResources. Each time a cloudlet is run on a given VM, the cloudlet's
-     * execution history on each VM is registered at {@link Cloudlet#resList}
+     * execution history on each VM is registered at {@link Cloudlet#resource}
+     * and {@link Cloudlet#resList}
      */
     public static class Resource {
 
@@ -616,12 +614,12 @@ public class Cloudlet {
      * @post $none
      */
     public double getWaitingTime() {
-        if (resList.isEmpty()) {
+        if (resource == null) {
             return 0;
         }
 
         // use the latest resource submission time
-        final double subTime = resList.getLast().arrivalTime;
+        final double subTime = resource.arrivalTime;
         return execStartTime - subTime;
     }
 
@@ -696,11 +694,9 @@ public class Cloudlet {
      * @post $result != null
      */
     public String getCloudletHistory() {
-        String msg = null;
-        if (history == null) {
+        String msg = history == null ? null : history.getHistory(cloudletId, firstRecord);
+        if (msg == null) {
             msg = "No history is recorded for Cloudlet #" + cloudletId;
-        } else {
-            msg = history.toString();
         }
 
         return msg;
@@ -717,11 +713,11 @@ public class Cloudlet {
      * @post $result >= 0.0
      */
     public long getCloudletFinishedSoFar() {
-        if (resList.isEmpty()) {
+        if (resource == null) {
             return 0;
         }
 
-        return Math.min(resList.getLast().cloudletFinishedSoFar, getCloudletTotalLength()*Consts.MILLION);
+        return Math.min(resource.cloudletFinishedSoFar, getCloudletTotalLength()*Consts.MILLION);
     }
 
     /**
@@ -733,7 +729,7 @@ public class Cloudlet {
      * @post $none
      */
     public boolean isFinished() {
-        if (resList.isEmpty()) {
+        if (resource == null) {
             return false;
         }
         // if result is 0 or -ve then this Cloudlet has finished
@@ -763,11 +759,11 @@ public class Cloudlet {
      */
     public void setCloudletFinishedSoFar(final long length) {
         // if length is -ve then ignore
-        if (length < 0.0 || resList.isEmpty()) {
+        if (length < 0.0 || resource == null) {
             return;
         }
 
-        resList.getLast().cloudletFinishedSoFar = length;
+        resource.cloudletFinishedSoFar = length;
 
         if (record) {
             write("Sets the length's finished so far to " + length);
@@ -799,10 +795,10 @@ public class Cloudlet {
      * @post $result >= -1
      */
     public int getResourceId() {
-        if (resList.isEmpty()) {
+        if (resource == null) {
             return -1;
         }
-        return resList.getLast().resourceId;
+        return resource.resourceId;
     }
 
     public double getExecFinishTime() {
@@ -857,14 +853,22 @@ public class Cloudlet {
         res.resourceName = CloudSim.getEntityName(resourceID);
 
         // add into a list if moving to a new grid resource
-        resList.add(res);
+        final boolean first = resource == null;
+        if (!first) {
+            if (resList == null) {
+                resList = new ArrayList<>(2);
+                resList.add(resource);
+            }
+            resList.add(res);
+        }
+        resource = res;
 
-        if (resList.size() == 1 && record) {
+        if (first && record) {
             write("Allocates this Cloudlet to " + res.resourceName + " (ID #" + resourceID
                     + ") with cost = $" + cost + "/sec");
         } else if (record) {
-            final int id = resList.getLast().resourceId;
-            final String name = resList.getLast().resourceName;
+            final int id = resource.resourceId;
+            final String name = resource.resourceName;
             write("Moves Cloudlet from " + name + " (ID #" + id + ") to " + res.resourceName + " (ID #"
                     + resourceID + ") with cost = $" + cost + "/sec");
         }
@@ -880,14 +884,14 @@ public class Cloudlet {
      * @post $none
      */
     public void setSubmissionTime(final double clockTime) {
-        if (clockTime < 0.0 || resList.isEmpty()) {
+        if (clockTime < 0.0 || resource == null) {
             return;
         }
 
-        resList.getLast().arrivalTime = clockTime;
+        resource.arrivalTime = clockTime;
 
         if (record) {
-            write("Sets the submission time to " + num.format(clockTime));
+            write("Sets the submission time to " + formatTime(clockTime));
         }
     }
 
@@ -900,10 +904,10 @@ public class Cloudlet {
      * @post $result >= 0.0
      */
     public double getSubmissionTime() {
-        if (resList.isEmpty()) {
+        if (resource == null) {
             return 0.0;
         }
-        return resList.getLast().arrivalTime;
+        return resource.arrivalTime;
     }
 
     @Deprecated
@@ -925,7 +929,7 @@ public class Cloudlet {
     public void setExecStartTime(final double clockTime) {
         execStartTime = clockTime;
         if (record) {
-            write("Sets the execution start time to " + num.format(clockTime));
+            write("Sets the execution start time to " + formatTime(clockTime));
         }
     }
 
@@ -945,17 +949,16 @@ public class Cloudlet {
      * @see Resource#actualCPUTime
      */
     public void setExecParam(final double wallTime, final double actualTime) {
-        if (wallTime < 0.0 || actualTime < 0.0 || resList.isEmpty()) {
+        if (wallTime < 0.0 || actualTime < 0.0 || resource == null) {
             return;
         }
 
-        final Resource res = resList.getLast();
-        res.wallClockTime = wallTime;
-        res.actualCPUTime = actualTime;
+        resource.wallClockTime = wallTime;
+        resource.actualCPUTime = actualTime;
 
         if (record) {
-            write("Sets the wall clock time to " + num.format(wallTime) + " and the actual CPU time to "
-                    + num.format(actualTime));
+            write("Sets the wall clock time to " + formatTime(wallTime) + " and the actual CPU time to "
+                    + formatTime(actualTime));
         }
     }
 
@@ -1079,10 +1082,10 @@ public class Cloudlet {
      * @post $result >= 0.0
      */
     public double getCostPerSec() {
-        if (resList.isEmpty()) {
+        if (resource == null) {
             return 0.0;
         }
-        return resList.getLast().costPerSec;
+        return resource.costPerSec;
     }
 
     /**
@@ -1094,10 +1097,10 @@ public class Cloudlet {
      * @post $result >= 0.0
      */
     public double getWallClockTime() {
-        if (resList.isEmpty()) {
+        if (resource == null) {
             return 0.0;
         }
-        return resList.getLast().wallClockTime;
+        return resource.wallClockTime;
     }
 
     /**
@@ -1108,13 +1111,14 @@ public class Cloudlet {
      * @post $none
      */
     public String[] getAllResourceName() {
-        final int size = resList.size();
+        final List<Resource> resources = getResources();
+        final int size = resources.size();
         String[] data = null;
 
         if (size > 0) {
             data = new String[size];
             for (int i = 0; i < size; i++) {
-                data[i] = resList.get(i).resourceName;
+                data[i] = resources.get(i).resourceName;
             }
         }
 
@@ -1129,13 +1133,14 @@ public class Cloudlet {
      * @post $none
      */
     public int[] getAllResourceId() {
-        final int size = resList.size();
+        final List<Resource> resources = getResources();
+        final int size = resources.size();
         int[] data = null;
 
         if (size > 0) {
             data = new int[size];
             for (int i = 0; i < size; i++) {
-                data[i] = resList.get(i).resourceId;
+                data[i] = resources.get(i).resourceId;
             }
         }
 
@@ -1272,14 +1277,26 @@ public class Cloudlet {
      * @return the resource by id
      */
     public Resource getResourceById(final int resourceId) {
-        for (Resource resource : resList) {
-            if (resource.resourceId == resourceId) {
-                return resource;
+        for (Resource res : getResources()) {
+            if (res.resourceId == resourceId) {
+                return res;
             }
         }
         return null;
     }
 
+    /**
+     * Gets every resource where the cloudlet has been executed.
+     *
+     * @return the resources, in execution order
+     */
+    private List<Resource> getResources() {
+        if (resList != null) {
+            return resList;
+        }
+        return resource == null ? List.of() : List.of(resource);
+    }
+
     // //////////////////////// PROTECTED METHODS //////////////////////////////
 
     /**
@@ -1294,24 +1311,35 @@ public class Cloudlet {
             return;
         }
 
-        if (num == null || history == null) { // Creates the history or
-            // transactions of this Cloudlet
-            newline = System.getProperty("line.separator");
-            num = new DecimalFormat("#0.00#"); // with 3 decimal spaces
-            history = new StringBuffer(1000);
-            history.append("Time below denotes the simulation time.");
-            history.append(System.getProperty("line.separator"));
-            history.append("Time (sec)       Description Cloudlet #").append(cloudletId);
-            history.append(System.getProperty("line.separator"));
-            history.append("------------------------------------------");
-            history.append(System.getProperty("line.separator"));
-            history.append(num.format(CloudSim.clock()));
-            history.append("   Creates Cloudlet ID #").append(cloudletId);
-            history.append(System.getProperty("line.separator"));
+        lastRecord = getHistory().write(lastRecord, CloudSim.clock(), str);
+        if (firstRecord < 0) {
+            firstRecord = lastRecord;
+        }
+    }
+
+    /**
+     * Gets the history the records of this Cloudlet are kept in, which is bound
+     * to the simulation of the current thread when the first record is written,
+     * so that the records can be read from another thread or after another
+     * simulation is initialised.
+     *
+     * @return the history
+     */
+    private CloudletHistory getHistory() {
+        if (history == null) {
+            history = CloudSim.getSimulationContext().getCloudletHistory();
         }
+        return history;
+    }
 
-        history.append(num.format(CloudSim.clock()));
-        history.append("   ").append(str).append(newline);
+    /**
+     * Formats a time as in the transaction history.
+     *
+     * @param time the time
+     * @return the formatted time
+     */
+    private String formatTime(final double time) {
+        return getHistory().format(time);
     }
 
     /**
@@ -1373,12 +1401,7 @@ public class Cloudlet {
      * @return <tt>true</tt> if succesful, <tt>false</tt> otherwise
      */
     public boolean addRequiredFile(final String fileName) {
-        // if the list is empty
-        if (getRequiredFiles() == null) {
-            setRequiredFiles(new LinkedList<>());
-        }
-
-        // then check whether filename already exists or not
+        // check whether filename already exists or not
         boolean result = false;
         for (int i = 0; i < getRequiredFiles().size(); i++) {
             final String temp = getRequiredFiles().get(i);
@@ -1403,7 +1426,7 @@ public class Cloudlet {
      */
     public boolean deleteRequiredFile(final String filename) {
         boolean result = false;
-        if (getRequiredFiles() == null) {
+        if (requiredFiles == null) {
             return result;
         }
 
@@ -1427,7 +1450,7 @@ public class Cloudlet {
      * @return <tt>true</tt> if required, <tt>false</tt> otherwise
      */
     public boolean requiresFiles() {
-        return getRequiredFiles() != null && !getRequiredFiles().isEmpty();
+        return requiredFiles != null && !requiredFiles.isEmpty();
     }
 
     public int getGuestId() { return guestId; }
@@ -1500,12 +1523,15 @@ public class Cloudlet {
      * @return The UID
      */
     public String getUid() {
+        if (uid == null) {
+            uid = getUserId() + "-" + getCloudletId();
+        }
         return uid;
     }
 
     /** update uid after change of cloudletId or userId */
     private void updateUid() {
-        uid = getUserId() + "-" + getCloudletId();
+        uid = null; // built again on demand
     }
 
     /**
@@ -1538,7 +1564,19 @@ public class Cloudlet {
         return getUtilizationModelBw().getUtilization(time);
     }
 
-    public List<String> getRequiredFiles() { return requiredFiles; }
+    /**
+     * Gets the required files of the cloudlet. The list is created on the first access, so
+     * that the cloudlets without files do not hold one; use {@link #requiresFiles()} to check
+     * for files without creating it.
+     *
+     * @return the modifiable list of required files
+     */
+    public List<String> getRequiredFiles() {
+        if (requiredFiles == null) {
+            requiredFiles = new LinkedList<>();
+        }
+        return requiredFiles;
+    }
 
     protected void setRequiredFiles(List<String> requiredFiles) { this.requiredFiles = requiredFiles; }
 }
@@ -0,0 +1,113 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.text.DecimalFormat;
+import java.util.Arrays;
+
+import org.cloudbus.cloudsim.core.SimulationContext;
+
+/**
+ * The transaction history of the cloudlets that record it (see
+ * {@link Cloudlet#Cloudlet(int, long, int, long, long, UtilizationModel, UtilizationModel, UtilizationModel, boolean)}).
+ * The entries of all the cloudlets are appended to a single buffer, kept by the
+ * {@link SimulationContext} of the simulation, so that a cloudlet only holds a reference to it
+ * and the indexes of its first and last entries. The entries of a cloudlet are linked, from the
+ * first one to the last one, so that its history is read without going through the others.
+ * The history of a cloudlet is only laid out when it is asked for.
+ *
+ * @see Cloudlet#getCloudletHistory()
+ * @since CloudSim Toolkit 7.0
+ */
+public class CloudletHistory {
+
+	/** The line separator of the histories. */
+	private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+	/** The format of the times, with up to 3 decimal places. */
+	private final DecimalFormat num = new DecimalFormat("#0.00#");
+
+	/** The simulation time of each entry. */
+	private double[] times = new double[16];
+
+	/** The description of each entry. */
+	private String[] descriptions = new String[16];
+
+	/** The index of the next entry of the same cloudlet, for each entry, or -1 for its last one. */
+	private int[] next = new int[16];
+
+	/** The number of entries. */
+	private int size;
+
+	/**
+	 * Adds an entry to the history of a cloudlet.
+	 *
+	 * @param last the index of the last entry of the cloudlet, or -1 if it has none
+	 * @param time the simulation time of the entry
+	 * @param description the description of the entry
+	 * @return the index of the entry, which is the last one of the cloudlet
+	 */
+	public synchronized int write(int last, double time, String description) {
+		if (size == times.length) {
+			times = Arrays.copyOf(times, size * 2);
+			descriptions = Arrays.copyOf(descriptions, size * 2);
+			next = Arrays.copyOf(next, size * 2);
+		}
+		times[size] = time;
+		descriptions[size] = description;
+		next[size] = -1;
+		if (last >= 0) {
+			next[last] = size;
+		}
+		return size++;
+	}
+
+	/**
+	 * Gets the history of a cloudlet, as a table with the time and the description of its entries.
+	 *
+	 * @param cloudletId the id of the cloudlet
+	 * @param first the index of the first entry of the cloudlet, or -1 if it has none
+	 * @return the history, or null if the cloudlet has no entry
+	 */
+	public synchronized String getHistory(int cloudletId, int first) {
+		if (first < 0) {
+			return null;
+		}
+		StringBuilder history = new StringBuilder();
+		history.append("Time below denotes the simulation time.").append(LINE_SEPARATOR);
+		history.append("Time (sec)       Description Cloudlet #").append(cloudletId);
+		history.append(LINE_SEPARATOR);
+		history.append("------------------------------------------").append(LINE_SEPARATOR);
+		history.append(num.format(times[first]));
+		history.append("   Creates Cloudlet ID #").append(cloudletId).append(LINE_SEPARATOR);
+		for (int i = first; i >= 0; i = next[i]) {
+			history.append(num.format(times[i])).append("   ").append(descriptions[i]).append(LINE_SEPARATOR);
+		}
+		return history.toString();
+	}
+
+	/**
+	 * Formats a time as in the histories.
+	 *
+	 * @param time the time
+	 * @return the formatted time
+	 */
+	public synchronized String format(double time) {
+		return num.format(time);
+	}
+
+	/**
+	 * Gets the number of entries of all the cloudlets.
+	 *
+	 * @return the number of entries
+	 */
+	public synchronized int size() {
+		return size;
+	}
+}
@@ -9,11 +9,11 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.lists.CloudletList;
+import org.cloudbus.cloudsim.lists.IndexedCloudletList;
 
 /**
  * CloudletScheduler is an abstract class that represents the policy of scheduling performed by a
@@ -34,8 +34,8 @@ public abstract class CloudletScheduler {
 
 	/** The list of current mips share available for the VM using the scheduler.
 	 * It is provided by {@link CloudletScheduler#updateCloudletsProcessing(double, List)} method.
-	 * at every simulation step. */
-	private List<Double> currentMipsShare;
+	 * at every simulation step, and copied into a share kept by the scheduler. */
+	private final MipsShare currentMipsShare = new MipsShare();
 
 
 	private double currentCapacity;
@@ -68,11 +68,11 @@ public abstract class CloudletScheduler {
 	public CloudletScheduler() {
 		setPreviousTime(0.0);
 
-		cloudletWaitingList = new LinkedList<>();
-		cloudletExecList = new LinkedList<>();
-		cloudletPausedList = new LinkedList<>();
-		cloudletFinishedList = new LinkedList<>();
-		cloudletFailedList = new LinkedList<>();
+		cloudletWaitingList = new IndexedCloudletList<>();
+		cloudletExecList = new IndexedCloudletList<>();
+		cloudletPausedList = new IndexedCloudletList<>();
+		cloudletFinishedList = new IndexedCloudletList<>();
+		cloudletFailedList = new IndexedCloudletList<>();
 		cloudletJustFinishedList = new ArrayList<>();
 	}
 
@@ -105,7 +105,9 @@ public abstract class CloudletScheduler {
 				cloudletFinish(cl);
 			}
 		}
-		getCloudletExecList().removeAll(cloudletJustFinishedList);
+		for (Cloudlet cl : cloudletJustFinishedList) {
+			getCloudletExecList().remove(cl);
+		}
 
 
 		if (getCloudletExecList().isEmpty() && getCloudletWaitingList().isEmpty()) {
@@ -179,15 +181,16 @@ public abstract class CloudletScheduler {
 	 */
 	public Cloudlet cloudletCancel(final int cloudletId) {
 		// First, looks in the finished queue
-		int position = CloudletList.getPositionById(getCloudletFinishedList(), cloudletId);
-		if (position >= 0) {
-			return getCloudletFinishedList().remove(position);
+		Cloudlet cl = CloudletList.getById(getCloudletFinishedList(), cloudletId);
+		if (cl != null) {
+			getCloudletFinishedList().remove(cl);
+			return cl;
 		}
 
 		// Then searches in the exec list
-		position = CloudletList.getPositionById(getCloudletExecList(), cloudletId);
-		if (position >= 0) {
-			Cloudlet cl = getCloudletExecList().remove(position);
+		cl = CloudletList.getById(getCloudletExecList(), cloudletId);
+		if (cl != null) {
+			getCloudletExecList().remove(cl);
 			if (cl.getRemainingCloudletLength() == 0) {
 				cloudletFinish(cl);
 			} else {
@@ -197,15 +200,17 @@ public abstract class CloudletScheduler {
 		}
 
 		// Now, looks in the paused queue
-		position = CloudletList.getPositionById(getCloudletPausedList(), cloudletId);
-		if (position >= 0) {
-			return getCloudletPausedList().remove(position);
+		cl = CloudletList.getById(getCloudletPausedList(), cloudletId);
+		if (cl != null) {
+			getCloudletPausedList().remove(cl);
+			return cl;
 		}
 
 		// Finally, looks in the waiting list
-		position = CloudletList.getPositionById(getCloudletWaitingList(), cloudletId);
-		if (position >= 0) {
-			return getCloudletWaitingList().remove(position);
+		cl = CloudletList.getById(getCloudletWaitingList(), cloudletId);
+		if (cl != null) {
+			getCloudletWaitingList().remove(cl);
+			return cl;
 		}
 		return null;
 	}
@@ -219,34 +224,26 @@ public abstract class CloudletScheduler {
 	 * @post $none
 	 */
 	public boolean cloudletPause(int cloudletId) {
-		// first, looks for the cloudlet in the exec list
-		int position = CloudletList.getPositionById(getCloudletExecList(), cloudletId);
-		if (position >= 0) {
-			// moves to the paused list
-			Cloudlet cl = getCloudletExecList().remove(position);
-			if (cl.getRemainingCloudletLength() == 0) {
-				cloudletFinish(cl);
-			} else {
-				cl.updateStatus(Cloudlet.CloudletStatus.PAUSED);
-				getCloudletPausedList().add(cl);
+		// first, looks for the cloudlet in the exec list, then in the waiting list
+		Cloudlet cl = CloudletList.getById(getCloudletExecList(), cloudletId);
+		if (cl != null) {
+			getCloudletExecList().remove(cl);
+		} else {
+			cl = CloudletList.getById(getCloudletWaitingList(), cloudletId);
+			if (cl == null) {
+				return false;
 			}
-			return true;
+			getCloudletWaitingList().remove(cl);
 		}
 
-		// now, look for the cloudlet in the waiting list
-		position = CloudletList.getPositionById(getCloudletWaitingList(), cloudletId);
-		if (position >= 0) {
-			// moves to the paused list
-			Cloudlet cl = getCloudletWaitingList().remove(position);
-			if (cl.getRemainingCloudletLength() == 0) {
-				cloudletFinish(cl);
-			} else {
-				cl.updateStatus(Cloudlet.CloudletStatus.PAUSED);
-				getCloudletPausedList().add(cl);
-			}
-			return true;
+		// moves to the paused list
+		if (cl.getRemainingCloudletLength() == 0) {
+			cloudletFinish(cl);
+		} else {
+			cl.updateStatus(Cloudlet.CloudletStatus.PAUSED);
+			getCloudletPausedList().add(cl);
 		}
-		return false;
+		return true;
 	}
 
 	/**
@@ -282,19 +279,15 @@ public abstract class CloudletScheduler {
 	 *
 	 */
 	public Cloudlet.CloudletStatus getCloudletStatus(final int cloudletId) {
-		int position = CloudletList.getPositionById(getCloudletExecList(), cloudletId);
-		if (position >= 0) {
-			return getCloudletExecList().get(position).getStatus();
+		Cloudlet cl = CloudletList.getById(getCloudletExecList(), cloudletId);
+		if (cl == null) {
+			cl = CloudletList.getById(getCloudletPausedList(), cloudletId);
 		}
-
-		position = CloudletList.getPositionById(getCloudletPausedList(), cloudletId);
-		if (position >= 0) {
-			return getCloudletPausedList().get(position).getStatus();
+		if (cl == null) {
+			cl = CloudletList.getById(getCloudletWaitingList(), cloudletId);
 		}
-
-		position = CloudletList.getPositionById(getCloudletWaitingList(), cloudletId);
-		if (position >= 0) {
-			return getCloudletWaitingList().get(position).getStatus();
+		if (cl != null) {
+			return cl.getStatus();
 		}
 
 		throw new RuntimeException("cloudlet doesn't not exist");
@@ -310,7 +303,7 @@ public abstract class CloudletScheduler {
 	 */
 	public boolean isFinishedCloudlets() { return !getCloudletFinishedList().isEmpty(); }
 
-	public List<Double> getCurrentMipsShare() { return currentMipsShare; }
+	public MipsShare getCurrentMipsShare() { return currentMipsShare; }
 
 	/**
 	 * Returns the next cloudlet in the finished list.
@@ -390,17 +383,23 @@ public abstract class CloudletScheduler {
 		return mipsShare;
 	}
 
+	/**
+	 * Adds the current requested mips at the end of a share, without creating a list.
+	 * Subclasses overriding {@link #getCurrentRequestedMips()} have to override it too.
+	 *
+	 * @param mipsShare the share to fill
+	 */
+	public void addCurrentRequestedMips(MipsShare mipsShare) {
+		mipsShare.addAll(currentMipsShare);
+	}
+
 	/**
 	 * Gets the total of the current requested mips.
 	 * 
 	 * @return the current mips
 	 */
 	public double getCurrentRequestedTotalMips() {
-		double mips = 0.0;
-		if (currentMipsShare != null)
-			for (double v : currentMipsShare)
-				mips += v;
-		return mips;
+		return currentMipsShare.getTotalMips();
 	}
 
 	/**
@@ -487,8 +486,12 @@ public abstract class CloudletScheduler {
 	 * @param currentMipsShare the new current mips share
 	 */
 	protected void setCurrentMipsShare(List<Double> currentMipsShare) {
-        currentMipsShare.removeIf(mips -> mips <= 0);
-		this.currentMipsShare = currentMipsShare;
+		if (currentMipsShare instanceof MipsShare share) {
+			share.removeNonPositive();
+		} else {
+			currentMipsShare.removeIf(mips -> mips <= 0);
+		}
+		this.currentMipsShare.setAll(currentMipsShare);
 
 		updateCurrentCapacity();
 	}
@@ -513,22 +516,12 @@ public abstract class CloudletScheduler {
 	 * @return capacity
 	 */
 	public double updateCurrentCapacity() {
-		currentMipsShare.removeIf(mips -> mips <= 0);
+		currentMipsShare.removeNonPositive();
 
-		double capacity = 0;
-		for (Double mips : currentMipsShare) {
-			capacity += mips;
-		}
-
-		int pesInUse = 0;
-		for (Cloudlet cl : getCloudletExecList()) {
-			if (cl.getRemainingCloudletLength() > 0) {
-				pesInUse += cl.getNumberOfPes();
-			}
-		}
+		double capacity = currentMipsShare.getTotalMips();
 
 		int cpus = currentMipsShare.size();
-		capacity /= Math.max(pesInUse, cpus);
+		capacity /= Math.max(getPesInUse(), cpus);
 
 
 		currentCapacity = capacity;
@@ -536,6 +529,21 @@ public abstract class CloudletScheduler {
 		return capacity;
 	}
 
+	/**
+	 * Gets the number of PEs requested by the cloudlets in execution that have not finished yet.
+	 *
+	 * @return the number of PEs in use
+	 */
+	protected int getPesInUse() {
+		int pesInUse = 0;
+		for (Cloudlet cl : getCloudletExecList()) {
+			if (cl.getRemainingCloudletLength() > 0) {
+				pesInUse += cl.getNumberOfPes();
+			}
+		}
+		return pesInUse;
+	}
+
 	@Deprecated
 	protected double getCapacity(List<Double> mipsShare) {
 		setCurrentMipsShare(mipsShare);
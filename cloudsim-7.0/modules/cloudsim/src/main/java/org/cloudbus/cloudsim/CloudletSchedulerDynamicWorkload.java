@@ -132,9 +132,9 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 		if (getCachePreviousTime() == getPreviousTime()) {
 			return getCacheCurrentRequestedMips();
 		}
-		List<Double> currentMips = new ArrayList<>();
+		List<Double> currentMips = new ArrayList<>(getNumberOfPes());
 		double totalMips = getTotalUtilizationOfCpu(getPreviousTime()) * getTotalMips();
-		double mipsForPe = totalMips / getNumberOfPes();
+		Double mipsForPe = totalMips / getNumberOfPes();
 
 		for (int i = 0; i < getNumberOfPes(); i++) {
 			currentMips.add(mipsForPe);
@@ -146,6 +146,11 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 		return currentMips;
 	}
 
+	@Override
+	public void addCurrentRequestedMips(MipsShare mipsShare) {
+		mipsShare.addAll(getCurrentRequestedMips());
+	}
+
 	@Override
 	public double getCurrentRequestedTotalMips() {
 		List<Double> currentMips = getCurrentRequestedMips();
@@ -163,7 +168,16 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 	@Override
 	public double getTotalCurrentAvailableMipsForCloudlet(Cloudlet cl, List<Double> mipsShare) {
 		double totalCurrentMips = 0.0;
-		if (mipsShare != null) {
+		if (mipsShare instanceof MipsShare share) {
+			int neededPEs = cl.getNumberOfPes();
+			for (int i = 0; i < share.size(); i++) {
+				totalCurrentMips += share.getMips(i);
+				neededPEs--;
+				if (neededPEs <= 0) {
+					break;
+				}
+			}
+		} else if (mipsShare != null) {
 			int neededPEs = cl.getNumberOfPes();
 			for (double mips : mipsShare) {
 				totalCurrentMips += mips;
@@ -218,11 +232,7 @@ public class CloudletSchedulerDynamicWorkload extends CloudletSchedulerTimeShare
 	 * @return the total current mips
 	 */
 	public double getTotalCurrentMips() {
-		double totalCurrentMips = 0;
-		for (double mips : getCurrentMipsShare()) {
-			totalCurrentMips += mips;
-		}
-		return totalCurrentMips;
+		return getCurrentMipsShare().getTotalMips();
 	}
 
 	/**
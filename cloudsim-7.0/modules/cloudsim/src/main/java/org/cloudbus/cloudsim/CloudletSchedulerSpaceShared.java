@@ -68,9 +68,9 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 	@Override
 	public double cloudletResume(int cloudletId) {
 		// look for the cloudlet in the paused list
-		int position = CloudletList.getPositionById(getCloudletPausedList(), cloudletId);
-		if (position >= 0) {
-			Cloudlet cl = getCloudletPausedList().remove(position);
+		Cloudlet cl = CloudletList.getById(getCloudletPausedList(), cloudletId);
+		if (cl != null) {
+			getCloudletPausedList().remove(cl);
 
 			// it can go to the exec list
 			if ((getCurrentPEs() - usedPes) >= cl.getNumberOfPes()) {
@@ -0,0 +1,251 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.lists.CloudletList;
+
+/**
+ * A {@link CloudletSchedulerTimeShared time-shared} scheduler for VMs running many cloudlets.
+ * In a time-shared VM, every PE of every running cloudlet executes the same number of
+ * instructions, so the scheduler only accumulates that number (the virtual time) on each update,
+ * instead of updating every cloudlet. The running cloudlets are kept in a queue sorted by the
+ * virtual time at which they finish, so an update only touches the cloudlets that finish.
+ * <p/>
+ * The progress of the running cloudlets, as given by {@link Cloudlet#getCloudletFinishedSoFar()},
+ * is only written back when they leave the execution list, or when
+ * {@link #updateCloudletsFinishedSoFar()} is called. The cloudlets are not
+ * {@link Cloudlet#updateCloudlet(Object) updated} on every update either, so this scheduler is
+ * meant for cloudlets that do not need it.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class CloudletSchedulerTimeSharedVirtualTime extends CloudletSchedulerTimeShared {
+
+	/**
+	 * The tolerance, in instructions per PE, below which a cloudlet is considered to have
+	 * reached its finish virtual time.
+	 */
+	private static final double FINISH_TOLERANCE = 1.0;
+
+	/** The number of instructions executed so far by each PE of a running cloudlet. */
+	private double virtualTime;
+
+	/** The running cloudlets, sorted by the virtual time at which they finish. */
+	private final TreeSet<Execution> finishQueue = new TreeSet<>();
+
+	/** The running cloudlets, with their execution in the queue. */
+	private final Map<Cloudlet, Execution> executions = new HashMap<>();
+
+	/** The number of cloudlets that started running, to keep their order in the execution list. */
+	private long executionCount;
+
+	/** The number of PEs requested by the running cloudlets that have not finished. */
+	private int pesInUse;
+
+	/**
+	 * Creates a new CloudletSchedulerTimeSharedVirtualTime object.
+	 */
+	public CloudletSchedulerTimeSharedVirtualTime() {
+		super();
+	}
+
+	@Override
+	public double updateCloudletsProcessing(double currentTime, List<Double> mipsShare) {
+		setCurrentMipsShare(mipsShare);
+
+		double timeSpan = currentTime - getPreviousTime(); // time since last update
+		virtualTime += timeSpan * getCurrentCapacity() * Consts.MILLION;
+
+		// Remove finished cloudlets, in the order of the execution list
+		List<Execution> finished = new ArrayList<>();
+		while (!finishQueue.isEmpty() && finishQueue.first().finishVirtualTime <= virtualTime + FINISH_TOLERANCE) {
+			finished.add(untrack(finishQueue.first().cloudlet));
+		}
+		if (!finished.isEmpty()) {
+			finished.sort((a, b) -> Long.compare(a.order, b.order));
+			for (Execution execution : finished) {
+				Cloudlet cl = execution.cloudlet;
+				if (!cl.isFinished()) {
+					cl.setCloudletFinishedSoFar(cl.getCloudletTotalLength() * Consts.MILLION);
+				}
+				cloudletJustFinishedList.add(cl);
+				cloudletFinish(cl);
+				getCloudletExecList().remove(cl);
+			}
+		}
+
+		if (getCloudletExecList().isEmpty() && getCloudletWaitingList().isEmpty()) {
+			setPreviousTime(currentTime);
+			return 0.0;
+		}
+
+		// Update cloudlets in waiting list, if any
+		updateWaitingCloudlets(currentTime, null);
+		cloudletJustFinishedList.clear();
+
+		// the first cloudlet of the queue is the next to finish, at the capacity left to the others
+		double nextEvent = Double.MAX_VALUE;
+		double rate = updateCurrentCapacity() * Consts.MILLION;
+		if (!finishQueue.isEmpty() && rate > 0) {
+			nextEvent = currentTime + (finishQueue.first().finishVirtualTime - virtualTime) / rate;
+			if (nextEvent - currentTime < CloudSim.getMinTimeBetweenEvents()) {
+				nextEvent = currentTime + CloudSim.getMinTimeBetweenEvents();
+			}
+		}
+
+		setPreviousTime(currentTime);
+		return nextEvent;
+	}
+
+	@Override
+	public double cloudletSubmit(Cloudlet cl, double fileTransferTime) {
+		double estimatedFinishTime = super.cloudletSubmit(cl, fileTransferTime);
+		track(cl);
+		return estimatedFinishTime;
+	}
+
+	@Override
+	public double cloudletResume(int cloudletId) {
+		Cloudlet cl = CloudletList.getById(getCloudletPausedList(), cloudletId);
+		double estimatedFinishTime = super.cloudletResume(cloudletId);
+		if (cl != null) {
+			track(cl);
+		}
+		return estimatedFinishTime;
+	}
+
+	@Override
+	public Cloudlet cloudletCancel(final int cloudletId) {
+		Cloudlet cl = CloudletList.getById(getCloudletExecList(), cloudletId);
+		if (cl != null) {
+			untrack(cl);
+		}
+		return super.cloudletCancel(cloudletId);
+	}
+
+	@Override
+	public boolean cloudletPause(int cloudletId) {
+		Cloudlet cl = CloudletList.getById(getCloudletExecList(), cloudletId);
+		if (cl != null) {
+			untrack(cl);
+		}
+		return super.cloudletPause(cloudletId);
+	}
+
+	@Override
+	public Cloudlet migrateCloudlet() {
+		if (!getCloudletExecList().isEmpty()) {
+			untrack(getCloudletExecList().getFirst());
+		}
+		return super.migrateCloudlet();
+	}
+
+	@Override
+	public double getEstimatedFinishTime(Cloudlet cl, double time) {
+		Execution execution = executions.get(cl);
+		if (execution != null) {
+			execution.writeBack(virtualTime);
+		}
+		return super.getEstimatedFinishTime(cl, time);
+	}
+
+	/**
+	 * Writes back the progress of the running cloudlets, as of the last update.
+	 */
+	public void updateCloudletsFinishedSoFar() {
+		for (Execution execution : executions.values()) {
+			execution.writeBack(virtualTime);
+		}
+	}
+
+	@Override
+	protected int getPesInUse() {
+		return pesInUse;
+	}
+
+	/**
+	 * Adds a cloudlet that started running to the finish queue.
+	 *
+	 * @param cl the cloudlet
+	 */
+	private void track(Cloudlet cl) {
+		Execution execution = new Execution(cl, virtualTime, executionCount++);
+		executions.put(cl, execution);
+		finishQueue.add(execution);
+		pesInUse += execution.pesInUse;
+	}
+
+	/**
+	 * Removes a cloudlet that stops running from the finish queue, writing back its progress.
+	 *
+	 * @param cl the cloudlet
+	 * @return the execution of the cloudlet, or null if it was not running
+	 */
+	private Execution untrack(Cloudlet cl) {
+		Execution execution = executions.remove(cl);
+		if (execution != null) {
+			finishQueue.remove(execution);
+			pesInUse -= execution.pesInUse;
+			execution.writeBack(virtualTime);
+		}
+		return execution;
+	}
+
+	/**
+	 * The execution of a cloudlet since it started running.
+	 */
+	private static class Execution implements Comparable<Execution> {
+
+		/** The cloudlet. */
+		final Cloudlet cloudlet;
+
+		/** The position of the cloudlet in the execution list, relatively to the others. */
+		final long order;
+
+		/** The virtual time when the cloudlet started running. */
+		final double startVirtualTime;
+
+		/** The instructions the cloudlet had already executed when it started running. */
+		final long startFinishedSoFar;
+
+		/** The virtual time at which the cloudlet finishes. */
+		final double finishVirtualTime;
+
+		/** The PEs the cloudlet counts in the capacity sharing. */
+		final int pesInUse;
+
+		Execution(Cloudlet cloudlet, double virtualTime, long order) {
+			this.cloudlet = cloudlet;
+			this.order = order;
+			startVirtualTime = virtualTime;
+			startFinishedSoFar = cloudlet.getCloudletFinishedSoFar();
+			pesInUse = cloudlet.getRemainingCloudletLength() > 0 ? cloudlet.getNumberOfPes() : 0;
+			long instructions = cloudlet.getCloudletTotalLength() * Consts.MILLION - startFinishedSoFar;
+			finishVirtualTime = startVirtualTime + Math.max(instructions, 0) / (double) cloudlet.getNumberOfPes();
+		}
+
+		void writeBack(double virtualTime) {
+			cloudlet.setCloudletFinishedSoFar(startFinishedSoFar
+					+ (long) ((virtualTime - startVirtualTime) * cloudlet.getNumberOfPes()));
+		}
+
+		@Override
+		public int compareTo(Execution other) {
+			int result = Double.compare(finishVirtualTime, other.finishVirtualTime);
+			return result != 0 ? result : Long.compare(order, other.order);
+		}
+	}
+}
@@ -8,8 +8,12 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.cloudbus.cloudsim.VmAllocationPolicy.GuestMapping;
 import org.cloudbus.cloudsim.core.*;
@@ -53,6 +57,19 @@ public class Datacenter extends SimEntity {
 	/** The scheduling delay to process each datacenter received event. */
 	private double schedulingInterval;
 
+	/** The hosts that may have cloudlets to process or to return, by position in the host list. */
+	private final BitSet activeHosts = new BitSet();
+
+	/** The idle hosts skipped by {@link #updateCloudletProcessing()} since they were last updated. */
+	private final BitSet staleHosts = new BitSet();
+
+	/** The positions of the hosts in the host list of the allocation policy. */
+	private Map<HostEntity, Integer> hostPositions;
+
+	/** The host list the {@link #hostPositions} were computed for, and its size at the time. */
+	private List<HostEntity> positionedHosts;
+	private int positionedHostCount;
+
 	/**
 	 * Allocates a new Datacenter object.
 	 * 
@@ -121,6 +138,7 @@ public class Datacenter extends SimEntity {
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public void processEvent(SimEvent ev) {
 		int srcId = -1;
 		CloudSimTags tag = ev.getTag();
@@ -151,6 +169,10 @@ public class Datacenter extends SimEntity {
         } else if (tag == CloudActionTags.CLOUDLET_SUBMIT_ACK) {
             processCloudletSubmit(ev, true);
 
+            // Several new Cloudlets arrive at once
+        } else if (tag == CloudActionTags.CLOUDLET_SUBMIT_BATCH) {
+            processCloudletSubmitBatch((List<? extends Cloudlet>) ev.getData());
+
             // Cancels a previously submitted Cloudlet
         } else if (tag == CloudActionTags.CLOUDLET_CANCEL) {
             processCloudlet(ev, CloudActionTags.CLOUDLET_CANCEL);
@@ -481,6 +503,7 @@ public class Datacenter extends SimEntity {
 
 		// @TODO: what happens to the vmId / containerId of the cloudlets hosted on the Vm?
 		// create VM in dest host
+		activateHost(host);
 		boolean result = getVmAllocationPolicy().allocateHostForGuest(vm, host);
 		if (!result) {
 			Log.println("[Datacenter.processVmMigrate] VM allocation to the destination host failed");
@@ -596,12 +619,14 @@ public class Datacenter extends SimEntity {
 
 			// the cloudlet will migrate from one vm to another does the destination VM exist?
 			if (destId == getId()) {
-				GuestEntity vm = getVmAllocationPolicy().getHost(vmDestId, userId).getGuest(vmDestId,userId);
+				HostEntity host = getVmAllocationPolicy().getHost(vmDestId, userId);
+				GuestEntity vm = host.getGuest(vmDestId,userId);
 				if (vm == null) {
 					failed = true;
 				} else {
+					activateHost(host);
 					// time to transfer the files
-					double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
+					double fileTransferTime = cl.requiresFiles() ? predictFileTransferTime(cl.getRequiredFiles()) : 0;
 					vm.getCloudletScheduler().cloudletSubmit(cl, fileTransferTime);
 				}
 			} else {// the cloudlet will migrate from one resource to another
@@ -641,75 +666,147 @@ public class Datacenter extends SimEntity {
 			// gets the Cloudlet object
 			Cloudlet cl = (Cloudlet) ev.getData();
 
-			// checks whether this Cloudlet has finished or not
-			if (cl.isFinished()) {
-				String name = CloudSim.getEntityName(cl.getUserId());
-				Log.printlnConcat(getName(), ": Warning - ",cl.getClass().getSimpleName()," #", cl.getCloudletId(), " owned by ", name,
-						" is already completed/finished.");
-				Log.println("Therefore, it is not being executed again");
-				Log.println();
-
-				// NOTE: If a Cloudlet has finished, then it won't be processed.
-				// So, if ack is required, this method sends back a result.
-				// If ack is not required, this method don't send back a result.
-				// Hence, this might cause CloudSim to be hanged since waiting
-				// for this Cloudlet back.
-				if (ack) {
-					int[] data = new int[3];
-					data[0] = getId();
-					data[1] = cl.getCloudletId();
-					data[2] = CloudSimTags.FALSE;
-
-					sendNow(cl.getUserId(), CloudActionTags.CLOUDLET_SUBMIT_ACK, data);
-				}
-
-				sendNow(cl.getUserId(), CloudActionTags.CLOUDLET_RETURN, cl);
-
-				return;
+			activateHost(getVmAllocationPolicy().getHost(cl.getGuestId(), cl.getUserId()));
+			double delay = submitCloudlet(cl, ack);
+			if (delay > 0.0) {
+				send(getId(), delay, CloudActionTags.VM_DATACENTER_EVENT);
 			}
+		} catch (ClassCastException c) {
+			Log.printlnConcat(getName(), ".processCloudletSubmit(): ", "ClassCastException error.");
+			c.printStackTrace();
+		} catch (Exception e) {
+			Log.printlnConcat(getName(), ".processCloudletSubmit(): ", "Exception error.");
+			e.printStackTrace();
+		}
 
-			// process this Cloudlet to this CloudResource
-			cl.setResourceParameter(getId(), getCharacteristics().getCostPerSecond(),
-                                getCharacteristics().getCostPerBw());
-
-			int userId = cl.getUserId();
-			int vmId = cl.getGuestId();
+		checkCloudletCompletion();
+	}
 
-			// time to transfer the files
-			double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
+	/**
+	 * Processes the submission of several Cloudlets at once, sent with
+	 * {@link CloudActionTags#CLOUDLET_SUBMIT_BATCH}. The hosts are updated once before the
+	 * batch and checked for finished Cloudlets once after it, instead of once per Cloudlet.
+	 * Rather than a {@link CloudActionTags#VM_DATACENTER_EVENT} for the estimated finish time of
+	 * each Cloudlet, the next finish time of each host the batch touched is estimated once all
+	 * the Cloudlets are submitted, and a single event is scheduled at the earliest one: the
+	 * processing of that event schedules the next one, as {@link #updateCloudletProcessing()}
+	 * always does.
+	 * <p/>
+	 * Subclasses that customise {@link #processCloudletSubmit(SimEvent, boolean)} have to
+	 * customise this method the same way.
+	 *
+	 * @param cloudlets the submitted Cloudlets
+	 * @pre cloudlets != null
+	 * @post $none
+	 */
+	protected void processCloudletSubmitBatch(List<? extends Cloudlet> cloudlets) {
+		updateCloudletProcessing();
 
-			HostEntity host = getVmAllocationPolicy().getHost(vmId, userId);
-			GuestEntity vm = host.getGuest(vmId, userId);
-			CloudletScheduler scheduler = vm.getCloudletScheduler();
-			double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);
+		List<HostEntity> hostList = getVmAllocationPolicy().getHostList();
+		BitSet touchedHosts = new BitSet(hostList.size());
+		for (Cloudlet cl : cloudlets) {
+			try {
+				HostEntity host = getVmAllocationPolicy().getHost(cl.getGuestId(), cl.getUserId());
+				activateHost(host);
+				submitCloudlet(cl, false);
+				Integer position = host == null ? null : hostPositions.get(host);
+				if (position != null) {
+					touchedHosts.set(position);
+				}
+			} catch (Exception e) {
+				Log.printlnConcat(getName(), ".processCloudletSubmitBatch(): ", "Exception error.");
+				e.printStackTrace();
+			}
+		}
 
-			// if this cloudlet is in the exec queue
-			if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
-				estimatedFinishTime += fileTransferTime;
-				send(getId(), estimatedFinishTime, CloudActionTags.VM_DATACENTER_EVENT);
+		double smallerTime = Double.MAX_VALUE;
+		for (int i = touchedHosts.nextSetBit(0); i >= 0; i = touchedHosts.nextSetBit(i + 1)) {
+			// no time passed: the host only estimates when its next cloudlet will finish
+			double time = hostList.get(i).updateCloudletsProcessing(CloudSim.clock());
+			if (time < smallerTime) {
+				smallerTime = time;
 			}
-			/*else {
-				Log.printlnConcat(CloudSim.clock(), ": [",getName(), "]: Warning - ", cl.getClass().getSimpleName()," #", cl.getCloudletId(),
-						" is paused because not enough free PEs on ", vm.getClassName(), " #", vm.getId());
-			}*/
+		}
+		if (smallerTime != Double.MAX_VALUE && !Double.isInfinite(smallerTime)) {
+			// gurantees a minimal interval before scheduling the event
+			smallerTime = Math.max(smallerTime, CloudSim.clock() + CloudSim.getMinTimeBetweenEvents() + 0.01);
+			send(getId(), smallerTime - CloudSim.clock(), CloudActionTags.VM_DATACENTER_EVENT);
+		}
+
+		checkCloudletCompletion();
+	}
 
+	/**
+	 * Submits a Cloudlet to the scheduler of its VM, or returns it right away if it has
+	 * already finished.
+	 *
+	 * @param cl the Cloudlet
+	 * @param ack indicates if the sender expects to receive an acknowledge message
+	 * @return the delay after which the Cloudlet is expected to finish, or 0 if it is not
+	 *         in execution
+	 */
+	protected double submitCloudlet(Cloudlet cl, boolean ack) {
+		// checks whether this Cloudlet has finished or not
+		if (cl.isFinished()) {
+			String name = CloudSim.getEntityName(cl.getUserId());
+			Log.printlnConcat(getName(), ": Warning - ",cl.getClass().getSimpleName()," #", cl.getCloudletId(), " owned by ", name,
+					" is already completed/finished.");
+			Log.println("Therefore, it is not being executed again");
+			Log.println();
+
+			// NOTE: If a Cloudlet has finished, then it won't be processed.
+			// So, if ack is required, this method sends back a result.
+			// If ack is not required, this method don't send back a result.
+			// Hence, this might cause CloudSim to be hanged since waiting
+			// for this Cloudlet back.
 			if (ack) {
 				int[] data = new int[3];
 				data[0] = getId();
 				data[1] = cl.getCloudletId();
-				data[2] = CloudSimTags.TRUE;
+				data[2] = CloudSimTags.FALSE;
 
 				sendNow(cl.getUserId(), CloudActionTags.CLOUDLET_SUBMIT_ACK, data);
 			}
-		} catch (ClassCastException c) {
-			Log.printlnConcat(getName(), ".processCloudletSubmit(): ", "ClassCastException error.");
-			c.printStackTrace();
-		} catch (Exception e) {
-			Log.printlnConcat(getName(), ".processCloudletSubmit(): ", "Exception error.");
-			e.printStackTrace();
+
+			sendNow(cl.getUserId(), CloudActionTags.CLOUDLET_RETURN, cl);
+
+			return 0.0;
 		}
 
-		checkCloudletCompletion();
+		// process this Cloudlet to this CloudResource
+		cl.setResourceParameter(getId(), getCharacteristics().getCostPerSecond(),
+                            getCharacteristics().getCostPerBw());
+
+		int userId = cl.getUserId();
+		int vmId = cl.getGuestId();
+
+		// time to transfer the files
+		double fileTransferTime = cl.requiresFiles() ? predictFileTransferTime(cl.getRequiredFiles()) : 0;
+
+		HostEntity host = getVmAllocationPolicy().getHost(vmId, userId);
+		GuestEntity vm = host.getGuest(vmId, userId);
+		CloudletScheduler scheduler = vm.getCloudletScheduler();
+		double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);
+
+		double delay = 0.0;
+		// if this cloudlet is in the exec queue
+		if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
+			delay = estimatedFinishTime + fileTransferTime;
+		}
+		/*else {
+			Log.printlnConcat(CloudSim.clock(), ": [",getName(), "]: Warning - ", cl.getClass().getSimpleName()," #", cl.getCloudletId(),
+					" is paused because not enough free PEs on ", vm.getClassName(), " #", vm.getId());
+		}*/
+
+		if (ack) {
+			int[] data = new int[3];
+			data[0] = getId();
+			data[1] = cl.getCloudletId();
+			data[2] = CloudSimTags.TRUE;
+
+			sendNow(cl.getUserId(), CloudActionTags.CLOUDLET_SUBMIT_ACK, data);
+		}
+		return delay;
 	}
 
 	/**
@@ -747,7 +844,9 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletResume(int cloudletId, int userId, int vmId, boolean ack) {
-		double eventTime = getVmAllocationPolicy().getHost(vmId, userId).getGuest(vmId,userId)
+		HostEntity host = getVmAllocationPolicy().getHost(vmId, userId);
+		activateHost(host);
+		double eventTime = host.getGuest(vmId,userId)
 				.getCloudletScheduler().cloudletResume(cloudletId);
 
 		boolean status = false;
@@ -812,6 +911,9 @@ public class Datacenter extends SimEntity {
 	 * Updates processing of each cloudlet running in this Datacenter. It is necessary because
 	 * Hosts and VirtualMachines are simple objects, not sim entities. So, they don't receive events and
 	 * updating cloudlets inside them must be called from the outside.
+	 * <p/>
+	 * Only the {@link #activateHost(HostEntity) active hosts} are updated: an idle host has no
+	 * cloudlet to process and no next event, so it is brought up to date when it gets some work.
 	 * 
 	 * @pre $none
 	 * @post $none
@@ -821,15 +923,19 @@ public class Datacenter extends SimEntity {
 		// R: for term is to allow loop at simulation start. Otherwise, one initial
 		// simulation step is skipped and schedulers are not properly initialized
 		if (CloudSim.clock() < 0.111 || CloudSim.clock() >= getLastProcessTime() + CloudSim.getMinTimeBetweenEvents()) {
+			List<HostEntity> hostList = getVmAllocationPolicy().getHostList();
+			updateHostPositions(hostList);
 			double smallerTime = Double.MAX_VALUE;
-			for (HostEntity host : getVmAllocationPolicy().getHostList()) {
+			for (int i = activeHosts.nextSetBit(0); i >= 0; i = activeHosts.nextSetBit(i + 1)) {
 				// inform VMs to update processing
-				double time = host.updateCloudletsProcessing(CloudSim.clock());
+				double time = hostList.get(i).updateCloudletsProcessing(CloudSim.clock());
 				// what time do we expect that the next cloudlet will finish?
 				if (time < smallerTime) {
 					smallerTime = time;
 				}
 			}
+			staleHosts.set(0, hostList.size());
+			staleHosts.andNot(activeHosts);
 			// gurantees a minimal interval before scheduling the event
 			if (smallerTime < CloudSim.clock() + CloudSim.getMinTimeBetweenEvents() + 0.01) {
 				smallerTime = CloudSim.clock() + CloudSim.getMinTimeBetweenEvents() + 0.01;
@@ -843,24 +949,107 @@ public class Datacenter extends SimEntity {
 
 	/**
 	 * Verifies if some cloudlet inside this Datacenter already finished. 
-         * If yes, send it to the User/Broker
+         * If yes, send it to the User/Broker. The active hosts left without any cloudlet become idle,
+         * except the {@link HostDynamicWorkload} ones, which record their state history on every
+         * update.
 	 * 
 	 * @pre $none
 	 * @post $none
 	 */
 	protected void checkCloudletCompletion() {
-		for (HostEntity host : getVmAllocationPolicy().getHostList()) {
-			for (GuestEntity vm : host.getGuestList()) {
-				while (vm.getCloudletScheduler().isFinishedCloudlets()) {
-					Cloudlet cl = vm.getCloudletScheduler().getNextFinishedCloudlet();
-					if (cl != null) {
-						sendNow(cl.getUserId(), CloudActionTags.CLOUDLET_RETURN, cl);
-					}
+		List<HostEntity> hostList = getVmAllocationPolicy().getHostList();
+		updateHostPositions(hostList);
+		for (int i = activeHosts.nextSetBit(0); i >= 0; i = activeHosts.nextSetBit(i + 1)) {
+			HostEntity host = hostList.get(i);
+			returnFinishedCloudlets(host);
+			if (!(host instanceof HostDynamicWorkload) && isIdle(host)) {
+				activeHosts.clear(i);
+			}
+		}
+	}
+
+	/**
+	 * Sends the cloudlets of a host that already finished to their User/Broker.
+	 *
+	 * @param host the host
+	 */
+	protected void returnFinishedCloudlets(HostEntity host) {
+		for (GuestEntity vm : host.getGuestList()) {
+			while (vm.getCloudletScheduler().isFinishedCloudlets()) {
+				Cloudlet cl = vm.getCloudletScheduler().getNextFinishedCloudlet();
+				if (cl != null) {
+					sendNow(cl.getUserId(), CloudActionTags.CLOUDLET_RETURN, cl);
 				}
 			}
 		}
 	}
 
+	/**
+	 * Marks a host as active, before some cloudlet is submitted to one of its guests or one of
+	 * its guests arrives. If the host was skipped by {@link #updateCloudletProcessing()} while it
+	 * was idle, it is first updated at the last process time, as it would have been if it had
+	 * not been skipped.
+	 *
+	 * @param host the host, or null
+	 */
+	protected void activateHost(HostEntity host) {
+		if (host == null) {
+			return;
+		}
+		updateHostPositions(getVmAllocationPolicy().getHostList());
+		Integer position = hostPositions.get(host);
+		if (position == null) {
+			return;
+		}
+		if (staleHosts.get(position)) {
+			host.updateCloudletsProcessing(getLastProcessTime());
+			staleHosts.clear(position);
+		}
+		activeHosts.set(position);
+	}
+
+	/**
+	 * Checks if a host has no cloudlet at all in its (possibly nested) guests.
+	 *
+	 * @param host the host
+	 * @return true if the host is idle
+	 */
+	private static boolean isIdle(HostEntity host) {
+		for (GuestEntity guest : host.getGuestList()) {
+			CloudletScheduler scheduler = guest.getCloudletScheduler();
+			if (scheduler != null && (!scheduler.getCloudletExecList().isEmpty()
+					|| !scheduler.getCloudletWaitingList().isEmpty()
+					|| !scheduler.getCloudletPausedList().isEmpty()
+					|| !scheduler.getCloudletFinishedList().isEmpty())) {
+				return false;
+			}
+			if (guest instanceof HostEntity nestedHost && !isIdle(nestedHost)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Computes the positions of the hosts, if the host list changed.
+	 *
+	 * @param hostList the host list of the allocation policy
+	 */
+	private void updateHostPositions(List<HostEntity> hostList) {
+		if (positionedHosts == hostList && positionedHostCount == hostList.size()) {
+			return;
+		}
+		hostPositions = new HashMap<>();
+		for (int i = 0; i < hostList.size(); i++) {
+			hostPositions.put(hostList.get(i), i);
+		}
+		positionedHosts = hostList;
+		positionedHostCount = hostList.size();
+		// the hosts may have moved: update all of them until they are found idle again
+		activeHosts.set(0, hostList.size());
+		staleHosts.clear();
+	}
+
 	/**
 	 * Adds a file into the resource's storage before the experiment starts.
 	 * If the file is a master file, then it will be registered to the RC
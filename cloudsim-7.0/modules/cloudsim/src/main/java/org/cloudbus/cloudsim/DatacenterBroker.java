@@ -10,12 +10,15 @@ package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.core.*;
 import org.cloudbus.cloudsim.lists.CloudletList;
+import org.cloudbus.cloudsim.lists.IndexedCloudletList;
 import org.cloudbus.cloudsim.lists.VmList;
 
 /**
@@ -76,6 +79,9 @@ public class DatacenterBroker extends SimEntity {
 	/** Next guest to which send the cloudlet */
 	private int guestIndex = 0;
 
+	/** Indicates if the cloudlets are sent to each datacenter in a single event. */
+	private boolean batchCloudletSubmission = false;
+
 	/**
 	 * Created a new DatacenterBroker object.
 	 * 
@@ -89,7 +95,7 @@ public class DatacenterBroker extends SimEntity {
 
 		setGuestList(new ArrayList<>());
 		setGuestsCreatedList(new ArrayList<>());
-		setCloudletList(new ArrayList<>());
+		setCloudletList(new IndexedCloudletList<>());
 		setCloudletSubmittedList(new ArrayList<>());
 		setCloudletReceivedList(new ArrayList<>());
 
@@ -133,6 +139,24 @@ public class DatacenterBroker extends SimEntity {
 		getCloudletList().addAll(list);
 	}
 
+	/**
+	 * Sets if the cloudlets are sent to each datacenter in a single
+	 * {@link CloudActionTags#CLOUDLET_SUBMIT_BATCH} event, which lets the datacenter update its
+	 * hosts once for all of them, instead of one {@link CloudActionTags#CLOUDLET_SUBMIT} event
+	 * per cloudlet. The datacenter then schedules one internal event per distinct estimated
+	 * finish time instead of one per cloudlet, so that the cloudlets run as they would if
+	 * they were submitted one by one.
+	 *
+	 * @param batchCloudletSubmission true to submit the cloudlets in batches
+	 */
+	public void setBatchCloudletSubmission(boolean batchCloudletSubmission) {
+		this.batchCloudletSubmission = batchCloudletSubmission;
+	}
+
+	public boolean isBatchCloudletSubmission() {
+		return batchCloudletSubmission;
+	}
+
 	/**
 	 * Specifies that a given cloudlet must run in a specific virtual machine.
 	 * 
@@ -353,6 +377,7 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected void submitCloudlets() {
 		List<Cloudlet> successfullySubmitted = new ArrayList<>();
+		Map<Integer, List<Cloudlet>> batches = new LinkedHashMap<>();
 		for (Cloudlet cloudlet : getCloudletList()) {
 			GuestEntity vm;
 			// if user didn't bind this cloudlet and it has not been executed yet
@@ -382,15 +407,24 @@ public class DatacenterBroker extends SimEntity {
 			}
 			
 			cloudlet.setGuestId(vm.getId());
-			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudActionTags.CLOUDLET_SUBMIT, cloudlet);
+			int datacenterId = getVmsToDatacentersMap().get(vm.getId());
+			if (isBatchCloudletSubmission()) {
+				batches.computeIfAbsent(datacenterId, id -> new ArrayList<>()).add(cloudlet);
+			} else {
+				sendNow(datacenterId, CloudActionTags.CLOUDLET_SUBMIT, cloudlet);
+			}
 			cloudletsSubmitted++;
 			guestIndex = (guestIndex + 1) % getGuestsCreatedList().size();
 			getCloudletSubmittedList().add(cloudlet);
 			successfullySubmitted.add(cloudlet);
 		}
 
+		for (Map.Entry<Integer, List<Cloudlet>> batch : batches.entrySet()) {
+			sendNow(batch.getKey(), CloudActionTags.CLOUDLET_SUBMIT_BATCH, batch.getValue());
+		}
+
 		// remove submitted cloudlets from waiting list
-		getCloudletList().removeAll(successfullySubmitted);
+		getCloudletList().removeAll(new HashSet<>(successfullySubmitted));
 	}
 
 	/**
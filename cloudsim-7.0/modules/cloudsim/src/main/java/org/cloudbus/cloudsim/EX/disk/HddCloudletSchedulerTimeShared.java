@@ -347,11 +347,11 @@ public class HddCloudletSchedulerTimeShared extends CloudletSchedulerTimeShared
      */
     @Override
     public boolean cloudletPause(final int cloudletId) {
-        int position = CloudletList.getPositionById(getCloudletExecList(), cloudletId);
+        HddCloudlet cl = CloudletList.getById(this.<HddCloudlet> getCloudletExecList(), cloudletId);
 
-        if (position >= 0) {
+        if (cl != null) {
             // remove cloudlet from the exec list and put it in the paused list
-            HddCloudlet cl = this.<HddCloudlet> getCloudletExecList().remove(position);
+            getCloudletExecList().remove(cl);
             if (cl.isDone()) {
                 cloudletFinish(cl);
             } else {
@@ -375,10 +375,10 @@ public class HddCloudletSchedulerTimeShared extends CloudletSchedulerTimeShared
     // Changed
     @Override
     public double cloudletResume(final int cloudletId) {
-        int position = CloudletList.getPositionById(getCloudletPausedList(), cloudletId);
+        HddCloudlet cl = CloudletList.getById(this.<HddCloudlet> getCloudletPausedList(), cloudletId);
 
-        if (position >= 0) {
-            HddCloudlet cl = this.<HddCloudlet> getCloudletPausedList().remove(position);
+        if (cl != null) {
+            getCloudletPausedList().remove(cl);
             cl.updateStatus(Cloudlet.CloudletStatus.INEXEC);
             getCloudletExecList().add(cl);
 
@@ -54,42 +54,73 @@ public class HddDataCenter extends DatacenterEX {
     @Override
     protected void processCloudletSubmit(final SimEvent ev, final boolean ack) {
         try {
-            HddCloudlet cl = (HddCloudlet) ev.getData();
+            if (admitCloudlet((HddCloudlet) ev.getData())) {
+                super.processCloudletSubmit(ev, ack);
+            }
+        } catch (Exception e) {
+            CustomLog.logError(Level.SEVERE, "An error occurred when processing cloudlet sbmission", e);
+        }
+    }
 
-            int userId = cl.getUserId();
-            int vmId = cl.getGuestId();
+    /**
+     * Checks the cloudlets of a batch as {@link #processCloudletSubmit(SimEvent, boolean)} does.
+     * Admitting a cloudlet that fits has no side effect, so the cloudlets of a single submission
+     * can safely be checked again here.
+     */
+    @Override
+    protected double submitCloudlet(final Cloudlet cloudlet, final boolean ack) {
+        try {
+            if (!admitCloudlet((HddCloudlet) cloudlet)) {
+                return 0.0;
+            }
+        } catch (Exception e) {
+            CustomLog.logError(Level.SEVERE, "An error occurred when processing cloudlet sbmission", e);
+            return 0.0;
+        }
+        return super.submitCloudlet(cloudlet, ack);
+    }
 
-            HddHost host = (HddHost) getVmAllocationPolicy().getHost(vmId, userId);
-            HddVm vm = (HddVm) host.getGuest(vmId, userId);
-            HddCloudletSchedulerTimeShared scheduler = vm.getCloudletScheduler();
+    /**
+     * Checks if the VM of a cloudlet has enough RAM to run it. If not, the cloudlet is failed, and
+     * so are the cloudlets of the VM if it has just run out of memory.
+     * 
+     * @param cl the cloudlet
+     * @return if the cloudlet can be submitted to its VM
+     * @throws Exception if the cloudlet cannot be failed
+     */
+    private boolean admitCloudlet(final HddCloudlet cl) throws Exception {
+        int userId = cl.getUserId();
+        int vmId = cl.getGuestId();
 
-            if (!vm.isOutOfMemory()) {
-                List<HddCloudlet> cloudletExecList = scheduler.getCloudletExecList();
+        HddHost host = (HddHost) getVmAllocationPolicy().getHost(vmId, userId);
+        HddVm vm = (HddVm) host.getGuest(vmId, userId);
+        HddCloudletSchedulerTimeShared scheduler = vm.getCloudletScheduler();
 
-                int vmUsedRam = 0;
-                for (HddCloudlet hddCl : cloudletExecList) {
-                    vmUsedRam += (int) hddCl.getRam();
-                }
+        if (!vm.isOutOfMemory()) {
+            List<HddCloudlet> cloudletExecList = scheduler.getCloudletExecList();
 
-                // If we have used all of the resources of this VM
-                if (vmUsedRam + cl.getRam() > vm.getRam()) {
-                    scheduler.failAllCloudlets();
-                    scheduler.addFailedCloudlet(cl);
-                    vm.setOutOfMemory(true);
+            int vmUsedRam = 0;
+            for (HddCloudlet hddCl : cloudletExecList) {
+                vmUsedRam += (int) hddCl.getRam();
+            }
 
-                    CustomLog.printf("VM/Server %d on host %d in data center %s(%d) is out of memory. "
-                            + "It will not be further available", vm.getId(), host.getId(), getName(), getId());
-                } else {
-                    super.processCloudletSubmit(ev, ack);
-                }
-            } else {
+            // If we have used all of the resources of this VM
+            if (vmUsedRam + cl.getRam() > vm.getRam()) {
+                scheduler.failAllCloudlets();
                 scheduler.addFailedCloudlet(cl);
-                CustomLog.printf("Cloudlet %d could not be submited because "
-                        + "VM/Server %d on host %d in data center %s(%d) is out of memory. ", cl.getCloudletId(),
-                        vm.getId(), host.getId(), getName(), getId());
+                vm.setOutOfMemory(true);
+
+                CustomLog.printf("VM/Server %d on host %d in data center %s(%d) is out of memory. "
+                        + "It will not be further available", vm.getId(), host.getId(), getName(), getId());
+                return false;
             }
-        } catch (Exception e) {
-            CustomLog.logError(Level.SEVERE, "An error occurred when processing cloudlet sbmission", e);
+            return true;
+        } else {
+            scheduler.addFailedCloudlet(cl);
+            CustomLog.printf("Cloudlet %d could not be submited because "
+                    + "VM/Server %d on host %d in data center %s(%d) is out of memory. ", cl.getCloudletId(),
+                    vm.getId(), host.getId(), getName(), getId());
+            return false;
         }
     }
 
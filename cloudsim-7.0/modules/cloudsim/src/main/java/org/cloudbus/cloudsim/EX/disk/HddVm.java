@@ -1,6 +1,7 @@
 package org.cloudbus.cloudsim.EX.disk;
 
 import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.MipsShare;
 import org.cloudbus.cloudsim.Pe;
 import org.cloudbus.cloudsim.EX.VmSchedulerMapVmsToPes;
 import org.cloudbus.cloudsim.EX.vm.MonitoredVmEX;
@@ -219,6 +220,11 @@ public class HddVm extends MonitoredVmEX {
         }
     }
 
+    @Override
+    public void addCurrentRequestedMips(MipsShare mipsShare) {
+        mipsShare.addAll(getCurrentRequestedMips());
+    }
+
     /**
      * Returns a mapping between hdd ids and required miops.
      * 
@@ -7,17 +7,22 @@ import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.RuntimeMXBean;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
+import org.cloudbus.cloudsim.core.CloudSim;
+
 /**
  * 
- * A utility that runs a set of experiments in different JVM processes. Since
- * CloudSim makes heavy use of static data, experiments can not be run in
- * multiple threads within the same JVM. With this utility class one can spawn
- * multiple independent JVM process, redirect their standard outputs to a single
- * place and synchronize with their ends.
+ * A utility that runs a set of experiments in different JVM processes. With
+ * this utility class one can spawn multiple independent JVM process, redirect
+ * their standard outputs to a single place and synchronize with their ends.
+ * Experiments that do not rely on process-wide state (e.g. the
+ * {@link CustomLog} configuration) can instead be run in multiple threads of
+ * the current JVM with {@link #runInThreads(List, int)}, since each thread has
+ * its own simulation context.
  * 
  * <br>
  * <br>
@@ -99,6 +104,58 @@ public class ExperimentsRunner {
         System.err.println("All experiments are finished");
     }
 
+    /**
+     * Runs a set of simulations in the threads of the current JVM. Each
+     * simulation is executed in a separate
+     * {@link org.cloudbus.cloudsim.core.SimulationContext}, so the simulations
+     * do not interfere with each other, as long as they do not share any other
+     * static data. Allows users to specify how many processors to remain idle,
+     * as in {@link #runExperiments(List, int)}.
+     * 
+     * @param simulations
+     *            - the simulations to run. Each one should call
+     *            {@link CloudSim#init(int, Calendar, boolean)} and
+     *            {@link CloudSim#startSimulation()}.
+     * @param numFreeCPUs
+     *            - number of processors to leave unused.
+     * @return the results of the simulations, in the order they were given.
+     * 
+     * @throws Exception
+     *             - if any of the simulations fails.
+     */
+    public static <T> List<T> runInThreads(final List<? extends Callable<T>> simulations, final int numFreeCPUs)
+            throws Exception {
+        List<T> results = new ArrayList<>();
+        if (simulations.isEmpty()) {
+            return results;
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        int coresToUse = cores <= numFreeCPUs ? 1 : cores - numFreeCPUs;
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(coresToUse, simulations.size()));
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (final Callable<T> simulation : simulations) {
+                futures.add(pool.submit(() -> {
+                    try {
+                        return simulation.call();
+                    } finally {
+                        // Do not leak the simulation state to the next task of this thread
+                        CloudSim.setSimulationContext(null);
+                    }
+                }));
+            }
+
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return results;
+    }
+
     private static int[] getHeapArgs() {
         RuntimeMXBean runtimeMxBean = ManagementFactory.getRuntimeMXBean();
         List<String> arguments = runtimeMxBean.getInputArguments();
@@ -9,9 +9,11 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 
+import org.cloudbus.cloudsim.Log.Category;
+import org.cloudbus.cloudsim.Log.Level;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.core.VirtualEntity;
@@ -35,7 +37,16 @@ public class HostDynamicWorkload extends Host {
 	private double previousUtilizationMips;
 
 	/** The host utilization state history. */
-	private final List<HostStateHistoryEntry> stateHistory = new LinkedList<>();
+	private final HostStateHistory stateHistory = new HostStateHistory();
+
+	/**
+	 * The mips requested by each guest on the last processing update, and on the one before,
+	 * by index of the guest in the guest list. They are swapped and refilled on every update,
+	 * so that the shares the guest scheduler holds since the last update are not changed
+	 * before it releases them.
+	 */
+	private MipsShare[] requestedMips = new MipsShare[0];
+	private MipsShare[] previousRequestedMips = new MipsShare[0];
 
 	/**
 	 * Instantiates a new host.
@@ -66,19 +77,30 @@ public class HostDynamicWorkload extends Host {
 		setUtilizationMips(0);
 		double hostTotalRequestedMips = 0;
 
-		for (GuestEntity vm : getGuestList()) {
-			getGuestScheduler().deallocatePesForGuest(vm);
+		MipsShare[] oldestRequestedMips = previousRequestedMips;
+		previousRequestedMips = requestedMips;
+		requestedMips = oldestRequestedMips;
+		List<GuestEntity> guests = getGuestList();
+		if (requestedMips.length < guests.size() || requestedMips.length > 2 * guests.size() + 8) {
+			// grow with the guests, or forget the shares of the guests that left the host
+			requestedMips = Arrays.copyOf(requestedMips, guests.size());
 		}
-
-		for (GuestEntity vm : getGuestList()) {
-			getGuestScheduler().allocatePesForGuest(vm, vm.getCurrentRequestedMips());
+		for (int i = 0; i < guests.size(); i++) {
+			MipsShare mipsShare = requestedMips[i];
+			if (mipsShare == null) {
+				mipsShare = new MipsShare();
+				requestedMips[i] = mipsShare;
+			}
+			mipsShare.clear();
+			guests.get(i).addCurrentRequestedMips(mipsShare);
 		}
+		getGuestScheduler().reallocatePesForGuests(guests, requestedMips);
 
 		for (GuestEntity vm : getGuestList()) {
 			double totalRequestedMips = vm.getCurrentRequestedTotalMips();
 			double totalAllocatedMips = getGuestScheduler().getTotalAllocatedMipsForGuest(vm);
 
-			if (!Log.isDisabled()) {
+			if (Log.isEnabled(Level.DEBUG, Category.HOST)) {
 				Log.printlnConcat(CloudSim.clock(),
 						": [Host #", getId(), "] Total allocated MIPS for VM #", vm.getId()
 								, " (Host #", vm.getHost().getId()
@@ -98,11 +120,11 @@ public class HostDynamicWorkload extends Host {
 			}
 
 			if (getGuestsMigratingIn().contains(vm)) {
-				Log.printlnConcat(CloudSim.clock(), ": [Host #", getId(), "] VM #" + vm.getId()
+				Log.logConcat(Level.INFO, Category.HOST, CloudSim.clock(), ": [Host #", getId(), "] VM #", vm.getId()
 						, " is being migrated to Host #", getId());
 			} else {
 				if (totalAllocatedMips + 0.1 < totalRequestedMips) {
-					Log.printlnConcat(CloudSim.clock(), ": [Host #", getId(), "] Under allocated MIPS for VM #", vm.getId()
+					Log.logConcat(Level.WARN, Category.HOST, CloudSim.clock(), ": [Host #", getId(), "] Under allocated MIPS for VM #", vm.getId()
 							, ": ", totalRequestedMips - totalAllocatedMips);
 				}
 
@@ -113,7 +135,7 @@ public class HostDynamicWorkload extends Host {
 						(vm.isInMigration() && !getGuestsMigratingIn().contains(vm)));
 
 				if (vm.isInMigration()) {
-					Log.printlnConcat(CloudSim.clock(),
+					Log.logConcat(Level.INFO, Category.HOST, CloudSim.clock(),
 							": [Host #", getId(), "] VM #", vm.getId(), " is in migration");
 					totalAllocatedMips /= 0.9; // performance degradation due to migration - 10%
 				}
@@ -257,6 +279,9 @@ public class HostDynamicWorkload extends Host {
 	 */
 	protected void setUtilizationMips(double utilizationMips) {
 		this.utilizationMips = utilizationMips;
+		if (getGuestScheduler() != null) {
+			getGuestScheduler().notifyChangeListeners();
+		}
 	}
 
 	/**
@@ -282,7 +307,7 @@ public class HostDynamicWorkload extends Host {
 	 * 
 	 * @return the state history
 	 */
-	public List<HostStateHistoryEntry> getStateHistory() {
+	public HostStateHistory getStateHistory() {
 		return stateHistory;
 	}
 
@@ -298,18 +323,6 @@ public class HostDynamicWorkload extends Host {
 			void
 			addStateHistoryEntry(double time, double allocatedMips, double requestedMips, boolean isActive) {
 
-		HostStateHistoryEntry newState = new HostStateHistoryEntry(
-				time,
-				allocatedMips,
-				requestedMips,
-				isActive);
-		if (!getStateHistory().isEmpty()) {
-			HostStateHistoryEntry previousState = getStateHistory().getLast();
-			if (previousState.getTime() == time) {
-				getStateHistory().set(getStateHistory().size() - 1, newState);
-				return;
-			}
-		}
-		getStateHistory().add(newState);
+		getStateHistory().record(time, allocatedMips, requestedMips, isActive);
 	}
 }
@@ -0,0 +1,42 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * The state history of a host. The flag of a state tells whether the host was active.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class HostStateHistory extends StateHistory<HostStateHistoryEntry> {
+
+	@Override
+	protected HostStateHistoryEntry createEntry(double time, double allocatedMips, double requestedMips, boolean flag) {
+		return new HostStateHistoryEntry(time, allocatedMips, requestedMips, flag);
+	}
+
+	@Override
+	protected double getTime(HostStateHistoryEntry entry) {
+		return entry.getTime();
+	}
+
+	@Override
+	protected double getAllocatedMips(HostStateHistoryEntry entry) {
+		return entry.getAllocatedMips();
+	}
+
+	@Override
+	protected double getRequestedMips(HostStateHistoryEntry entry) {
+		return entry.getRequestedMips();
+	}
+
+	@Override
+	protected boolean getFlag(HostStateHistoryEntry entry) {
+		return entry.isActive();
+	}
+}
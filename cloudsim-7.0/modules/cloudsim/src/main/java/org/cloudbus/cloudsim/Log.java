@@ -10,10 +10,17 @@ package org.cloudbus.cloudsim;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.function.Supplier;
 
 /**
  * Logger used for performing logging of the simulation process. It provides the ability to
  * substitute the output stream by any OutputStream subclass.
+ * <p/>
+ * Besides the plain print methods, messages can be logged with a {@link Level} and a
+ * {@link Category}: they are only formatted and printed if the level of the category allows it
+ * (see {@link #setLevel(Category, Level)}), so that a disabled category costs a single check.
+ * The output can also be {@link #setBufferSize(int) buffered}, for logs written to files.
  * 
  * @author Anton Beloglazov
  * @author Remo Andreoli
@@ -31,8 +38,44 @@ public class Log {
          the call for any print method has no effect. */
 	private static boolean disabled;
 	
-	/** Buffer to avoid creating new string builder upon every print. */
-	private static final StringBuilder buffer = new StringBuilder();
+	/** Per-thread buffer to avoid creating new string builder upon every print. */
+	private static final ThreadLocal<StringBuilder> buffer = ThreadLocal.withInitial(StringBuilder::new);
+
+	/** The level of the messages of each category. */
+	private static final Level[] levels = new Level[Category.values().length];
+
+	/** The lowest level printed for each category, or a level above all of them if the category is off. */
+	private static final int[] thresholds = new int[Category.values().length];
+
+	/** The text printed but not yet written to the output. */
+	private static final StringBuilder pending = new StringBuilder();
+
+	/** The number of characters buffered before they are written to the output, or 0 to write them at once. */
+	private static int bufferSize;
+
+	/** Indicates if the buffer is written to the output when the JVM exits. */
+	private static boolean flushOnExit;
+
+	static {
+		Arrays.fill(levels, Level.DEBUG);
+		updateThresholds();
+	}
+
+	/**
+	 * The importance of a message.
+	 */
+	public enum Level {
+		DEBUG, INFO, WARN, ERROR,
+		/** Used as a category level only, to print no message. */
+		OFF
+	}
+
+	/**
+	 * The part of the simulation a message is about.
+	 */
+	public enum Category {
+		GENERAL, DATACENTER, HOST, POWER
+	}
 
 	/**
 	 * Prints a message.
@@ -41,11 +84,7 @@ public class Log {
 	 */
 	public static void print(String message) {
 		if (!isDisabled()) {
-			try {
-				getOutput().write(message.getBytes());
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
+			write(message);
 		}
 	}
 
@@ -94,11 +133,12 @@ public class Log {
 	 */
 	public static void printConcat(Object... messages) {
 		if (!isDisabled()) {
-			buffer.setLength(0); // Clear the buffer		    
+			StringBuilder buffer = Log.buffer.get();
+			buffer.setLength(0); // Clear the buffer
             for (Object message : messages) {
                 buffer.append(message);
             }
-			print(buffer);
+			write(buffer);
 		}
 	}
 	
@@ -109,11 +149,13 @@ public class Log {
 	 */
 	public static void printlnConcat(Object... messages) {
 		if (!isDisabled()) {
-			buffer.setLength(0); // Clear the buffer		    
+			StringBuilder buffer = Log.buffer.get();
+			buffer.setLength(0); // Clear the buffer
             for (Object message : messages) {
                 buffer.append(message);
             }
-			println(buffer);
+			buffer.append(LINE_SEPARATOR);
+			write(buffer);
 		}
 	}
 
@@ -161,11 +203,178 @@ public class Log {
 	}
 
 	/**
-	 * Sets the output stream.
+	 * Checks if the messages of a level are printed for a category.
+	 *
+	 * @param level the level of the messages
+	 * @param category the category of the messages
+	 * @return true, if the messages are printed
+	 */
+	public static boolean isEnabled(Level level, Category category) {
+		return level.ordinal() >= thresholds[category.ordinal()];
+	}
+
+	/**
+	 * Prints a message and a new line, if its level is enabled for its category.
+	 *
+	 * @param level the level of the message
+	 * @param category the category of the message
+	 * @param message the message
+	 */
+	public static void log(Level level, Category category, String message) {
+		if (isEnabled(level, category)) {
+			println(message);
+		}
+	}
+
+	/**
+	 * Prints a message and a new line, if its level is enabled for its category.
+	 * The message is only built in that case.
+	 *
+	 * @param level the level of the message
+	 * @param category the category of the message
+	 * @param message the supplier of the message
+	 */
+	public static void log(Level level, Category category, Supplier<String> message) {
+		if (isEnabled(level, category)) {
+			println(message.get());
+		}
+	}
+
+	/**
+	 * Prints the concatenated text representation of the arguments and a new line, if
+	 * their level is enabled for their category.
+	 *
+	 * @param level the level of the message
+	 * @param category the category of the message
+	 * @param messages the messages to print
+	 */
+	public static void logConcat(Level level, Category category, Object... messages) {
+		if (isEnabled(level, category)) {
+			printlnConcat(messages);
+		}
+	}
+
+	/**
+	 * Prints a string formated as in String.format(), followed by a new line, if its
+	 * level is enabled for its category.
+	 *
+	 * @param level the level of the message
+	 * @param category the category of the message
+	 * @param format the format
+	 * @param args the args
+	 */
+	public static void logFormat(Level level, Category category, String format, Object... args) {
+		if (isEnabled(level, category)) {
+			formatLine(format, args);
+		}
+	}
+
+	/**
+	 * Sets the lowest level printed for a category.
+	 *
+	 * @param category the category
+	 * @param level the level, or {@link Level#OFF} to print no message of the category
+	 */
+	public static void setLevel(Category category, Level level) {
+		levels[category.ordinal()] = level;
+		updateThresholds();
+	}
+
+	/**
+	 * Sets the lowest level printed for all the categories.
+	 *
+	 * @param level the level, or {@link Level#OFF} to print no message
+	 */
+	public static void setLevel(Level level) {
+		Arrays.fill(levels, level);
+		updateThresholds();
+	}
+
+	/**
+	 * Gets the lowest level printed for a category.
+	 *
+	 * @param category the category
+	 * @return the level
+	 */
+	public static Level getLevel(Category category) {
+		return levels[category.ordinal()];
+	}
+
+	/**
+	 * Computes the thresholds checked by {@link #isEnabled(Level, Category)}, so that
+	 * the check also covers the disabled flag.
+	 */
+	private static void updateThresholds() {
+		for (int i = 0; i < thresholds.length; i++) {
+			thresholds[i] = disabled ? Level.OFF.ordinal() + 1 : levels[i].ordinal();
+		}
+	}
+
+	/**
+	 * Writes a text to the output, or to the buffer if the output is buffered.
+	 *
+	 * @param text the text
+	 */
+	private static void write(CharSequence text) {
+		if (bufferSize > 0) {
+			synchronized (pending) {
+				pending.append(text);
+				if (pending.length() >= bufferSize) {
+					flush();
+				}
+			}
+			return;
+		}
+		try {
+			getOutput().write(text.toString().getBytes());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Writes the buffered text, if any, to the output.
+	 */
+	public static void flush() {
+		synchronized (pending) {
+			if (pending.isEmpty()) {
+				return;
+			}
+			try {
+				getOutput().write(pending.toString().getBytes());
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			pending.setLength(0);
+		}
+	}
+
+	/**
+	 * Sets the number of characters buffered before they are written to the output. The buffer
+	 * is also written when the output changes, at the end of a simulation, on {@link #flush()}
+	 * and when the JVM exits. Buffering is meant for outputs that nothing else writes to, such as
+	 * log files, as the text printed in the meantime by other means is not ordered with it.
+	 *
+	 * @param size the number of characters, or 0 to write every message at once
+	 */
+	public static void setBufferSize(int size) {
+		flush();
+		bufferSize = Math.max(size, 0);
+		if (bufferSize > 0 && !flushOnExit) {
+			flushOnExit = true;
+			Runtime.getRuntime().addShutdownHook(new Thread(Log::flush));
+		}
+	}
+
+	public static int getBufferSize() { return bufferSize; }
+
+	/**
+	 * Sets the output stream. The buffered text, if any, is written to the previous one.
 	 * 
 	 * @param _output the new output
 	 */
 	public static void setOutput(OutputStream _output) {
+		flush();
 		output = _output;
 	}
 
@@ -176,7 +385,7 @@ public class Log {
 	 */
 	public static OutputStream getOutput() {
 		if (output == null) {
-			setOutput(System.out);
+			output = System.out;
 		}
 		return output;
 	}
@@ -188,6 +397,7 @@ public class Log {
 	 */
 	public static void setDisabled(boolean _disabled) {
 		disabled = _disabled;
+		updateThresholds();
 	}
 
 	/**
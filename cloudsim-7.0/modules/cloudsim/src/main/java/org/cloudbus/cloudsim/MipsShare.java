@@ -0,0 +1,255 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A share of MIPS, one value per PE, backed by a primitive array. It is a list of MIPS like the
+ * ones given to the schedulers and provisioners, so it can be passed to any of their methods, but
+ * its primitive methods ({@link #getMips(int)}, {@link #addMips(double)}, {@link #getTotalMips()})
+ * neither box nor allocate. The schedulers keep and refill their shares between scheduling
+ * intervals, so that the allocation path does not create new lists.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class MipsShare extends AbstractList<Double> implements RandomAccess {
+
+	/** The MIPS of each PE. */
+	private double[] mips;
+
+	/** The number of PEs of the share. */
+	private int size;
+
+	/**
+	 * Creates an empty share.
+	 */
+	public MipsShare() {
+		this(4);
+	}
+
+	/**
+	 * Creates an empty share.
+	 *
+	 * @param capacity the number of PEs the share can hold before growing
+	 */
+	public MipsShare(int capacity) {
+		mips = new double[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * Creates a share with the MIPS of a list.
+	 *
+	 * @param mipsShare the MIPS of each PE
+	 */
+	public MipsShare(List<Double> mipsShare) {
+		this(mipsShare.size());
+		addAll(mipsShare);
+	}
+
+	/**
+	 * Gets a list of MIPS as a share, without copying it when it already is one.
+	 *
+	 * @param mipsShare the MIPS of each PE
+	 * @return the share
+	 */
+	public static MipsShare of(List<Double> mipsShare) {
+		return mipsShare instanceof MipsShare share ? share : new MipsShare(mipsShare);
+	}
+
+	/**
+	 * Gets the MIPS of a PE.
+	 *
+	 * @param index the index of the PE in the share
+	 * @return the MIPS
+	 */
+	public double getMips(int index) {
+		checkIndex(index);
+		return mips[index];
+	}
+
+	/**
+	 * Sets the MIPS of a PE.
+	 *
+	 * @param index the index of the PE in the share
+	 * @param value the MIPS
+	 */
+	public void setMips(int index, double value) {
+		checkIndex(index);
+		mips[index] = value;
+	}
+
+	/**
+	 * Adds a PE at the end of the share.
+	 *
+	 * @param value the MIPS of the PE
+	 */
+	public void addMips(double value) {
+		if (size == mips.length) {
+			mips = Arrays.copyOf(mips, size * 2);
+		}
+		mips[size++] = value;
+		modCount++;
+	}
+
+	/**
+	 * Adds PEs with the same MIPS at the end of the share.
+	 *
+	 * @param value the MIPS of each PE
+	 * @param count the number of PEs
+	 */
+	public void addMips(double value, int count) {
+		for (int i = 0; i < count; i++) {
+			addMips(value);
+		}
+	}
+
+	/**
+	 * Gets the total MIPS of the share, summed in PE order.
+	 *
+	 * @return the total MIPS
+	 */
+	public double getTotalMips() {
+		double total = 0;
+		for (int i = 0; i < size; i++) {
+			total += mips[i];
+		}
+		return total;
+	}
+
+	/**
+	 * Replaces the MIPS of the share with the ones of a list.
+	 *
+	 * @param mipsShare the MIPS of each PE
+	 */
+	public void setAll(List<Double> mipsShare) {
+		if (mipsShare == this) {
+			return;
+		}
+		clear();
+		addAll(mipsShare);
+	}
+
+	/**
+	 * Removes the PEs that have no MIPS.
+	 *
+	 * @return true if a PE was removed
+	 */
+	public boolean removeNonPositive() {
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			if (mips[i] > 0) {
+				mips[kept++] = mips[i];
+			}
+		}
+		if (kept == size) {
+			return false;
+		}
+		size = kept;
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends Double> values) {
+		if (values instanceof MipsShare share) {
+			if (size + share.size > mips.length) {
+				mips = Arrays.copyOf(mips, Math.max(size + share.size, size * 2));
+			}
+			System.arraycopy(share.mips, 0, mips, size, share.size);
+			size += share.size;
+			modCount++;
+			return share.size > 0;
+		}
+		return super.addAll(values);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof MipsShare share)) {
+			return super.equals(o);
+		}
+		if (share.size != size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			// as Double.equals
+			if (Double.doubleToLongBits(mips[i]) != Double.doubleToLongBits(share.mips[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hashCode = 1;
+		for (int i = 0; i < size; i++) {
+			hashCode = 31 * hashCode + Double.hashCode(mips[i]);
+		}
+		return hashCode;
+	}
+
+	@Override
+	public Double get(int index) {
+		return getMips(index);
+	}
+
+	@Override
+	public Double set(int index, Double value) {
+		double previous = getMips(index);
+		mips[index] = value;
+		return previous;
+	}
+
+	@Override
+	public void add(int index, Double value) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		double mipsValue = value;
+		if (size == mips.length) {
+			mips = Arrays.copyOf(mips, size * 2);
+		}
+		System.arraycopy(mips, index, mips, index + 1, size - index);
+		mips[index] = mipsValue;
+		size++;
+		modCount++;
+	}
+
+	@Override
+	public Double remove(int index) {
+		double previous = getMips(index);
+		System.arraycopy(mips, index + 1, mips, index, size - index - 1);
+		size--;
+		modCount++;
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+		size = 0;
+		modCount++;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+}
@@ -9,11 +9,15 @@
 package org.cloudbus.cloudsim;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 import org.cloudbus.cloudsim.network.DelayMatrix_Float;
+import org.cloudbus.cloudsim.network.DelayRowCache;
 import org.cloudbus.cloudsim.network.GraphReaderBrite;
 import org.cloudbus.cloudsim.network.TopologicalGraph;
 import org.cloudbus.cloudsim.network.TopologicalLink;
@@ -69,6 +73,24 @@ public class NetworkTopology {
          */
         protected static Map<Integer, Integer> map = null;
 
+	/**
+	 * The delays computed on demand, used instead of {@link #delayMatrix} when
+	 * {@link #setOnDemandDelays(int) enabled}, or null until the next lookup after links were added.
+	 */
+	protected static DelayRowCache delayRows = null;
+
+	/**
+	 * The maximum number of delay rows kept in memory in on-demand mode, or 0 if the whole
+	 * delay matrix is computed.
+	 */
+	private static int maxDelayRows = 0;
+
+	/** Whether links are being added in bulk, deferring the update of the matrices. */
+	private static boolean bulkBuild = false;
+
+	/** The pairs of linked BRITE nodes, as the smaller id in the high bits and the other one. */
+	private static Set<Long> linkedNodes = new HashSet<>();
+
 	/**
 	 * Creates the network topology if the file exists and can be successfully parsed. File is
 	 * written in the BRITE format and contains topological information on simulation entities.
@@ -99,19 +121,127 @@ public class NetworkTopology {
 	 * Generates the matrices used internally to set latency and bandwidth between elements.
 	 */
 	private static void generateMatrices() {
-		// creates the delay matrix
-		delayMatrix = new DelayMatrix_Float(graph, false);
+		linkedNodes = new HashSet<>();
+		Iterator<TopologicalLink> iter = graph.getLinkIterator();
+		while (iter.hasNext()) {
+			TopologicalLink link = iter.next();
+			linkedNodes.add(linkKey(link.getSrcNodeID(), link.getDestNodeID()));
+		}
 
-		// creates the bw matrix
-		bwMatrix = createBwMatrix(graph, false);
+		if (maxDelayRows > 0) {
+			// the dense matrices may not fit in memory: compute the delays on demand
+			delayRows = new DelayRowCache(graph, false, maxDelayRows);
+			delayMatrix = null;
+			bwMatrix = null;
+		} else {
+			delayRows = null;
+
+			// creates the delay matrix
+			delayMatrix = new DelayMatrix_Float(graph, false);
+
+			// creates the bw matrix
+			bwMatrix = createBwMatrix(graph, false);
+		}
 
 		networkEnabled = true;
 	}
 
+	/**
+	 * Updates the matrices for a link added to the graph. The shortest paths are updated
+	 * incrementally if the link connects nodes that were not linked yet, otherwise the
+	 * matrices are generated again. In on-demand mode, the cached delay rows are dropped and
+	 * computed again on the next lookup.
+	 *
+	 * @param link the new link
+	 */
+	private static void updateMatrices(TopologicalLink link) {
+		if (maxDelayRows > 0) {
+			// the links of the graph are only read on the next lookup
+			delayRows = null;
+			networkEnabled = true;
+			return;
+		}
+
+		int src = link.getSrcNodeID();
+		int dest = link.getDestNodeID();
+		if (delayMatrix == null || !linkedNodes.add(linkKey(src, dest))) {
+			generateMatrices();
+			return;
+		}
+
+		delayMatrix.addLink(src, dest, link.getLinkDelay(), false);
+
+		int nodes = graph.getNumberOfNodes();
+		if (bwMatrix.length < nodes) {
+			double[][] mtx = new double[nodes][];
+			for (int i = 0; i < nodes; i++) {
+				mtx[i] = i < bwMatrix.length ? Arrays.copyOf(bwMatrix[i], nodes) : new double[nodes];
+			}
+			bwMatrix = mtx;
+		}
+		bwMatrix[src][dest] = link.getLinkBw();
+		bwMatrix[dest][src] = link.getLinkBw();
+	}
+
+	/**
+	 * Gets the key of a pair of linked nodes, regardless of the direction of the link.
+	 *
+	 * @param src the id of a node
+	 * @param dest the id of the other node
+	 * @return the key of the pair
+	 */
+	private static long linkKey(int src, int dest) {
+		return ((long) Math.min(src, dest) << 32) | Math.max(src, dest);
+	}
+
+	/**
+	 * Starts adding links in bulk: the matrices are not updated by {@link #addLink(int, int, double, double)}
+	 * until {@link #finishBulkBuild()} is called, which builds them once. This avoids updating the
+	 * shortest paths after every link when creating a large topology. Delays are not available
+	 * in the meantime.
+	 */
+	public static void startBulkBuild() {
+		bulkBuild = true;
+	}
+
+	/**
+	 * Finishes adding links in bulk, generating the matrices for all the links added.
+	 *
+	 * @see #startBulkBuild()
+	 */
+	public static void finishBulkBuild() {
+		bulkBuild = false;
+		if (graph != null) {
+			generateMatrices();
+		}
+	}
+
+	/**
+	 * Sets whether the delays are computed on demand instead of being kept in a dense matrix. In
+	 * on-demand mode, the delays from a node are computed with Dijkstra's algorithm the first time
+	 * they are needed, and only the delays from the most recently used nodes are kept; the
+	 * bandwidth matrix is not created. This allows sparse topologies too large for an n^2 matrix.
+	 *
+	 * @param maxRows the maximum number of nodes whose delays are kept in memory, or 0 to compute
+	 *            the whole delay matrix (the default)
+	 * @see DelayRowCache
+	 */
+	public static void setOnDemandDelays(int maxRows) {
+		if (maxRows < 0) {
+			throw new IllegalArgumentException("缓存的延迟行数不能为负数：" + maxRows);
+		}
+		maxDelayRows = maxRows;
+		if (graph != null && networkEnabled && !bulkBuild) {
+			generateMatrices();
+		}
+	}
+
 	/**
 	 * Adds a new link in the network topology.
          * The CloudSim entities that represent the source and destination of the link
          * will be mapped to BRITE entities.
+         * The delays are updated incrementally, or computed again on the next lookup in
+         * {@link #setOnDemandDelays(int) on-demand mode}; use {@link #startBulkBuild()} to add many links.
 	 * 
 	 * @param srcId ID of the CloudSim entity that represents the link's source node
 	 * @param destId ID of the CloudSim entity that represents the link's destination node
@@ -145,9 +275,12 @@ public class NetworkTopology {
 		}
 
 		// generate a new link
-		graph.addLink(new TopologicalLink(map.get(srcId), map.get(destId), (float) lat, (float) bw));
+		TopologicalLink link = new TopologicalLink(map.get(srcId), map.get(destId), (float) lat, (float) bw);
+		graph.addLink(link);
 
-		generateMatrices();
+		if (!bulkBuild) {
+			updateMatrices(link);
+		}
 
 	}
 
@@ -245,7 +378,13 @@ public class NetworkTopology {
 		if (networkEnabled) {
 			try {
 				// add the network latency
-				double delay = delayMatrix.getDelay(map.get(srcID), map.get(destID));
+				DelayRowCache rows = delayRows;
+				if (rows == null && maxDelayRows > 0) {
+					rows = createDelayRows();
+				}
+				double delay = rows != null
+						? rows.getDelay(map.get(srcID), map.get(destID))
+						: delayMatrix.getDelay(map.get(srcID), map.get(destID));
 
 				return delay;
 			} catch (Exception e) {
@@ -255,6 +394,19 @@ public class NetworkTopology {
 		return 0.0;
 	}
 
+	/**
+	 * Creates the delay rows of the graph in on-demand mode, if links were added since they were
+	 * last created and no links are being added in bulk.
+	 *
+	 * @return the delay rows, or null if they are not available
+	 */
+	private static synchronized DelayRowCache createDelayRows() {
+		if (delayRows == null && graph != null && !bulkBuild) {
+			delayRows = new DelayRowCache(graph, false, maxDelayRows);
+		}
+		return delayRows;
+	}
+
 	/**
 	 * Checks if the network simulation is working. If there were some problem during
 	 * creation of network (e.g., during parsing of BRITE file) that does not allow a proper
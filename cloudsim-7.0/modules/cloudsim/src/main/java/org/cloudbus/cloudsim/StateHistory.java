@@ -0,0 +1,309 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * The state history of a host or a guest, stored in columns of primitive values instead of one
+ * object per state. The columns are ring buffers, so the oldest states can be discarded in O(1)
+ * according to a {@link StateHistoryRetention retention policy}.
+ * <p/>
+ * The history is a {@link java.util.List} of history entries, which are created when they are
+ * read. States can be added and replaced, but not removed except by {@link #clear()}; the
+ * primitive getters read a state without creating an entry.
+ *
+ * @param <E> the type of the history entries
+ * @since CloudSim Toolkit 7.0
+ */
+public abstract class StateHistory<E> extends AbstractList<E> implements RandomAccess {
+
+	/** The retention policy of new histories. */
+	private static volatile StateHistoryRetention defaultRetention = StateHistoryRetention.keepAll();
+
+	/** The retention policy. */
+	private StateHistoryRetention retention;
+
+	/** The times of the states. */
+	private double[] times = new double[0];
+
+	/** The allocated mips of the states. */
+	private double[] allocatedMips = new double[0];
+
+	/** The requested mips of the states. */
+	private double[] requestedMips = new double[0];
+
+	/** The flags of the states, i.e. whether a host is active or whether a VM is in migration. */
+	private boolean[] flags = new boolean[0];
+
+	/** The index of the oldest state in the arrays. */
+	private int head;
+
+	/** The number of states. */
+	private int size;
+
+	/**
+	 * Instantiates a new history with the default retention policy.
+	 */
+	protected StateHistory() {
+		retention = defaultRetention;
+	}
+
+	/**
+	 * Creates a history entry.
+	 *
+	 * @param time the time
+	 * @param allocatedMips the allocated mips
+	 * @param requestedMips the requested mips
+	 * @param flag the flag
+	 * @return the entry
+	 */
+	protected abstract E createEntry(double time, double allocatedMips, double requestedMips, boolean flag);
+
+	/**
+	 * Gets the time of a history entry.
+	 *
+	 * @param entry the entry
+	 * @return the time
+	 */
+	protected abstract double getTime(E entry);
+
+	/**
+	 * Gets the allocated mips of a history entry.
+	 *
+	 * @param entry the entry
+	 * @return the allocated mips
+	 */
+	protected abstract double getAllocatedMips(E entry);
+
+	/**
+	 * Gets the requested mips of a history entry.
+	 *
+	 * @param entry the entry
+	 * @return the requested mips
+	 */
+	protected abstract double getRequestedMips(E entry);
+
+	/**
+	 * Gets the flag of a history entry.
+	 *
+	 * @param entry the entry
+	 * @return the flag
+	 */
+	protected abstract boolean getFlag(E entry);
+
+	/**
+	 * Records a state. A state with the same time as the last one replaces it; otherwise the
+	 * state is added, subject to the retention policy.
+	 *
+	 * @param time the time
+	 * @param allocatedMips the allocated mips
+	 * @param requestedMips the requested mips
+	 * @param flag the flag
+	 */
+	public void record(double time, double allocatedMips, double requestedMips, boolean flag) {
+		if (size > 0 && getTime(size - 1) == time) {
+			store(index(size - 1), time, allocatedMips, requestedMips, flag);
+			return;
+		}
+		append(time, allocatedMips, requestedMips, flag);
+	}
+
+	@Override
+	public boolean add(E entry) {
+		int previousSize = size;
+		append(getTime(entry), getAllocatedMips(entry), getRequestedMips(entry), getFlag(entry));
+		modCount++;
+		return size != previousSize || retention.getMaxEntries() > 0;
+	}
+
+	@Override
+	public E get(int index) {
+		int i = index(checkIndex(index));
+		return createEntry(times[i], allocatedMips[i], requestedMips[i], flags[i]);
+	}
+
+	@Override
+	public E set(int index, E entry) {
+		E previous = get(index);
+		store(index(index), getTime(entry), getAllocatedMips(entry), getRequestedMips(entry), getFlag(entry));
+		return previous;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		head = 0;
+		size = 0;
+		modCount++;
+	}
+
+	/**
+	 * Gets the time of a state.
+	 *
+	 * @param index the index of the state
+	 * @return the time
+	 */
+	public double getTime(int index) {
+		return times[index(checkIndex(index))];
+	}
+
+	/**
+	 * Gets the allocated mips of a state.
+	 *
+	 * @param index the index of the state
+	 * @return the allocated mips
+	 */
+	public double getAllocatedMips(int index) {
+		return allocatedMips[index(checkIndex(index))];
+	}
+
+	/**
+	 * Gets the requested mips of a state.
+	 *
+	 * @param index the index of the state
+	 * @return the requested mips
+	 */
+	public double getRequestedMips(int index) {
+		return requestedMips[index(checkIndex(index))];
+	}
+
+	/**
+	 * Gets the flag of a state.
+	 *
+	 * @param index the index of the state
+	 * @return the flag
+	 */
+	public boolean getFlag(int index) {
+		return flags[index(checkIndex(index))];
+	}
+
+	/**
+	 * Gets the retention policy.
+	 *
+	 * @return the retention policy
+	 */
+	public StateHistoryRetention getRetention() {
+		return retention;
+	}
+
+	/**
+	 * Sets the retention policy. If it keeps fewer states than the history has, the oldest
+	 * states are discarded.
+	 *
+	 * @param retention the retention policy
+	 */
+	public void setRetention(StateHistoryRetention retention) {
+		this.retention = retention;
+		int maxEntries = retention.getMaxEntries();
+		if (maxEntries > 0 && size > maxEntries) {
+			head = index(size - maxEntries);
+			size = maxEntries;
+			modCount++;
+		}
+		resize(maxEntries > 0 ? maxEntries : Math.max(size, 1));
+	}
+
+	/**
+	 * Gets the retention policy of the histories created from now on.
+	 *
+	 * @return the default retention policy
+	 */
+	public static StateHistoryRetention getDefaultRetention() {
+		return defaultRetention;
+	}
+
+	/**
+	 * Sets the retention policy of the histories created from now on, e.g. before creating the
+	 * hosts and VMs of a large simulation.
+	 *
+	 * @param retention the default retention policy
+	 */
+	public static void setDefaultRetention(StateHistoryRetention retention) {
+		defaultRetention = retention;
+	}
+
+	/**
+	 * Adds a state after the last one, according to the retention policy.
+	 */
+	private void append(double time, double allocated, double requested, boolean flag) {
+		double interval = retention.getInterval();
+		if (interval > 0 && size > 0
+				&& Math.floor(time / interval) == Math.floor(getTime(size - 1) / interval)) {
+			return; // a state was already kept for this interval
+		}
+
+		int maxEntries = retention.getMaxEntries();
+		if (maxEntries > 0 && size == maxEntries) {
+			// the history is full: overwrite the oldest state
+			store(head, time, allocated, requested, flag);
+			head = (head + 1) % times.length;
+			return;
+		}
+		if (size == times.length) {
+			resize(maxEntries > 0 ? Math.min(maxEntries, Math.max(16, size * 2)) : Math.max(16, size * 2));
+		}
+		store(index(size), time, allocated, requested, flag);
+		size++;
+	}
+
+	private void store(int i, double time, double allocated, double requested, boolean flag) {
+		times[i] = time;
+		allocatedMips[i] = allocated;
+		requestedMips[i] = requested;
+		flags[i] = flag;
+	}
+
+	/**
+	 * Copies the states to arrays of a given capacity, starting at index 0. The times are copied
+	 * last, since the positions of the states depend on the length of their array.
+	 */
+	private void resize(int capacity) {
+		if (capacity == times.length && head == 0) {
+			return;
+		}
+		boolean[] newFlags = new boolean[capacity];
+		for (int i = 0; i < size; i++) {
+			newFlags[i] = flags[index(i)];
+		}
+		flags = newFlags;
+		allocatedMips = copy(allocatedMips, capacity);
+		requestedMips = copy(requestedMips, capacity);
+		times = copy(times, capacity);
+		head = 0;
+	}
+
+	private double[] copy(double[] column, int capacity) {
+		double[] copy = new double[capacity];
+		int first = Math.min(size, column.length - head);
+		System.arraycopy(column, head, copy, 0, first);
+		System.arraycopy(column, 0, copy, first, size - first);
+		return copy;
+	}
+
+	/**
+	 * Gets the position in the arrays of a state.
+	 */
+	private int index(int index) {
+		int i = head + index;
+		return i < times.length ? i : i - times.length;
+	}
+
+	private int checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return index;
+	}
+}
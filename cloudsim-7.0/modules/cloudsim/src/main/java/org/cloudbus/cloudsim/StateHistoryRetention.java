@@ -0,0 +1,87 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * The policy deciding which states a {@link StateHistory} keeps: all of them, only the last ones,
+ * or at most one per time interval.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public final class StateHistoryRetention {
+
+	/** Keeps all the states. */
+	private static final StateHistoryRetention KEEP_ALL = new StateHistoryRetention(0, 0);
+
+	/** The maximum number of states kept, or 0 if unbounded. */
+	private final int maxEntries;
+
+	/** The minimum time between two kept states, or 0 to keep every state. */
+	private final double interval;
+
+	private StateHistoryRetention(int maxEntries, double interval) {
+		this.maxEntries = maxEntries;
+		this.interval = interval;
+	}
+
+	/**
+	 * Gets the policy keeping all the states, which is the default.
+	 *
+	 * @return the policy
+	 */
+	public static StateHistoryRetention keepAll() {
+		return KEEP_ALL;
+	}
+
+	/**
+	 * Gets a policy keeping only the last states: when the history is full, the oldest state is
+	 * discarded.
+	 *
+	 * @param maxEntries the number of states kept
+	 * @return the policy
+	 */
+	public static StateHistoryRetention keepLast(int maxEntries) {
+		if (maxEntries <= 0) {
+			throw new IllegalArgumentException("保留的历史记录数应为正值，但现在为：" + maxEntries);
+		}
+		return new StateHistoryRetention(maxEntries, 0);
+	}
+
+	/**
+	 * Gets a policy keeping at most one state per time interval, namely the first state recorded
+	 * in each interval.
+	 *
+	 * @param interval the length of the intervals
+	 * @return the policy
+	 */
+	public static StateHistoryRetention downsample(double interval) {
+		if (interval <= 0) {
+			throw new IllegalArgumentException("降采样间隔应为正值，但现在为：" + interval);
+		}
+		return new StateHistoryRetention(0, interval);
+	}
+
+	/**
+	 * Gets the maximum number of states kept.
+	 *
+	 * @return the maximum number of states, or 0 if unbounded
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * Gets the length of the intervals in which at most one state is kept.
+	 *
+	 * @return the interval, or 0 if every state is kept
+	 */
+	public double getInterval() {
+		return interval;
+	}
+}
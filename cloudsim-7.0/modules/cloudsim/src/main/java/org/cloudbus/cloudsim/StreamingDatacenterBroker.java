@@ -0,0 +1,152 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.function.Consumer;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.util.StreamingWorkloadModel;
+
+/**
+ * A broker that pulls the cloudlets of a {@link StreamingWorkloadModel} as the simulation time
+ * reaches their submit times, instead of receiving them all before the simulation starts.
+ * <p/>
+ * As any broker, it keeps the cloudlets it submitted and the ones that returned in
+ * {@link #getCloudletSubmittedList()} and {@link #getCloudletReceivedList()}, which grow with the
+ * trace. When a consumer of the returned cloudlets is set (see
+ * {@link #setReturnedCloudletConsumer(Consumer)}), the returned cloudlets are given to it instead,
+ * and neither list is kept: only the cloudlets that are waiting or running are then held in
+ * memory, so that long traces can be simulated with a small heap.
+ * <p/>
+ * The cloudlets of the workload are given to the broker as the user, and sent to its VMs like
+ * the ones of {@link #submitCloudletList(java.util.List)}, which can still be used. The broker
+ * only finishes once all the cloudlets of the workload have returned.
+ *
+ * @since CloudSim Toolkit 7.0
+ * @see org.cloudbus.cloudsim.util.WorkloadFileReader#stream()
+ */
+public class StreamingDatacenterBroker extends DatacenterBroker {
+
+	/** The tags of the events of the broker. */
+	private enum StreamingTags implements CloudSimTags {
+		/** Pulls the cloudlets whose submit time is reached. */
+		PULL_CLOUDLETS
+	}
+
+	/** The workload the cloudlets are pulled from. */
+	private StreamingWorkloadModel workload;
+
+	/** Whether a pull is scheduled. */
+	private boolean pullScheduled;
+
+	/** The consumer of the returned cloudlets, or null to keep them in the received list. */
+	private Consumer<? super Cloudlet> returnedCloudletConsumer;
+
+	/**
+	 * Creates a new broker.
+	 *
+	 * @param name name to be associated with this entity
+	 * @throws Exception when the creation of this entity fails
+	 */
+	public StreamingDatacenterBroker(String name) throws Exception {
+		super(name);
+	}
+
+	/**
+	 * Sets the workload the cloudlets are pulled from, once the VMs are created. Its cloudlets
+	 * must not be bound to VMs.
+	 *
+	 * @param workload the workload
+	 */
+	public void submitWorkload(StreamingWorkloadModel workload) {
+		this.workload = workload;
+	}
+
+	public StreamingWorkloadModel getWorkload() {
+		return workload;
+	}
+
+	/**
+	 * Sets a consumer the cloudlets are given to as they return, instead of being kept in
+	 * {@link #getCloudletReceivedList()}. The cloudlets are then not kept in
+	 * {@link #getCloudletSubmittedList()} either once they are sent.
+	 *
+	 * @param returnedCloudletConsumer the consumer, or null to keep the cloudlets
+	 */
+	public void setReturnedCloudletConsumer(Consumer<? super Cloudlet> returnedCloudletConsumer) {
+		this.returnedCloudletConsumer = returnedCloudletConsumer;
+	}
+
+	public Consumer<? super Cloudlet> getReturnedCloudletConsumer() {
+		return returnedCloudletConsumer;
+	}
+
+	/**
+	 * Checks whether the workload still has cloudlets to pull.
+	 *
+	 * @return true if some cloudlets were not pulled yet
+	 */
+	protected boolean hasPendingWorkload() {
+		return workload != null && workload.hasNext();
+	}
+
+	/**
+	 * Pulls the cloudlets whose submit time is reached, then submits the waiting cloudlets
+	 * and schedules the next pull.
+	 */
+	@Override
+	protected void submitCloudlets() {
+		while (hasPendingWorkload() && workload.getNextSubmitTime() <= CloudSim.clock()) {
+			Cloudlet cloudlet = workload.next();
+			cloudlet.setUserId(getId());
+			getCloudletList().add(cloudlet);
+		}
+		super.submitCloudlets();
+		if (returnedCloudletConsumer != null) {
+			getCloudletSubmittedList().clear();
+		}
+
+		if (!pullScheduled && hasPendingWorkload()) {
+			schedule(getId(), Math.max(0, workload.getNextSubmitTime() - CloudSim.clock()), StreamingTags.PULL_CLOUDLETS);
+			pullScheduled = true;
+		}
+	}
+
+	@Override
+	protected void processCloudletReturn(SimEvent ev) {
+		Cloudlet cloudlet = (Cloudlet) ev.getData();
+		if (!hasPendingWorkload()) {
+			super.processCloudletReturn(ev);
+		} else {
+			// the VMs are kept for the cloudlets still to be pulled
+			getCloudletReceivedList().add(cloudlet);
+			Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": 已收到 ", cloudlet.getClass().getSimpleName(), " #", cloudlet.getCloudletId(),
+					" 的返回结果");
+			cloudletsSubmitted--;
+		}
+
+		if (returnedCloudletConsumer != null) {
+			// the cloudlet was the last one added to the received list
+			getCloudletReceivedList().removeLast();
+			returnedCloudletConsumer.accept(cloudlet);
+		}
+	}
+
+	@Override
+	protected void processOtherEvent(SimEvent ev) {
+		if (ev != null && ev.getTag() == StreamingTags.PULL_CLOUDLETS) {
+			pullScheduled = false;
+			submitCloudlets();
+		} else {
+			super.processOtherEvent(ev);
+		}
+	}
+}
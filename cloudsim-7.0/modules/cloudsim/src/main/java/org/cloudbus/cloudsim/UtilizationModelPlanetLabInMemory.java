@@ -4,6 +4,8 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 
+import org.cloudbus.cloudsim.util.TraceCache;
+
 /**
  * Defines the resource utilization model based on 
  * a <a href="https://www.planet-lab.org">PlanetLab</a>
@@ -62,6 +64,44 @@ public class UtilizationModelPlanetLabInMemory implements UtilizationModel {
 		input.close();
 	}
 
+	/**
+	 * Instantiates a new PlanetLab resource utilization model from a trace of a cache, which
+	 * is read without parsing the trace file.
+	 * 
+	 * @param cache the cache of PlanetLab traces
+	 * @param trace the index of the trace in the cache
+	 * @param schedulingInterval the scheduling interval
+	 * @throws IllegalArgumentException if the trace has less than 288 samples
+	 * @see TraceCache#convertPlanetLab(String, String)
+	 */
+	public UtilizationModelPlanetLabInMemory(TraceCache cache, int trace, double schedulingInterval) {
+		this(cache, trace, schedulingInterval, 289);
+	}
+
+	/**
+	 * Instantiates a new PlanetLab resource utilization model with variable data samples
+	 * from a trace of a cache.
+	 * 
+	 * @param cache the cache of PlanetLab traces
+	 * @param trace the index of the trace in the cache
+	 * @param schedulingInterval the scheduling interval
+	 * @param dataSamples number of samples, the last one repeating the previous one
+	 * @throws IllegalArgumentException if the trace has less than dataSamples - 1 samples
+	 */
+	public UtilizationModelPlanetLabInMemory(TraceCache cache, int trace, double schedulingInterval, int dataSamples) {
+		setSchedulingInterval(schedulingInterval);
+		data = new double[dataSamples];
+		int n = data.length;
+		if (cache.getLength(trace) < n - 1) {
+			throw new IllegalArgumentException("PlanetLab 轨迹 " + cache.getColumnName(trace) + " 只有 "
+					+ cache.getLength(trace) + " 个样本，少于 " + (n - 1) + " 个");
+		}
+		for (int i = 0; i < n - 1; i++) {
+			data[i] = cache.get(trace, i) / 100.0;
+		}
+		data[n - 1] = data[n - 2];
+	}
+
 	@Override
 	public double getUtilization(double time) {
 		if (time % getSchedulingInterval() == 0) {
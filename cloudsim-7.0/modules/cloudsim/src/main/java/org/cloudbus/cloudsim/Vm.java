@@ -15,7 +15,6 @@ import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -118,7 +117,7 @@ public class Vm implements VirtualEntity {
 	 * time, he/she doesn't have to iterate over the entire list
 	 * to find the desired entry.
 	 */
-	private final List<VmStateHistoryEntry> stateHistory = new LinkedList<>();
+	private final VmStateHistory stateHistory = new VmStateHistory();
 
 	private int virtualizationOverhead;
 
@@ -318,6 +317,24 @@ public class Vm implements VirtualEntity {
 		return currentRequestedMips;
 	}
 
+	/**
+	 * Adds the current requested mips at the end of a share, without creating a list.
+	 * Subclasses overriding {@link #getCurrentRequestedMips()} have to override it too.
+	 *
+	 * @param mipsShare the share to fill
+	 */
+	@Override
+	public void addCurrentRequestedMips(MipsShare mipsShare) {
+		if (isBeingInstantiated()) {
+			mipsShare.addMips(getMips(), getNumberOfPes());
+		} else {
+			getCloudletScheduler().addCurrentRequestedMips(mipsShare);
+			for (GuestEntity guest : getGuestList()) {
+				guest.addCurrentRequestedMips(mipsShare);
+			}
+		}
+	}
+
 	@Override
 	public double getCurrentRequestedTotalMips() {
 		double currentRequestedMips = 0.0;
@@ -577,7 +594,7 @@ public class Vm implements VirtualEntity {
 
 	public HostEntity getHost() { return host; }
 
-	public List<VmStateHistoryEntry> getStateHistory() { return stateHistory; }
+	public VmStateHistory getStateHistory() { return stateHistory; }
 
 	/**
 	 * DEPRECATED: USE GuestEntity.getUid(userId, vmId) instead!
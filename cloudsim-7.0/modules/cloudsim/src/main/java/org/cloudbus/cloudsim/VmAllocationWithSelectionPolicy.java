@@ -1,5 +1,6 @@
 package org.cloudbus.cloudsim;
 
+import org.cloudbus.cloudsim.selectionPolicies.IndexedSelectionPolicy;
 import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicy;
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.core.HostEntity;
@@ -15,6 +16,20 @@ public class VmAllocationWithSelectionPolicy extends VmAllocationPolicy {
 
     private Set<HostEntity> excludedHostCandidates;
 
+    // hosts of an indexed policy, sorted by (key, position) and updated on scheduler changes
+    private List<HostEntity> indexedHosts;
+    private int indexedHostCount;
+    private double[] hostKeys;
+    private boolean[] dirtyHosts;
+    private List<Integer> dirtyPositions;
+    private TreeSet<Integer> hostIndex;
+    // hosts whose scheduler notifies the index, with the listener added to each of them
+    private HostEntity[] listenedHosts;
+    private Runnable[] hostListeners;
+    private boolean keyBounded;
+    // key of the search probe, which has position -1
+    private double probeKey;
+
     public VmAllocationWithSelectionPolicy(List<? extends HostEntity> list, SelectionPolicy<HostEntity> selectionPolicy) {
         super(list);
         setExcludedHostCandidates(new HashSet<>());
@@ -22,7 +37,10 @@ public class VmAllocationWithSelectionPolicy extends VmAllocationPolicy {
     }
 
     public SelectionPolicy<HostEntity> getSelectionPolicy() { return selectionPolicy; }
-    public void setSelectionPolicy(SelectionPolicy<HostEntity> selectionPolicy) { this.selectionPolicy = selectionPolicy; }
+    public void setSelectionPolicy(SelectionPolicy<HostEntity> selectionPolicy) {
+        this.selectionPolicy = selectionPolicy;
+        releaseHostIndex();
+    }
 
     public Set<HostEntity> getExcludedHostCandidates() { return excludedHostCandidates; }
     public void setExcludedHostCandidates(Set<HostEntity> excludedHostCandidates) { this.excludedHostCandidates = excludedHostCandidates; }
@@ -30,6 +48,9 @@ public class VmAllocationWithSelectionPolicy extends VmAllocationPolicy {
     @Override
     public HostEntity findHostForGuest(GuestEntity guest) {
         clearExcludedHostCandidates();
+        if (getSelectionPolicy() instanceof IndexedSelectionPolicy<HostEntity> indexedPolicy) {
+            return findIndexedHostForGuest(indexedPolicy, guest);
+        }
         int tries = 0;
 
         do{
@@ -51,4 +72,106 @@ public class VmAllocationWithSelectionPolicy extends VmAllocationPolicy {
     public void clearExcludedHostCandidates() {
         excludedHostCandidates.clear();
     }
+
+    /**
+     * Selects the same host as the scan of the selection policy, walking the hosts in key order
+     * from the best one instead of rescanning the list after every unsuitable host.
+     */
+    private HostEntity findIndexedHostForGuest(IndexedSelectionPolicy<HostEntity> policy, GuestEntity guest) {
+        List<HostEntity> hostList = getHostList();
+        if (indexedHosts != hostList || indexedHostCount != hostList.size()) {
+            buildHostIndex(policy, hostList);
+        }
+
+        while (true) {
+            updateHostIndex(policy);
+            probeKey = keyBounded ? normalize(policy.getKeyBound(guest)) : Double.NEGATIVE_INFINITY;
+            boolean stale = false;
+            for (int position : hostIndex.tailSet(-1, true)) {
+                double key = hostKeys[position];
+                if (!(key < policy.getKeyLimit())) {
+                    return null;
+                }
+                HostEntity host = hostList.get(position);
+                if (Double.compare(normalize(policy.getKey(host)), key) != 0) {
+                    // a change that was not notified: fix the key and search again
+                    markHostDirty(position);
+                    stale = true;
+                    break;
+                }
+                if (host.isSuitableForGuest(guest)) {
+                    return host;
+                }
+                excludedHostCandidates.add(host);
+            }
+            if (!stale) {
+                return null;
+            }
+            clearExcludedHostCandidates();
+        }
+    }
+
+    private void buildHostIndex(IndexedSelectionPolicy<HostEntity> policy, List<HostEntity> hostList) {
+        releaseHostIndex();
+        int hostCount = hostList.size();
+        indexedHosts = hostList;
+        indexedHostCount = hostCount;
+        hostKeys = new double[hostCount];
+        dirtyHosts = new boolean[hostCount];
+        dirtyPositions = new ArrayList<>();
+        hostIndex = new TreeSet<>((a, b) -> {
+            int c = Double.compare(a < 0 ? probeKey : hostKeys[a], b < 0 ? probeKey : hostKeys[b]);
+            return c != 0 ? c : Integer.compare(a, b);
+        });
+        keyBounded = true;
+        listenedHosts = new HostEntity[hostCount];
+        hostListeners = new Runnable[hostCount];
+        for (int position = 0; position < hostCount; position++) {
+            HostEntity host = hostList.get(position);
+            keyBounded &= policy.hasKeyBound(host);
+            hostKeys[position] = normalize(policy.getKey(host));
+            hostIndex.add(position);
+            final int hostPosition = position;
+            listenedHosts[position] = host;
+            hostListeners[position] = () -> markHostDirty(hostPosition);
+            host.getGuestScheduler().addChangeListener(hostListeners[position]);
+        }
+    }
+
+    /**
+     * Stops the hosts of the index from notifying it, so that the schedulers do not keep the
+     * listeners of an index that is no longer used, next to the ones of other indexes.
+     */
+    private void releaseHostIndex() {
+        if (listenedHosts != null) {
+            for (int position = 0; position < listenedHosts.length; position++) {
+                listenedHosts[position].getGuestScheduler().removeChangeListener(hostListeners[position]);
+            }
+        }
+        listenedHosts = null;
+        hostListeners = null;
+        indexedHosts = null;
+    }
+
+    private void markHostDirty(int position) {
+        if (!dirtyHosts[position]) {
+            dirtyHosts[position] = true;
+            dirtyPositions.add(position);
+        }
+    }
+
+    private void updateHostIndex(IndexedSelectionPolicy<HostEntity> policy) {
+        for (int position : dirtyPositions) {
+            hostIndex.remove(position);
+            hostKeys[position] = normalize(policy.getKey(indexedHosts.get(position)));
+            hostIndex.add(position);
+            dirtyHosts[position] = false;
+        }
+        dirtyPositions.clear();
+    }
+
+    // -0.0 and 0.0 are equal in the scan, so they must be in the index too
+    private static double normalize(double key) {
+        return key + 0.0;
+    }
 }
@@ -52,6 +52,9 @@ public abstract class VmScheduler {
 	/** The VMs migrating out the host (departing). It is the list of VM ids */
 	private List<String> guestsMigratingOut;
 
+	/** Notified whenever the available MIPS change, e.g. to keep indexes of hosts up to date. */
+	private final List<Runnable> changeListeners = new ArrayList<>();
+
 	/**
 	 * Creates a new VmScheduler.
 	 * 
@@ -94,6 +97,42 @@ public abstract class VmScheduler {
 	 */
 	public abstract void deallocatePesForGuest(GuestEntity guest);
 
+	/**
+	 * Re-allocates the PEs of some VMs for new requested MIPS shares: it releases the PEs of all
+	 * the VMs, then allocates PEs for each of them in the given order. Subclasses may do the same
+	 * in fewer steps, as long as they end with the same allocation.
+	 * <p/>
+	 * The VMs are identified by their index in the list, so that the shares requested at each
+	 * scheduling interval can be kept in an array and refilled, instead of being looked up by VM.
+	 *
+	 * @param guests the vms
+	 * @param mipsSharesRequested the MIPS share requested by each of the vms, by index in the list
+	 */
+	public void reallocatePesForGuests(List<? extends GuestEntity> guests, MipsShare[] mipsSharesRequested) {
+		for (int i = 0; i < guests.size(); i++) {
+			deallocatePesForGuest(guests.get(i));
+		}
+		for (int i = 0; i < guests.size(); i++) {
+			allocatePesForGuest(guests.get(i), mipsSharesRequested[i]);
+		}
+	}
+
+	/**
+	 * Re-allocates the PEs of some VMs for new requested MIPS shares, as
+	 * {@link #reallocatePesForGuests(List, MipsShare[])} does.
+	 *
+	 * @param guests the vms
+	 * @param mipsSharesRequested the MIPS share requested by each of the vms
+	 */
+	public void reallocatePesForGuests(List<? extends GuestEntity> guests,
+			Map<GuestEntity, ? extends List<Double>> mipsSharesRequested) {
+		MipsShare[] shares = new MipsShare[guests.size()];
+		for (int i = 0; i < shares.length; i++) {
+			shares[i] = MipsShare.of(mipsSharesRequested.get(guests.get(i)));
+		}
+		reallocatePesForGuests(guests, shares);
+	}
+
 	@Deprecated
 	public void deallocatePesForVm(Vm vm) {
 		deallocatePesForGuest(vm);
@@ -109,8 +148,8 @@ public abstract class VmScheduler {
 	public void deallocatePesForAllGuests() {
 		getMipsMapAllocated().clear();
 		setAvailableMips(PeList.getTotalMips(getPeList()));
-		for (Pe pe : getPeList()) {
-			pe.getPeProvisioner().deallocateMipsForAllGuests();
+		for (int i = 0; i < getPeList().size(); i++) {
+			getPeList().get(i).getPeProvisioner().deallocateMipsForAllGuests();
 		}
 	}
 
@@ -160,7 +199,9 @@ public abstract class VmScheduler {
 	public double getTotalAllocatedMipsForGuest(GuestEntity guest) {
 		double allocated = 0;
 		List<Double> mipsMap = getAllocatedMipsForGuest(guest);
-		if (mipsMap != null) {
+		if (mipsMap instanceof MipsShare share) {
+			return share.getTotalMips();
+		} else if (mipsMap != null) {
 			for (double mips : mipsMap) {
 				allocated += mips;
 			}
@@ -221,7 +262,35 @@ public abstract class VmScheduler {
 	protected void setMipsMapAllocated(Map<String, List<Double>> mipsMapAllocated) { this.mipsMapAllocated = mipsMapAllocated; }
 
 	public double getAvailableMips() { return availableMips; }
-	protected void setAvailableMips(double availableMips) { this.availableMips = availableMips; }
+	protected void setAvailableMips(double availableMips) {
+		this.availableMips = availableMips;
+		notifyChangeListeners();
+	}
+
+	/**
+	 * Adds a listener notified whenever the available MIPS of the scheduler, or the utilization
+	 * of its host, change.
+	 *
+	 * @param changeListener the listener
+	 */
+	public void addChangeListener(Runnable changeListener) { changeListeners.add(changeListener); }
+
+	/**
+	 * Removes a listener added by {@link #addChangeListener(Runnable)}.
+	 *
+	 * @param changeListener the listener
+	 * @return true if the listener was removed
+	 */
+	public boolean removeChangeListener(Runnable changeListener) { return changeListeners.remove(changeListener); }
+
+	/**
+	 * Notifies the change listeners, if any.
+	 */
+	public void notifyChangeListeners() {
+		for (int i = 0; i < changeListeners.size(); i++) {
+			changeListeners.get(i).run();
+		}
+	}
 
 	public List<String> getGuestsMigratingIn() {
 		return guestsMigratingIn;
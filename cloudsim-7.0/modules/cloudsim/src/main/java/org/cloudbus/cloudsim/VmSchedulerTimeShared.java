@@ -7,12 +7,16 @@
 
 package org.cloudbus.cloudsim;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.lists.PeList;
@@ -25,6 +29,13 @@ import org.cloudbus.cloudsim.provisioners.PeProvisioner;
  * 
  * Each host has to use is own instance of a VmScheduler
  * that will so schedule the allocation of host's PEs for VMs running on it.
+ * <p/>
+ * The VMs are given a slot, an int id of the scheduler, when they are first allocated PEs, and
+ * their requested and allocated MIPS and their PEs are kept in arrays indexed by slot. The maps
+ * keyed by VM uid ({@link #getMipsMapRequested()}, {@link #getMipsMapAllocated()} and
+ * {@link #getPeMap()}) are views of these arrays, whose entries are ordered by slot. The shares
+ * and PE lists of a VM are refilled by its next allocation, so that re-allocating the same VMs
+ * allocates no memory. The maps of the scheduler are not to be replaced.
  * 
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
@@ -33,14 +44,56 @@ import org.cloudbus.cloudsim.provisioners.PeProvisioner;
  */
 public class VmSchedulerTimeShared extends VmScheduler {
 
+	/** The slot of each VM known to the scheduler, by VM uid. */
+	private final Map<String, Integer> slots = new HashMap<>();
+
+	/** The uid of the VM of each slot, or null if the slot is free. */
+	private String[] slotUids = new String[8];
+
+	/** The number of slots, free ones included. */
+	private int slotCount;
+
+	/** The free slots below {@link #slotCount}. */
+	private int[] freeSlots = new int[8];
+
+	private int freeSlotCount;
+
 	/** The map of requested mips, where each key is a VM
          * and each value is a list of MIPS requested by that VM. 
          */
-	private Map<String, List<Double>> mipsMapRequested;
+	private final SlotMap<List<Double>> mipsMapRequested = new SlotMap<>();
+
+	/** The MIPS allocated to the VM of each slot, viewed as the map of the VmScheduler. */
+	private final SlotMap<List<Double>> mipsMapAllocated = new SlotMap<>();
+
+	/** The PEs allocated to the VM of each slot, viewed as the map of the VmScheduler. */
+	private final SlotMap<List<Pe>> peMap = new SlotMap<>();
+
+	/** The share allocated to the VM of each slot, kept to be refilled by its next allocation. */
+	private MipsShare[] allocatedShares = new MipsShare[8];
+
+	/** The PE list of the VM of each slot, kept to be refilled by the next provisioning. */
+	private List<Pe>[] peLists = newPeLists(8);
 
 	/** The number of host's PEs in use. */
 	private int pesInUse;
 
+	/** The number of allocations and deallocations requested to the scheduler. */
+	private long allocationCount;
+
+	/**
+	 * The value of {@link #allocationCount} after the last
+	 * {@link #reallocatePesForGuests(List, MipsShare[]) re-allocation}, or -1 if it has to be done again.
+	 */
+	private long reallocationCount = -1;
+
+	/** The VMs of the last re-allocation, with what their allocation depended on. */
+	private final List<Reallocation> reallocations = new ArrayList<>();
+
+	/** The VMs migrating in and out the host at the last re-allocation. */
+	private final List<String> reallocationMigratingIn = new ArrayList<>();
+	private final List<String> reallocationMigratingOut = new ArrayList<>();
+
 	/**
 	 * Instantiates a new vm time-shared scheduler.
 	 * 
@@ -48,11 +101,25 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	 */
 	public VmSchedulerTimeShared(List<? extends Pe> pelist) {
 		super(pelist);
-		setMipsMapRequested(new HashMap<>());
+		setPeMap(peMap);
+		setMipsMapAllocated(mipsMapAllocated);
 	}
 
 	@Override
 	public boolean allocatePesForGuest(GuestEntity guest, List<Double> mipsShareRequested) {
+		allocationCount++;
+		updateGuestMigratingOut(guest);
+		boolean result = allocatePesForGuest(guest.getUid(), mipsShareRequested);
+		updatePeProvisioning();
+		return result;
+	}
+
+	/**
+	 * Adds a VM to the VMs migrating out the host if it is in migration, or removes it otherwise.
+	 *
+	 * @param guest the vm
+	 */
+	private void updateGuestMigratingOut(GuestEntity guest) {
 		/*
 		 * //@TODO add the same to RAM and BW provisioners
 		 */
@@ -63,9 +130,6 @@ public class VmSchedulerTimeShared extends VmScheduler {
 		} else {
 			getGuestsMigratingOut().remove(guest.getUid());
 		}
-		boolean result = allocatePesForGuest(guest.getUid(), mipsShareRequested);
-		updatePeProvisioning();
-		return result;
 	}
 
 	/**
@@ -76,9 +140,11 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	 * @return true, if successful
 	 */
 	protected boolean allocatePesForGuest(String vmUid, List<Double> mipsShareRequested) {
+		MipsShare requested = MipsShare.of(mipsShareRequested);
 		double totalRequestedMips = 0;
 		double peMips = getPeCapacity();
-		for (Double mips : mipsShareRequested) {
+		for (int i = 0; i < requested.size(); i++) {
+			double mips = requested.getMips(i);
 			// each virtual PE of a VM must require not more than the capacity of a physical PE
 			if (mips > peMips) {
 				return false;
@@ -99,16 +165,19 @@ public class VmSchedulerTimeShared extends VmScheduler {
 			totalRequestedMips *= 0.1;
 		}
 
-		List<Double> mipsShareAllocated = new ArrayList<>();
-		for (Double mipsRequested : mipsShareRequested) {
-			if (getGuestsMigratingOut().contains(vmUid)) {
+		MipsShare mipsShareAllocated = getAllocatedShare(vmUid);
+		boolean migratingOut = getGuestsMigratingOut().contains(vmUid);
+		boolean migratingIn = getGuestsMigratingIn().contains(vmUid);
+		for (int i = 0; i < requested.size(); i++) {
+			double mipsRequested = requested.getMips(i);
+			if (migratingOut) {
 				// performance degradation due to migration = 10% MIPS
 				mipsRequested *= 0.9;
-			} else if (getGuestsMigratingIn().contains(vmUid)) {
+			} else if (migratingIn) {
 				// the destination host only experience 10% of the migrating VM's MIPS
 				mipsRequested *= 0.1;
 			}
-			mipsShareAllocated.add(mipsRequested);
+			mipsShareAllocated.addMips(mipsRequested);
 		}
 
 		getMipsMapAllocated().put(vmUid, mipsShareAllocated);
@@ -117,72 +186,116 @@ public class VmSchedulerTimeShared extends VmScheduler {
 		return true;
 	}
 
+	/**
+	 * Gets an empty share to fill with the MIPS allocated to a VM. The share of the previous
+	 * allocation of the VM is reused, instead of creating a new one.
+	 *
+	 * @param vmUid the vm uid
+	 * @return the empty share
+	 */
+	protected MipsShare getAllocatedShare(String vmUid) {
+		int slot = addSlot(vmUid);
+		MipsShare mipsShareAllocated = allocatedShares[slot];
+		if (mipsShareAllocated == null) {
+			mipsShareAllocated = new MipsShare();
+			allocatedShares[slot] = mipsShareAllocated;
+		}
+		mipsShareAllocated.clear();
+		return mipsShareAllocated;
+	}
+
 	/**
 	 * Update allocation of VMs on PEs.
          * @todo The method is too long and may be refactored to make clearer its
          * responsibility.
 	 */
 	protected void updatePeProvisioning() {
-		getPeMap().clear();
-		for (Pe pe : getPeList()) {
-			pe.getPeProvisioner().deallocateMipsForAllGuests();
+		List<? extends Pe> hostPes = getPeList();
+		for (int i = 0; i < hostPes.size(); i++) {
+			hostPes.get(i).getPeProvisioner().deallocateMipsForAllGuests();
 		}
 
-		Iterator<? extends Pe> peIterator = getPeList().iterator();
-		Pe pe = peIterator.next();
+		int peIndex = 0;
+		Pe pe = hostPes.getFirst();
 		PeProvisioner peProvisioner = pe.getPeProvisioner();
 		double availableMips = peProvisioner.getAvailableMips();
 
-		for (Map.Entry<String, List<Double>> entry : getMipsMapAllocated().entrySet()) {
-			String vmUid = entry.getKey();
-			getPeMap().put(vmUid, new LinkedList<>());
+		for (int slot = 0; slot < slotCount; slot++) {
+			List<Double> allocatedMips = mipsMapAllocated.getAt(slot);
+			if (allocatedMips == null) {
+				peMap.setAt(slot, null);
+				continue;
+			}
+			String vmUid = slotUids[slot];
+			// the PE lists of the VMs still allocated are refilled, instead of creating new ones
+			List<Pe> vmPes = peLists[slot];
+			if (vmPes == null) {
+				vmPes = new ArrayList<>();
+				peLists[slot] = vmPes;
+			}
+			vmPes.clear();
+			peMap.setAt(slot, vmPes);
 
 			// Spread mips share among the Pes
-			for (double mips : entry.getValue()) {
+			MipsShare mipsShare = MipsShare.of(allocatedMips);
+			for (int i = 0; i < mipsShare.size(); i++) {
+				double mips = mipsShare.getMips(i);
 				while (mips >= 0.1) { // rounding error
 					if (availableMips >= mips) {
 						peProvisioner.allocateMipsForGuest(vmUid, mips);
-						getPeMap().get(vmUid).add(pe);
+						vmPes.add(pe);
 						availableMips -= mips;
 						break;
 					} else { // next pe needed, no more space
 						peProvisioner.allocateMipsForGuest(vmUid, availableMips);
-						getPeMap().get(vmUid).add(pe);
+						vmPes.add(pe);
 						mips -= availableMips;
 						if (mips <= 0.1) {
 							break;
 						}
-						if (!peIterator.hasNext()) {
+						if (peIndex + 1 >= hostPes.size()) {
 							Log.printlnConcat("There is no enough MIPS (", mips, ") to accommodate VM ", vmUid);
 							// System.exit(0);
 						}
-						pe = peIterator.next();
+						pe = hostPes.get(++peIndex);
 						peProvisioner = pe.getPeProvisioner();
 						availableMips = peProvisioner.getAvailableMips();
 					}
 				}
 			}
 		}
+		releaseUnusedSlots();
 	}
 
 	@Override
 	public void deallocatePesForGuest(GuestEntity guest) {
+		allocationCount++;
 		getMipsMapRequested().remove(guest.getUid());
 		setPesInUse(0);
 		getMipsMapAllocated().clear();
 		setAvailableMips(PeList.getTotalMips(getPeList()));
 
-		for (Pe pe : getPeList()) {
-			pe.getPeProvisioner().deallocateMipsForGuest(guest);
+		for (int i = 0; i < getPeList().size(); i++) {
+			getPeList().get(i).getPeProvisioner().deallocateMipsForGuest(guest);
 		}
 
 		// Re-allocate to remaining guests
-		for (Map.Entry<String, List<Double>> entry : getMipsMapRequested().entrySet()) {
-			allocatePesForGuest(entry.getKey(), entry.getValue());
-		}
+		reallocateRequestedPes();
 		updatePeProvisioning();
 	}
 
+	/**
+	 * Allocates PEs again for all the VMs that requested MIPS, in the order of their slots.
+	 */
+	private void reallocateRequestedPes() {
+		for (int slot = 0; slot < slotCount; slot++) {
+			List<Double> mipsShareRequested = mipsMapRequested.getAt(slot);
+			if (mipsShareRequested != null) {
+				allocatePesForGuest(slotUids[slot], mipsShareRequested);
+			}
+		}
+	}
+
 	/**
 	 * Releases PEs allocated to all the VMs.
 	 * 
@@ -191,11 +304,116 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	 */
 	@Override
 	public void deallocatePesForAllGuests() {
+		allocationCount++;
 		super.deallocatePesForAllGuests();
 		getMipsMapRequested().clear();
 		setPesInUse(0);
 	}
 
+	/**
+	 * Re-allocates the PEs of some VMs for new requested MIPS shares, ending with the same
+	 * allocation as releasing the PEs of each VM then allocating them again. The VMs are released
+	 * together and the PEs are provisioned once, instead of after each step. When neither the
+	 * scheduler, the VMs, their migration state nor their requested MIPS changed since the last
+	 * re-allocation, the allocation is kept as it is.
+	 */
+	@Override
+	public void reallocatePesForGuests(List<? extends GuestEntity> guests, MipsShare[] mipsSharesRequested) {
+		if (guests.isEmpty() || isReallocationUnchanged(guests, mipsSharesRequested)) {
+			return;
+		}
+
+		// Release all the guests, as deallocatePesForGuest does for each of them
+		for (int i = 0; i < guests.size(); i++) {
+			getMipsMapRequested().remove(guests.get(i).getUid());
+		}
+		setPesInUse(0);
+		getMipsMapAllocated().clear();
+		setAvailableMips(PeList.getTotalMips(getPeList()));
+
+		// Re-allocate to remaining guests
+		reallocateRequestedPes();
+
+		// Allocate the guests again, as allocatePesForGuest does for each of them
+		for (int i = 0; i < guests.size(); i++) {
+			GuestEntity guest = guests.get(i);
+			updateGuestMigratingOut(guest);
+			allocatePesForGuest(guest.getUid(), mipsSharesRequested[i]);
+		}
+		updatePeProvisioning();
+
+		saveReallocation(guests, mipsSharesRequested);
+	}
+
+	/**
+	 * Checks if a re-allocation would not change the allocation of the last one.
+	 *
+	 * @param guests the vms
+	 * @param mipsSharesRequested the MIPS share requested by each of the vms
+	 * @return true if the allocation is the same
+	 */
+	private boolean isReallocationUnchanged(List<? extends GuestEntity> guests, MipsShare[] mipsSharesRequested) {
+		if (reallocationCount != allocationCount || reallocations.size() != guests.size()
+				|| !reallocationMigratingIn.equals(getGuestsMigratingIn())
+				|| !reallocationMigratingOut.equals(getGuestsMigratingOut())) {
+			return false;
+		}
+		for (int i = 0; i < guests.size(); i++) {
+			GuestEntity guest = guests.get(i);
+			Reallocation reallocation = reallocations.get(i);
+			// the allocated share may also have been changed by the guest (see CloudletScheduler#setCurrentMipsShare)
+			if (reallocation.guest != guest || reallocation.inMigration != guest.isInMigration()
+					|| reallocation.allocatedShare != getMipsMapAllocated().get(guest.getUid())
+					|| reallocation.allocatedSize != getAllocatedSize(guest)
+					|| !reallocation.mipsShareRequested.equals(mipsSharesRequested[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Saves what the allocation of the VMs depended on, to find out if it has to be done again.
+	 *
+	 * @param guests the vms
+	 * @param mipsSharesRequested the MIPS share requested by each of the vms
+	 */
+	private void saveReallocation(List<? extends GuestEntity> guests, MipsShare[] mipsSharesRequested) {
+		while (reallocations.size() < guests.size()) {
+			reallocations.add(new Reallocation());
+		}
+		while (reallocations.size() > guests.size()) {
+			reallocations.removeLast();
+		}
+		for (int i = 0; i < guests.size(); i++) {
+			GuestEntity guest = guests.get(i);
+			Reallocation reallocation = reallocations.get(i);
+			reallocation.guest = guest;
+			reallocation.inMigration = guest.isInMigration();
+			reallocation.mipsShareRequested.setAll(mipsSharesRequested[i]);
+			reallocation.allocatedShare = getMipsMapAllocated().get(guest.getUid());
+			reallocation.allocatedSize = getAllocatedSize(guest);
+		}
+		copy(getGuestsMigratingIn(), reallocationMigratingIn);
+		copy(getGuestsMigratingOut(), reallocationMigratingOut);
+		reallocationCount = allocationCount;
+	}
+
+	/**
+	 * Copies the VM uids of a list into another one, without the array that {@link List#addAll} creates.
+	 */
+	private static void copy(List<String> from, List<String> to) {
+		to.clear();
+		for (int i = 0; i < from.size(); i++) {
+			to.add(from.get(i));
+		}
+	}
+
+	private int getAllocatedSize(GuestEntity guest) {
+		List<Double> allocatedMips = getMipsMapAllocated().get(guest.getUid());
+		return allocatedMips == null ? -1 : allocatedMips.size();
+	}
+
 	/**
 	 * Returns maximum available MIPS among all the PEs. For the time shared policy it is just all
 	 * the avaiable MIPS.
@@ -226,7 +444,7 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	}
 
 	/**
-	 * Gets the mips map requested.
+	 * Gets the mips map requested, a view of the MIPS requested by the VM of each slot.
 	 * 
 	 * @return the mips map requested
 	 */
@@ -235,11 +453,261 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	}
 
 	/**
-	 * Sets the mips map requested.
+	 * Sets the mips map requested, replacing the MIPS requested by the VMs with the ones of a map.
 	 * 
 	 * @param mipsMapRequested the mips map requested
 	 */
 	protected void setMipsMapRequested(Map<String, List<Double>> mipsMapRequested) {
-		this.mipsMapRequested = mipsMapRequested;
+		this.mipsMapRequested.clear();
+		this.mipsMapRequested.putAll(mipsMapRequested);
+	}
+
+	/**
+	 * Gets the number of slots of the scheduler. The slots are the int ids of the VMs of the
+	 * scheduler, some of which may be free.
+	 *
+	 * @return the number of slots
+	 */
+	protected int getSlotCount() {
+		return slotCount;
+	}
+
+	/**
+	 * Gets the uid of the VM of a slot.
+	 *
+	 * @param slot the slot
+	 * @return the uid, or null if the slot is free
+	 */
+	protected String getSlotUid(int slot) {
+		return slotUids[slot];
+	}
+
+	/**
+	 * Gets the MIPS requested by the VM of a slot, as {@link #getMipsMapRequested()} does by uid.
+	 *
+	 * @param slot the slot
+	 * @return the MIPS requested, or null if the VM requested none
+	 */
+	protected List<Double> getMipsRequested(int slot) {
+		return mipsMapRequested.getAt(slot);
+	}
+
+	/**
+	 * Gets the slot of a VM.
+	 *
+	 * @param vmUid the uid of the VM
+	 * @return the slot, or -1 if the VM has none
+	 */
+	private int getSlot(Object vmUid) {
+		Integer slot = slots.get(vmUid);
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * Gets the slot of a VM, giving it one if it has none.
+	 *
+	 * @param vmUid the uid of the VM
+	 * @return the slot
+	 */
+	private int addSlot(String vmUid) {
+		Integer slot = slots.get(vmUid);
+		if (slot != null) {
+			return slot;
+		}
+		int newSlot;
+		if (freeSlotCount > 0) {
+			newSlot = freeSlots[--freeSlotCount];
+		} else {
+			newSlot = slotCount++;
+			if (newSlot == slotUids.length) {
+				slotUids = Arrays.copyOf(slotUids, newSlot * 2);
+				allocatedShares = Arrays.copyOf(allocatedShares, newSlot * 2);
+				peLists = Arrays.copyOf(peLists, newSlot * 2);
+				freeSlots = Arrays.copyOf(freeSlots, newSlot * 2);
+			}
+		}
+		slotUids[newSlot] = vmUid;
+		slots.put(vmUid, newSlot);
+		return newSlot;
+	}
+
+	/**
+	 * Frees the slots of the VMs that neither request nor are allocated MIPS, nor have PEs, once
+	 * they are many more than the VMs in use. Until then, a VM that leaves and comes back keeps its
+	 * slot, its share and its PE list.
+	 */
+	private void releaseUnusedSlots() {
+		int used = 0;
+		for (int slot = 0; slot < slotCount; slot++) {
+			if (isSlotUsed(slot)) {
+				used++;
+			}
+		}
+		if (slots.size() <= 2 * used + 8) {
+			return;
+		}
+		for (int slot = 0; slot < slotCount; slot++) {
+			if (slotUids[slot] != null && !isSlotUsed(slot)) {
+				slots.remove(slotUids[slot]);
+				slotUids[slot] = null;
+				allocatedShares[slot] = null;
+				peLists[slot] = null;
+				freeSlots[freeSlotCount++] = slot;
+			}
+		}
+	}
+
+	private boolean isSlotUsed(int slot) {
+		return mipsMapRequested.getAt(slot) != null || mipsMapAllocated.getAt(slot) != null
+				|| peMap.getAt(slot) != null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Pe>[] newPeLists(int length) {
+		return new List[length];
+	}
+
+	/**
+	 * A map keyed by VM uid, whose values are kept in an array indexed by the slot of the VM. A
+	 * VM without value has no entry, so that putting a null value removes the entry of the VM.
+	 *
+	 * @param <V> the type of the values
+	 */
+	private final class SlotMap<V> extends AbstractMap<String, V> {
+
+		/** The value of each slot, or null. */
+		private Object[] values = new Object[8];
+
+		/** The number of values. */
+		private int size;
+
+		@SuppressWarnings("unchecked")
+		V getAt(int slot) {
+			return slot < values.length ? (V) values[slot] : null;
+		}
+
+		V setAt(int slot, V value) {
+			if (slot >= values.length) {
+				values = Arrays.copyOf(values, Math.max(slot + 1, values.length * 2));
+			}
+			V previous = getAt(slot);
+			values[slot] = value;
+			if (previous == null && value != null) {
+				size++;
+			} else if (previous != null && value == null) {
+				size--;
+			}
+			return previous;
+		}
+
+		@Override
+		public V get(Object key) {
+			int slot = getSlot(key);
+			return slot < 0 ? null : getAt(slot);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return get(key) != null;
+		}
+
+		@Override
+		public V put(String key, V value) {
+			if (value == null) {
+				return remove(key);
+			}
+			return setAt(addSlot(key), value);
+		}
+
+		@Override
+		public V remove(Object key) {
+			int slot = getSlot(key);
+			return slot < 0 ? null : setAt(slot, null);
+		}
+
+		@Override
+		public void clear() {
+			Arrays.fill(values, null);
+			size = 0;
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public Set<Entry<String, V>> entrySet() {
+			return new AbstractSet<>() {
+				@Override
+				public Iterator<Entry<String, V>> iterator() {
+					return new Iterator<>() {
+						private int next = find(0);
+						private int last = -1;
+
+						private int find(int from) {
+							while (from < slotCount && getAt(from) == null) {
+								from++;
+							}
+							return from;
+						}
+
+						@Override
+						public boolean hasNext() {
+							return next < slotCount;
+						}
+
+						@Override
+						public Entry<String, V> next() {
+							if (!hasNext()) {
+								throw new NoSuchElementException();
+							}
+							last = next;
+							next = find(next + 1);
+							int slot = last;
+							return new SimpleEntry<>(slotUids[slot], getAt(slot)) {
+								@Override
+								public V setValue(V value) {
+									super.setValue(value);
+									return put(getKey(), value);
+								}
+							};
+						}
+
+						@Override
+						public void remove() {
+							if (last < 0) {
+								throw new IllegalStateException();
+							}
+							setAt(last, null);
+							last = -1;
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return size;
+				}
+			};
+		}
+	}
+
+	/**
+	 * A VM of the last re-allocation.
+	 */
+	private static class Reallocation {
+
+		GuestEntity guest;
+
+		/** If the VM was in migration. */
+		boolean inMigration;
+
+		/** The MIPS share requested by the VM. */
+		final MipsShare mipsShareRequested = new MipsShare();
+
+		/** The share allocated to the VM, and its size. */
+		List<Double> allocatedShare;
+		int allocatedSize;
 	}
 }
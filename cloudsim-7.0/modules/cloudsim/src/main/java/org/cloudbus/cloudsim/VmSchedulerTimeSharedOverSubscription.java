@@ -7,11 +7,7 @@
 
 package org.cloudbus.cloudsim;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
 import org.cloudbus.cloudsim.lists.PeList;
 
@@ -27,6 +23,9 @@ import org.cloudbus.cloudsim.lists.PeList;
  */
 public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared {
 
+	/** The requested mips share being allocated, capped to the PE capacity. */
+	private final MipsShare mipsShareRequestedCapped = new MipsShare();
+
 	/**
 	 * Instantiates a new vm scheduler time shared over subscription.
 	 * 
@@ -49,18 +48,20 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 	 */
 	@Override
 	protected boolean allocatePesForGuest(String vmUid, List<Double> mipsShareRequested) {
+		MipsShare requested = MipsShare.of(mipsShareRequested);
 		double totalRequestedMips = 0;
 
 		// if the requested mips is bigger than the capacity of a single PE, we cap
 		// the request to the PE's capacity
-		List<Double> mipsShareRequestedCapped = new ArrayList<>();
+		mipsShareRequestedCapped.clear();
 		double peMips = getPeCapacity();
-		for (Double mips : mipsShareRequested) {
+		for (int i = 0; i < requested.size(); i++) {
+			double mips = requested.getMips(i);
 			if (mips > peMips) {
-				mipsShareRequestedCapped.add(peMips);
+				mipsShareRequestedCapped.addMips(peMips);
 				totalRequestedMips += peMips;
 			} else {
-				mipsShareRequestedCapped.add(mips);
+				mipsShareRequestedCapped.addMips(mips);
 				totalRequestedMips += mips;
 			}
 		}
@@ -74,16 +75,19 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 		}
 
 		if (getAvailableMips() >= totalRequestedMips) {
-			List<Double> mipsShareAllocated = new ArrayList<>();
-			for (Double mipsRequested : mipsShareRequestedCapped) {
-				if (getGuestsMigratingOut().contains(vmUid)) {
+			MipsShare mipsShareAllocated = getAllocatedShare(vmUid);
+			boolean migratingOut = getGuestsMigratingOut().contains(vmUid);
+			boolean migratingIn = getGuestsMigratingIn().contains(vmUid);
+			for (int i = 0; i < mipsShareRequestedCapped.size(); i++) {
+				double mipsRequested = mipsShareRequestedCapped.getMips(i);
+				if (migratingOut) {
 					// performance degradation due to migration = 10% MIPS
 					mipsRequested *= 0.9;
-				} else if (getGuestsMigratingIn().contains(vmUid)) {
+				} else if (migratingIn) {
 					// the destination host only experience 10% of the migrating VM's MIPS
 					mipsRequested *= 0.1;
 				}
-				mipsShareAllocated.add(mipsRequested);
+				mipsShareAllocated.addMips(mipsRequested);
 			}
 
 			getMipsMapAllocated().put(vmUid, mipsShareAllocated);
@@ -92,8 +96,7 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 			redistributeMipsDueToOverSubscription();
 		}
 
-        mipsShareRequestedCapped.clear();
-        return true;
+		return true;
     }
 
 	/**
@@ -104,28 +107,26 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 		// First, we calculate the scaling factor - the MIPS allocation for all VMs will be scaled
 		// proportionally
 		double totalRequiredMipsByAllVms = 0;
+		double peMips = getPeCapacity();
 
-		Map<String, List<Double>> mipsMapCapped = new HashMap<>();
-		for (Entry<String, List<Double>> entry : getMipsMapRequested().entrySet()) {
+		for (int slot = 0; slot < getSlotCount(); slot++) {
+			List<Double> mipsRequested = getMipsRequested(slot);
+			if (mipsRequested == null) {
+				continue;
+			}
 
 			double requiredMipsByThisVm = 0.0;
-			String vmId = entry.getKey();
-			List<Double> mipsShareRequested = entry.getValue();
-			List<Double> mipsShareRequestedCapped = new ArrayList<>();
-			double peMips = getPeCapacity();
-			for (Double mips : mipsShareRequested) {
+			MipsShare mipsShareRequested = MipsShare.of(mipsRequested);
+			for (int i = 0; i < mipsShareRequested.size(); i++) {
+				double mips = mipsShareRequested.getMips(i);
 				if (mips > peMips) {
-					mipsShareRequestedCapped.add(peMips);
 					requiredMipsByThisVm += peMips;
 				} else {
-					mipsShareRequestedCapped.add(mips);
 					requiredMipsByThisVm += mips;
 				}
 			}
 
-			mipsMapCapped.put(vmId, mipsShareRequestedCapped);
-
-			if (getGuestsMigratingIn().contains(entry.getKey())) {
+			if (getGuestsMigratingIn().contains(getSlotUid(slot))) {
 				// the destination host only experience 10% of the migrating VM's MIPS
 				requiredMipsByThisVm *= 0.1;
 			}
@@ -138,19 +139,30 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 		// Clear the old MIPS allocation
 		getMipsMapAllocated().clear();
 
-		// Update the actual MIPS allocated to the VMs
-		for (Entry<String, List<Double>> entry : mipsMapCapped.entrySet()) {
-			String vmUid = entry.getKey();
-			List<Double> requestedMips = entry.getValue();
-
-			List<Double> updatedMipsAllocation = new ArrayList<>();
-			for (Double mips : requestedMips) {
-				if (getGuestsMigratingOut().contains(vmUid)) {
+		// Update the actual MIPS allocated to the VMs, capping the requested MIPS of each PE
+		// to the PE capacity
+		for (int slot = 0; slot < getSlotCount(); slot++) {
+			List<Double> mipsRequested = getMipsRequested(slot);
+			if (mipsRequested == null) {
+				continue;
+			}
+			String vmUid = getSlotUid(slot);
+			MipsShare requestedMips = MipsShare.of(mipsRequested);
+			boolean migratingOut = getGuestsMigratingOut().contains(vmUid);
+			boolean migratingIn = getGuestsMigratingIn().contains(vmUid);
+
+			MipsShare updatedMipsAllocation = getAllocatedShare(vmUid);
+			for (int i = 0; i < requestedMips.size(); i++) {
+				double mips = requestedMips.getMips(i);
+				if (mips > peMips) {
+					mips = peMips;
+				}
+				if (migratingOut) {
 					// the original amount is scaled
 					mips *= scalingFactor;
 					// performance degradation due to migration = 10% MIPS
 					mips *= 0.9;
-				} else if (getGuestsMigratingIn().contains(vmUid)) {
+				} else if (migratingIn) {
 					// the destination host only experiences 10% of the migrating VM's MIPS
 					mips *= 0.1;
 					// the final 10% of the requested MIPS are scaled
@@ -159,7 +171,7 @@ public class VmSchedulerTimeSharedOverSubscription extends VmSchedulerTimeShared
 					mips *= scalingFactor;
 				}
 
-				updatedMipsAllocation.add(Math.floor(mips));
+				updatedMipsAllocation.addMips(Math.floor(mips));
 			}
 
 			// add in the new map
@@ -0,0 +1,43 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+/**
+ * The state history of a VM or a container. The flag of a state tells whether the guest was in
+ * migration.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class VmStateHistory extends StateHistory<VmStateHistoryEntry> {
+
+	@Override
+	protected VmStateHistoryEntry createEntry(double time, double allocatedMips, double requestedMips, boolean flag) {
+		return new VmStateHistoryEntry(time, allocatedMips, requestedMips, flag);
+	}
+
+	@Override
+	protected double getTime(VmStateHistoryEntry entry) {
+		return entry.getTime();
+	}
+
+	@Override
+	protected double getAllocatedMips(VmStateHistoryEntry entry) {
+		return entry.getAllocatedMips();
+	}
+
+	@Override
+	protected double getRequestedMips(VmStateHistoryEntry entry) {
+		return entry.getRequestedMips();
+	}
+
+	@Override
+	protected boolean getFlag(VmStateHistoryEntry entry) {
+		return entry.isInMigration();
+	}
+}
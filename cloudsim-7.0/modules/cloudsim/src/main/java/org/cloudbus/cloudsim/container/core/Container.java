@@ -12,7 +12,6 @@ import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.core.HostEntity;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -74,7 +73,7 @@ public class Container implements GuestEntity {
     private boolean beingInstantiated;
 
     /** The mips allocation history. */
-    private final List<VmStateHistoryEntry> stateHistory = new LinkedList<>();
+    private final VmStateHistory stateHistory = new VmStateHistory();
 
     /** The previous time. */
     private double previousTime;
@@ -231,6 +230,15 @@ public class Container implements GuestEntity {
         return getCloudletScheduler().getCurrentRequestedMips();
     }
 
+    @Override
+    public void addCurrentRequestedMips(MipsShare mipsShare) {
+        if (isBeingInstantiated()) {
+            mipsShare.addMips(getMips(), getNumberOfPes());
+        } else {
+            getCloudletScheduler().addCurrentRequestedMips(mipsShare);
+        }
+    }
+
     @Override
     public double getCurrentRequestedTotalMips() {
         if (isBeingInstantiated())
@@ -309,5 +317,5 @@ public class Container implements GuestEntity {
 
     public boolean isBeingInstantiated() { return beingInstantiated; }
 
-    public List<VmStateHistoryEntry> getStateHistory() { return stateHistory; }
+    public VmStateHistory getStateHistory() { return stateHistory; }
 }
@@ -338,12 +338,14 @@ public class ContainerDatacenter extends Datacenter {
 
             // the cloudlet will migrate from one vm to another does the destination VM exist?
             if (destId == getId()) {
-                containerVm = (HostEntity) getVmAllocationPolicy().getHost(vmDestId, userId).getGuest(vmDestId, userId);
+                HostEntity host = getVmAllocationPolicy().getHost(vmDestId, userId);
+                containerVm = (HostEntity) host.getGuest(vmDestId, userId);
                 if (containerVm == null) {
                     failed = true;
                 } else {
+                    activateHost(host);
                     // time to transfer the files
-                    double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
+                    double fileTransferTime = cl.requiresFiles() ? predictFileTransferTime(cl.getRequiredFiles()) : 0;
                     containerVm.getGuest(containerDestId, userId).getCloudletScheduler().cloudletSubmit(cl, fileTransferTime);
                 }
             } else {// the cloudlet will migrate from one resource to another
@@ -380,72 +382,90 @@ public class ContainerDatacenter extends Datacenter {
         try {
             Cloudlet cl = (Cloudlet) ev.getData();
 
-            // checks whether this Cloudlet has finished or not
-            if (cl.isFinished()) {
-                String name = CloudSim.getEntityName(cl.getUserId());
-                Log.printlnConcat(getName(), ": Warning - Cloudlet #", cl.getCloudletId(), " owned by ", name,
-                        " is already completed/finished.");
-                Log.println("Therefore, it is not being executed again");
-                Log.println();
-
-                // NOTE: If a Cloudlet has finished, then it won't be processed.
-                // So, if ack is required, this method sends back a result.
-                // If ack is not required, this method don't send back a result.
-                // Hence, this might cause CloudSim to be hanged since waiting
-                // for this Cloudlet back.
-                if (ack) {
-                    int[] data = new int[3];
-                    data[0] = getId();
-                    data[1] = cl.getCloudletId();
-                    data[2] = CloudSimTags.FALSE;
+            double delay = submitCloudlet(cl, ack);
+            if (delay > 0.0) {
+                send(getId(), delay, CloudActionTags.VM_DATACENTER_EVENT);
+            }
+        } catch (ClassCastException c) {
+            Log.println(String.format("%s.processCloudletSubmit(): ClassCastException error.", getName()));
+            c.printStackTrace();
+        } catch (Exception e) {
+            Log.println(String.format("%s.processCloudletSubmit(): Exception error.", getName()));
+            e.printStackTrace();
+        }
 
-                    sendNow(cl.getUserId(), CloudActionTags.CLOUDLET_SUBMIT_ACK, data);
-                }
+        checkCloudletCompletion();
+    }
 
-                sendNow(cl.getUserId(), CloudActionTags.CLOUDLET_RETURN, cl);
+    /**
+     * Submits a Cloudlet to the scheduler of its container, or returns it right away if it has
+     * already finished.
+     *
+     * @param cl  the Cloudlet
+     * @param ack an acknowledgement
+     * @return the delay after which the Cloudlet is expected to finish, or 0 if it is not in execution
+     */
+    @Override
+    protected double submitCloudlet(Cloudlet cl, boolean ack) {
+        // checks whether this Cloudlet has finished or not
+        if (cl.isFinished()) {
+            String name = CloudSim.getEntityName(cl.getUserId());
+            Log.printlnConcat(getName(), ": Warning - Cloudlet #", cl.getCloudletId(), " owned by ", name,
+                    " is already completed/finished.");
+            Log.println("Therefore, it is not being executed again");
+            Log.println();
+
+            // NOTE: If a Cloudlet has finished, then it won't be processed.
+            // So, if ack is required, this method sends back a result.
+            // If ack is not required, this method don't send back a result.
+            // Hence, this might cause CloudSim to be hanged since waiting
+            // for this Cloudlet back.
+            if (ack) {
+                int[] data = new int[3];
+                data[0] = getId();
+                data[1] = cl.getCloudletId();
+                data[2] = CloudSimTags.FALSE;
 
-                return;
+                sendNow(cl.getUserId(), CloudActionTags.CLOUDLET_SUBMIT_ACK, data);
             }
 
-            // process this Cloudlet to this CloudResource
-            cl.setResourceParameter(getId(), getCharacteristics().getCostPerSecond(), getCharacteristics()
-                    .getCostPerBw());
+            sendNow(cl.getUserId(), CloudActionTags.CLOUDLET_RETURN, cl);
 
-            int userId = cl.getUserId();
-            int vmId = cl.getGuestId();
-            int containerId = cl.getContainerId();
+            return 0.0;
+        }
 
-            // time to transfer the files
-            double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
+        // process this Cloudlet to this CloudResource
+        cl.setResourceParameter(getId(), getCharacteristics().getCostPerSecond(), getCharacteristics()
+                .getCostPerBw());
 
-            HostEntity host = getVmAllocationPolicy().getHost(vmId, userId);
-            VirtualEntity vm = (VirtualEntity) host.getGuest(vmId, userId);
-            Container container = (Container) vm.getGuest(containerId, userId);
-            double estimatedFinishTime = container.getCloudletScheduler().cloudletSubmit(cl, fileTransferTime);
+        int userId = cl.getUserId();
+        int vmId = cl.getGuestId();
+        int containerId = cl.getContainerId();
 
-            // if this cloudlet is in the exec queue
-            if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
-                estimatedFinishTime += fileTransferTime;
-                send(getId(), estimatedFinishTime, CloudActionTags.VM_DATACENTER_EVENT);
-            }
+        // time to transfer the files
+        double fileTransferTime = cl.requiresFiles() ? predictFileTransferTime(cl.getRequiredFiles()) : 0;
 
-            if (ack) {
-                int[] data = new int[3];
-                data[0] = getId();
-                data[1] = cl.getCloudletId();
-                data[2] = CloudSimTags.TRUE;
+        HostEntity host = getVmAllocationPolicy().getHost(vmId, userId);
+        VirtualEntity vm = (VirtualEntity) host.getGuest(vmId, userId);
+        Container container = (Container) vm.getGuest(containerId, userId);
+        activateHost(host);
+        double estimatedFinishTime = container.getCloudletScheduler().cloudletSubmit(cl, fileTransferTime);
 
-                sendNow(cl.getUserId(), CloudActionTags.CLOUDLET_SUBMIT_ACK, data);
-            }
-        } catch (ClassCastException c) {
-            Log.println(String.format("%s.processCloudletSubmit(): ClassCastException error.", getName()));
-            c.printStackTrace();
-        } catch (Exception e) {
-            Log.println(String.format("%s.processCloudletSubmit(): Exception error.", getName()));
-            e.printStackTrace();
+        double delay = 0.0;
+        // if this cloudlet is in the exec queue
+        if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
+            delay = estimatedFinishTime + fileTransferTime;
         }
 
-        checkCloudletCompletion();
+        if (ack) {
+            int[] data = new int[3];
+            data[0] = getId();
+            data[1] = cl.getCloudletId();
+            data[2] = CloudSimTags.TRUE;
+
+            sendNow(cl.getUserId(), CloudActionTags.CLOUDLET_SUBMIT_ACK, data);
+        }
+        return delay;
     }
 
     /**
@@ -459,8 +479,9 @@ public class ContainerDatacenter extends Datacenter {
      * @post $none
      */
     protected void processCloudletResume(int cloudletId, int userId, int vmId, int containerId, boolean ack) {
-        double eventTime = ((VirtualEntity) getVmAllocationPolicy().getHost(vmId, userId)
-                            .getGuest(vmId, userId))
+        HostEntity host = getVmAllocationPolicy().getHost(vmId, userId);
+        activateHost(host);
+        double eventTime = ((VirtualEntity) host.getGuest(vmId, userId))
                             .getGuest(containerId, userId)
                             .getCloudletScheduler().cloudletResume(cloudletId);
 
@@ -530,23 +551,20 @@ public class ContainerDatacenter extends Datacenter {
     }
 
     /**
-     * Verifies if some cloudlet inside this PowerDatacenter already finished. If yes, send it to
-     * the User/Broker
+     * Sends the cloudlets of the containers of a host that already finished to their User/Broker.
      *
-     * @pre $none
-     * @post $none
+     * @param host the host
      *
      * @TODO: Generalise this to work with every hybrid host-guest entity
      */
-    protected void checkCloudletCompletion() {
-        for (HostEntity host : getVmAllocationPolicy().getHostList()) {
-            for (VirtualEntity vm : host.<VirtualEntity>getGuestList()) {
-                for (GuestEntity container : vm.getGuestList()) {
-                    while (container.getCloudletScheduler().isFinishedCloudlets()) {
-                        Cloudlet cl = container.getCloudletScheduler().getNextFinishedCloudlet();
-                        if (cl != null) {
-                            sendNow(cl.getUserId(), CloudActionTags.CLOUDLET_RETURN, cl);
-                        }
+    @Override
+    protected void returnFinishedCloudlets(HostEntity host) {
+        for (VirtualEntity vm : host.<VirtualEntity>getGuestList()) {
+            for (GuestEntity container : vm.getGuestList()) {
+                while (container.getCloudletScheduler().isFinishedCloudlets()) {
+                    Cloudlet cl = container.getCloudletScheduler().getNextFinishedCloudlet();
+                    if (cl != null) {
+                        sendNow(cl.getUserId(), CloudActionTags.CLOUDLET_RETURN, cl);
                     }
                 }
             }
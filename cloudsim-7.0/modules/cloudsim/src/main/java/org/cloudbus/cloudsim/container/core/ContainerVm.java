@@ -196,6 +196,17 @@ public class ContainerVm extends Vm {
         return currentRequestedMips;
     }
 
+    @Override
+    public void addCurrentRequestedMips(MipsShare mipsShare) {
+        if (isBeingInstantiated()) {
+            mipsShare.addMips(getMips(), getNumberOfPes());
+        } else {
+            for (GuestEntity container : getGuestList()) {
+                container.addCurrentRequestedMips(mipsShare);
+            }
+        }
+    }
+
     /**
      * Gets the current requested bw.
      *
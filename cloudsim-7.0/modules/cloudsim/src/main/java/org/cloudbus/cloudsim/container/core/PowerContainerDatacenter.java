@@ -337,6 +337,17 @@ public class PowerContainerDatacenter extends ContainerDatacenter {
      * (non-Javadoc)
      * @see cloudsim.Datacenter#processCloudletSubmit(cloudsim.core.SimEvent, boolean)
      */
+    /**
+     * Verifies if some cloudlet inside this PowerDatacenter already finished. Every host is
+     * checked, as every host is updated: the idle hosts still consume energy.
+     */
+    @Override
+    protected void checkCloudletCompletion() {
+        for (PowerHost host : this.<PowerHost>getHostList()) {
+            returnFinishedCloudlets(host);
+        }
+    }
+
     @Override
     protected void processCloudletSubmit(SimEvent ev, boolean ack) {
 //        Log.printLine("Power data center is processing cloudlet submit");
@@ -345,6 +356,12 @@ public class PowerContainerDatacenter extends ContainerDatacenter {
         setCloudletSubmitted(CloudSim.clock());
     }
 
+    @Override
+    protected void processCloudletSubmitBatch(List<? extends Cloudlet> cloudlets) {
+        super.processCloudletSubmitBatch(cloudlets);
+        setCloudletSubmitted(CloudSim.clock());
+    }
+
     /**
      * Gets the power.
      *
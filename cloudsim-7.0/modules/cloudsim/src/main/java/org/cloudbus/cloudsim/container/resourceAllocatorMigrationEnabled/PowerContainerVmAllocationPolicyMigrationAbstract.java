@@ -16,6 +16,7 @@ import org.cloudbus.cloudsim.lists.VmList;
 import org.cloudbus.cloudsim.power.PowerHost;
 import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicy;
 import org.cloudbus.cloudsim.util.ExecutionTimeMeasurer;
+import org.cloudbus.cloudsim.util.ParallelScorer;
 
 import java.util.*;
 
@@ -70,6 +71,11 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstract extends
      */
     private final List<Double> executionTimeHistoryTotal = new ArrayList<>();
 
+    /**
+     * The scorer of the candidate hosts.
+     */
+    private ParallelScorer hostScorer = new ParallelScorer(1);
+
     /**
      * Instantiates a new power vm allocation policy migration abstract.
      *
@@ -623,6 +629,29 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstract extends
         return savedAllocation;
     }
 
+    /**
+     * Sets the number of threads scoring the candidate hosts. The hosts chosen do not depend on it:
+     * ties are broken in the order of the candidates, as with a single thread.
+     *
+     * @param parallelism the number of threads, 1 by default
+     */
+    public void setParallelism(int parallelism) {
+        hostScorer = new ParallelScorer(parallelism);
+    }
+
+    public int getParallelism() {
+        return hostScorer.getParallelism();
+    }
+
+    /**
+     * Gets the scorer of the candidate hosts.
+     *
+     * @return the host scorer
+     */
+    protected ParallelScorer getHostScorer() {
+        return hostScorer;
+    }
+
     /**
      * Sets the vm selection policy.
      *
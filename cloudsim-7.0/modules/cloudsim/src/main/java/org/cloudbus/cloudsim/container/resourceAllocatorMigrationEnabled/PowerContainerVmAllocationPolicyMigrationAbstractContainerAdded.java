@@ -399,15 +399,14 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstractContainer
     //    This method should be re written!
     protected GuestMapping findAvailableHostForContainer(Container
                                                                         container, List<GuestMapping> createdVm) {
-        double minPower = Double.MAX_VALUE;
-        PowerHost allocatedHost = null;
-        ContainerVm allocatedVm = null;
         List<Host> underUtilizedHostList = new ArrayList<>();
         List<ContainerVm> vmList = new ArrayList<>();
         for(GuestMapping map : createdVm){
             underUtilizedHostList.add((Host) map.host());
         }
         HostList.sortByCpuUtilization(underUtilizedHostList);
+        List<PowerHost> candidateHosts = new ArrayList<>();
+        List<ContainerVm> candidateVms = new ArrayList<>();
         for (Host host1 : underUtilizedHostList) {
 
             PowerHost host = (PowerHost) host1;
@@ -417,35 +416,133 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstractContainer
                 }
             }
             for (ContainerVm vm : vmList) {
+                candidateHosts.add(host);
+                candidateVms.add(vm);
+            }
+        }
+
+        int allocated = getParallelism() > 1
+                ? findMinPowerDiffConcurrently(container, candidateHosts, candidateVms)
+                : findMinPowerDiff(container, candidateHosts, candidateVms);
+        if (allocated == -1) {
+            return new GuestMapping(null, null);
+        }
+        return new GuestMapping(candidateVms.get(allocated), candidateHosts.get(allocated));
+    }
+
+    /**
+     * Finds the candidate VM whose host would consume the least additional power with a container,
+     * checking the candidates one after the other.
+     *
+     * @return the index of the first candidate with the least power increase, or -1 if there is none
+     */
+    private int findMinPowerDiff(Container container, List<PowerHost> candidateHosts, List<ContainerVm> candidateVms) {
+        double minPower = Double.MAX_VALUE;
+        int allocated = -1;
+        for (int i = 0; i < candidateVms.size(); i++) {
+            double powerDiff = getPowerDiffAfterContainerAllocation(candidateHosts.get(i), candidateVms.get(i), container);
+            if (powerDiff < minPower) {
+                minPower = powerDiff;
+                allocated = i;
+            }
+        }
+        return allocated;
+    }
+
+    /**
+     * Finds the same candidate as {@link #findMinPowerDiff(Container, List, List)}. The power increase
+     * of the candidates is estimated concurrently, without placing the container; then the candidates
+     * are checked in the calling thread from the least power increase up, until one accepts the container.
+     *
+     * @return the index of the first candidate with the least power increase, or -1 if there is none
+     */
+    private int findMinPowerDiffConcurrently(Container container, List<PowerHost> candidateHosts, List<ContainerVm> candidateVms) {
+        // the requested MIPS of the container, which some cloudlet schedulers cache, are read before the candidates are scored concurrently
+        container.getCurrentRequestedTotalMips();
+        double[] estimates = getHostScorer().score(candidateVms.size(),
+                i -> estimatePowerDiffAfterContainerAllocation(candidateHosts.get(i), candidateVms.get(i), container));
+
+        double minPower = Double.MAX_VALUE;
+        int allocated = -1;
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < estimates.length; i++) {
+            if (estimates[i] == Double.POSITIVE_INFINITY) {
+                // not estimated: the candidate is checked as it would be one after the other
+                double powerDiff = getPowerDiffAfterContainerAllocation(candidateHosts.get(i), candidateVms.get(i), container);
+                if (powerDiff < minPower) {
+                    minPower = powerDiff;
+                    allocated = i;
+                }
+            } else if (!Double.isNaN(estimates[i])) {
+                order.add(i);
+            }
+        }
+        order.sort(Comparator.comparingDouble((Integer i) -> estimates[i]).thenComparingInt(i -> i));
+        for (int i : order) {
+            if (estimates[i] > minPower || estimates[i] == minPower && i > allocated) {
+                break;
+            }
+            double powerDiff = getPowerDiffAfterContainerAllocation(candidateHosts.get(i), candidateVms.get(i), container);
+            if (!Double.isNaN(powerDiff)) {
+                return i;
+            }
+        }
+        return allocated;
+    }
+
+    /**
+     * Gets the increase of the power consumption of a host after placement of a container on one of its VMs,
+     * if the VM accepts the container and neither the VM nor the host would be over utilized.
+     *
+     * @param host      the host
+     * @param vm        the candidate vm
+     * @param container the container
+     * @return the increase of the power consumption, or {@link Double#NaN} if the container cannot be placed on the VM
+     */
+    protected double getPowerDiffAfterContainerAllocation(PowerHost host, ContainerVm vm, Container container) {
 //                if vm is not created no need for checking!
 
-                if (vm.isSuitableForGuest(container)) {
-                    // if vm is overutilized or host would be overutilized after the allocation, this host is not chosen!
-                    if (!isVmOverUtilized(vm)) {
-                        continue;
-                    }
-                    if (getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterContainerAllocation(host, vm, container)) {
-                        continue;
-                    }
+        if (vm.isSuitableForGuest(container)) {
+            // if vm is overutilized or host would be overutilized after the allocation, this host is not chosen!
+            if (!isVmOverUtilized(vm)) {
+                return Double.NaN;
+            }
+            if (getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterContainerAllocation(host, vm, container)) {
+                return Double.NaN;
+            }
 
-                    try {
-                        double powerAfterAllocation = getPowerAfterContainerAllocation(host, container, vm);
-                        if (powerAfterAllocation != -1) {
-                            double powerDiff = powerAfterAllocation - host.getPower();
-                            if (powerDiff < minPower) {
-                                minPower = powerDiff;
-                                allocatedHost = host;
-                                allocatedVm = vm;
-                            }
-                        }
-                    } catch (Exception e) {
-                        Log.print("Error: Exception in powerDiff algorithm containerAdded");
-                    }
+            try {
+                double powerAfterAllocation = getPowerAfterContainerAllocation(host, container, vm);
+                if (powerAfterAllocation != -1) {
+                    return powerAfterAllocation - host.getPower();
                 }
+            } catch (Exception e) {
+                Log.print("Error: Exception in powerDiff algorithm containerAdded");
             }
         }
+        return Double.NaN;
+    }
 
-        return new GuestMapping(allocatedVm, allocatedHost);
+    /**
+     * Estimates the increase of the power consumption of a host after placement of a container on one of its VMs,
+     * without checking whether the VM accepts the container. Candidates are estimated concurrently, so that
+     * neither the container nor the VM are changed.
+     *
+     * @return the increase of the power consumption, or {@link Double#POSITIVE_INFINITY} if it cannot be estimated
+     */
+    private double estimatePowerDiffAfterContainerAllocation(PowerHost host, ContainerVm vm, Container container) {
+        // the power models reject the utilizations out of [0, 1]
+        double utilization = getMaxUtilizationAfterContainerAllocation(host, container, vm);
+        if (utilization >= 0 && utilization <= 1) {
+            try {
+                double powerAfterAllocation = getPowerAfterContainerAllocation(host, container, vm);
+                if (powerAfterAllocation != -1) {
+                    return powerAfterAllocation - host.getPower();
+                }
+            } catch (Exception e) {
+            }
+        }
+        return Double.POSITIVE_INFINITY;
     }
 
     private ContainerVm getNewVm(int vmType) {
@@ -0,0 +1,416 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link FutureEventList} implemented as a calendar queue (R. Brown, "Calendar queues: a fast
+ * O(1) priority queue implementation for the simulation event set problem", CACM 1988).
+ * <p>
+ * The events are hashed by time into an array of buckets ("days" of a "year"), each one holding
+ * a list of events sorted by time and serial number. Adding and removing an event takes amortised
+ * constant time, as long as the bucket width follows the distribution of the event times; the
+ * number of buckets and their width are adjusted whenever the number of events doubles or halves.
+ * This makes it faster than the binary heap of {@link EventQueue} for simulations with a very
+ * large number of pending events. Events are delivered in exactly the same order as
+ * {@link EventQueue}, with events added through {@link #addEventFirst(SimEvent)} for the same
+ * time delivered in the order they were added.
+ *
+ * @see CloudSim#init(int, java.util.Calendar, boolean, java.util.function.Supplier)
+ * @since CloudSim Toolkit 7.0
+ */
+public class CalendarQueue implements FutureEventList {
+
+	/** The minimal number of buckets. */
+	private static final int MIN_BUCKETS = 16;
+
+	/** The number of events sampled to estimate the bucket width. */
+	private static final int SAMPLE_SIZE = 25;
+
+	/** The largest virtual bucket number, small enough to never overflow while scanning. */
+	private static final long MAX_BUCKET = Long.MAX_VALUE >> 2;
+
+	/** A node in the sorted list of a bucket. */
+	private static final class Node {
+		final SimEvent event;
+		long bucket;
+		Node prev;
+		Node next;
+
+		Node(SimEvent event) {
+			this.event = event;
+		}
+	}
+
+	/** The first node of each bucket. */
+	private Node[] heads;
+
+	/** The last node of each bucket. */
+	private Node[] tails;
+
+	/** The width of a bucket, in simulation time. */
+	private double width;
+
+	/** The virtual bucket of the earliest event. No event lies in a previous virtual bucket. */
+	private long current;
+
+	/** The number of events. */
+	private int size;
+
+	/** A incremental number used for event attribute. Serial 0 is kept for addEventFirst. */
+	private long serial = 1;
+
+	/**
+	 * Instantiates a new calendar queue.
+	 */
+	public CalendarQueue() {
+		this(1.0);
+	}
+
+	/**
+	 * Instantiates a new calendar queue.
+	 *
+	 * @param initialWidth the initial width of a bucket, i.e. the expected time between events
+	 */
+	public CalendarQueue(double initialWidth) {
+		if (!(initialWidth > 0) || Double.isInfinite(initialWidth)) {
+			throw new IllegalArgumentException("桶宽度应为正值，但现在为：" + initialWidth);
+		}
+		width = initialWidth;
+		heads = new Node[MIN_BUCKETS];
+		tails = new Node[MIN_BUCKETS];
+	}
+
+	@Override
+	public void addEvent(SimEvent newEvent) {
+		newEvent.setSerial(serial++);
+		add(newEvent);
+	}
+
+	@Override
+	public void addEventFirst(SimEvent newEvent) {
+		newEvent.setSerial(0);
+		add(newEvent);
+	}
+
+	@Override
+	public SimEvent poll() {
+		int i = findFirst();
+		if (i < 0) {
+			return null;
+		}
+		SimEvent first = unlink(i, heads[i]).event;
+		if (size < heads.length / 2 && heads.length > MIN_BUCKETS) {
+			resize(heads.length / 2);
+		}
+		return first;
+	}
+
+	@Override
+	public SimEvent peek() {
+		int i = findFirst();
+		return i < 0 ? null : heads[i].event;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public void clear() {
+		heads = new Node[MIN_BUCKETS];
+		tails = new Node[MIN_BUCKETS];
+		size = 0;
+	}
+
+	/**
+	 * Gets the width of the buckets.
+	 *
+	 * @return the bucket width
+	 */
+	public double getBucketWidth() {
+		return width;
+	}
+
+	/**
+	 * Gets the number of buckets.
+	 *
+	 * @return the number of buckets
+	 */
+	public int getNumberOfBuckets() {
+		return heads.length;
+	}
+
+	/**
+	 * Returns an iterator over the events, in no particular order.
+	 */
+	@Override
+	public Iterator<SimEvent> iterator() {
+		return new Iterator<>() {
+			private int bucket = -1;
+			private Node next = advance(null);
+			private Node lastReturned;
+
+			private Node advance(Node node) {
+				if (node != null && node.next != null) {
+					return node.next;
+				}
+				while (++bucket < heads.length) {
+					if (heads[bucket] != null) {
+						return heads[bucket];
+					}
+				}
+				return null;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public SimEvent next() {
+				if (next == null) {
+					throw new NoSuchElementException();
+				}
+				lastReturned = next;
+				next = advance(next);
+				return lastReturned.event;
+			}
+
+			@Override
+			public void remove() {
+				if (lastReturned == null) {
+					throw new IllegalStateException();
+				}
+				unlink(index(lastReturned.bucket), lastReturned);
+				lastReturned = null;
+			}
+		};
+	}
+
+	/**
+	 * Adds an event whose serial has already been set, growing the calendar if needed.
+	 *
+	 * @param event the event
+	 */
+	private void add(SimEvent event) {
+		if (size == 0) {
+			current = MAX_BUCKET;
+		}
+		insert(new Node(event));
+		size++;
+		if (size > 2 * heads.length) {
+			resize(2 * heads.length);
+		}
+	}
+
+	/**
+	 * Links a node into its bucket, keeping the bucket sorted. Most events are scheduled after
+	 * every other event of their bucket, so the bucket is scanned from its tail.
+	 *
+	 * @param node the node
+	 */
+	private void insert(Node node) {
+		node.bucket = virtualBucket(node.event.eventTime());
+		int i = index(node.bucket);
+		Node prev = tails[i];
+		while (prev != null && isAfter(prev.event, node.event)) {
+			prev = prev.prev;
+		}
+		node.prev = prev;
+		if (prev == null) {
+			node.next = heads[i];
+			heads[i] = node;
+		} else {
+			node.next = prev.next;
+			prev.next = node;
+		}
+		if (node.next == null) {
+			tails[i] = node;
+		} else {
+			node.next.prev = node;
+		}
+		if (node.bucket < current) {
+			current = node.bucket;
+		}
+	}
+
+	/**
+	 * Removes a node from its bucket.
+	 *
+	 * @param i the bucket index
+	 * @param node the node
+	 * @return the node
+	 */
+	private Node unlink(int i, Node node) {
+		if (node.prev == null) {
+			heads[i] = node.next;
+		} else {
+			node.prev.next = node.next;
+		}
+		if (node.next == null) {
+			tails[i] = node.prev;
+		} else {
+			node.next.prev = node.prev;
+		}
+		node.prev = null;
+		node.next = null;
+		size--;
+		return node;
+	}
+
+	/**
+	 * Finds the bucket holding the earliest event, moving the current virtual bucket to it.
+	 *
+	 * @return the bucket index, or -1 if the queue is empty
+	 */
+	private int findFirst() {
+		if (size == 0) {
+			return -1;
+		}
+
+		// scan one year of buckets starting from the current one
+		long vb = current;
+		for (int k = 0; k < heads.length; k++, vb++) {
+			int i = index(vb);
+			if (heads[i] != null && heads[i].bucket <= vb) {
+				current = vb;
+				return i;
+			}
+		}
+
+		// the next event is more than one year ahead: search it directly
+		int first = -1;
+		for (int i = 0; i < heads.length; i++) {
+			if (heads[i] != null && (first < 0 || isAfter(heads[first].event, heads[i].event))) {
+				first = i;
+			}
+		}
+		current = heads[first].bucket;
+		return first;
+	}
+
+	/**
+	 * Rebuilds the calendar with a new number of buckets, estimating the bucket width from the
+	 * separation between the earliest events.
+	 *
+	 * @param buckets the new number of buckets
+	 */
+	private void resize(int buckets) {
+		width = estimateWidth();
+
+		Node[] oldHeads = heads;
+		heads = new Node[buckets];
+		tails = new Node[buckets];
+		current = MAX_BUCKET;
+		for (Node head : oldHeads) {
+			Node node = head;
+			while (node != null) {
+				Node next = node.next;
+				insert(node);
+				node = next;
+			}
+		}
+	}
+
+	/**
+	 * Estimates the bucket width as three times the average separation between the distinct
+	 * times of the earliest events, ignoring the separations much larger than the average.
+	 *
+	 * @return the estimated width, or the current width if it cannot be estimated
+	 */
+	private double estimateWidth() {
+		int samples = Math.min(size, SAMPLE_SIZE);
+		if (samples < 2) {
+			return width;
+		}
+
+		// take out the earliest events and put them back afterwards
+		Node[] sampled = new Node[samples];
+		for (int k = 0; k < samples; k++) {
+			int i = findFirst();
+			sampled[k] = unlink(i, heads[i]);
+		}
+		for (Node node : sampled) {
+			insert(node);
+			size++;
+		}
+
+		double total = 0;
+		int gaps = 0;
+		for (int k = 1; k < samples; k++) {
+			double gap = sampled[k].event.eventTime() - sampled[k - 1].event.eventTime();
+			if (gap > 0) {
+				total += gap;
+				gaps++;
+			}
+		}
+		if (gaps == 0) {
+			return width;
+		}
+		double average = total / gaps;
+
+		total = 0;
+		gaps = 0;
+		for (int k = 1; k < samples; k++) {
+			double gap = sampled[k].event.eventTime() - sampled[k - 1].event.eventTime();
+			if (gap > 0 && gap <= 2 * average) {
+				total += gap;
+				gaps++;
+			}
+		}
+		double estimate = 3 * total / gaps;
+		return estimate > 0 && !Double.isInfinite(estimate) ? estimate : width;
+	}
+
+	/**
+	 * Gets the virtual bucket of a time, i.e. the number of bucket widths since time 0.
+	 *
+	 * @param time the time
+	 * @return the virtual bucket
+	 */
+	private long virtualBucket(double time) {
+		double vb = Math.floor(time / width);
+		if (vb >= MAX_BUCKET) {
+			return MAX_BUCKET;
+		}
+		return vb <= 0 ? 0 : (long) vb;
+	}
+
+	/**
+	 * Gets the index in the bucket arrays of a virtual bucket.
+	 *
+	 * @param vb the virtual bucket
+	 * @return the bucket index
+	 */
+	private int index(long vb) {
+		return (int) (vb % heads.length);
+	}
+
+	/**
+	 * Checks if an event must be delivered after another one.
+	 *
+	 * @param a the first event
+	 * @param b the second event
+	 * @return true, if a comes after b
+	 */
+	private static boolean isAfter(SimEvent a, SimEvent b) {
+		return a.eventTime() > b.eventTime()
+				|| (a.eventTime() == b.eventTime() && a.getSerial() > b.getSerial());
+	}
+}
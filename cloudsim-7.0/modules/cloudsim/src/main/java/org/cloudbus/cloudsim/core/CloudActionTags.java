@@ -148,6 +148,12 @@ public enum CloudActionTags implements CloudSimTags {
 	 */
 	CLOUDLET_SUBMIT_ACK,
 
+	/**
+	 * Denotes the submission of a list of Cloudlets in a single event. This tag is normally used
+	 * between CloudSim User and CloudResource entity.
+	 */
+	CLOUDLET_SUBMIT_BATCH,
+
 	/** Cancels a Cloudlet submitted in the CloudResource entity. */
 	CLOUDLET_CANCEL,
 
@@ -8,14 +8,9 @@
 
 package org.cloudbus.cloudsim.core;
 
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Supplier;
 
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.core.predicates.Predicate;
@@ -27,6 +22,9 @@ import org.cloudbus.cloudsim.core.predicates.PredicateNone;
  * The main class of the simulation.
  * It provides all the methods to start, pause and stop simulated entities.
  * It stores and dispatches all the discrete events to be processed at run-time by the entities.
+ * <p>
+ * The simulation state is kept in the {@link SimulationContext} bound to the calling thread,
+ * so independent simulations can run concurrently in separate threads.
  * 
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
@@ -38,58 +36,77 @@ public class CloudSim {
 	/** The Constant CLOUDSIM_VERSION_STRING. */
 	private static final String CLOUDSIM_VERSION_STRING = "7.0";
 
-	/** The id of CIS entity. */
-	private static int cisId = -1;
-
-	/** The id of CloudSimShutdown entity. */
-	private static int shutdownId = -1;
-
-	/** The CIS object. */
-	private static CloudInformationService cis = null;
-
-	/** The Constant NOT_FOUND. */
-	private static final int NOT_FOUND = -1;
-
-	/** The trace flag. */
-	private static boolean traceFlag = false;
+	/**
+	 * The simulation context bound to each thread. Threads started by a simulation
+	 * (e.g. to pause and resume it) share the context of the thread that started them.
+	 */
+	private static final ThreadLocal<SimulationContext> context = new InheritableThreadLocal<>() {
+		@Override
+		protected SimulationContext initialValue() {
+			return new SimulationContext();
+		}
+	};
 
-	/** The calendar. */
-	private static Calendar calendar = null;
+	/**
+	 * Gets the simulation context bound to the current thread. The static API of this class
+	 * operates on this context.
+	 *
+	 * @return the simulation context of the current thread
+	 */
+	public static SimulationContext getSimulationContext() {
+		return context.get();
+	}
 
-	/** The termination time. */
-	private static double terminateAt = -1;
+	/**
+	 * Binds a simulation context to the current thread, so that the static API of this class
+	 * operates on it. If <tt>null</tt> is given, the thread gets a fresh context on its next use.
+	 *
+	 * @param simulationContext the simulation context to bind
+	 * @return the context previously bound to the current thread
+	 */
+	public static SimulationContext setSimulationContext(SimulationContext simulationContext) {
+		SimulationContext previous = context.get();
+		if (simulationContext == null) {
+			context.remove();
+		} else {
+			context.set(simulationContext);
+		}
+		return previous;
+	}
 
-	/** The minimal time between events. Events within shorter periods after the last event are discarded. */
-	private static double minTimeBetweenEvents = 0.01;
-	
 	/**
 	 * Initialises all the common attributes.
 	 * 
 	 * @param _calendar the _calendar
 	 * @param _traceFlag the _trace flag
 	 * @param numUser number of users
+	 * @param futureEventList the factory of the future event queue
 	 * @throws Exception This happens when creating this entity before initialising CloudSim package
 	 *             or this entity name is <tt>null</tt> or empty
 	 * @pre $none
 	 * @post $none
 	 */
-	private static void initCommonVariable(Calendar _calendar, boolean _traceFlag, int numUser)
-			throws Exception {
+	private static void initCommonVariable(Calendar _calendar, boolean _traceFlag, int numUser,
+			Supplier<? extends FutureEventList> futureEventList) throws Exception {
+		// each simulation gets its own context, bound to the current thread
+		SimulationContext ctx = new SimulationContext();
+		ctx.futureEventList = futureEventList;
+		context.set(ctx);
 		initialize();
 		// NOTE: the order for the below 3 lines are important
-		traceFlag = _traceFlag;
+		ctx.traceFlag = _traceFlag;
 
 		// Set the current Wall clock time as the starting time of
 		// simulation
 		if (_calendar == null) {
-			calendar = Calendar.getInstance();
+			ctx.calendar = Calendar.getInstance();
 		} else {
-			calendar = _calendar;
+			ctx.calendar = _calendar;
 		}
 
 		// creates a CloudSimShutdown object
 		CloudSimShutdown shutdown = new CloudSimShutdown("CloudSimShutdown", numUser);
-		shutdownId = shutdown.getId();
+		ctx.shutdownId = shutdown.getId();
 	}
 
 	/**
@@ -101,6 +118,7 @@ public class CloudSim {
 	 * <li>CloudSimShutdown
 	 * </ul>
 	 * <p>
+	 * The simulation is set up in a new {@link SimulationContext} bound to the current thread.
 	 * 
 	 * @param numUser the number of User Entities created. This parameters indicates that
 	 *            {@link CloudSimShutdown} first waits for all user entities's
@@ -114,14 +132,43 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static void init(int numUser, Calendar cal, boolean traceFlag) {
+		init(numUser, cal, traceFlag, EventQueue::new);
+	}
+
+	/**
+	 * Initialises CloudSim parameters, using a given implementation of the future event queue.
+	 * This method should be called before creating any entities.
+	 * <p>
+	 * The default implementation is {@link EventQueue}, a binary heap. {@link CalendarQueue} adds
+	 * and removes events in amortised constant time, which pays off with a very large number of
+	 * pending events. The order in which events are delivered does not depend on the
+	 * implementation.
+	 *
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation. If it is <tt>null</tt>, then the time will be
+	 *            taken from <tt>Calendar.getInstance()</tt>
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @param futureEventList the factory of the future event queue, e.g. <tt>CalendarQueue::new</tt>
+	 * @see #init(int, Calendar, boolean)
+	 * @see FutureEventList
+	 * @pre numUser >= 0
+	 * @post $none
+	 */
+	public static void init(int numUser, Calendar cal, boolean traceFlag,
+			Supplier<? extends FutureEventList> futureEventList) {
+		if (futureEventList == null) {
+			throw new IllegalArgumentException("未来事件队列的工厂不能为 null");
+		}
 		try {
-			initCommonVariable(cal, traceFlag, numUser);
+			initCommonVariable(cal, traceFlag, numUser, futureEventList);
+
+			SimulationContext ctx = context.get();
 
 			// create a GIS object
-			cis = new CloudInformationService("CloudInformationService");
+			ctx.cis = new CloudInformationService("CloudInformationService");
 
 			// set all the above entity IDs
-			cisId = cis.getId();
+			ctx.cisId = ctx.cis.getId();
 		} catch (Exception s) {
 			Log.println("CloudSim.init()：由于发生了意外错误，模拟已被终止");
 			Log.println(s.getMessage());
@@ -157,11 +204,34 @@ public class CloudSim {
 	    }
 	    
 	    init(numUser, cal, traceFlag);
-	    CloudSim.minTimeBetweenEvents = minTimeBetweenEvents;
+	    context.get().minTimeBetweenEvents = minTimeBetweenEvents;
 	}
 	
 	
 	
+	/**
+	 * Assigns an entity to a partition for parallel execution. Partitions are simulated in
+	 * parallel when more than one thread is set through {@link #setParallelThreads(int)}.
+	 *
+	 * @param entityId the entity id
+	 * @param partition the partition, starting from 0 (the default partition of every entity)
+	 * @see SimulationContext#setPartition(int, int)
+	 */
+	public static void setEntityPartition(int entityId, int partition) {
+		context.get().setPartition(entityId, partition);
+	}
+
+	/**
+	 * Sets the number of threads used to simulate the partitions of the simulation. The results
+	 * do not depend on the number of threads.
+	 *
+	 * @param threads the number of threads; 1 (the default) runs the simulation sequentially
+	 * @see SimulationContext#setParallelThreads(int)
+	 */
+	public static void setParallelThreads(int threads) {
+		context.get().setParallelThreads(threads);
+	}
+
 	/**
 	 * Starts the execution of CloudSim simulation. It waits for complete execution of all entities,
 	 * i.e. until all entities threads reach non-RUNNABLE state or there are no more events in the
@@ -180,13 +250,10 @@ public class CloudSim {
 		Log.printlnConcat("正在启动 CloudSim 版本 ", CLOUDSIM_VERSION_STRING);
 		try {
 			double clock = run();
+			Log.flush();
 
-			// reset all static variables
-			cisId = -1;
-			shutdownId = -1;
-			cis = null;
-			calendar = null;
-			traceFlag = false;
+			// reset the common variables of the current context
+			context.get().resetCommonVariables();
 
 			return clock;
 		} catch (IllegalArgumentException e) {
@@ -222,8 +289,7 @@ public class CloudSim {
 	 * @return true, if successful; false otherwise.
 	 */
 	public static void terminateSimulation() {
-		running = false;
-		printMessage("模拟：已达到终止时间");
+		context.get().terminateSimulation();
 	}
 
 	/**
@@ -233,12 +299,7 @@ public class CloudSim {
 	 * @return true, if successful otherwise.
 	 */
 	public static boolean terminateSimulation(double time) {
-		if (time <= clock) {
-			return false;
-		} else {
-			terminateAt = time;
-		}
-		return true;
+		return context.get().terminateSimulation(time);
 	}
 
 	
@@ -247,7 +308,7 @@ public class CloudSim {
 	 * @return the minimum time between events.
 	 */
 	public static double getMinTimeBetweenEvents() {
-	    return minTimeBetweenEvents;
+	    return context.get().minTimeBetweenEvents;
 	}
 
 	/**
@@ -259,6 +320,7 @@ public class CloudSim {
 	 */
 	public static Calendar getSimulationCalendar() {
 		// make a new copy
+		Calendar calendar = context.get().calendar;
 		Calendar clone = calendar;
 		if (calendar != null) {
 			clone = (Calendar) calendar.clone();
@@ -275,7 +337,7 @@ public class CloudSim {
 	 * @post $result >= -1
 	 */
 	public static int getCloudInfoServiceEntityId() {
-		return cisId;
+		return context.get().cisId;
 	}
 
 	/**
@@ -288,6 +350,7 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static List<Integer> getCloudResourceList() {
+		CloudInformationService cis = context.get().cis;
 		if (cis == null) {
 			return null;
 		}
@@ -297,49 +360,12 @@ public class CloudSim {
 
 	// ======== SIMULATION METHODS ===============//
 
-	/** The entities. */
-	private static List<SimEntity> entities;
-
-	/** The future event queue. */
-	protected static EventQueue future;
-
-
-	/** 
-         * The current simulation clock.
-         */
-	private static double clock;
-
-	/** Flag for checking if the simulation is running. */
-	private static boolean running;
-
-	/** The entities by name. */
-	private static Map<String, SimEntity> entitiesByName;
-
-	// The predicates used in entity wait methods
-	/** The wait predicates. */
-	private static Map<Integer, Predicate> waitPredicates;
-
-	/** The paused. */
-	private static boolean paused = false;
-
-	/** The pause at. */
-	private static long pauseAt = -1;
-
-	/** The abrupt terminate. */
-	private static boolean abruptTerminate = false;
-
 	/**
 	 * Initialise the simulation for stand alone simulations. This function should be called at the
 	 * start of the simulation.
 	 */
 	protected static void initialize() {
-		Log.println("初始化中...");
-		entities = new ArrayList<>();
-		entitiesByName = new LinkedHashMap<>();
-		future = new EventQueue();
-		waitPredicates = new HashMap<>();
-		clock = 0;
-		running = false;
+		context.get().initialize();
 	}
 
 	// The two standard predicates
@@ -358,7 +384,7 @@ public class CloudSim {
 	 * @return the simulation time
 	 */
 	public static double clock() {
-		return clock;
+		return context.get().clock();
 	}
 
 	/**
@@ -367,7 +393,7 @@ public class CloudSim {
 	 * @return The number of entities
 	 */
 	public static int getNumEntities() {
-		return entities.size();
+		return context.get().getNumEntities();
 	}
 
 	/**
@@ -377,7 +403,7 @@ public class CloudSim {
 	 * @return The entity, or if it could not be found
 	 */
 	public static SimEntity getEntity(int id) {
-		return entities.get(id);
+		return context.get().getEntity(id);
 	}
 
 	/**
@@ -387,7 +413,7 @@ public class CloudSim {
 	 * @return The entity
 	 */
 	public static SimEntity getEntity(String name) {
-		return entitiesByName.get(name);
+		return context.get().getEntity(name);
 	}
 
 	/**
@@ -397,12 +423,7 @@ public class CloudSim {
 	 * @return The entity's unique id number
 	 */
 	public static int getEntityId(String name) {
-		SimEntity obj = entitiesByName.get(name);
-		if (obj == null) {
-			return NOT_FOUND;
-		} else {
-			return obj.getId();
-		}
+		return context.get().getEntityId(name);
 	}
 
 	/**
@@ -442,10 +463,7 @@ public class CloudSim {
 	 * @return the entity iterator
 	 */
 	public static List<SimEntity> getEntityList() {
-		// create a new list to prevent the user from changing
-		// the list of entities used by Simulation
-		List<SimEntity> list = new LinkedList<>(entities);
-		return list;
+		return context.get().getEntityList();
 	}
 
 	// Public update methods
@@ -457,18 +475,7 @@ public class CloudSim {
 	 * @param e The new entity
 	 */
 	public static void addEntity(SimEntity e) {
-		SimEvent evt;
-		if (running) {
-			// Post an event to make this entity
-			evt = new SimEvent(SimEvent.CREATE, clock, 1, 0, CloudActionTags.BLANK, e);
-			future.addEvent(evt);
-		}
-		if (e.getId() == -1) { // Only add once!
-			int id = entities.size();
-			e.setId(id);
-			entities.add(e);
-			entitiesByName.put(e.getName(), e);
-		}
+		context.get().addEntity(e);
 	}
 
 	/**
@@ -478,48 +485,14 @@ public class CloudSim {
 	 * @param e The new entity
 	 */
 	protected static void addEntityDynamically(SimEntity e) {
-		if (e == null) {
-			throw new IllegalArgumentException("Adding null entity.");
-		} else {
-			printMessage("Adding: " + e.getName());
-		}
-		e.startEntity();
-	}
-
-	/**
-	 * Internal method used to run one tick of the simulation. This method should <b>not</b> be
-	 * called in simulations.
-	 * 
-	 * @return true if there are events to be processed, false if event queue is empty
-	 */
-	private static boolean runClockTick() {
-		SimEntity ent;
-		for (int i = 0; i < entities.size(); i++) {
-			ent = entities.get(i);
-			if (ent.getState() == SimEntity.EntityStatus.RUNNABLE) {
-				ent.run();
-			}
-		}
-
-		if (future.isEmpty()) {
-			running = false;
-			printMessage(CloudSim.clock()+": 模拟：没有更多的未来事件了");
-			return false;
-		}
-
-		double clk = future.peek().eventTime();
-		while (!future.isEmpty() && future.peek().eventTime() == clk) {
-			dispatchEvent(future.poll());
-		}
-
-		return true;
+		context.get().addEntityDynamically(e);
 	}
 
 	/**
 	 * Internal method used to stop the simulation. This method should <b>not</b> be used directly.
 	 */
 	public static void runStop() {
-		printMessage("模拟已完成");
+		context.get().runStop();
 	}
 
 	/**
@@ -529,9 +502,7 @@ public class CloudSim {
 	 * @param delay the delay
 	 */
 	public static void pause(int srcId, double delay) {
-		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, srcId);
-		future.addEvent(e);
-		entities.get(srcId).setState(SimEntity.EntityStatus.HOLDING);
+		context.get().pause(srcId, delay);
 	}
 
 	/**
@@ -544,15 +515,7 @@ public class CloudSim {
 	 * @param data the data
 	 */
 	public static void send(int srcId, int dstId, double delay, CloudSimTags tag, Object data) {
-		if (delay < 0) {
-			throw new IllegalArgumentException("Send delay can't be negative.");
-		}
-		if(delay >= Double.MAX_VALUE) {
-			throw new RuntimeException("Send delay can't be infinite.");
-		}
-
-		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, srcId, dstId, tag, data);
-		future.addEvent(e);
+		context.get().send(srcId, dstId, delay, tag, data);
 	}
 
 	/**
@@ -565,12 +528,7 @@ public class CloudSim {
 	 * @param data the data
 	 */
 	public static void sendFirst(int srcId, int dstId, double delay, CloudSimTags tag, Object data) {
-		if (delay < 0) {
-			throw new IllegalArgumentException("Send delay can't be negative.");
-		}
-
-		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, srcId, dstId, tag, data);
-		future.addEventFirst(e);
+		context.get().sendFirst(srcId, dstId, delay, tag, data);
 	}
 
 	/**
@@ -582,11 +540,7 @@ public class CloudSim {
 	 * @param p the p
 	 */
 	public static void wait(int srcId, Predicate p) {
-		entities.get(srcId).setState(SimEntity.EntityStatus.WAITING);
-		if (p != SIM_ANY) {
-			// If a predicate has been used store it in order to check it
-			waitPredicates.put(srcId, p);
-		}
+		context.get().wait(srcId, p);
 	}
 
 	/**
@@ -597,16 +551,7 @@ public class CloudSim {
 	 * @return the sim event
 	 */
 	public static SimEvent cancel(int srcId, Predicate p) {
-		SimEvent ev;
-		Iterator<SimEvent> iter = future.iterator();
-		while (iter.hasNext()) {
-			ev = iter.next();
-			if (ev.getSourceId() == srcId && p.match(ev)) {
-				iter.remove();
-				return ev;
-			}
-		}
-		return null;
+		return context.get().cancel(srcId, p);
 	}
 
 	/**
@@ -618,59 +563,7 @@ public class CloudSim {
 	 * @return true, if successful
 	 */
 	public static boolean cancelAll(int srcId, Predicate p) {
-		SimEvent ev;
-		int previousSize = future.size();
-		Iterator<SimEvent> iter = future.iterator();
-		while (iter.hasNext()) {
-			ev = iter.next();
-			if (ev.getSourceId() == srcId && p.match(ev)) {
-				iter.remove();
-			}
-		}
-		return previousSize < future.size();
-	}
-
-	//
-	// Private internal methods
-	//
-
-	/**
-	 * Dispatch event to destination entity
-	 * 
-	 * @param e the e
-	 */
-	private static void dispatchEvent(SimEvent e) {
-		int dstId = e.getDestinationId();
-		int srcId = e.getSourceId();
-		SimEntity destEnt = entities.get(dstId);
-
-		// Update the system's clock
-		if (e.eventTime() < clock) {
-			throw new IllegalArgumentException("Past event detected.");
-		}
-		clock = e.eventTime();
-
-		// Ok now process it
-		switch (e.getType()) {
-			case SimEvent.ENULL -> throw new IllegalArgumentException("Event has a null type.");
-			case SimEvent.CREATE -> {
-				addEntityDynamically((SimEntity) e.getData());
-			}
-			case SimEvent.SEND -> {
-                if (destEnt.getState() == SimEntity.EntityStatus.WAITING) { // NOTE: this branch is never used
-                    Predicate p = waitPredicates.get(dstId);
-
-                    if ((p == null) || (p.match(e))) {
-                        destEnt.setState(SimEntity.EntityStatus.RUNNABLE);
-                        waitPredicates.remove(dstId);
-                    }
-                }
-				destEnt.getIncomingEvents().add(e);
-            }
-			case SimEvent.HOLD_DONE -> entities.get(srcId).setState(SimEntity.EntityStatus.RUNNABLE);
-			default -> {
-			}
-		}
+		return context.get().cancelAll(srcId, p);
 	}
 
 	/**
@@ -678,13 +571,7 @@ public class CloudSim {
 	 * simulations.
 	 */
 	public static void runStart() {
-		running = true;
-		// Start all the entities
-		for (SimEntity ent : entities) {
-			ent.startEntity();
-		}
-
-		printMessage("实体已启动");
+		context.get().runStart();
 	}
 
 	/**
@@ -694,7 +581,7 @@ public class CloudSim {
 	 * @return if the simulation is still running, otherwise
 	 */
 	public static boolean running() {
-		return running;
+		return context.get().running();
 	}
 
 	/**
@@ -703,8 +590,7 @@ public class CloudSim {
 	 * @return true, if successful otherwise.
 	 */
 	public static boolean pauseSimulation() {
-		paused = true;
-		return paused;
+		return context.get().pauseSimulation();
 	}
 
 	/**
@@ -714,12 +600,7 @@ public class CloudSim {
 	 * @return true, if successful otherwise.
 	 */
 	public static boolean pauseSimulation(long time) {
-		if (time <= clock) {
-			return false;
-		} else {
-			pauseAt = time;
-		}
-		return true;
+		return context.get().pauseSimulation(time);
 	}
 
 	/**
@@ -728,13 +609,7 @@ public class CloudSim {
 	 * @return if the simulation has been restarted or or otherwise.
 	 */
 	public static boolean resumeSimulation() {
-		paused = false;
-
-		if (pauseAt <= clock) {
-			pauseAt = -1;
-		}
-
-		return !paused;
+		return context.get().resumeSimulation();
 	}
 
 	/**
@@ -744,91 +619,14 @@ public class CloudSim {
 	 * @return the last clock value
 	 */
 	public static double run() {
-		if (!running) {
-			runStart();
-		}
-		while (true) {
-			if (!runClockTick() || abruptTerminate) {
-				break;
-			}
-
-			// this block allows termination of simulation at a specific time
-			if (terminateAt > 0.0 && clock >= terminateAt) {
-				terminateSimulation();
-				clock = terminateAt;
-				break;
-			}
-
-			if (pauseAt != -1
-					&& ((!future.isEmpty() && clock <= pauseAt && pauseAt <= future.peek()
-							.eventTime()) || future.isEmpty() && pauseAt <= clock)) {
-				pauseSimulation();
-				clock = pauseAt;
-			}
-
-			while (paused) {
-				try {
-					Thread.sleep(100);
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
-			}
-		}
-
-		double clock = clock();
-
-		finishSimulation();
-		runStop();
-
-		return clock;
-	}
-
-	/**
-	 * Internal method that allows the entities to terminate. This method should <b>not</b> be used
-	 * in user simulations.
-	 */
-	private static void finishSimulation() {
-		// Allow all entities to exit their body method
-		if (!abruptTerminate) {
-			for (SimEntity ent : entities) {
-				if (ent.getState() != SimEntity.EntityStatus.FINISHED) {
-					ent.run();
-				}
-			}
-		}
-
-		for (SimEntity ent : entities) {
-			ent.shutdownEntity();
-		}
-
-		// reset all static variables
-		// Private data members
-		entities = null;
-		entitiesByName = null;
-		future = null;
-		clock = 0L;
-		running = false;
-
-		waitPredicates = null;
-		paused = false;
-		pauseAt = -1;
-		abruptTerminate = false;
+		return context.get().run();
 	}
 
 	/**
 	 * Abruptally terminate.
 	 */
 	public static void abruptallyTerminate() {
-		abruptTerminate = true;
-	}
-
-	/**
-	 * Prints a message about the progress of the simulation.
-	 * 
-	 * @param message the message
-	 */
-	private static void printMessage(String message) {
-		Log.println(message);
+		context.get().abruptallyTerminate();
 	}
 
 	/**
@@ -837,7 +635,7 @@ public class CloudSim {
 	 * @return true, if is paused
 	 */
 	public static boolean isPaused() {
-		return paused;
+		return context.get().isPaused();
 	}
 
 }
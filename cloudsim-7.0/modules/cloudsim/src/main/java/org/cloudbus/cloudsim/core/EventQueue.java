@@ -14,13 +14,14 @@ import java.util.Iterator;
 import java.util.PriorityQueue;
 
 /**
- * This class implements the event queue used by {@link CloudSim}.
+ * This class implements the event queue used by {@link CloudSim}. It is the default
+ * {@link FutureEventList}, backed by a binary heap.
  *
  * @author Remo Andreoli
  * @since CloudSim Toolkit 7.0
  *
  */
-public class EventQueue extends PriorityQueue<SimEvent> {
+public class EventQueue extends PriorityQueue<SimEvent> implements FutureEventList {
 	/** A incremental number used for event attribute */
 	private long serial = 0;
 
@@ -30,6 +31,7 @@ public class EventQueue extends PriorityQueue<SimEvent> {
 	 * 
 	 * @param newEvent The event to be put in the queue.
 	 */
+	@Override
 	public void addEvent(SimEvent newEvent) {
 		newEvent.setSerial(serial++);
 		this.add(newEvent);
@@ -40,6 +42,7 @@ public class EventQueue extends PriorityQueue<SimEvent> {
 	 * 
 	 * @param newEvent The event to be put in the queue.
 	 */
+	@Override
 	public void addEventFirst(SimEvent newEvent) {
 		newEvent.setSerial(0);
 		this.add(newEvent);
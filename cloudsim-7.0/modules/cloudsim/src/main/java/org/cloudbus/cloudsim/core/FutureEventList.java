@@ -0,0 +1,78 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+/**
+ * The future event list of a simulation, i.e. the queue holding the events scheduled by the
+ * entities and not yet delivered. The implementation is selected when the simulation is
+ * initialised, through {@link CloudSim#init(int, java.util.Calendar, boolean, java.util.function.Supplier)}.
+ * <p>
+ * Every implementation must deliver the events in the order defined by
+ * {@link SimEvent#compareTo(SimEvent)}: by time first and by serial number afterwards. Events
+ * added through {@link #addEvent(SimEvent)} get an increasing serial number, so events scheduled
+ * for the same time are delivered in the order they were added, while events added through
+ * {@link #addEventFirst(SimEvent)} are delivered before every other event scheduled for the
+ * same time.
+ * <p>
+ * The iteration order of {@link #iterator()} is unspecified, but the iterator must support
+ * {@link java.util.Iterator#remove()} so that events can be cancelled.
+ *
+ * @see EventQueue
+ * @see CalendarQueue
+ * @since CloudSim Toolkit 7.0
+ */
+public interface FutureEventList extends Iterable<SimEvent> {
+
+	/**
+	 * Adds a new event to the list, after all the events scheduled for the same time.
+	 *
+	 * @param newEvent The event to be put in the list.
+	 */
+	void addEvent(SimEvent newEvent);
+
+	/**
+	 * Adds a new event to the list, before all the events scheduled for the same time.
+	 *
+	 * @param newEvent The event to be put in the list.
+	 */
+	void addEventFirst(SimEvent newEvent);
+
+	/**
+	 * Retrieves and removes the first event of the list.
+	 *
+	 * @return the first event, or <tt>null</tt> if the list is empty
+	 */
+	SimEvent poll();
+
+	/**
+	 * Retrieves, but does not remove, the first event of the list.
+	 *
+	 * @return the first event, or <tt>null</tt> if the list is empty
+	 */
+	SimEvent peek();
+
+	/**
+	 * Gets the number of events in the list.
+	 *
+	 * @return the number of events
+	 */
+	int size();
+
+	/**
+	 * Checks if the list is empty.
+	 *
+	 * @return true, if there is no event in the list
+	 */
+	boolean isEmpty();
+
+	/**
+	 * Removes all the events from the list.
+	 */
+	void clear();
+}
@@ -1,6 +1,8 @@
 package org.cloudbus.cloudsim.core;
 
 import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.MipsShare;
+import org.cloudbus.cloudsim.StateHistory;
 import org.cloudbus.cloudsim.VmStateHistoryEntry;
 
 import java.util.List;
@@ -34,6 +36,16 @@ public interface GuestEntity extends CoreAttributes {
      */
     List<Double> getCurrentRequestedMips();
 
+    /**
+     * Adds the current requested mips at the end of a share. Guests can override it to fill the
+     * share without creating a list, as long as it adds the same mips as {@link #getCurrentRequestedMips()}.
+     *
+     * @param mipsShare the share to fill
+     */
+    default void addCurrentRequestedMips(MipsShare mipsShare) {
+        mipsShare.addAll(getCurrentRequestedMips());
+    }
+
     /**
      * Gets the current requested total mips (i.e., sum of mips for each virtual PE).
      *
@@ -93,6 +105,10 @@ public interface GuestEntity extends CoreAttributes {
      * @param isInMigration the is in migration
      */
     default void addStateHistoryEntry(double time, double allocatedMips, double requestedMips, boolean isInMigration) {
+        if (getStateHistory() instanceof StateHistory<VmStateHistoryEntry> history) {
+            history.record(time, allocatedMips, requestedMips, isInMigration);
+            return;
+        }
         VmStateHistoryEntry newState = new VmStateHistoryEntry(
                 time,
                 allocatedMips,
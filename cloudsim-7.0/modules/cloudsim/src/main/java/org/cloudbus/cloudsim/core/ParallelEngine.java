@@ -0,0 +1,444 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.cloudbus.cloudsim.NetworkTopology;
+
+/**
+ * Runs a simulation whose entities are split into partitions (logical processes), simulating
+ * the partitions in parallel with a conservative, window-based synchronisation.
+ * <p>
+ * Each partition is simulated by a child {@link SimulationContext} with its own clock and future
+ * queue. Events sent to another partition are exchanged between rounds. The lookahead between two
+ * partitions is the minimal {@link NetworkTopology#getDelay(int, int) network delay} between their
+ * entities: in each round, a partition runs all the events earlier than the earliest time at which
+ * another partition can send it an event. When no partition can run ahead, the earliest tick of
+ * the simulation is run in parallel by the partitions that have events for it.
+ * <p>
+ * The results are identical to a sequential run. Every event gets a creation key (creation time,
+ * tick generation, creating entity, sequence) that sorts the events in the same order as the
+ * serial numbers given by a sequential run, so each entity receives the same events in the same
+ * order. This requires the partitions to share state only through events, and the following:
+ * <ul>
+ * <li>an event sent to another partition must be delayed by at least the lookahead, which holds
+ * for events sent through {@link SimEntity#send(int, double, CloudSimTags, Object)};</li>
+ * <li>entities can only cancel events sent within their own partition;</li>
+ * <li>entities cannot be added, and the simulation cannot be paused, while it is running;</li>
+ * <li>only entities in the partition of {@link CloudSimShutdown} can terminate the simulation.</li>
+ * </ul>
+ * The only shared state that is read directly is the resource list of the
+ * {@link CloudInformationService}: its partition is run before the others in each round.
+ * Events scheduled with {@link CloudSim#sendFirst(int, int, double, CloudSimTags, Object)} for
+ * the same time and entity are delivered in the order they were created. Log messages of
+ * different partitions may be interleaved differently than in a sequential run.
+ *
+ * @see SimulationContext#setPartition(int, int)
+ * @see SimulationContext#setParallelThreads(int)
+ * @since CloudSim Toolkit 7.0
+ */
+final class ParallelEngine {
+
+	/** The future queue of a partition, sorted by creation key. */
+	static final class PartitionQueue extends PriorityQueue<SimEvent> implements FutureEventList {
+
+		PartitionQueue() {
+			super(ParallelEngine::compare);
+		}
+
+		@Override
+		public void addEvent(SimEvent newEvent) {
+			add(newEvent);
+		}
+
+		@Override
+		public void addEventFirst(SimEvent newEvent) {
+			add(newEvent);
+		}
+	}
+
+	/** The context of the simulation. */
+	private final SimulationContext context;
+
+	/** The number of threads. */
+	private final int threads;
+
+	/** The contexts of the partitions. */
+	private SimulationContext[] partitions;
+
+	/** The time and generation of the tick in which an entity terminated the simulation. */
+	private double stopTime = Double.POSITIVE_INFINITY;
+
+	/** The generation of the tick in which an entity terminated the simulation. */
+	private int stopGeneration = Integer.MAX_VALUE;
+
+	/**
+	 * Instantiates a new parallel engine.
+	 *
+	 * @param context the context of the simulation, with its entities assigned to partitions
+	 * @param threads the number of threads
+	 */
+	ParallelEngine(SimulationContext context, int threads) {
+		this.context = context;
+		this.threads = threads;
+	}
+
+	/**
+	 * Runs the simulation.
+	 *
+	 * @return the last clock value
+	 */
+	double run() {
+		context.startParallel();
+
+		int numPartitions = 0;
+		for (int id = 0; id < context.getNumEntities(); id++) {
+			numPartitions = Math.max(numPartitions, context.getPartition(id) + 1);
+		}
+		double[][] lookahead = computeLookahead(numPartitions);
+		partitions = new SimulationContext[numPartitions];
+		for (int p = 0; p < numPartitions; p++) {
+			partitions[p] = new SimulationContext(context, p, lookahead[p]);
+		}
+		for (SimEvent e : context.drainFuture()) {
+			partitions[context.getPartition(e.getDestinationId())].deliver(e);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, numPartitions), r -> {
+			Thread thread = new Thread(r, "CloudSim-partition");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			while (runRound(executor)) {
+				// keep going until no partition can make progress
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return finish();
+	}
+
+	/**
+	 * Computes the lookahead between every pair of partitions, i.e. the minimal network delay
+	 * between their entities, or along a chain of partitions if that is shorter. The lookahead from
+	 * a partition to itself is the shortest round trip through other partitions. The partition of
+	 * {@link CloudSimShutdown} has no lookahead, since terminating the simulation affects all the
+	 * partitions at once.
+	 *
+	 * @param numPartitions the number of partitions
+	 * @return the lookahead, by source and destination partition
+	 */
+	private double[][] computeLookahead(int numPartitions) {
+		double[][] lookahead = new double[numPartitions][numPartitions];
+		for (double[] row : lookahead) {
+			Arrays.fill(row, Double.POSITIVE_INFINITY);
+		}
+		int numEntities = context.getNumEntities();
+		boolean network = NetworkTopology.isNetworkEnabled();
+		for (int src = 0; src < numEntities; src++) {
+			double[] row = lookahead[context.getPartition(src)];
+			for (int dst = 0; dst < numEntities; dst++) {
+				int dstPartition = context.getPartition(dst);
+				if (row[dstPartition] > 0 && context.getPartition(src) != dstPartition) {
+					row[dstPartition] = Math.min(row[dstPartition], network ? NetworkTopology.getDelay(src, dst) : 0);
+				}
+			}
+		}
+		if (context.shutdownId >= 0) {
+			Arrays.fill(lookahead[context.getPartition(context.shutdownId)], 0);
+		}
+		// an event can reach a partition through the entities of other partitions, including an
+		// answer to an event the partition sent itself
+		for (int via = 0; via < numPartitions; via++) {
+			for (int src = 0; src < numPartitions; src++) {
+				for (int dst = 0; dst < numPartitions; dst++) {
+					lookahead[src][dst] = Math.min(lookahead[src][dst], lookahead[src][via] + lookahead[via][dst]);
+				}
+			}
+		}
+		return lookahead;
+	}
+
+	/**
+	 * Runs one round: delivers the events exchanged in the previous round and lets each partition
+	 * run the events it can safely process.
+	 *
+	 * @param executor the executor running the partitions
+	 * @return false if no partition can make progress anymore
+	 */
+	private boolean runRound(ExecutorService executor) {
+		for (SimulationContext partition : partitions) {
+			for (SimEvent e : partition.drainOutbox()) {
+				partitions[context.getPartition(e.getDestinationId())].deliver(e);
+			}
+		}
+
+		int n = partitions.length;
+		SimEvent[] heads = new SimEvent[n];
+		for (int p = 0; p < n; p++) {
+			heads[p] = partitions[p].peekFuture();
+		}
+
+		double terminateAt = context.getTerminateAt() > 0 ? context.getTerminateAt() : Double.POSITIVE_INFINITY;
+		List<Callable<Void>> tasks = new ArrayList<>();
+		List<SimulationContext> running = new ArrayList<>();
+		for (int dst = 0; dst < n; dst++) {
+			if (heads[dst] == null || !isBeforeStop(heads[dst])) {
+				continue;
+			}
+			// the earliest time an event can be sent to this partition by another one
+			double bound = terminateAt;
+			for (int src = 0; src < n; src++) {
+				if (heads[src] != null) {
+					bound = Math.min(bound, heads[src].eventTime() + partitions[src].lookaheadTo(dst));
+				}
+			}
+			if (heads[dst].eventTime() < bound) {
+				SimulationContext partition = partitions[dst];
+				final double windowEnd = bound;
+				tasks.add(inContext(partition, () -> runWindow(partition, windowEnd)));
+				running.add(partition);
+			}
+		}
+
+		if (tasks.isEmpty()) {
+			// no partition can run ahead: run the earliest tick of the simulation
+			SimEvent earliest = null;
+			for (SimEvent head : heads) {
+				if (head != null && (earliest == null || compareTick(head, earliest) < 0)) {
+					earliest = head;
+				}
+			}
+			if (earliest == null || earliest.eventTime() >= terminateAt || !isBeforeStop(earliest)) {
+				return false;
+			}
+			for (int p = 0; p < n; p++) {
+				if (heads[p] != null && compareTick(heads[p], earliest) == 0) {
+					SimulationContext partition = partitions[p];
+					tasks.add(inContext(partition, () -> runWindow(partition, Double.NEGATIVE_INFINITY)));
+					running.add(partition);
+				}
+			}
+		}
+
+		// entities read the resource list of the CloudInformationService directly, so its
+		// partition runs first, as the CloudInformationService does in a sequential tick
+		int cis = context.cisId >= 0 ? running.indexOf(partitions[context.getPartition(context.cisId)]) : -1;
+		if (cis >= 0) {
+			execute(executor, List.of(tasks.remove(cis)));
+		}
+		execute(executor, tasks);
+		checkRound(running, terminateAt);
+		return true;
+	}
+
+	/**
+	 * Runs the ticks of a partition up to a given time. The first tick is always run.
+	 *
+	 * @param partition the partition
+	 * @param windowEnd the time of the first tick not to run
+	 * @return nothing
+	 */
+	private Void runWindow(SimulationContext partition, double windowEnd) {
+		SimEvent head;
+		do {
+			partition.runTick();
+			head = partition.peekFuture();
+		} while (head != null && head.eventTime() < windowEnd && isBeforeStop(head)
+				&& !partition.isAbruptlyTerminated());
+		return null;
+	}
+
+	/**
+	 * Wraps a task so that it runs with the context of a partition bound to its thread.
+	 *
+	 * @param partition the partition
+	 * @param task the task
+	 * @return the wrapped task
+	 */
+	private static Callable<Void> inContext(SimulationContext partition, Callable<Void> task) {
+		return () -> {
+			SimulationContext previous = CloudSim.setSimulationContext(partition);
+			try {
+				return task.call();
+			} finally {
+				CloudSim.setSimulationContext(previous);
+			}
+		};
+	}
+
+	/**
+	 * Runs the tasks of a round. A single task is run by the calling thread.
+	 *
+	 * @param executor the executor
+	 * @param tasks the tasks
+	 */
+	private void execute(ExecutorService executor, List<Callable<Void>> tasks) {
+		try {
+			if (tasks.isEmpty()) {
+				return;
+			}
+			if (tasks.size() == 1) {
+				tasks.get(0).call();
+				return;
+			}
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Checks that the partitions did not do anything a parallel run cannot reproduce, and
+	 * records the tick in which an entity terminated the simulation.
+	 *
+	 * @param running the partitions that ran in the round
+	 * @param terminateAt the termination time
+	 */
+	private void checkRound(List<SimulationContext> running, double terminateAt) {
+		for (SimulationContext partition : running) {
+			if (!partition.running() || partition.isPaused()
+					|| partition.getTerminateAt() != context.getTerminateAt()) {
+				throw new UnsupportedOperationException("并行模拟运行时不能暂停模拟或修改终止时间");
+			}
+			if (partition.isAbruptlyTerminated() && (partition.clock() < stopTime
+					|| partition.clock() == stopTime && partition.getTickGeneration() < stopGeneration)) {
+				stopTime = partition.clock();
+				stopGeneration = partition.getTickGeneration();
+			}
+		}
+		if (stopTime < Double.POSITIVE_INFINITY) {
+			for (SimulationContext partition : partitions) {
+				if (partition.clock() > stopTime
+						|| partition.clock() == stopTime && partition.getTickGeneration() > stopGeneration) {
+					throw new IllegalStateException("只有 CloudSimShutdown 所在分区的实体可以终止并行模拟");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets the final state of the simulation, as a sequential run would.
+	 *
+	 * @return the last clock value
+	 */
+	private double finish() {
+		double clock = 0;
+		SimEvent earliest = null;
+		for (SimulationContext partition : partitions) {
+			clock = Math.max(clock, partition.clock());
+			SimEvent head = partition.peekFuture();
+			if (head != null && (earliest == null || compareTick(head, earliest) < 0)) {
+				earliest = head;
+			}
+		}
+
+		boolean abrupt = stopTime < Double.POSITIVE_INFINITY;
+		if (earliest == null) {
+			context.printMessage(clock + ": 模拟：没有更多的未来事件了");
+		} else if (abrupt) {
+			// a sequential run dispatches the next tick before stopping
+			clock = earliest.eventTime();
+		} else {
+			context.terminateSimulation();
+			clock = context.getTerminateAt();
+		}
+		context.endParallelRun(clock, abrupt);
+
+		context.finishSimulation();
+		context.runStop();
+		return clock;
+	}
+
+	/**
+	 * Checks if an event comes in a tick not later than the one in which the simulation was
+	 * terminated.
+	 *
+	 * @param e the event
+	 * @return true, if the event can be processed
+	 */
+	private boolean isBeforeStop(SimEvent e) {
+		return e.eventTime() < stopTime || e.eventTime() == stopTime && generation(e) <= stopGeneration;
+	}
+
+	/**
+	 * Gets the generation of the tick in which an event is dispatched. Events created at the same
+	 * time they are scheduled for are dispatched in the tick following the one that created them;
+	 * the other events are dispatched in the first tick of their time.
+	 *
+	 * @param e the event
+	 * @return the generation of the tick, starting from 1
+	 */
+	static int generation(SimEvent e) {
+		if (e.getCreationTime() == e.eventTime() && e.getCreationGeneration() > 0) {
+			return e.getCreationGeneration() + 1;
+		}
+		return 1;
+	}
+
+	/**
+	 * Compares the ticks in which two events are dispatched.
+	 *
+	 * @param a the first event
+	 * @param b the second event
+	 * @return a negative value, zero or a positive value if the tick of a comes before, together
+	 *         or after the tick of b
+	 */
+	private static int compareTick(SimEvent a, SimEvent b) {
+		int c = Double.compare(a.eventTime(), b.eventTime());
+		return c != 0 ? c : Integer.compare(generation(a), generation(b));
+	}
+
+	/**
+	 * Compares two events by time and creation key, giving the order of a sequential run.
+	 *
+	 * @param a the first event
+	 * @param b the second event
+	 * @return a negative value, zero or a positive value if a comes before, together or after b
+	 */
+	static int compare(SimEvent a, SimEvent b) {
+		int c = Double.compare(a.eventTime(), b.eventTime());
+		if (c != 0) {
+			return c;
+		}
+		if (a.isFirst() != b.isFirst()) {
+			return a.isFirst() ? -1 : 1;
+		}
+		c = Double.compare(a.getCreationTime(), b.getCreationTime());
+		if (c != 0) {
+			return c;
+		}
+		c = Integer.compare(a.getCreationGeneration(), b.getCreationGeneration());
+		if (c != 0) {
+			return c;
+		}
+		c = Integer.compare(a.getCreatorId(), b.getCreatorId());
+		return c != 0 ? c : Long.compare(a.getSerial(), b.getSerial());
+	}
+}
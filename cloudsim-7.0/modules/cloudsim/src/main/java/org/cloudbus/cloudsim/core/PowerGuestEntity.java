@@ -8,7 +8,6 @@
 package org.cloudbus.cloudsim.core;
 
 import org.cloudbus.cloudsim.util.HistoryStat;
-import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
  * Represents a Virtual Machine (VM), or a container, that stores its CPU utilization percentage history for power
@@ -30,9 +29,8 @@ public interface PowerGuestEntity extends GuestEntity {
     default double[] getUtilizationHistoryList(){
         HistoryStat utilHistStat = getUtilizationHistory();
         double[] utilizationHistoryList = new double[utilHistStat.size()];
-        int i = 0;
-        for (double u : utilHistStat)
-            utilizationHistoryList[i++] = u * getMips();
+        for (int i = 0; i < utilizationHistoryList.length; i++)
+            utilizationHistoryList[i] = utilHistStat.get(i) * getMips();
 
         return utilizationHistoryList;
     }
@@ -52,19 +50,8 @@ public interface PowerGuestEntity extends GuestEntity {
      * @return the utilization MAD in MIPS
      */
     default double getUtilizationMad() {
-        double mad = 0;
         HistoryStat hist = getUtilizationHistory();
-        if (!hist.isEmpty()) {
-            int n = hist.size();
-            double median = hist.getMedian();
-            double[] deviationSum = new double[n];
-            int i = 0;
-            for (double u : hist) {
-                deviationSum[i++] = Math.abs(median - u);
-            }
-            mad = MathUtil.median(deviationSum);
-        }
-        return mad;
+        return hist.getMad(hist.getMedian());
     }
 
     /**
@@ -87,8 +74,8 @@ public interface PowerGuestEntity extends GuestEntity {
         double variance = 0;
         if (!hist.isEmpty()) {
             int n = hist.size();
-            for (double u : hist) {
-                double tmp = u * getMips() - mean;
+            for (int i = 0; i < n; i++) {
+                double tmp = hist.get(i) * getMips() - mean;
                 variance += tmp * tmp;
             }
             variance /= n;
@@ -12,7 +12,9 @@ import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.NetworkTopology;
 import org.cloudbus.cloudsim.core.predicates.Predicate;
 
+import java.util.ArrayDeque;
 import java.util.Iterator;
+import java.util.Queue;
 
 /**
  * This class represents a simulation entity. An entity handles events and can send events to other
@@ -43,7 +45,12 @@ public abstract class SimEntity implements Cloneable {
 	private String name;
 	private int id;
 	private EntityStatus state;
-	protected EventQueue incomingEvents;
+
+	/**
+	 * The deferred events delivered to this entity and not yet processed. Events are delivered
+	 * in time order, so a FIFO queue keeps them sorted.
+	 */
+	protected Queue<SimEvent> incomingEvents;
 
 	/**
 	 * Creates a new entity.
@@ -57,7 +64,7 @@ public abstract class SimEntity implements Cloneable {
 		this.name = name;
 		id = -1;
 		state = EntityStatus.RUNNABLE;
-		incomingEvents = new EventQueue();
+		incomingEvents = new ArrayDeque<>();
 
 		CloudSim.addEntity(this);
 	}
@@ -80,7 +87,7 @@ public abstract class SimEntity implements Cloneable {
 		return id;
 	}
 
-	public EventQueue getIncomingEvents() {
+	public Queue<SimEvent> getIncomingEvents() {
 		return incomingEvents;
 	}
 
@@ -447,15 +454,28 @@ public abstract class SimEntity implements Cloneable {
 	 * @see #processEvent(org.cloudbus.cloudsim.core.SimEvent)
 	 */
 	public void run() {
-		SimEvent ev =  incomingEvents.poll();
+		SimEvent ev = nextIncomingEvent();
 
 		while (ev != null) {
 			processEvent(ev);
 			if (state != EntityStatus.RUNNABLE) {
 				break;
 			}
-			ev = incomingEvents.poll();
+			ev = nextIncomingEvent();
+		}
+	}
+
+	/**
+	 * Removes the next event from the deferred queue. No event is returned once the
+	 * simulation has stopped running.
+	 *
+	 * @return the next event, or <tt>null</tt> if there is none
+	 */
+	private SimEvent nextIncomingEvent() {
+		if (!CloudSim.running()) {
+			return null;
 		}
+		return incomingEvents.poll();
 	}
 
 	/**
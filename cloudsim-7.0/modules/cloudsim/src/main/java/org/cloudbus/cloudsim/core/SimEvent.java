@@ -52,6 +52,25 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
          */
 	private long serial = -1;
 
+	/** Whether the event has been cancelled while waiting in the future queue. */
+	private boolean cancelled = false;
+
+	/** Whether the event was scheduled before the other events for the same time. */
+	private boolean first = false;
+
+	/**
+	 * The simulation time at which the event was created. Together with {@link #creationGeneration},
+	 * {@link #creatorId} and {@link #serial}, it gives the order in which events are created by a
+	 * sequential run, so that a {@link ParallelEngine} can reproduce it.
+	 */
+	private double creationTime;
+
+	/** The generation of the tick in which the event was created. */
+	private int creationGeneration;
+
+	/** The id of the entity that was running when the event was created. */
+	private int creatorId = -1;
+
 	// Internal event types
 
 	public static final int ENULL = 0;
@@ -81,6 +100,51 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 		this.serial = serial;
 	}
 
+	protected long getSerial() {
+		return serial;
+	}
+
+	protected void setCancelled() {
+		cancelled = true;
+	}
+
+	protected boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Sets the creation key used to order the events in a parallel simulation.
+	 *
+	 * @param time the simulation time of the creation
+	 * @param generation the generation of the tick in which the event is created
+	 * @param creator the id of the entity running when the event is created
+	 * @param sequence the number of events created before by the same entity in the same tick
+	 * @param first whether the event goes before the other events scheduled for the same time
+	 */
+	protected void setCreationKey(double time, int generation, int creator, long sequence, boolean first) {
+		creationTime = time;
+		creationGeneration = generation;
+		creatorId = creator;
+		serial = sequence;
+		this.first = first;
+	}
+
+	protected boolean isFirst() {
+		return first;
+	}
+
+	protected double getCreationTime() {
+		return creationTime;
+	}
+
+	protected int getCreationGeneration() {
+		return creationGeneration;
+	}
+
+	protected int getCreatorId() {
+		return creatorId;
+	}
+
 	/**
 	 * Sets the time that the event was removed from the queue to start service. 
 	 * 
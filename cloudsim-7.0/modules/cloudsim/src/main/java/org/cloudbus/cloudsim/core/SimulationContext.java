@@ -0,0 +1,1032 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.cloudbus.cloudsim.CloudletHistory;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+
+/**
+ * Holds the whole state of one simulation run: the simulation clock, the entity registry,
+ * the future event queue and the wait predicates of the entities.
+ * <p>
+ * The static API of {@link CloudSim} (and thus every {@link SimEntity}, such as
+ * {@link org.cloudbus.cloudsim.Datacenter} and {@link org.cloudbus.cloudsim.DatacenterBroker})
+ * operates on the context bound to the calling thread. Each call to
+ * {@link CloudSim#init(int, Calendar, boolean)} binds a new context to the calling thread, so
+ * independent simulations can be run concurrently in the same JVM by simply running each of them
+ * in a separate thread. Threads started afterwards by the simulation thread share its context,
+ * and a context can also be explicitly moved to another thread through
+ * {@link CloudSim#setSimulationContext(SimulationContext)}. A context is not thread-safe: apart
+ * from pausing and resuming, it must be used by only one thread at a time.
+ * <p>
+ * A single simulation can also use several threads, if its entities are split into partitions
+ * through {@link #setPartition(int, int)} and {@link #setParallelThreads(int)} is set: each
+ * partition is then simulated by a child context in its own thread, as described in
+ * {@link ParallelEngine}.
+ *
+ * @see CloudSim#getSimulationContext()
+ * @since CloudSim Toolkit 7.0
+ */
+public class SimulationContext {
+
+	/** The Constant NOT_FOUND. */
+	private static final int NOT_FOUND = -1;
+
+	/** The id of CIS entity. */
+	int cisId = -1;
+
+	/** The id of CloudSimShutdown entity. */
+	int shutdownId = -1;
+
+	/** The CIS object. */
+	CloudInformationService cis = null;
+
+	/** The trace flag. */
+	boolean traceFlag = false;
+
+	/** The calendar. */
+	Calendar calendar = null;
+
+	/** The termination time. */
+	private double terminateAt = -1;
+
+	/** The minimal time between events. Events within shorter periods after the last event are discarded. */
+	double minTimeBetweenEvents = 0.01;
+
+	/** The entities. */
+	private List<SimEntity> entities;
+
+	/** The ids of the entities that may have deferred events to process in the next tick. */
+	private BitSet readyEntities;
+
+	/** The factory of the future event queue, selected when the simulation is initialised. */
+	Supplier<? extends FutureEventList> futureEventList = EventQueue::new;
+
+	/** The future event queue. Cancelled events are left in it and skipped when they are reached. */
+	private FutureEventList future;
+
+	/** The events waiting in the future queue, by source entity id and tag, in insertion order. */
+	private Map<Integer, Map<CloudSimTags, Set<SimEvent>>> pendingEvents;
+
+	/** The number of cancelled events still in the future queue. */
+	private int cancelledEvents;
+
+	/** The current simulation clock. */
+	private double clock;
+
+	/** Flag for checking if the simulation is running. */
+	private boolean running;
+
+	/** The entities by name. */
+	private Map<String, SimEntity> entitiesByName;
+
+	/** The wait predicates. */
+	private Map<Integer, Predicate> waitPredicates;
+
+	/** The paused. It can be changed by a thread other than the one running the simulation. */
+	private volatile boolean paused = false;
+
+	/** The pause at. */
+	private long pauseAt = -1;
+
+	/** The abrupt terminate. */
+	private boolean abruptTerminate = false;
+
+	/** The partition of each entity, by entity id. Entities not listed are in partition 0. */
+	private int[] partitions = new int[0];
+
+	/** The number of threads used to simulate the partitions. */
+	private int parallelThreads = 1;
+
+	/** The partition simulated by this context, or -1 if it simulates all the entities. */
+	private int partition = -1;
+
+	/** The lookahead from the partition of this context to every partition. */
+	private double[] lookahead;
+
+	/** The events sent to entities of other partitions, not yet delivered. */
+	private List<SimEvent> outbox;
+
+	/** Whether the scheduled events get a creation key, as needed by a parallel run. */
+	private boolean keyed = false;
+
+	/** The id of the entity being run, or -1. */
+	private int creatorId = -1;
+
+	/** The generation of the current tick, i.e. its position among the ticks at the same time. */
+	private int tickGeneration = -2;
+
+	/** The number of events created by the running entity in the current tick. */
+	private long creationSequence;
+
+	/** The history of the cloudlets that record it. */
+	private CloudletHistory cloudletHistory = new CloudletHistory();
+
+	/**
+	 * Instantiates a new context. The context is set up by {@link #initialize()}.
+	 */
+	public SimulationContext() {
+	}
+
+	/**
+	 * Instantiates the context of a partition of a parallel simulation. It shares the entities
+	 * and the parameters of the parent context, but it has its own clock and future queue.
+	 *
+	 * @param parent the context of the simulation
+	 * @param partition the partition simulated by this context
+	 * @param lookahead the lookahead from the partition to every partition
+	 */
+	SimulationContext(SimulationContext parent, int partition, double[] lookahead) {
+		cisId = parent.cisId;
+		shutdownId = parent.shutdownId;
+		cis = parent.cis;
+		traceFlag = parent.traceFlag;
+		calendar = parent.calendar;
+		terminateAt = parent.terminateAt;
+		minTimeBetweenEvents = parent.minTimeBetweenEvents;
+		entities = parent.entities;
+		entitiesByName = parent.entitiesByName;
+		partitions = parent.partitions;
+		cloudletHistory = parent.cloudletHistory;
+		this.partition = partition;
+		this.lookahead = lookahead;
+		outbox = new ArrayList<>();
+		readyEntities = new BitSet();
+		future = new ParallelEngine.PartitionQueue();
+		pendingEvents = new HashMap<>();
+		waitPredicates = new HashMap<>();
+		keyed = true;
+		clock = parent.clock;
+		running = true;
+	}
+
+	/**
+	 * Initialise the context for a new simulation. Any entity or event left from a previous
+	 * simulation run in this context is discarded.
+	 */
+	protected void initialize() {
+		Log.println("初始化中...");
+		entities = new ArrayList<>();
+		readyEntities = new BitSet();
+		entitiesByName = new LinkedHashMap<>();
+		future = futureEventList.get();
+		pendingEvents = new HashMap<>();
+		cancelledEvents = 0;
+		waitPredicates = new HashMap<>();
+		clock = 0;
+		running = false;
+	}
+
+	/**
+	 * Resets the attributes set by {@link CloudSim#init(int, Calendar, boolean)}
+	 * once the simulation has been completed.
+	 */
+	void resetCommonVariables() {
+		cisId = -1;
+		shutdownId = -1;
+		cis = null;
+		calendar = null;
+		traceFlag = false;
+	}
+
+	/**
+	 * Gets the history of the cloudlets that record it.
+	 *
+	 * @return the cloudlet history
+	 */
+	public CloudletHistory getCloudletHistory() {
+		return cloudletHistory;
+	}
+
+	/**
+	 * Get the current simulation time.
+	 *
+	 * @return the simulation time
+	 */
+	public double clock() {
+		return clock;
+	}
+
+	/**
+	 * Check if the simulation is still running.
+	 *
+	 * @return if the simulation is still running, otherwise
+	 */
+	public boolean running() {
+		return running;
+	}
+
+	/**
+	 * Checks if is paused.
+	 *
+	 * @return true, if is paused
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+
+	/**
+	 * Gets the future event queue of this context.
+	 *
+	 * @return the future event queue
+	 */
+	protected FutureEventList getFutureQueue() {
+		return future;
+	}
+
+	// ======== ENTITY REGISTRY ===============//
+
+	/**
+	 * Get the current number of entities in the simulation.
+	 *
+	 * @return The number of entities
+	 */
+	public int getNumEntities() {
+		return entities.size();
+	}
+
+	/**
+	 * Get the entity with a given id.
+	 *
+	 * @param id the entity's unique id number
+	 * @return The entity, or if it could not be found
+	 */
+	public SimEntity getEntity(int id) {
+		return entities.get(id);
+	}
+
+	/**
+	 * Get the entity with a given name.
+	 *
+	 * @param name The entity's name
+	 * @return The entity
+	 */
+	public SimEntity getEntity(String name) {
+		return entitiesByName.get(name);
+	}
+
+	/**
+	 * Get the id of an entity with a given name.
+	 *
+	 * @param name The entity's name
+	 * @return The entity's unique id number
+	 */
+	public int getEntityId(String name) {
+		SimEntity obj = entitiesByName.get(name);
+		if (obj == null) {
+			return NOT_FOUND;
+		} else {
+			return obj.getId();
+		}
+	}
+
+	/**
+	 * Returns a list of entities created for the simulation.
+	 *
+	 * @return the entity list
+	 */
+	public List<SimEntity> getEntityList() {
+		// create a new list to prevent the user from changing
+		// the list of entities used by Simulation
+		return new LinkedList<>(entities);
+	}
+
+	/**
+	 * Add a new entity to the simulation.
+	 *
+	 * @param e The new entity
+	 */
+	public void addEntity(SimEntity e) {
+		SimEvent evt;
+		if (running && partition >= 0) {
+			throw new UnsupportedOperationException("并行模拟运行时不能添加实体：" + e.getName());
+		}
+		if (running) {
+			// Post an event to make this entity
+			evt = new SimEvent(SimEvent.CREATE, clock, 1, 0, CloudActionTags.BLANK, e);
+			schedule(evt, false);
+		}
+		if (e.getId() == -1) { // Only add once!
+			int id = entities.size();
+			e.setId(id);
+			entities.add(e);
+			entitiesByName.put(e.getName(), e);
+		}
+	}
+
+	/**
+	 * Internal method used to add a new entity to the simulation when the simulation is running.
+	 *
+	 * @param e The new entity
+	 */
+	protected void addEntityDynamically(SimEntity e) {
+		if (e == null) {
+			throw new IllegalArgumentException("Adding null entity.");
+		} else {
+			printMessage("Adding: " + e.getName());
+		}
+		e.startEntity();
+	}
+
+	// ======== EVENT SCHEDULING ===============//
+
+	/**
+	 * Used to pause an entity for some time.
+	 *
+	 * @param srcId the entity source id
+	 * @param delay the delay
+	 */
+	public void pause(int srcId, double delay) {
+		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, srcId);
+		schedule(e, false);
+		entities.get(srcId).setState(SimEntity.EntityStatus.HOLDING);
+	}
+
+	/**
+	 * Used to send an event from one entity to another.
+	 *
+	 * @param srcId the src
+	 * @param dstId the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the data
+	 */
+	public void send(int srcId, int dstId, double delay, CloudSimTags tag, Object data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+		if (delay >= Double.MAX_VALUE) {
+			throw new RuntimeException("Send delay can't be infinite.");
+		}
+
+		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, srcId, dstId, tag, data);
+		schedule(e, false);
+	}
+
+	/**
+	 * Used to send an event from one entity to another, with priority in the queue.
+	 *
+	 * @param srcId the src
+	 * @param dstId the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the data
+	 */
+	public void sendFirst(int srcId, int dstId, double delay, CloudSimTags tag, Object data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+
+		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, srcId, dstId, tag, data);
+		schedule(e, true);
+	}
+
+	/**
+	 * Sets an entity's state to be waiting.
+	 *
+	 * @param srcId the src
+	 * @param p the p
+	 */
+	public void wait(int srcId, Predicate p) {
+		entities.get(srcId).setState(SimEntity.EntityStatus.WAITING);
+		if (p != CloudSim.SIM_ANY) {
+			// If a predicate has been used store it in order to check it
+			waitPredicates.put(srcId, p);
+		}
+	}
+
+	/**
+	 * Removes an event from the event queue.
+	 *
+	 * @param srcId the entity source id
+	 * @param p the p
+	 * @return the sim event
+	 */
+	public SimEvent cancel(int srcId, Predicate p) {
+		for (Set<SimEvent> events : pendingEvents(srcId, p)) {
+			Iterator<SimEvent> iter = events.iterator();
+			while (iter.hasNext()) {
+				SimEvent ev = iter.next();
+				if (p.match(ev)) {
+					iter.remove();
+					markCancelled(ev);
+					return ev;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes all events that match a given predicate from the future event queue.
+	 *
+	 * @param srcId the entity source id
+	 * @param p the p
+	 * @return true, if at least one event has been cancelled
+	 */
+	public boolean cancelAll(int srcId, Predicate p) {
+		boolean cancelled = false;
+		for (Set<SimEvent> events : pendingEvents(srcId, p)) {
+			Iterator<SimEvent> iter = events.iterator();
+			while (iter.hasNext()) {
+				SimEvent ev = iter.next();
+				if (p.match(ev)) {
+					iter.remove();
+					markCancelled(ev);
+					cancelled = true;
+				}
+			}
+		}
+		return cancelled;
+	}
+
+	/**
+	 * Adds an event to the future queue and to the index of pending events.
+	 *
+	 * @param e the event
+	 * @param first whether the event goes before the other events scheduled for the same time
+	 */
+	private void schedule(SimEvent e, boolean first) {
+		if (keyed) {
+			e.setCreationKey(clock, tickGeneration, creatorId, creationSequence++, first);
+		}
+		if (partition >= 0) {
+			int dstPartition = getPartition(e.getDestinationId());
+			if (dstPartition != partition) {
+				// the lookahead is what allows the other partitions to run ahead
+				if (e.eventTime() < clock + lookahead[dstPartition]) {
+					throw new IllegalStateException("发往分区 " + dstPartition + " 的事件延迟小于前瞻时间 "
+							+ lookahead[dstPartition] + "：" + e);
+				}
+				outbox.add(e);
+				return;
+			}
+		}
+		if (first) {
+			future.addEventFirst(e);
+		} else {
+			future.addEvent(e);
+		}
+		pendingEvents.computeIfAbsent(e.getSourceId(), k -> new HashMap<>())
+				.computeIfAbsent(e.getTag(), k -> new LinkedHashSet<>())
+				.add(e);
+	}
+
+	/**
+	 * Gets the pending events of a source entity that can match a predicate. Only the events
+	 * with the selected tags are considered for a {@link PredicateType}.
+	 *
+	 * @param srcId the entity source id
+	 * @param p the predicate
+	 * @return the sets of candidate events, in insertion order
+	 */
+	private List<Set<SimEvent>> pendingEvents(int srcId, Predicate p) {
+		Map<CloudSimTags, Set<SimEvent>> byTag = pendingEvents.get(srcId);
+		if (byTag == null) {
+			return List.of();
+		}
+		if (!(p instanceof PredicateType predicateType)) {
+			return new ArrayList<>(byTag.values());
+		}
+		List<Set<SimEvent>> candidates = new ArrayList<>();
+		for (CloudSimTags tag : predicateType.getTags()) {
+			Set<SimEvent> events = byTag.get(tag);
+			if (events != null && !events.isEmpty()) {
+				candidates.add(events);
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * Marks an event as cancelled. The event stays in the future queue until it is reached or
+	 * until the cancelled events outnumber the pending ones, when they are all removed at once.
+	 *
+	 * @param ev the event
+	 */
+	private void markCancelled(SimEvent ev) {
+		ev.setCancelled();
+		cancelledEvents++;
+		if (cancelledEvents > future.size() - cancelledEvents) {
+			Iterator<SimEvent> iter = future.iterator();
+			while (iter.hasNext()) {
+				if (iter.next().isCancelled()) {
+					iter.remove();
+				}
+			}
+			cancelledEvents = 0;
+		}
+	}
+
+	/**
+	 * Gets the first event of the future queue, discarding the cancelled events before it.
+	 *
+	 * @return the first event, or <tt>null</tt> if there is no more future event
+	 */
+	SimEvent peekFuture() {
+		SimEvent first = future.peek();
+		while (first != null && first.isCancelled()) {
+			if (future.poll() == null) {
+				return null;
+			}
+			cancelledEvents--;
+			first = future.peek();
+		}
+		return first;
+	}
+
+	/**
+	 * Removes the first event of the future queue, which must not be cancelled.
+	 *
+	 * @return the first event
+	 */
+	private SimEvent pollFuture() {
+		SimEvent first = future.poll();
+		if (first != null) {
+			Map<CloudSimTags, Set<SimEvent>> byTag = pendingEvents.get(first.getSourceId());
+			Set<SimEvent> events = byTag == null ? null : byTag.get(first.getTag());
+			if (events != null) {
+				events.remove(first);
+			}
+		}
+		return first;
+	}
+
+	// ======== SIMULATION LOOP ===============//
+
+	/**
+	 * Internal method used to run one tick of the simulation.
+	 *
+	 * @return true if there are events to be processed, false if event queue is empty
+	 */
+	private boolean runClockTick() {
+		runReadyEntities();
+
+		SimEvent first = peekFuture();
+		if (first == null) {
+			running = false;
+			printMessage(clock + ": 模拟：没有更多的未来事件了");
+			return false;
+		}
+
+		double clk = first.eventTime();
+		while ((first = peekFuture()) != null && first.eventTime() == clk) {
+			dispatchEvent(pollFuture());
+		}
+
+		return true;
+	}
+
+	/**
+	 * Runs the entities that received events, in the order of their ids.
+	 */
+	private void runReadyEntities() {
+		SimEntity ent;
+		for (int i = readyEntities.nextSetBit(0); i >= 0; i = readyEntities.nextSetBit(i + 1)) {
+			readyEntities.clear(i);
+			ent = entities.get(i);
+			if (ent.getState() == SimEntity.EntityStatus.RUNNABLE) {
+				creatorId = i;
+				creationSequence = 0;
+				ent.run();
+			}
+		}
+		creatorId = -1;
+	}
+
+	/**
+	 * Dispatch event to destination entity
+	 *
+	 * @param e the e
+	 */
+	private void dispatchEvent(SimEvent e) {
+		int dstId = e.getDestinationId();
+		int srcId = e.getSourceId();
+		SimEntity destEnt = entities.get(dstId);
+
+		// Update the system's clock
+		if (e.eventTime() < clock) {
+			throw new IllegalArgumentException("Past event detected.");
+		}
+		clock = e.eventTime();
+
+		// Ok now process it
+		switch (e.getType()) {
+			case SimEvent.ENULL -> throw new IllegalArgumentException("Event has a null type.");
+			case SimEvent.CREATE -> {
+				addEntityDynamically((SimEntity) e.getData());
+			}
+			case SimEvent.SEND -> {
+				if (destEnt.getState() == SimEntity.EntityStatus.WAITING) { // NOTE: this branch is never used
+					Predicate p = waitPredicates.get(dstId);
+
+					if ((p == null) || (p.match(e))) {
+						destEnt.setState(SimEntity.EntityStatus.RUNNABLE);
+						waitPredicates.remove(dstId);
+					}
+				}
+				destEnt.getIncomingEvents().add(e);
+				readyEntities.set(dstId);
+			}
+			case SimEvent.HOLD_DONE -> {
+				entities.get(srcId).setState(SimEntity.EntityStatus.RUNNABLE);
+				readyEntities.set(srcId);
+			}
+			default -> {
+			}
+		}
+	}
+
+	/**
+	 * Internal method used to start the simulation.
+	 */
+	public void runStart() {
+		running = true;
+		// Start all the entities
+		for (SimEntity ent : entities) {
+			creatorId = ent.getId();
+			creationSequence = 0;
+			ent.startEntity();
+		}
+		creatorId = -1;
+
+		printMessage("实体已启动");
+	}
+
+	/**
+	 * Internal method used to stop the simulation.
+	 */
+	public void runStop() {
+		printMessage("模拟已完成");
+	}
+
+	/**
+	 * Start the simulation running. This should be called after all the entities have been setup
+	 * and added.
+	 *
+	 * @return the last clock value
+	 */
+	public double run() {
+		if (!running && partition < 0 && parallelThreads > 1 && Arrays.stream(partitions).anyMatch(p -> p != 0)) {
+			return new ParallelEngine(this, parallelThreads).run();
+		}
+		if (!running) {
+			runStart();
+		}
+		while (true) {
+			if (!runClockTick() || abruptTerminate) {
+				break;
+			}
+
+			// this block allows termination of simulation at a specific time
+			if (terminateAt > 0.0 && clock >= terminateAt) {
+				terminateSimulation();
+				clock = terminateAt;
+				break;
+			}
+
+			SimEvent first = pauseAt != -1 ? peekFuture() : null;
+			if (pauseAt != -1
+					&& ((first != null && clock <= pauseAt && pauseAt <= first.eventTime())
+							|| first == null && pauseAt <= clock)) {
+				pauseSimulation();
+				clock = pauseAt;
+			}
+
+			while (paused) {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		double lastClock = clock;
+
+		finishSimulation();
+		runStop();
+
+		return lastClock;
+	}
+
+	/**
+	 * Internal method that allows the entities to terminate.
+	 */
+	void finishSimulation() {
+		// Allow all entities to exit their body method
+		if (!abruptTerminate) {
+			for (SimEntity ent : entities) {
+				if (ent.getState() != SimEntity.EntityStatus.FINISHED) {
+					ent.run();
+				}
+			}
+		}
+
+		for (SimEntity ent : entities) {
+			ent.shutdownEntity();
+		}
+
+		// reset the simulation state
+		entities = null;
+		readyEntities = null;
+		entitiesByName = null;
+		future = null;
+		pendingEvents = null;
+		cancelledEvents = 0;
+		clock = 0L;
+		running = false;
+
+		waitPredicates = null;
+		paused = false;
+		pauseAt = -1;
+		abruptTerminate = false;
+		keyed = false;
+		tickGeneration = -2;
+	}
+
+	/**
+	 * Terminates the simulation.
+	 */
+	public void terminateSimulation() {
+		running = false;
+		printMessage("模拟：已达到终止时间");
+	}
+
+	/**
+	 * Terminates the simulation at a given time.
+	 *
+	 * @param time the time at which the simulation has to be terminated
+	 * @return true, if successful otherwise.
+	 */
+	public boolean terminateSimulation(double time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			terminateAt = time;
+		}
+		return true;
+	}
+
+	/**
+	 * Abruptally terminate.
+	 */
+	public void abruptallyTerminate() {
+		abruptTerminate = true;
+	}
+
+	/**
+	 * Pauses the simulation.
+	 *
+	 * @return true, if successful otherwise.
+	 */
+	public boolean pauseSimulation() {
+		paused = true;
+		return paused;
+	}
+
+	/**
+	 * Pauses the simulation at a given time.
+	 *
+	 * @param time the time at which the simulation has to be paused
+	 * @return true, if successful otherwise.
+	 */
+	public boolean pauseSimulation(long time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			pauseAt = time;
+		}
+		return true;
+	}
+
+	/**
+	 * Resumes the simulation that has previously been paused.
+	 *
+	 * @return if the simulation has been restarted or or otherwise.
+	 */
+	public boolean resumeSimulation() {
+		paused = false;
+
+		if (pauseAt <= clock) {
+			pauseAt = -1;
+		}
+
+		return !paused;
+	}
+
+	/**
+	 * Prints a message about the progress of the simulation.
+	 *
+	 * @param message the message
+	 */
+	void printMessage(String message) {
+		Log.println(message);
+	}
+
+	// ======== PARALLEL EXECUTION ===============//
+
+	/**
+	 * Assigns an entity to a partition, i.e. a logical process of a parallel simulation. All the
+	 * entities are in partition 0 unless assigned otherwise. Entities exchanging events without
+	 * network delay should be kept in the same partition, since the network delay between two
+	 * partitions is what allows them to be simulated in parallel.
+	 *
+	 * @param entityId the entity id
+	 * @param partition the partition, starting from 0
+	 * @see #setParallelThreads(int)
+	 */
+	public void setPartition(int entityId, int partition) {
+		if (entityId < 0 || partition < 0) {
+			throw new IllegalArgumentException("实体 ID 和分区应为非负值，但现在为：" + entityId + ", " + partition);
+		}
+		if (running) {
+			throw new IllegalStateException("模拟运行时不能修改分区");
+		}
+		if (entityId >= partitions.length) {
+			partitions = Arrays.copyOf(partitions, Math.max(entityId + 1, 2 * partitions.length));
+		}
+		partitions[entityId] = partition;
+	}
+
+	/**
+	 * Gets the partition of an entity.
+	 *
+	 * @param entityId the entity id
+	 * @return the partition
+	 */
+	public int getPartition(int entityId) {
+		return entityId < partitions.length ? partitions[entityId] : 0;
+	}
+
+	/**
+	 * Sets the number of threads used to simulate the partitions. With more than one thread and
+	 * more than one partition, the simulation is run by a {@link ParallelEngine}, which gives the
+	 * same results as a sequential run.
+	 *
+	 * @param threads the number of threads
+	 */
+	public void setParallelThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("线程数应为正值，但现在为：" + threads);
+		}
+		parallelThreads = threads;
+	}
+
+	/**
+	 * Gets the number of threads used to simulate the partitions.
+	 *
+	 * @return the number of threads
+	 */
+	public int getParallelThreads() {
+		return parallelThreads;
+	}
+
+	/**
+	 * Starts the entities of a parallel simulation. From now on the scheduled events get a
+	 * creation key; the events scheduled before get keys that keep their order.
+	 */
+	void startParallel() {
+		List<SimEvent> scheduled = drainFuture();
+		scheduled.sort(Comparator.comparingDouble(SimEvent::eventTime).thenComparingLong(SimEvent::getSerial));
+		future = new ParallelEngine.PartitionQueue();
+		for (int i = 0; i < scheduled.size(); i++) {
+			SimEvent e = scheduled.get(i);
+			e.setCreationKey(clock, -2, -1, i, false);
+			future.addEvent(e);
+		}
+		keyed = true;
+		tickGeneration = -1;
+		runStart();
+	}
+
+	/**
+	 * Removes all the events from the future queue.
+	 *
+	 * @return the events that were not cancelled
+	 */
+	List<SimEvent> drainFuture() {
+		List<SimEvent> events = new ArrayList<>(future.size());
+		for (SimEvent e : future) {
+			if (!e.isCancelled()) {
+				events.add(e);
+			}
+		}
+		future.clear();
+		cancelledEvents = 0;
+		return events;
+	}
+
+	/**
+	 * Removes the events sent to other partitions since the last call.
+	 *
+	 * @return the events
+	 */
+	List<SimEvent> drainOutbox() {
+		List<SimEvent> events = outbox;
+		outbox = new ArrayList<>();
+		return events;
+	}
+
+	/**
+	 * Adds an event, which already has a creation key, to the future queue of this partition.
+	 *
+	 * @param e the event
+	 */
+	void deliver(SimEvent e) {
+		future.addEvent(e);
+		pendingEvents.computeIfAbsent(e.getSourceId(), k -> new HashMap<>())
+				.computeIfAbsent(e.getTag(), k -> new LinkedHashSet<>())
+				.add(e);
+	}
+
+	/**
+	 * Runs the first tick of the future queue: dispatches the events with the same time and
+	 * generation as the first one, then runs the entities that received them.
+	 */
+	void runTick() {
+		SimEvent first = peekFuture();
+		double time = first.eventTime();
+		int generation = ParallelEngine.generation(first);
+		while ((first = peekFuture()) != null && first.eventTime() == time
+				&& ParallelEngine.generation(first) == generation) {
+			dispatchEvent(pollFuture());
+		}
+		tickGeneration = generation;
+		runReadyEntities();
+	}
+
+	/**
+	 * Gets the lookahead from the partition of this context to another partition.
+	 *
+	 * @param partition the destination partition
+	 * @return the minimal delay of the events sent to the partition
+	 */
+	double lookaheadTo(int partition) {
+		return lookahead[partition];
+	}
+
+	/**
+	 * Gets the generation of the last tick run by {@link #runTick()}.
+	 *
+	 * @return the tick generation
+	 */
+	int getTickGeneration() {
+		return tickGeneration;
+	}
+
+	/**
+	 * Gets the termination time.
+	 *
+	 * @return the termination time, or a non positive value if none was set
+	 */
+	double getTerminateAt() {
+		return terminateAt;
+	}
+
+	/**
+	 * Checks if an entity has abruptly terminated the simulation.
+	 *
+	 * @return true, if the simulation was abruptly terminated
+	 */
+	boolean isAbruptlyTerminated() {
+		return abruptTerminate;
+	}
+
+	/**
+	 * Sets the state of this context at the end of a parallel run.
+	 *
+	 * @param lastClock the clock of the simulation
+	 * @param abrupt whether an entity abruptly terminated the simulation
+	 */
+	void endParallelRun(double lastClock, boolean abrupt) {
+		clock = lastClock;
+		abruptTerminate = abrupt;
+		if (!abrupt) {
+			running = false;
+		}
+	}
+}
@@ -42,6 +42,15 @@ public class PredicateType extends Predicate {
 		this.tags = tags.clone();
 	}
 
+	/**
+	 * Gets the tags selected by this predicate.
+	 *
+	 * @return a copy of the {@link #tags}
+	 */
+	public CloudSimTags[] getTags() {
+		return tags.clone();
+	}
+
 	/**
 	 * Matches any event that has one of the specified {@link #tags}.
 	 * 
@@ -30,6 +30,9 @@ public class CloudletList {
 	 * @return a Cloudlet with the given ID or $null if not found
 	 */
 	public static <T extends Cloudlet> T getById(List<T> cloudletList, int id) {
+		if (cloudletList instanceof IndexedCloudletList<T> indexedList) {
+			return indexedList.getById(id);
+		}
 		for (T cl : cloudletList) {
 			if (cl.getCloudletId() == id) {
 				return cl;
@@ -57,6 +60,12 @@ public class CloudletList {
 			List<T> list,
 			int cloudletId,
 			int userId) {
+		if (list instanceof IndexedCloudletList<T> indexedList) {
+			T cl = indexedList.getById(cloudletId);
+			if (cl == null || cl.getUserId() == userId) {
+				return cl;
+			}
+		}
 		for (T cl : list) {
 			if (cl.getCloudletId() == cloudletId && cl.getUserId() == userId) {
 				return cl;
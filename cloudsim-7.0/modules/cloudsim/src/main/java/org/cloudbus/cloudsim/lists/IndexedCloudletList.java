@@ -0,0 +1,403 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.lists;
+
+import java.util.AbstractSequentialList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+/**
+ * A linked list of {@link Cloudlet Cloudlets} indexed by cloudlet id, so that a cloudlet can be
+ * found and removed in constant time. It can be used as any list: the index is kept up to date
+ * by all the list operations.
+ * <p/>
+ * The index maps each id to the node of its cloudlet, in a primitive int-keyed hash table. When
+ * the list holds several cloudlets with the same id (of different users), the lookups of that id
+ * fall back to a scan of the list, and return the first of them as {@link CloudletList#getById}.
+ *
+ * @param <T> the type of the cloudlets
+ * @since CloudSim Toolkit 7.0
+ */
+public class IndexedCloudletList<T extends Cloudlet> extends AbstractSequentialList<T> {
+
+	/** The sentinel node, before the first and after the last node of the list. */
+	private final Node<T> header = new Node<>(null);
+
+	/** The number of cloudlets in the list. */
+	private int size;
+
+	/** The nodes of the cloudlets, by cloudlet id. */
+	private final IdIndex<T> index = new IdIndex<>();
+
+	/**
+	 * Creates an empty list.
+	 */
+	public IndexedCloudletList() {
+		header.next = header;
+		header.previous = header;
+	}
+
+	/**
+	 * Creates a list with the cloudlets of a collection, in its iteration order.
+	 *
+	 * @param cloudlets the cloudlets
+	 */
+	public IndexedCloudletList(Collection<? extends T> cloudlets) {
+		this();
+		addAll(cloudlets);
+	}
+
+	/**
+	 * Gets the cloudlet with a given id.
+	 *
+	 * @param id the cloudlet id
+	 * @return the first cloudlet with the given id, or null if not found
+	 */
+	public T getById(int id) {
+		Node<T> node = getNodeById(id);
+		return node == null ? null : node.item;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return getNode(o) != null;
+	}
+
+	@Override
+	public boolean add(T cloudlet) {
+		linkBefore(cloudlet, header);
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		Node<T> node = getNode(o);
+		if (node == null) {
+			return false;
+		}
+		unlink(node);
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		header.next = header;
+		header.previous = header;
+		size = 0;
+		index.clear();
+		modCount++;
+	}
+
+	@Override
+	public ListIterator<T> listIterator(int position) {
+		if (position < 0 || position > size) {
+			throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size);
+		}
+		return new Itr(position);
+	}
+
+	/**
+	 * Gets the first node holding a given object.
+	 *
+	 * @param o the object
+	 * @return the node, or null if not found
+	 */
+	private Node<T> getNode(Object o) {
+		if (!(o instanceof Cloudlet cloudlet)) {
+			return null;
+		}
+		Object entry = index.get(cloudlet.getCloudletId());
+		if (entry == IdIndex.SHARED) {
+			for (Node<T> node = header.next; node != header; node = node.next) {
+				if (o.equals(node.item)) {
+					return node;
+				}
+			}
+			return null;
+		}
+		@SuppressWarnings("unchecked")
+		Node<T> node = (Node<T>) entry;
+		return node != null && o.equals(node.item) ? node : null;
+	}
+
+	/**
+	 * Gets the first node holding a cloudlet with a given id.
+	 *
+	 * @param id the cloudlet id
+	 * @return the node, or null if not found
+	 */
+	@SuppressWarnings("unchecked")
+	private Node<T> getNodeById(int id) {
+		Object entry = index.get(id);
+		if (entry == IdIndex.SHARED) {
+			for (Node<T> node = header.next; node != header; node = node.next) {
+				if (node.item.getCloudletId() == id) {
+					return node;
+				}
+			}
+			return null;
+		}
+		return (Node<T>) entry;
+	}
+
+	private Node<T> linkBefore(T cloudlet, Node<T> successor) {
+		Node<T> node = new Node<>(cloudlet);
+		node.next = successor;
+		node.previous = successor.previous;
+		successor.previous.next = node;
+		successor.previous = node;
+		size++;
+		modCount++;
+		index.add(cloudlet.getCloudletId(), node);
+		return node;
+	}
+
+	private void unlink(Node<T> node) {
+		node.previous.next = node.next;
+		node.next.previous = node.previous;
+		size--;
+		modCount++;
+		index.remove(node.item.getCloudletId(), node);
+	}
+
+	/**
+	 * A node of the list.
+	 */
+	private static class Node<T> {
+		T item;
+		Node<T> previous;
+		Node<T> next;
+
+		Node(T item) {
+			this.item = item;
+		}
+	}
+
+	/**
+	 * The iterator of the list, which keeps the index up to date.
+	 */
+	private class Itr implements ListIterator<T> {
+
+		/** The node returned by the next call to {@link #next()}. */
+		private Node<T> next;
+
+		/** The position of {@link #next}. */
+		private int nextIndex;
+
+		/** The node returned by the last call to {@link #next()} or {@link #previous()}. */
+		private Node<T> lastReturned;
+
+		private int expectedModCount = modCount;
+
+		Itr(int position) {
+			if (position < size / 2) {
+				next = header.next;
+				for (nextIndex = 0; nextIndex < position; nextIndex++) {
+					next = next.next;
+				}
+			} else {
+				next = header;
+				for (nextIndex = size; nextIndex > position; nextIndex--) {
+					next = next.previous;
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return nextIndex < size;
+		}
+
+		@Override
+		public T next() {
+			checkForComodification();
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			lastReturned = next;
+			next = next.next;
+			nextIndex++;
+			return lastReturned.item;
+		}
+
+		@Override
+		public boolean hasPrevious() {
+			return nextIndex > 0;
+		}
+
+		@Override
+		public T previous() {
+			checkForComodification();
+			if (!hasPrevious()) {
+				throw new NoSuchElementException();
+			}
+			next = next.previous;
+			lastReturned = next;
+			nextIndex--;
+			return lastReturned.item;
+		}
+
+		@Override
+		public int nextIndex() {
+			return nextIndex;
+		}
+
+		@Override
+		public int previousIndex() {
+			return nextIndex - 1;
+		}
+
+		@Override
+		public void remove() {
+			checkForComodification();
+			if (lastReturned == null) {
+				throw new IllegalStateException();
+			}
+			if (next == lastReturned) {
+				next = lastReturned.next;
+			} else {
+				nextIndex--;
+			}
+			unlink(lastReturned);
+			lastReturned = null;
+			expectedModCount = modCount;
+		}
+
+		@Override
+		public void set(T cloudlet) {
+			checkForComodification();
+			if (lastReturned == null) {
+				throw new IllegalStateException();
+			}
+			index.remove(lastReturned.item.getCloudletId(), lastReturned);
+			lastReturned.item = cloudlet;
+			index.add(cloudlet.getCloudletId(), lastReturned);
+		}
+
+		@Override
+		public void add(T cloudlet) {
+			checkForComodification();
+			linkBefore(cloudlet, next);
+			nextIndex++;
+			lastReturned = null;
+			expectedModCount = modCount;
+		}
+
+		private void checkForComodification() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+		}
+	}
+
+	/**
+	 * An open addressing hash table from cloudlet ids to nodes, which does not box the ids.
+	 * The ids held by several nodes map to {@link #SHARED}.
+	 */
+	private static class IdIndex<T> {
+
+		/** The value of the ids held by several nodes. */
+		static final Object SHARED = new Object();
+
+		private int[] keys = new int[16];
+		private Object[] values = new Object[16];
+		private int count;
+
+		Object get(int id) {
+			int mask = keys.length - 1;
+			for (int i = hash(id) & mask; values[i] != null; i = (i + 1) & mask) {
+				if (keys[i] == id) {
+					return values[i];
+				}
+			}
+			return null;
+		}
+
+		void add(int id, Node<T> node) {
+			int mask = keys.length - 1;
+			int i = hash(id) & mask;
+			for (; values[i] != null; i = (i + 1) & mask) {
+				if (keys[i] == id) {
+					values[i] = SHARED;
+					return;
+				}
+			}
+			keys[i] = id;
+			values[i] = node;
+			if (++count > keys.length / 2) {
+				resize();
+			}
+		}
+
+		/**
+		 * Removes the entry of an id if it maps to a given node. Shared ids are kept, as other
+		 * nodes may still hold them.
+		 */
+		void remove(int id, Node<T> node) {
+			int mask = keys.length - 1;
+			int i = hash(id) & mask;
+			while (values[i] != null && keys[i] != id) {
+				i = (i + 1) & mask;
+			}
+			if (values[i] != node) {
+				return;
+			}
+			// backward shift deletion, so that no tombstone is needed
+			values[i] = null;
+			count--;
+			for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+				int home = hash(keys[j]) & mask;
+				if (((j - home) & mask) >= ((j - i) & mask)) {
+					keys[i] = keys[j];
+					values[i] = values[j];
+					values[j] = null;
+					i = j;
+				}
+			}
+		}
+
+		void clear() {
+			Arrays.fill(values, null);
+			count = 0;
+		}
+
+		private void resize() {
+			int[] oldKeys = keys;
+			Object[] oldValues = values;
+			keys = new int[oldKeys.length * 2];
+			values = new Object[oldValues.length * 2];
+			int mask = keys.length - 1;
+			for (int j = 0; j < oldKeys.length; j++) {
+				if (oldValues[j] != null) {
+					int i = hash(oldKeys[j]) & mask;
+					while (values[i] != null) {
+						i = (i + 1) & mask;
+					}
+					keys[i] = oldKeys[j];
+					values[i] = oldValues[j];
+				}
+			}
+		}
+
+		private static int hash(int id) {
+			int h = id * 0x9E3779B9;
+			return h ^ (h >>> 16);
+		}
+	}
+}
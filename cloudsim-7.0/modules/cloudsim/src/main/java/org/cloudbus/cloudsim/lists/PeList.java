@@ -9,6 +9,7 @@
 package org.cloudbus.cloudsim.lists;
 
 import java.util.List;
+import java.util.RandomAccess;
 
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Pe;
@@ -72,6 +73,13 @@ public class PeList {
 	 */
 	public static <T extends Pe> int getTotalMips(List<T> peList) {
 		int totalMips = 0;
+		if (peList instanceof RandomAccess) {
+			// without an iterator, as it is computed on each allocation of the VM schedulers
+			for (int i = 0; i < peList.size(); i++) {
+				totalMips += peList.get(i).getMips();
+			}
+			return totalMips;
+		}
 		for (Pe pe : peList) {
 			totalMips += pe.getMips();
 		}
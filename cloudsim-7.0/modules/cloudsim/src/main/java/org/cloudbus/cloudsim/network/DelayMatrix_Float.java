@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim.network;
 
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
@@ -66,6 +67,85 @@ public class DelayMatrix_Float {
 		return mDelayMatrix[srcID][destID];
 	}
 
+	/**
+	 * Updates the delays for a link added between two nodes that were not linked yet, without
+	 * recomputing all the shortest paths: a path can only get shorter by going once through the
+	 * new link, so each pair of nodes is checked in O(1), i.e. O(n^2) instead of O(n^3).
+	 * Nodes whose id is not lower than the current number of nodes are added to the matrix.
+	 * <p/>
+	 * As for a complete computation, a link with a zero delay is ignored. A link between nodes
+	 * that were already linked may increase their delay, thus requires a complete computation.
+	 *
+	 * @param srcID the id of the source node
+	 * @param destID the id of the destination node
+	 * @param delay the delay of the link
+	 * @param directed indicates if the link is directed (true) or not (false)
+	 */
+	public void addLink(int srcID, int destID, float delay, boolean directed) {
+		ensureNodes(Math.max(srcID, destID) + 1);
+		if (delay == 0 || srcID == destID) {
+			return;
+		}
+
+		relax(srcID, destID, delay);
+		if (!directed) {
+			relax(destID, srcID, delay);
+		}
+	}
+
+	/**
+	 * Shortens the paths that can go through a new link.
+	 *
+	 * @param srcID the id of the source node of the link
+	 * @param destID the id of the destination node of the link
+	 * @param delay the delay of the link
+	 */
+	private void relax(int srcID, int destID, float delay) {
+		// copies of the delays to the source and from the destination, before the update
+		float[] toSrc = new float[mTotalNodeNum];
+		for (int row = 0; row < mTotalNodeNum; ++row) {
+			toSrc[row] = mDelayMatrix[row][srcID];
+		}
+		float[] fromDest = mDelayMatrix[destID].clone();
+
+		for (int row = 0; row < mTotalNodeNum; ++row) {
+			if (toSrc[row] == Float.MAX_VALUE) {
+				continue;
+			}
+			float[] delays = mDelayMatrix[row];
+			float toLink = toSrc[row] + delay;
+			for (int col = 0; col < mTotalNodeNum; ++col) {
+				if (row != col && fromDest[col] != Float.MAX_VALUE && toLink + fromDest[col] < delays[col]) {
+					delays[col] = toLink + fromDest[col];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Grows the matrix to a given number of nodes. The new nodes are not connected.
+	 *
+	 * @param nodeNum the number of nodes
+	 */
+	private void ensureNodes(int nodeNum) {
+		if (nodeNum <= mTotalNodeNum) {
+			return;
+		}
+		float[][] matrix = new float[nodeNum][];
+		for (int row = 0; row < nodeNum; ++row) {
+			if (row < mTotalNodeNum) {
+				matrix[row] = Arrays.copyOf(mDelayMatrix[row], nodeNum);
+				Arrays.fill(matrix[row], mTotalNodeNum, nodeNum, Float.MAX_VALUE);
+			} else {
+				matrix[row] = new float[nodeNum];
+				Arrays.fill(matrix[row], Float.MAX_VALUE);
+				matrix[row][row] = 0;
+			}
+		}
+		mDelayMatrix = matrix;
+		mTotalNodeNum = nodeNum;
+	}
+
 	/**
 	 * Creates all internal necessary network-distance structures from the given graph. 
          * For similarity, we assume all communication-distances are symmetrical, 
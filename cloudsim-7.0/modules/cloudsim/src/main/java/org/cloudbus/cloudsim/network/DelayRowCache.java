@@ -0,0 +1,204 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Computes the delay between nodes of a network topology on demand, for topologies whose
+ * {@link DelayMatrix_Float delay matrix} does not fit in memory. The delays from a node to all the
+ * other nodes (a row of the matrix) are computed with Dijkstra's algorithm the first time they are
+ * needed, and a bounded number of rows is kept, evicting the least recently used one.
+ * <p/>
+ * The delays are the same as in a {@link DelayMatrix_Float}, up to the rounding of the sums of
+ * link delays: links with a zero delay are ignored, a later link between the same nodes replaces
+ * an earlier one, and unreachable nodes have a delay of {@link Float#MAX_VALUE}. Link delays must
+ * not be negative.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class DelayRowCache {
+
+	/** Index of the first link of every node in {@link #linkDest}, plus the number of links. */
+	private final int[] linkStart;
+
+	/** The destination nodes of the links, grouped by source node. */
+	private final int[] linkDest;
+
+	/** The delays of the links, grouped by source node. */
+	private final float[] linkDelay;
+
+	/** The cached rows, by source node, in access order. */
+	private final LinkedHashMap<Integer, float[]> rows;
+
+	/**
+	 * Creates the delay rows of a topological graph.
+	 *
+	 * @param graph the network topological graph
+	 * @param directed indicates if the links are directed (true) or not (false)
+	 * @param maxRows the maximum number of rows kept in memory
+	 */
+	public DelayRowCache(TopologicalGraph graph, boolean directed, final int maxRows) {
+		int nodeNum = graph.getNumberOfNodes();
+
+		// as in the delay matrix, the last link between two nodes replaces the previous ones
+		Map<Long, Float> links = new HashMap<>();
+		Iterator<TopologicalLink> itr = graph.getLinkIterator();
+		while (itr.hasNext()) {
+			TopologicalLink edge = itr.next();
+			links.put(key(edge.getSrcNodeID(), edge.getDestNodeID()), edge.getLinkDelay());
+			if (!directed) {
+				links.put(key(edge.getDestNodeID(), edge.getSrcNodeID()), edge.getLinkDelay());
+			}
+		}
+		links.entrySet().removeIf(link -> link.getValue() == 0 || src(link.getKey()) == dest(link.getKey()));
+
+		linkStart = new int[nodeNum + 1];
+		for (long link : links.keySet()) {
+			linkStart[src(link) + 1]++;
+		}
+		for (int node = 0; node < nodeNum; node++) {
+			linkStart[node + 1] += linkStart[node];
+		}
+		linkDest = new int[links.size()];
+		linkDelay = new float[links.size()];
+		int[] next = Arrays.copyOf(linkStart, nodeNum);
+		for (Map.Entry<Long, Float> link : links.entrySet()) {
+			int i = next[src(link.getKey())]++;
+			linkDest[i] = dest(link.getKey());
+			linkDelay[i] = link.getValue();
+		}
+
+		rows = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, float[]> eldest) {
+				return size() > maxRows;
+			}
+		};
+	}
+
+	/**
+	 * Gets the delay between two nodes.
+	 *
+	 * @param srcID the id of the source node
+	 * @param destID the id of the destination node
+	 * @return the delay between the given two nodes
+	 */
+	public synchronized float getDelay(int srcID, int destID) {
+		float[] row = rows.get(srcID);
+		if (row == null) {
+			row = computeRow(srcID);
+			rows.put(srcID, row);
+		}
+		return row[destID];
+	}
+
+	/**
+	 * Gets the number of rows currently kept in memory.
+	 *
+	 * @return the number of cached rows
+	 */
+	public synchronized int getCachedRows() {
+		return rows.size();
+	}
+
+	/**
+	 * Computes the delays from a node to all the nodes with Dijkstra's algorithm.
+	 *
+	 * @param srcID the id of the source node
+	 * @return the delays from the node
+	 */
+	private float[] computeRow(int srcID) {
+		int nodeNum = linkStart.length - 1;
+		float[] delays = new float[nodeNum];
+		Arrays.fill(delays, Float.MAX_VALUE);
+		delays[srcID] = 0;
+
+		// binary heap of (delay, node) pairs; non-negative floats keep their order as int bits
+		long[] heap = new long[Math.max(16, nodeNum)];
+		int size = 0;
+		heap[size++] = entry(0, srcID);
+		while (size > 0) {
+			long top = heap[0];
+			heap[0] = heap[--size];
+			siftDown(heap, size);
+
+			int node = (int) top;
+			float delay = Float.intBitsToFloat((int) (top >>> 32));
+			if (delay > delays[node]) {
+				continue; // an outdated entry
+			}
+			for (int i = linkStart[node]; i < linkStart[node + 1]; i++) {
+				float candidate = delay + linkDelay[i];
+				if (candidate < delays[linkDest[i]]) {
+					delays[linkDest[i]] = candidate;
+					if (size == heap.length) {
+						heap = Arrays.copyOf(heap, size * 2);
+					}
+					heap[size++] = entry(candidate, linkDest[i]);
+					siftUp(heap, size - 1);
+				}
+			}
+		}
+		return delays;
+	}
+
+	private static long entry(float delay, int node) {
+		return ((long) Float.floatToIntBits(delay) << 32) | node;
+	}
+
+	private static void siftUp(long[] heap, int i) {
+		long e = heap[i];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (heap[parent] <= e) {
+				break;
+			}
+			heap[i] = heap[parent];
+			i = parent;
+		}
+		heap[i] = e;
+	}
+
+	private static void siftDown(long[] heap, int size) {
+		if (size == 0) {
+			return;
+		}
+		long e = heap[0];
+		int i = 0;
+		int child;
+		while ((child = 2 * i + 1) < size) {
+			if (child + 1 < size && heap[child + 1] < heap[child]) {
+				child++;
+			}
+			if (e <= heap[child]) {
+				break;
+			}
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = e;
+	}
+
+	private static long key(int srcID, int destID) {
+		return ((long) srcID << 32) | destID;
+	}
+
+	private static int src(long key) {
+		return (int) (key >>> 32);
+	}
+
+	private static int dest(long key) {
+		return (int) key;
+	}
+}
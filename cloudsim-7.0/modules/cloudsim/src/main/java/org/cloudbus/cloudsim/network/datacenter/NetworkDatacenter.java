@@ -13,6 +13,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.Datacenter;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
 import org.cloudbus.cloudsim.Storage;
@@ -137,6 +138,18 @@ public class NetworkDatacenter extends Datacenter {
 		host.getNics().put(ncl.getCloudletId(), ncl.getNic());
 	}
 
+	@Override
+	protected void processCloudletSubmitBatch(List<? extends Cloudlet> cloudlets) {
+		super.processCloudletSubmitBatch(cloudlets);
+
+		for (Cloudlet cl : cloudlets) {
+			NetworkCloudlet ncl = (NetworkCloudlet) cl;
+			NetworkedEntity host = (NetworkedEntity) getVmAllocationPolicy().getHost(ncl.getGuestId(), ncl.getUserId());
+
+			host.getNics().put(ncl.getCloudletId(), ncl.getNic());
+		}
+	}
+
 	/**
 	 * Gets a map of all EdgeSwitches in the Datacenter network. 
          * One can design similar functions for other type of switches.
@@ -10,9 +10,12 @@ package org.cloudbus.cloudsim.power;
 
 import java.util.List;
 
+import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.Datacenter;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Log.Category;
+import org.cloudbus.cloudsim.Log.Level;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
@@ -88,7 +91,9 @@ public class PowerDatacenter extends Datacenter {
 
 		// if some time passed since last processing
 		if (currentTime > getLastProcessTime()) {
-			Log.print(currentTime + " ");
+			if (Log.isEnabled(Level.DEBUG, Category.POWER)) {
+				Log.printConcat(currentTime, " ");
+			}
 
 			double minTime = updateCloudetProcessingWithoutSchedulingFutureEventsForce();
 
@@ -103,13 +108,13 @@ public class PowerDatacenter extends Datacenter {
 						PowerHost oldHost = (PowerHost) vm.getHost();
 
 						if (oldHost == null) {
-							Log.formatLine(
+							Log.logFormat(Level.INFO, Category.POWER,
 									"%.2f: Migration of VM #%d to Host #%d is started",
 									currentTime,
 									vm.getId(),
 									targetHost.getId());
 						} else {
-							Log.formatLine(
+							Log.logFormat(Level.INFO, Category.POWER,
 									"%.2f: Migration of VM #%d from Host #%d to Host #%d is started",
 									currentTime,
 									vm.getId(),
@@ -172,30 +177,40 @@ public class PowerDatacenter extends Datacenter {
 		double minTime = Double.MAX_VALUE;
 		double timeDiff = currentTime - getLastProcessTime();
 		double timeFrameDatacenterEnergy = 0.0;
+		// checked once, as the usage of every host is logged on every update
+		boolean logUsage = Log.isEnabled(Level.DEBUG, Category.POWER);
 
-		Log.println("\n\n--------------------------------------------------------------\n\n");
-		Log.formatLine("New resource usage for the time frame starting at %.2f:", currentTime);
+		if (logUsage) {
+			Log.println("\n\n--------------------------------------------------------------\n\n");
+			Log.formatLine("New resource usage for the time frame starting at %.2f:", currentTime);
+		}
 
 		for (PowerHost host : this.<PowerHost> getHostList()) {
-			Log.println();
+			if (logUsage) {
+				Log.println();
+			}
 
 			double time = host.updateCloudletsProcessing(currentTime); // inform VMs to update processing
 			if (time < minTime) {
 				minTime = time;
 			}
 
-			Log.formatLine(
-					"%.2f: [Host #%d] utilization is %.2f%%",
-					currentTime,
-					host.getId(),
-					host.getUtilizationOfCpu() * 100);
+			if (logUsage) {
+				Log.formatLine(
+						"%.2f: [Host #%d] utilization is %.2f%%",
+						currentTime,
+						host.getId(),
+						host.getUtilizationOfCpu() * 100);
+			}
 		}
 
 		if (timeDiff > 0) {
-			Log.formatLine(
-					"\nEnergy consumption for the last time frame from %.2f to %.2f:",
-					getLastProcessTime(),
-					currentTime);
+			if (logUsage) {
+				Log.formatLine(
+						"\nEnergy consumption for the last time frame from %.2f to %.2f:",
+						getLastProcessTime(),
+						currentTime);
+			}
 
 			for (PowerHost host : this.<PowerHost> getHostList()) {
 				double previousUtilizationOfCpu = host.getPreviousUtilizationOfCpu();
@@ -206,25 +221,29 @@ public class PowerDatacenter extends Datacenter {
 						timeDiff);
 				timeFrameDatacenterEnergy += timeFrameHostEnergy;
 
-				Log.println();
-				Log.formatLine(
-						"%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%",
-						currentTime,
-						host.getId(),
-						getLastProcessTime(),
-						previousUtilizationOfCpu * 100,
-						utilizationOfCpu * 100);
+				if (logUsage) {
+					Log.println();
+					Log.formatLine(
+							"%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%",
+							currentTime,
+							host.getId(),
+							getLastProcessTime(),
+							previousUtilizationOfCpu * 100,
+							utilizationOfCpu * 100);
+					Log.formatLine(
+							"%.2f: [Host #%d] energy is %.2f W*sec",
+							currentTime,
+							host.getId(),
+							timeFrameHostEnergy);
+				}
+			}
+
+			if (logUsage) {
 				Log.formatLine(
-						"%.2f: [Host #%d] energy is %.2f W*sec",
+						"\n%.2f: Data center's energy is %.2f W*sec\n",
 						currentTime,
-						host.getId(),
-						timeFrameHostEnergy);
+						timeFrameDatacenterEnergy);
 			}
-
-			Log.formatLine(
-					"\n%.2f: Data center's energy is %.2f W*sec\n",
-					currentTime,
-					timeFrameDatacenterEnergy);
 		}
 
 		setPower(getPower() + timeFrameDatacenterEnergy);
@@ -236,16 +255,30 @@ public class PowerDatacenter extends Datacenter {
 			for (GuestEntity vm : host.getCompletedVms()) {
 				getVmAllocationPolicy().deallocateHostForGuest(vm);
 				getVmList().remove(vm);
-				Log.println("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
+				Log.logConcat(Level.INFO, Category.POWER,
+						"VM #", vm.getId(), " has been deallocated from host #", host.getId());
 			}
 		}
 
-		Log.println();
+		if (logUsage) {
+			Log.println();
+		}
 
 		setLastProcessTime(currentTime);
 		return minTime;
 	}
 
+	/**
+	 * Verifies if some cloudlet inside this PowerDatacenter already finished. Every host is
+	 * checked, as every host is updated: the idle hosts still consume energy.
+	 */
+	@Override
+	protected void checkCloudletCompletion() {
+		for (PowerHost host : this.<PowerHost> getHostList()) {
+			returnFinishedCloudlets(host);
+		}
+	}
+
 	@Override
 	protected void processVmMigrate(SimEvent ev, boolean ack) {
 		updateCloudetProcessingWithoutSchedulingFutureEvents();
@@ -262,6 +295,12 @@ public class PowerDatacenter extends Datacenter {
 		setCloudletSubmitted(CloudSim.clock());
 	}
 
+	@Override
+	protected void processCloudletSubmitBatch(List<? extends Cloudlet> cloudlets) {
+		super.processCloudletSubmitBatch(cloudlets);
+		setCloudletSubmitted(CloudSim.clock());
+	}
+
 	/**
 	 * Gets the power.
 	 * 
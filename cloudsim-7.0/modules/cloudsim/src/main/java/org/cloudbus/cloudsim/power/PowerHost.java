@@ -8,16 +8,17 @@
 
 package org.cloudbus.cloudsim.power;
 
-import java.util.Arrays;
 import java.util.List;
 
 import org.cloudbus.cloudsim.HostDynamicWorkload;
 import org.cloudbus.cloudsim.Pe;
 import org.cloudbus.cloudsim.VmScheduler;
+import org.cloudbus.cloudsim.core.PowerGuestEntity;
 import org.cloudbus.cloudsim.core.PowerHostEntity;
 import org.cloudbus.cloudsim.power.models.PowerModel;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
+import org.cloudbus.cloudsim.util.HistoryStat;
 
 /**
  * PowerHost class enables simulation of power-aware hosts.
@@ -43,6 +44,24 @@ public class PowerHost extends HostDynamicWorkload implements PowerHostEntity {
 	/** The power model used by the host. */
 	private PowerModel powerModel;
 
+	/** The CPU utilization percentage history of the host, summed over the histories of its guests. */
+	private final HistoryStat utilizationHistory = new HistoryStat(PowerHostEntity.HISTORY_LENGTH);
+
+	/** The histories of the guests at the last update of the utilization history, in the order of the guest list. */
+	private HistoryStat[] historyGuests = new HistoryStat[0];
+
+	/** The MIPS of the guests at the last update of the utilization history. */
+	private double[] historyGuestMips = new double[0];
+
+	/** The number of values offered to the history of each guest at the last update of the utilization history. */
+	private long[] historyOfferedCounts = new long[0];
+
+	/** Whether the histories of the guests were all full at the last update of the utilization history. */
+	private boolean historyGuestsFull;
+
+	/** The total MIPS of the host at the last update of the utilization history. */
+	private double historyHostMips = Double.NaN;
+
 	/**
 	 * Instantiates a new PowerHost.
 	 * 
@@ -117,18 +136,104 @@ public class PowerHost extends HostDynamicWorkload implements PowerHostEntity {
 	 * @return the host CPU utilization percentage history
 	 */
 	public double[] getUtilizationHistory() {
-		double[] utilizationHistory = new double[PowerHostEntity.HISTORY_LENGTH];
+		return getUtilizationHistoryStat().toArray();
+	}
+
+	/**
+	 * Gets the host CPU utilization percentage history as a moving window, from which its median, MAD
+	 * and IQR are read without sorting it again. The history is brought up to date with the ones of the
+	 * guests when it is asked for: if the guests are the ones of the last update and their histories were
+	 * full, only the values they were given since then are summed and offered; otherwise the history is
+	 * computed again from the guests.
+	 *
+	 * @return the host CPU utilization percentage history, which must not be changed
+	 */
+	public HistoryStat getUtilizationHistoryStat() {
+		List<PowerGuestEntity> guests = getGuestList();
 		double hostMips = getTotalMips();
-		int maxlen = 0;
-		for (PowerVm vm : this.<PowerVm>getGuestList()) {
-			double guestMips = vm.getMips();
-			int i = 0;
-			for (double u : vm.getUtilizationHistory()) {
-				utilizationHistory[i++] += u * guestMips / hostMips;
+		int added = getAddedUtilizationHistoryValues(guests, hostMips);
+		if (added < 0) {
+			double[] history = new double[PowerHostEntity.HISTORY_LENGTH];
+			int maxlen = 0;
+			for (PowerGuestEntity guest : guests) {
+				double guestMips = guest.getMips();
+				HistoryStat guestHistory = guest.getUtilizationHistory();
+				for (int i = 0; i < guestHistory.size(); i++) {
+					history[i] += guestHistory.get(i) * guestMips / hostMips;
+				}
+				if (guestHistory.size() > maxlen)
+					maxlen = guestHistory.size();
+			}
+			utilizationHistory.clear();
+			for (int i = 0; i < maxlen; i++) {
+				utilizationHistory.offer(history[i]);
+			}
+		} else {
+			for (int i = PowerHostEntity.HISTORY_LENGTH - added; i < PowerHostEntity.HISTORY_LENGTH; i++) {
+				double utilization = 0;
+				for (PowerGuestEntity guest : guests) {
+					utilization += guest.getUtilizationHistory().get(i) * guest.getMips() / hostMips;
+				}
+				utilizationHistory.offer(utilization);
+			}
+		}
+
+		if (added != 0) {
+			int n = guests.size();
+			historyGuests = new HistoryStat[n];
+			historyGuestMips = new double[n];
+			historyOfferedCounts = new long[n];
+			historyGuestsFull = true;
+			for (int i = 0; i < n; i++) {
+				PowerGuestEntity guest = guests.get(i);
+				historyGuests[i] = guest.getUtilizationHistory();
+				historyGuestMips[i] = guest.getMips();
+				historyOfferedCounts[i] = historyGuests[i].getOfferedCount();
+				historyGuestsFull &= historyGuests[i].size() == PowerHostEntity.HISTORY_LENGTH
+						&& historyGuests[i].getMaxSize() == PowerHostEntity.HISTORY_LENGTH;
+			}
+			historyHostMips = hostMips;
+		}
+		return utilizationHistory;
+	}
+
+	/**
+	 * Gets the number of values the guests were given since the last update of the utilization history,
+	 * when the history can be brought up to date by offering as many sums.
+	 *
+	 * @param guests the guests of the host
+	 * @param hostMips the total MIPS of the host
+	 * @return the number of values, or -1 if the history has to be computed again
+	 */
+	private int getAddedUtilizationHistoryValues(List<PowerGuestEntity> guests, double hostMips) {
+		if (hostMips != historyHostMips || guests.size() != historyGuests.length) {
+			return -1;
+		}
+		long added = 0;
+		for (int i = 0; i < guests.size(); i++) {
+			PowerGuestEntity guest = guests.get(i);
+			HistoryStat guestHistory = guest.getUtilizationHistory();
+			if (guestHistory != historyGuests[i] || guest.getMips() != historyGuestMips[i]) {
+				return -1;
+			}
+			long offered = guestHistory.getOfferedCount() - historyOfferedCounts[i];
+			if (i > 0 && offered != added) {
+				return -1;
+			}
+			added = offered;
+		}
+		if (added == 0) {
+			return 0;
+		}
+		// the sums are shifted with the histories only if all of them were full and still are
+		if (!historyGuestsFull || added < 0 || added >= PowerHostEntity.HISTORY_LENGTH) {
+			return -1;
+		}
+		for (PowerGuestEntity guest : guests) {
+			if (guest.getUtilizationHistory().size() != PowerHostEntity.HISTORY_LENGTH) {
+				return -1;
 			}
-			if (i > maxlen)
-				maxlen = i;
 		}
-		return Arrays.copyOf(utilizationHistory, maxlen);
+		return (int) added;
 	}
 }
@@ -0,0 +1,336 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.core.PowerGuestEntity;
+import org.cloudbus.cloudsim.core.PowerHostEntity;
+import org.cloudbus.cloudsim.util.HistoryStat;
+
+/**
+ * A copy of the capacity and the utilization of a power host, on which guests are placed and removed
+ * to plan a new allocation without changing the host. It answers the questions of the migration
+ * policies: whether a guest fits, what the requested MIPS and the utilization history of the host
+ * would be with a candidate guest, and the MIPS the host would use.
+ * <p/>
+ * The sums over the guests are kept up to date as guests are placed, in the order of the guest list,
+ * so that they are equal to the ones computed over the host once the guests are created on it.
+ * The allocation of the resources follows the simple provisioners and the time shared schedulers:
+ * a guest that fits is given the MIPS, RAM and bandwidth it requests.
+ *
+ * @since CloudSim Toolkit 7.0
+ * @see PowerVmAllocationPolicyMigrationAbstract
+ */
+public class PowerHostShadow {
+
+	/** The host. */
+	private final PowerHost host;
+
+	/** The total MIPS of the host. */
+	private final double totalMips;
+
+	/** The guests of the shadow, in the order they would have in the guest list of the host. */
+	private final List<GuestEntity> guestList;
+
+	/** The MIPS allocated to each guest of the shadow. */
+	private final Map<GuestEntity, Double> allocatedMips = new HashMap<>();
+
+	/** The MIPS not allocated to guests. */
+	private double availableMips;
+
+	/** The RAM not allocated to guests. */
+	private int availableRam;
+
+	/** The bandwidth not allocated to guests. */
+	private long availableBw;
+
+	/** The storage not used by guests. */
+	private long storage;
+
+	/** The sum of the requested MIPS of the guests. */
+	private double requestedTotalMips;
+
+	/** The MIPS used by the guests, counting the whole MIPS of the guests migrating in. */
+	private double utilizationOfCpuMips;
+
+	/** The largest RAM of the guests. */
+	private int maxRam;
+
+	/** The sum of the utilization histories of the guests, or null until it is asked for. */
+	private double[] utilizationHistory;
+
+	/** The length of the longest utilization history of the guests. */
+	private int utilizationHistoryLength;
+
+	/**
+	 * Creates a shadow of the current state of a host.
+	 *
+	 * @param host the host
+	 */
+	public PowerHostShadow(PowerHost host) {
+		this.host = host;
+		totalMips = host.getTotalMips();
+		guestList = new ArrayList<>(host.getGuestList());
+		for (GuestEntity guest : guestList) {
+			allocatedMips.put(guest, host.getTotalAllocatedMipsForGuest(guest));
+		}
+		availableMips = host.getGuestScheduler().getAvailableMips();
+		availableRam = host.getGuestRamProvisioner().getAvailableRam();
+		availableBw = host.getGuestBwProvisioner().getAvailableBw();
+		storage = host.getStorage();
+		updateSums();
+	}
+
+	public PowerHost getHost() {
+		return host;
+	}
+
+	public double getTotalMips() {
+		return totalMips;
+	}
+
+	/**
+	 * Gets the guests of the shadow.
+	 *
+	 * @return the guests, in the order of the guest list of the host
+	 */
+	public List<GuestEntity> getGuestList() {
+		return Collections.unmodifiableList(guestList);
+	}
+
+	/**
+	 * Gets the guests of the shadow that are not in migration.
+	 *
+	 * @return the guests that can be migrated
+	 */
+	public List<GuestEntity> getMigrableGuests() {
+		List<GuestEntity> migrableGuests = new ArrayList<>();
+		for (GuestEntity guest : guestList) {
+			if (!guest.isInMigration()) {
+				migrableGuests.add(guest);
+			}
+		}
+		return migrableGuests;
+	}
+
+	/**
+	 * Checks whether the PEs, MIPS, RAM and bandwidth left on the shadow can hold a guest,
+	 * like {@link PowerHost#isSuitableForGuest(GuestEntity)}.
+	 *
+	 * @param guest the guest
+	 * @return true if the guest fits
+	 */
+	public boolean isSuitableForGuest(GuestEntity guest) {
+		return host.getGuestScheduler().getPeCapacity() >= guest.getCurrentRequestedMaxMips()
+				&& availableMips >= guest.getCurrentRequestedTotalMips()
+				&& availableRam >= getRequestedRam(guest)
+				&& availableBw >= guest.getCurrentRequestedBw();
+	}
+
+	/**
+	 * Checks whether a guest can be placed on the shadow, like {@link PowerHost#guestCreate(GuestEntity)}:
+	 * it must also fit in the storage left.
+	 *
+	 * @param guest the guest
+	 * @return true if the guest can be placed
+	 */
+	public boolean canCreateGuest(GuestEntity guest) {
+		return storage >= guest.getSize() && isSuitableForGuest(guest);
+	}
+
+	/**
+	 * Places a guest on the shadow, at the end of its guest list.
+	 *
+	 * @param guest the guest
+	 * @return true if the guest was placed, false if it does not fit
+	 */
+	public boolean guestCreate(GuestEntity guest) {
+		if (!canCreateGuest(guest)) {
+			return false;
+		}
+		double mips = 0;
+		for (double requestedMips : guest.getCurrentRequestedMips()) {
+			mips += requestedMips;
+		}
+		guestList.add(guest);
+		allocatedMips.put(guest, mips);
+		availableMips -= mips;
+		availableRam -= getRequestedRam(guest);
+		availableBw -= guest.getCurrentRequestedBw();
+		storage -= guest.getSize();
+
+		requestedTotalMips += guest.getCurrentRequestedTotalMips();
+		utilizationOfCpuMips = addUtilizationOfCpuMips(utilizationOfCpuMips, guest);
+		maxRam = Math.max(maxRam, guest.getRam());
+		if (utilizationHistory != null) {
+			addUtilizationHistory(utilizationHistory, guest);
+		}
+		return true;
+	}
+
+	/**
+	 * Removes a guest from the shadow, and frees its resources.
+	 *
+	 * @param guest the guest
+	 */
+	public void guestDestroy(GuestEntity guest) {
+		Double mips = allocatedMips.remove(guest);
+		if (mips == null) {
+			return;
+		}
+		guestList.remove(guest);
+		availableMips += mips;
+		availableRam += getRequestedRam(guest);
+		availableBw += guest.getCurrentRequestedBw();
+		storage += guest.getSize();
+		updateSums();
+	}
+
+	/**
+	 * Gets the MIPS used by the guests of the shadow, counting the whole MIPS of the guests
+	 * migrating in, which are only given 10% of their MIPS while they migrate.
+	 *
+	 * @return the MIPS used by the guests
+	 */
+	public double getUtilizationOfCpuMips() {
+		return utilizationOfCpuMips;
+	}
+
+	/**
+	 * Gets the sum of the requested MIPS of the guests of the shadow and a candidate guest.
+	 *
+	 * @param candidate the candidate guest, or null
+	 * @return the requested MIPS
+	 */
+	public double getRequestedTotalMips(GuestEntity candidate) {
+		if (candidate == null) {
+			return requestedTotalMips;
+		}
+		return requestedTotalMips + candidate.getCurrentRequestedTotalMips();
+	}
+
+	/**
+	 * Gets the utilization history of the host, as {@link PowerHost#getUtilizationHistory()}, with the
+	 * guests of the shadow and a candidate guest.
+	 *
+	 * @param candidate the candidate guest, or null
+	 * @return the utilization history
+	 */
+	public double[] getUtilizationHistory(GuestEntity candidate) {
+		double[] history = new double[PowerHostEntity.HISTORY_LENGTH];
+		int length = getUtilizationHistory(candidate, history);
+		return Arrays.copyOf(history, length);
+	}
+
+	/**
+	 * Copies the utilization history of the host, as {@link #getUtilizationHistory(GuestEntity)}, into
+	 * an array the caller reuses.
+	 *
+	 * @param candidate the candidate guest, or null
+	 * @param history the array receiving the history, of at least {@link PowerHostEntity#HISTORY_LENGTH} values
+	 * @return the length of the history
+	 */
+	public int getUtilizationHistory(GuestEntity candidate, double[] history) {
+		if (utilizationHistory == null) {
+			utilizationHistory = new double[PowerHostEntity.HISTORY_LENGTH];
+			utilizationHistoryLength = 0;
+			if (guestList.equals(host.getGuestList())) {
+				// the host keeps the sums over its own guests
+				HistoryStat hostHistory = host.getUtilizationHistoryStat();
+				utilizationHistoryLength = hostHistory.size();
+				for (int i = 0; i < utilizationHistoryLength; i++) {
+					utilizationHistory[i] = hostHistory.get(i);
+				}
+			} else {
+				for (GuestEntity guest : guestList) {
+					addUtilizationHistory(utilizationHistory, guest);
+				}
+			}
+		}
+		System.arraycopy(utilizationHistory, 0, history, 0, utilizationHistory.length);
+		if (candidate == null) {
+			return utilizationHistoryLength;
+		}
+		return Math.max(utilizationHistoryLength, addUtilizationHistory(history, candidate));
+	}
+
+	/**
+	 * Gets the largest RAM of the guests of the shadow and a candidate guest.
+	 *
+	 * @param candidate the candidate guest, or null
+	 * @return the largest RAM, or {@link Integer#MIN_VALUE} if there is no guest
+	 */
+	public int getMaxRam(GuestEntity candidate) {
+		if (candidate == null) {
+			return maxRam;
+		}
+		return Math.max(maxRam, candidate.getRam());
+	}
+
+	/**
+	 * Adds the utilization history of a guest to the one of the host, and updates the length of the
+	 * history of the shadow if it is the one given.
+	 *
+	 * @return the length of the history of the guest
+	 */
+	private int addUtilizationHistory(double[] history, GuestEntity guest) {
+		PowerGuestEntity powerGuest = (PowerGuestEntity) guest;
+		double guestMips = powerGuest.getMips();
+		HistoryStat guestHistory = powerGuest.getUtilizationHistory();
+		int length = guestHistory.size();
+		for (int i = 0; i < length; i++) {
+			history[i] += guestHistory.get(i) * guestMips / totalMips;
+		}
+		if (history == utilizationHistory && length > utilizationHistoryLength) {
+			utilizationHistoryLength = length;
+		}
+		return length;
+	}
+
+	/**
+	 * Computes the sums over the guests again, in the order of the guest list.
+	 */
+	private void updateSums() {
+		requestedTotalMips = 0;
+		utilizationOfCpuMips = 0;
+		maxRam = Integer.MIN_VALUE;
+		for (GuestEntity guest : guestList) {
+			requestedTotalMips += guest.getCurrentRequestedTotalMips();
+			utilizationOfCpuMips = addUtilizationOfCpuMips(utilizationOfCpuMips, guest);
+			maxRam = Math.max(maxRam, guest.getRam());
+		}
+		utilizationHistory = null;
+	}
+
+	/**
+	 * Adds the MIPS used by a guest of the shadow to a sum, in the steps of the allocation policy.
+	 */
+	private double addUtilizationOfCpuMips(double sum, GuestEntity guest) {
+		double mips = allocatedMips.get(guest);
+		if (host.getGuestsMigratingIn().contains(guest)) {
+			// calculate additional potential CPU usage of a migrating in VM
+			sum += mips * 0.9 / 0.1;
+		}
+		return sum + mips;
+	}
+
+	/**
+	 * Gets the RAM a provisioner gives to a guest.
+	 */
+	private static int getRequestedRam(GuestEntity guest) {
+		return Math.min(guest.getCurrentRequestedRam(), guest.getRam());
+	}
+}
@@ -23,6 +23,7 @@ import org.cloudbus.cloudsim.core.HostEntity;
 import org.cloudbus.cloudsim.lists.VmList;
 import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicy;
 import org.cloudbus.cloudsim.util.ExecutionTimeMeasurer;
+import org.cloudbus.cloudsim.util.ParallelScorer;
 
 /**
  * An abstract power-aware VM allocation policy that dynamically optimizes the VM
@@ -46,8 +47,15 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	/** The vm selection policy. */
 	private SelectionPolicy<GuestEntity> vmSelectionPolicy;
 
-	/** A list of maps between a VM and the host where it is place. */
-	private final List<GuestMapping> savedAllocation = new ArrayList<>();
+	/** The shadows of the hosts, on which a new allocation is planned without changing the hosts,
+         while the allocation is optimized. */
+	private Map<PowerHost, PowerHostShadow> hostShadows;
+
+	/** Serializes the default checks of shadows, which change the hosts while they run. */
+	private final Object hostCheckLock = new Object();
+
+	/** The scorer of the candidate hosts of a VM. */
+	private ParallelScorer hostScorer = new ParallelScorer(1);
 
 	private void growIfNeeded(List<List<Double>> l, int idx) {
 		for (int i = l.size(); i <= idx; i++)
@@ -126,22 +134,25 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 
 		printOverUtilizedHosts(overUtilizedHosts);
 
-		saveAllocation();
-
-		ExecutionTimeMeasurer.start("optimizeAllocationVmSelection");
-		List<GuestEntity> vmsToMigrate = getVmsToMigrateFromHosts(overUtilizedHosts);
-		getExecutionTimeHistoryVmSelection().add(ExecutionTimeMeasurer.end("optimizeAllocationVmSelection"));
-
-		Log.println("Reallocation of VMs from the over-utilized hosts:");
-		ExecutionTimeMeasurer.start("optimizeAllocationVmReallocation");
-		List<GuestMapping> migrationMap = getNewVmPlacement(vmsToMigrate, new HashSet<>(overUtilizedHosts));
-		getExecutionTimeHistoryVmReallocation().add(
-				ExecutionTimeMeasurer.end("optimizeAllocationVmReallocation"));
-		Log.println();
-
-		migrationMap.addAll(getMigrationMapFromUnderUtilizedHosts(overUtilizedHosts));
+		// the VMs are moved between the shadows of the hosts, the hosts are left as they are
+		hostShadows = new HashMap<>();
+		List<GuestMapping> migrationMap;
+		try {
+			ExecutionTimeMeasurer.start("optimizeAllocationVmSelection");
+			List<GuestEntity> vmsToMigrate = getVmsToMigrateFromHosts(overUtilizedHosts);
+			getExecutionTimeHistoryVmSelection().add(ExecutionTimeMeasurer.end("optimizeAllocationVmSelection"));
+
+			Log.println("Reallocation of VMs from the over-utilized hosts:");
+			ExecutionTimeMeasurer.start("optimizeAllocationVmReallocation");
+			migrationMap = getNewVmPlacement(vmsToMigrate, new HashSet<>(overUtilizedHosts));
+			getExecutionTimeHistoryVmReallocation().add(
+					ExecutionTimeMeasurer.end("optimizeAllocationVmReallocation"));
+			Log.println();
 
-		restoreAllocation();
+			migrationMap.addAll(getMigrationMapFromUnderUtilizedHosts(overUtilizedHosts));
+		} finally {
+			hostShadows = null;
+		}
 
 		getExecutionTimeHistoryTotal().add(ExecutionTimeMeasurer.end("optimizeAllocationTotal"));
 
@@ -241,48 +252,74 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	 * @return the host found to host the VM
 	 */
 	public PowerHost findHostForGuest(GuestEntity vm, Set<? extends HostEntity> excludedHosts) {
-		double minPower = Double.MAX_VALUE;
-		PowerHost allocatedHost = null;
-
-		for (PowerHost host : this.<PowerHost> getHostList()) {
-			if (excludedHosts.contains(host)) {
-				continue;
+		if (hostShadows == null) {
+			// the shadows of the hosts are only kept while the host is searched
+			hostShadows = new HashMap<>();
+			try {
+				return findHostForGuest(vm, excludedHosts);
+			} finally {
+				hostShadows = null;
 			}
-			if (host.isSuitableForGuest(vm)) {
-				if (getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterAllocation(host, vm)) {
-					continue;
-				}
+		}
 
-				try {
-					double powerAfterAllocation = getPowerAfterAllocation(host, vm);
-					if (powerAfterAllocation != -1) {
-						double powerDiff = powerAfterAllocation - host.getPower();
-						if (powerDiff < minPower) {
-							minPower = powerDiff;
-							allocatedHost = host;
-						}
-					}
-				} catch (Exception e) {
+		List<PowerHost> hostList = getHostList();
+		if (getParallelism() > 1) {
+			// the shadows and the requested MIPS of the VM, which some cloudlet schedulers cache,
+			// are created before the hosts are scored concurrently
+			for (PowerHost host : hostList) {
+				if (!excludedHosts.contains(host)) {
+					getHostShadow(host);
 				}
 			}
+			vm.getCurrentRequestedTotalMips();
 		}
-		return allocatedHost;
+		int index = getHostScorer().findMin(hostList.size(), i -> {
+			PowerHost host = hostList.get(i);
+			return excludedHosts.contains(host) ? Double.NaN : getPowerDiffAfterAllocation(host, vm);
+		});
+		return index == -1 ? null : hostList.get(index);
+	}
+
+	/**
+	 * Gets the increase of the power consumption of a host after placement of a candidate VM,
+	 * which is the score of the host in {@link #findHostForGuest(GuestEntity, Set)}.
+	 * The VM is not in fact placed at the host. The hosts may be scored concurrently: the
+	 * score must only read the host and its shadow.
+	 *
+	 * @param host the host
+	 * @param vm the candidate vm
+	 * @return the increase of the power consumption, or {@link Double#NaN} if the VM cannot be placed
+	 * on the host
+	 */
+	protected double getPowerDiffAfterAllocation(PowerHost host, GuestEntity vm) {
+		if (!getHostShadow(host).isSuitableForGuest(vm)
+				|| getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterAllocation(host, vm)) {
+			return Double.NaN;
+		}
+		try {
+			double powerAfterAllocation = getPowerAfterAllocation(host, vm);
+			if (powerAfterAllocation != -1) {
+				return powerAfterAllocation - host.getPower();
+			}
+		} catch (Exception e) {
+		}
+		return Double.NaN;
 	}
 
 	/**
 	 * Checks if a host will be over utilized after placing of a candidate VM.
+         * The VM is not in fact placed at the host: the check is made on the shadow of the host.
 	 * 
 	 * @param host the host to verify
 	 * @param vm the candidate vm 
 	 * @return true, if the host will be over utilized after VM placement; false otherwise
 	 */
 	protected boolean isHostOverUtilizedAfterAllocation(PowerHost host, GuestEntity vm) {
-		boolean isHostOverUtilizedAfterAllocation = true;
-		if (host.guestCreate(vm)) {
-			isHostOverUtilizedAfterAllocation = isHostOverUtilized(host);
-			host.guestDestroy(vm);
+		PowerHostShadow hostShadow = getHostShadow(host);
+		if (!hostShadow.canCreateGuest(vm)) {
+			return true;
 		}
-		return isHostOverUtilizedAfterAllocation;
+		return isHostOverUtilized(hostShadow, vm);
 	}
 
 	@Override
@@ -323,7 +360,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 		for (GuestEntity vm : vmsToMigrate) {
 			PowerHost allocatedHost = findHostForGuest(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.guestCreate(vm);
+				getHostShadow(allocatedHost).guestCreate(vm);
 				Log.printlnConcat("VM #", vm.getId(), " allocated to host #", allocatedHost.getId());
 				migrationMap.add(new GuestMapping(vm, allocatedHost));
 			}
@@ -346,13 +383,13 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 		for (GuestEntity vm : vmsToMigrate) {
 			PowerHost allocatedHost = findHostForGuest(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.guestCreate(vm);
+				getHostShadow(allocatedHost).guestCreate(vm);
 				Log.printlnConcat("VM #", vm.getId(), " allocated to host #", allocatedHost.getId());
 				migrationMap.add(new GuestMapping(vm, allocatedHost));
 			} else {
 				Log.println("Not all VMs can be reallocated from the host, reallocation cancelled");
 				for (GuestMapping map : migrationMap) {
-					(map.host()).guestDestroy(map.vm());
+					getHostShadow((PowerHost) map.host()).guestDestroy(map.vm());
 				}
 				migrationMap.clear();
 				break;
@@ -371,14 +408,15 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	  getVmsToMigrateFromHosts(List<PowerHost> overUtilizedHosts) {
 		List<GuestEntity> vmsToMigrate = new LinkedList<>();
 		for (PowerHost host : overUtilizedHosts) {
+			PowerHostShadow hostShadow = getHostShadow(host);
 			while (true) {
-				GuestEntity vm = getVmSelectionPolicy().select(host.getMigrableVms(), host, new HashSet<>());
+				GuestEntity vm = getVmSelectionPolicy().select(hostShadow.getMigrableGuests(), host, new HashSet<>());
 				if (vm == null) {
 					break;
 				}
 				vmsToMigrate.add(vm);
-				host.guestDestroy(vm);
-				if (!isHostOverUtilized(host)) {
+				hostShadow.guestDestroy(vm);
+				if (!isHostOverUtilized(hostShadow, null)) {
 					break;
 				}
 			}
@@ -394,7 +432,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	 */
 	protected List<? extends GuestEntity> getVmsToMigrateFromUnderUtilizedHost(PowerHost host) {
 		List<GuestEntity> vmsToMigrate = new LinkedList<>();
-		for (GuestEntity vm : host.getGuestList()) {
+		for (GuestEntity vm : getHostShadow(host).getGuestList()) {
 			if (!vm.isInMigration()) {
 				vmsToMigrate.add(vm);
 			}
@@ -462,7 +500,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	 * @return true, if successful
 	 */
 	protected boolean areAllVmsMigratingOutOrAnyVmMigratingIn(PowerHost host) {
-		for (PowerVm vm : host.<PowerVm>getGuestList()) {
+		for (GuestEntity vm : getHostShadow(host).getGuestList()) {
 			if (!vm.isInMigration()) {
 				return false;
 			}
@@ -481,6 +519,75 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	 */
 	protected abstract boolean isHostOverUtilized(PowerHost host);
 
+	/**
+	 * Checks if a host would be over utilized with the VMs of its shadow and a candidate VM.
+	 * The policies of CloudSim override it with a check that has no side effect: it changes
+	 * neither the host nor the history of the policy.
+	 * <p/>
+	 * By default, the VMs of the shadow and the candidate VM are created on the host, which is
+	 * checked by {@link #isHostOverUtilized(PowerHost)}, then the VMs of the host are created
+	 * again, as the policies did before the shadows. It adds an entry to the history of the policy
+	 * as {@link #isHostOverUtilized(PowerHost)} does, and the checks are serialized when the
+	 * hosts are scored by several threads.
+	 * 
+	 * @param host the shadow of the host
+	 * @param vm the candidate vm, or null
+	 * @return true, if the host would be over utilized; false otherwise
+	 */
+	protected boolean isHostOverUtilized(PowerHostShadow host, GuestEntity vm) {
+		synchronized (hostCheckLock) {
+			PowerHost realHost = host.getHost();
+			List<GuestEntity> guests = new ArrayList<>();
+			for (GuestEntity guest : realHost.getGuestList()) {
+				if (!realHost.getGuestsMigratingIn().contains(guest)) {
+					guests.add(guest);
+				}
+			}
+			List<GuestEntity> plannedGuests = new ArrayList<>();
+			for (GuestEntity guest : host.getGuestList()) {
+				if (!realHost.getGuestsMigratingIn().contains(guest)) {
+					plannedGuests.add(guest);
+				}
+			}
+			if (vm != null) {
+				plannedGuests.add(vm);
+			}
+			// the creation and destruction of the VMs change their host
+			Map<GuestEntity, HostEntity> guestHosts = new HashMap<>();
+			for (GuestEntity guest : guests) {
+				guestHosts.put(guest, guest.getHost());
+			}
+			for (GuestEntity guest : plannedGuests) {
+				guestHosts.put(guest, guest.getHost());
+			}
+
+			boolean overUtilized = true;
+			try {
+				realHost.guestDestroyAll();
+				realHost.reallocateMigratingInGuests();
+				boolean created = true;
+				for (int i = 0; created && i < plannedGuests.size(); i++) {
+					created = realHost.guestCreate(plannedGuests.get(i));
+				}
+				if (created) {
+					overUtilized = isHostOverUtilized(realHost);
+				}
+			} finally {
+				realHost.guestDestroyAll();
+				realHost.reallocateMigratingInGuests();
+				for (GuestEntity guest : guests) {
+					if (!realHost.guestCreate(guest)) {
+						throw new IllegalStateException("无法恢复主机 #" + realHost.getId() + " 上的虚拟机 #" + guest.getId());
+					}
+				}
+				for (Map.Entry<GuestEntity, HostEntity> entry : guestHosts.entrySet()) {
+					entry.getKey().setHost(entry.getValue());
+				}
+			}
+			return overUtilized;
+		}
+	}
+
 	/**
 	 * Adds an entry for each history map of a host.
 	 * 
@@ -509,39 +616,24 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	}
 
 	/**
-	 * Updates the list of maps between a VM and the host where it is place.
-         * @see #savedAllocation
-	 */
-	protected void saveAllocation() {
-		getSavedAllocation().clear();
-		for (HostEntity host : getHostList()) {
-			for (GuestEntity vm : host.getGuestList()) {
-				if (host.getGuestsMigratingIn().contains(vm)) {
-					continue;
-				}
-				getSavedAllocation().add(new GuestMapping(vm, host));
-			}
-		}
-	}
-
-	/**
-	 * Restore VM allocation from the allocation history.
-         * @see #savedAllocation
+	 * Gets the shadow of a host. While the allocation is optimized, the planned placements
+	 * and removals of VMs are kept in the shadow; otherwise, a new shadow of the current
+	 * state of the host is returned.
+	 * 
+	 * @param host the host
+	 * @return the shadow of the host
 	 */
-	protected void restoreAllocation() {
-		for (HostEntity host : getHostList()) {
-			host.guestDestroyAll();
-			host.reallocateMigratingInGuests();
+	protected PowerHostShadow getHostShadow(PowerHost host) {
+		if (hostShadows == null) {
+			return new PowerHostShadow(host);
 		}
-		for (GuestMapping map : getSavedAllocation()) {
-			Vm vm = (Vm) map.vm();
-			PowerHost host = (PowerHost) map.host();
-			if (!host.guestCreate(vm)) {
-				Log.printlnConcat("Couldn't restore VM #", vm.getId(), " on host #", host.getId());
-				System.exit(0);
-			}
-			getGuestTable().put(vm.getUid(), host);
+		// the shadows are read concurrently once created: the map is only changed when one is missing
+		PowerHostShadow hostShadow = hostShadows.get(host);
+		if (hostShadow == null) {
+			hostShadow = new PowerHostShadow(host);
+			hostShadows.put(host, hostShadow);
 		}
+		return hostShadow;
 	}
 
 	/**
@@ -590,24 +682,31 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	 * @return the utilization of the CPU in MIPS
 	 */
 	protected double getUtilizationOfCpuMips(PowerHost host) {
-		double hostUtilizationMips = 0;
-		for (GuestEntity vm2 : host.getGuestList()) {
-			if (host.getGuestsMigratingIn().contains(vm2)) {
-				// calculate additional potential CPU usage of a migrating in VM
-				hostUtilizationMips += host.getTotalAllocatedMipsForGuest(vm2) * 0.9 / 0.1;
-			}
-			hostUtilizationMips += host.getTotalAllocatedMipsForGuest(vm2);
-		}
-		return hostUtilizationMips;
+		return getHostShadow(host).getUtilizationOfCpuMips();
 	}
 
 	/**
-	 * Gets the saved allocation.
-	 * 
-	 * @return the saved allocation
+	 * Sets the number of threads scoring the candidate hosts of a VM. The host found does not depend
+	 * on it: ties are broken in the order of the host list, as with a single thread. Only large host
+	 * lists are scored with several threads (see {@link ParallelScorer#MIN_CANDIDATES_PER_THREAD}).
+	 *
+	 * @param parallelism the number of threads, 1 by default
+	 */
+	public void setParallelism(int parallelism) {
+		hostScorer = new ParallelScorer(parallelism);
+	}
+
+	public int getParallelism() {
+		return hostScorer.getParallelism();
+	}
+
+	/**
+	 * Gets the scorer of the candidate hosts of a VM.
+	 *
+	 * @return the host scorer
 	 */
-	protected List<GuestMapping> getSavedAllocation() {
-		return savedAllocation;
+	protected ParallelScorer getHostScorer() {
+		return hostScorer;
 	}
 
 	/**
@@ -14,6 +14,7 @@ import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicy;
+import org.cloudbus.cloudsim.util.HistoryStat;
 import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
@@ -116,6 +117,18 @@ public class PowerVmAllocationPolicyMigrationInterQuartileRange extends
 		return utilization > upperThreshold;
 	}
 
+	@Override
+	protected boolean isHostOverUtilized(PowerHostShadow host, GuestEntity vm) {
+		double upperThreshold;
+		try {
+			upperThreshold = 1 - getSafetyParameter() * getUtilizationIqr(host.getUtilizationHistory(vm));
+		} catch (IllegalArgumentException e) {
+			return getFallbackVmAllocationPolicy().isHostOverUtilized(host, vm);
+		}
+		double utilization = host.getRequestedTotalMips(vm) / host.getTotalMips();
+		return utilization > upperThreshold;
+	}
+
 	/**
 	 * Gets the host CPU utilization percentage IQR.
 	 * 
@@ -123,7 +136,20 @@ public class PowerVmAllocationPolicyMigrationInterQuartileRange extends
 	 * @return the host CPU utilization percentage IQR
 	 */
 	protected double getHostUtilizationIqr(PowerHost host) throws IllegalArgumentException {
-		double[] data = host.getUtilizationHistory();
+		HistoryStat history = host.getUtilizationHistoryStat();
+		if (history.countNonZeroBeginning() >= 12) { // 12 has been suggested as a safe value
+			return history.getIqr();
+		}
+		throw new IllegalArgumentException();
+	}
+
+	/**
+	 * Gets the IQR of a utilization history.
+	 * 
+	 * @param data the utilization history
+	 * @return the IQR of the utilization
+	 */
+	protected double getUtilizationIqr(double[] data) throws IllegalArgumentException {
 		if (MathUtil.countNonZeroBeginning(data) >= 12) { // 12 has been suggested as a safe value
 			return MathUtil.iqr(data);
 		}
@@ -8,11 +8,16 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.core.PowerHostEntity;
 import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicy;
+import org.cloudbus.cloudsim.util.HistoryStat;
+import org.cloudbus.cloudsim.util.LocalRegression;
 import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
@@ -58,6 +63,15 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
          * data to be computed. */
 	private PowerVmAllocationPolicyMigrationAbstract fallbackVmAllocationPolicy;
 
+	/** The regressions of the utilization histories of the hosts, by host id. */
+	private final Map<Integer, HostRegression> hostRegressions = new HashMap<>();
+
+	/**
+	 * The scratch regression of the checks of host shadows, for each thread scoring the candidate
+	 * hosts of a VM.
+	 */
+	private final ThreadLocal<ShadowRegression> shadowRegressions = ThreadLocal.withInitial(ShadowRegression::new);
+
 	/**
 	 * Instantiates a new PowerVmAllocationPolicyMigrationLocalRegression.
 	 * 
@@ -108,23 +122,19 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	 */
 	@Override
 	protected boolean isHostOverUtilized(PowerHost host) {
-        double[] utilizationHistory = host.getUtilizationHistory();
 		int length = 10; // we use 10 to make the regression responsive enough to latest values
-		if (utilizationHistory.length < length) {
+		HistoryStat utilizationHistory = host.getUtilizationHistoryStat();
+		if (utilizationHistory.size() < length) {
 			return getFallbackVmAllocationPolicy().isHostOverUtilized(host);
 		}
-		double[] utilizationHistoryReversed = new double[length];
-		for (int i = 0; i < length; i++) {
-			utilizationHistoryReversed[i] = utilizationHistory[length - i - 1];
-		}
-		double[] estimates = null;
+		LocalRegression regression = getHostRegression(host, length).follow(utilizationHistory);
 		try {
-			estimates = getParameterEstimates(utilizationHistoryReversed);
+			fitRegression(regression);
 		} catch (IllegalArgumentException e) {
 			return getFallbackVmAllocationPolicy().isHostOverUtilized(host);
 		}
 		double migrationIntervals = Math.ceil(getMaximumVmMigrationTime((PowerHost) host) / getSchedulingInterval());
-		double predictedUtilization = estimates[0] + estimates[1] * (length + migrationIntervals);
+		double predictedUtilization = regression.predict(length + migrationIntervals);
 		predictedUtilization *= getSafetyParameter();
 
 		addHistoryEntry(host, predictedUtilization);
@@ -132,14 +142,54 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 		return predictedUtilization >= 1;
 	}
 
+	@Override
+	protected boolean isHostOverUtilized(PowerHostShadow host, GuestEntity vm) {
+		ShadowRegression shadowRegression = shadowRegressions.get();
+		double[] utilizationHistory = shadowRegression.history;
+		int length = 10; // we use 10 to make the regression responsive enough to latest values
+		if (host.getUtilizationHistory(vm, utilizationHistory) < length) {
+			return getFallbackVmAllocationPolicy().isHostOverUtilized(host, vm);
+		}
+		LocalRegression regression = shadowRegression.getRegression(length);
+		regression.clear();
+		for (int i = 0; i < length; i++) {
+			regression.offer(utilizationHistory[i]);
+		}
+		try {
+			fitRegression(regression);
+		} catch (IllegalArgumentException e) {
+			return getFallbackVmAllocationPolicy().isHostOverUtilized(host, vm);
+		}
+		double migrationIntervals = Math.ceil(getMaximumVmMigrationTime(host, vm) / getSchedulingInterval());
+		double predictedUtilization = regression.predict(length + migrationIntervals);
+		predictedUtilization *= getSafetyParameter();
+		return predictedUtilization >= 1;
+	}
+
 	/**
-	 * Gets utilization estimates.
+	 * Fits the regression of a utilization history, whose newest value is at x = 1, as
+	 * {@link MathUtil#getLoessParameterEstimates(double[])} does.
 	 * 
-	 * @param utilizationHistoryReversed the utilization history in reverse order
-	 * @return the utilization estimates
+	 * @param regression the regression of the utilization history
 	 */
-	protected double[] getParameterEstimates(double[] utilizationHistoryReversed) {
-		return MathUtil.getLoessParameterEstimates(utilizationHistoryReversed);
+	protected void fitRegression(LocalRegression regression) {
+		regression.fit();
+	}
+
+	/**
+	 * Gets the regression of the utilization history of a host.
+	 * 
+	 * @param host the host
+	 * @param length the number of values of the history regressed
+	 * @return the regression, to be brought up to date with the history
+	 */
+	private HostRegression getHostRegression(PowerHost host, int length) {
+		HostRegression hostRegression = hostRegressions.get(host.getId());
+		if (hostRegression == null || hostRegression.regression.getLength() != length) {
+			hostRegression = new HostRegression(length);
+			hostRegressions.put(host.getId(), hostRegression);
+		}
+		return hostRegression;
 	}
 
 	/**
@@ -159,6 +209,17 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 		return maxRam / ((double) host.getBw() / (2 * 8000));
 	}
 
+	/**
+	 * Gets the maximum vm migration time from a host with the VMs of its shadow and a candidate VM.
+	 * 
+	 * @param host the shadow of the host
+	 * @param vm the candidate vm, or null
+	 * @return the maximum vm migration time
+	 */
+	protected double getMaximumVmMigrationTime(PowerHostShadow host, GuestEntity vm) {
+		return host.getMaxRam(vm) / ((double) host.getHost().getBw() / (2 * 8000));
+	}
+
 	/**
 	 * Sets the scheduling interval.
 	 * 
@@ -204,4 +265,76 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 		this.safetyParameter = safetyParameter;
 	}
 
+	/**
+	 * The regression and the history a thread reuses for each check of a host shadow.
+	 */
+	private static final class ShadowRegression {
+
+		private final double[] history = new double[PowerHostEntity.HISTORY_LENGTH];
+
+		private LocalRegression regression;
+
+		/**
+		 * Gets the regression, created again only if the number of values regressed changed.
+		 *
+		 * @param length the number of values regressed
+		 * @return the regression, to be cleared before use
+		 */
+		LocalRegression getRegression(int length) {
+			if (regression == null || regression.getLength() != length) {
+				regression = new LocalRegression(length);
+			}
+			return regression;
+		}
+	}
+
+	/**
+	 * The regression of the first values of the utilization history of a host, the last of them at x = 1,
+	 * which follows the history as it moves. Once the history is full, each value offered to it moves the
+	 * first values by one, which is a single value offered to the regression.
+	 */
+	private static final class HostRegression {
+
+		private final LocalRegression regression;
+
+		/** The number of values offered to the history when the regression last followed it, or -1. */
+		private long offeredCount = -1;
+
+		/** The size of the history when the regression last followed it. */
+		private int size;
+
+		HostRegression(int length) {
+			regression = new LocalRegression(length);
+		}
+
+		/**
+		 * Brings the regression up to date with a history that holds at least as many values as it regresses.
+		 *
+		 * @param history the utilization history of the host
+		 * @return the regression
+		 */
+		LocalRegression follow(HistoryStat history) {
+			int length = regression.getLength();
+			long offered = history.getOfferedCount() - offeredCount;
+			long shift = -1;
+			if (offeredCount >= 0 && history.size() == Math.min(size + offered, history.getMaxSize())) {
+				// the history holds the last values offered, so the first ones moved by the values that left it
+				shift = Math.max(0, size + offered - history.getMaxSize());
+			}
+			if (shift < 0 || shift >= length) {
+				regression.clear();
+				for (int i = 0; i < length; i++) {
+					regression.offer(history.get(i));
+				}
+			} else {
+				for (int i = length - (int) shift; i < length; i++) {
+					regression.offer(history.get(i));
+				}
+			}
+			offeredCount = history.getOfferedCount();
+			size = history.size();
+			return regression;
+		}
+	}
+
 }
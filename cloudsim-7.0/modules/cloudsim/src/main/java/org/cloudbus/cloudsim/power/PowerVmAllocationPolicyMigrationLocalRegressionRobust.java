@@ -13,6 +13,7 @@ import java.util.List;
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicy;
+import org.cloudbus.cloudsim.util.LocalRegression;
 import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
@@ -78,14 +79,14 @@ public class PowerVmAllocationPolicyMigrationLocalRegressionRobust extends
 	}
 
 	/**
-	 * Gets the utilization estimates.
+	 * Fits the robust regression of a utilization history, as
+	 * {@link MathUtil#getRobustLoessParameterEstimates(double[])} does.
 	 * 
-	 * @param utilizationHistoryReversed the utilization history reversed
-	 * @return the utilization estimates
+	 * @param regression the regression of the utilization history
 	 */
 	@Override
-	protected double[] getParameterEstimates(double[] utilizationHistoryReversed) {
-		return MathUtil.getRobustLoessParameterEstimates(utilizationHistoryReversed);
+	protected void fitRegression(LocalRegression regression) {
+		regression.fitRobust();
 	}
 
 }
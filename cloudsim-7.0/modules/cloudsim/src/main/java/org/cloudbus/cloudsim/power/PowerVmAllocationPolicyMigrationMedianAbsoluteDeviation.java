@@ -14,6 +14,7 @@ import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicy;
+import org.cloudbus.cloudsim.util.HistoryStat;
 import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
@@ -126,6 +127,18 @@ public class PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation extends
 		return utilization > upperThreshold;
 	}
 
+	@Override
+	protected boolean isHostOverUtilized(PowerHostShadow host, GuestEntity vm) {
+		double upperThreshold;
+		try {
+			upperThreshold = 1 - getSafetyParameter() * getUtilizationMad(host.getUtilizationHistory(vm));
+		} catch (IllegalArgumentException e) {
+			return getFallbackVmAllocationPolicy().isHostOverUtilized(host, vm);
+		}
+		double utilization = host.getRequestedTotalMips(vm) / host.getTotalMips();
+		return utilization > upperThreshold;
+	}
+
 	/**
 	 * Gets the host utilization MAD.
 	 * 
@@ -133,7 +146,20 @@ public class PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation extends
 	 * @return the host utilization MAD
 	 */
 	protected double getHostUtilizationMad(PowerHost host) throws IllegalArgumentException {
-		double[] data = host.getUtilizationHistory();
+		HistoryStat history = host.getUtilizationHistoryStat();
+		if (history.countNonZeroBeginning() >= 12) { // 12 has been suggested as a safe value
+			return history.getMad();
+		}
+		throw new IllegalArgumentException();
+	}
+
+	/**
+	 * Gets the MAD of a utilization history.
+	 * 
+	 * @param data the utilization history
+	 * @return the MAD of the utilization
+	 */
+	protected double getUtilizationMad(double[] data) throws IllegalArgumentException {
 		if (MathUtil.countNonZeroBeginning(data) >= 12) { // 12 has been suggested as a safe value
 			return MathUtil.mad(data);
 		}
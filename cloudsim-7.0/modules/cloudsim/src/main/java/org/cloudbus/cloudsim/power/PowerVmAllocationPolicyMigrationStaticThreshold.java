@@ -71,6 +71,12 @@ public class PowerVmAllocationPolicyMigrationStaticThreshold extends PowerVmAllo
 		return utilization > getUtilizationThreshold();
 	}
 
+	@Override
+	protected boolean isHostOverUtilized(PowerHostShadow host, GuestEntity vm) {
+		double utilization = host.getRequestedTotalMips(vm) / host.getTotalMips();
+		return utilization > getUtilizationThreshold();
+	}
+
 	/**
 	 * Sets the utilization threshold.
 	 * 
@@ -13,6 +13,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.cloudbus.cloudsim.MipsShare;
 import org.cloudbus.cloudsim.core.GuestEntity;
 
 /**
@@ -27,8 +28,13 @@ import org.cloudbus.cloudsim.core.GuestEntity;
 public class PeProvisionerSimple extends PeProvisioner {
 
 	/** The PE map, where each key is a VM id and each value
-         * is the list of in terms of their allocated amount of MIPS to that VM. */
-	private Map<String, List<Double>> peTable;
+         * is the list of in terms of their allocated amount of MIPS to that VM.
+         * The shares of the VMs are kept when they are deallocated, an empty share
+         * meaning that no MIPS is allocated to the VM. */
+	private Map<String, MipsShare> peTable;
+
+	/** The keys of the PE map, to go over the shares without iterating over the map. */
+	private final List<String> guestUids = new ArrayList<>();
 
 	/**
 	 * Instantiates a new pe provisioner simple.
@@ -40,7 +46,7 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 */
 	public PeProvisionerSimple(double availableMips) {
 		super(availableMips);
-		setPeTable(new HashMap<String, ArrayList<Double>>());
+		setPeTable(new HashMap<>());
 	}
 
 	@Override
@@ -54,9 +60,14 @@ public class PeProvisionerSimple extends PeProvisioner {
 			return false;
 		}
 
-        List<Double> allocatedMips = getPeTable().computeIfAbsent(vmUid, k -> new ArrayList<>());
+		MipsShare allocatedMips = getPeTable().get(vmUid);
+		if (allocatedMips == null) {
+			allocatedMips = new MipsShare();
+			getPeTable().put(vmUid, allocatedMips);
+			guestUids.add(vmUid);
+		}
 
-        allocatedMips.add(mips);
+		allocatedMips.addMips(mips);
 		setAvailableMips(getAvailableMips() - mips);
 
 		return true;
@@ -65,8 +76,9 @@ public class PeProvisionerSimple extends PeProvisioner {
 	@Override
 	public boolean allocateMipsForGuest(GuestEntity guest, List<Double> mips) {
 		deallocateMipsForGuest(guest);
-		for (double _mips : mips) {
-			if (!allocateMipsForGuest(guest.getUid(), _mips)) {
+		MipsShare share = MipsShare.of(mips);
+		for (int i = 0; i < share.size(); i++) {
+			if (!allocateMipsForGuest(guest.getUid(), share.getMips(i))) {
 				return false;
 			}
 		}
@@ -77,49 +89,65 @@ public class PeProvisionerSimple extends PeProvisioner {
 	@Override
 	public void deallocateMipsForAllGuests() {
 		super.deallocateMipsForAllGuests();
-		getPeTable().clear();
+		int allocated = 0;
+		for (int i = 0; i < guestUids.size(); i++) {
+			MipsShare allocatedMips = getPeTable().get(guestUids.get(i));
+			if (allocatedMips != null && !allocatedMips.isEmpty()) {
+				allocated++;
+			}
+		}
+		// forget the VMs that have not been allocated since the last deallocation, once they are
+		// many more than the allocated ones, as the VMs spread over the PEs move between them
+		boolean prune = guestUids.size() > 2 * allocated + 8;
+		for (int i = guestUids.size() - 1; i >= 0; i--) {
+			MipsShare allocatedMips = getPeTable().get(guestUids.get(i));
+			if (allocatedMips == null || prune && allocatedMips.isEmpty()) {
+				getPeTable().remove(guestUids.get(i));
+				guestUids.set(i, guestUids.getLast());
+				guestUids.removeLast();
+			} else {
+				allocatedMips.clear();
+			}
+		}
 	}
 
 	@Override
 	public double getAllocatedMipsForGuestByVirtualPeId(GuestEntity guest, int peId) {
-		List<Double> allocatedMips = getAllocatedMipsForGuest(guest);
+		MipsShare allocatedMips = getPeTable().get(guest.getUid());
 		if (allocatedMips != null && peId < allocatedMips.size()) {
-			return allocatedMips.get(peId);
+			return allocatedMips.getMips(peId);
 		}
 		return 0;
 	}
 
 	@Override
 	public List<Double> getAllocatedMipsForGuest(GuestEntity guest) {
-		if (getPeTable().containsKey(guest.getUid())) {
-			return getPeTable().get(guest.getUid());
+		MipsShare allocatedMips = getPeTable().get(guest.getUid());
+		if (allocatedMips != null && !allocatedMips.isEmpty()) {
+			return allocatedMips;
 		}
 		return null;
 	}
 
 	@Override
 	public double getTotalAllocatedMipsForGuest(GuestEntity guest) {
-		List<Double> allocatedMips = getAllocatedMipsForGuest(guest);
+		MipsShare allocatedMips = getPeTable().get(guest.getUid());
 
 		if (allocatedMips != null) {
-			double totalAllocatedMips = 0.0;
-			for (double mips : allocatedMips) {
-				totalAllocatedMips += mips;
-			}
-			return totalAllocatedMips;
+			return allocatedMips.getTotalMips();
 		}
 		return 0;
 	}
 
 	@Override
 	public void deallocateMipsForGuest(GuestEntity guest) {
-		List<Double> allocatedMips = getAllocatedMipsForGuest(guest);
+		MipsShare allocatedMips = getPeTable().get(guest.getUid());
 
 		if (allocatedMips != null) {
-			for (double mips : allocatedMips) {
-				setAvailableMips(getAvailableMips() + mips);
+			for (int i = 0; i < allocatedMips.size(); i++) {
+				setAvailableMips(getAvailableMips() + allocatedMips.getMips(i));
 			}
-			getPeTable().remove(guest.getUid());
+			allocatedMips.clear();
 		}
 	}
 
@@ -128,7 +156,7 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 * 
 	 * @return the pe map
 	 */
-	protected Map<String, List<Double>> getPeTable() {
+	protected Map<String, MipsShare> getPeTable() {
 		return peTable;
 	}
 
@@ -137,8 +165,9 @@ public class PeProvisionerSimple extends PeProvisioner {
 	 * 
 	 * @param peTable the peTable to set
 	 */
-	@SuppressWarnings("unchecked")
-	protected void setPeTable(Map<String, ? extends List<Double>> peTable) {
-		this.peTable = (Map<String, List<Double>>) peTable;
+	protected void setPeTable(Map<String, MipsShare> peTable) {
+		this.peTable = peTable;
+		guestUids.clear();
+		guestUids.addAll(peTable.keySet());
 	}
 }
@@ -0,0 +1,58 @@
+/*
+ * Title: CloudSim Toolkit Description: CloudSim (Cloud Simulation) Toolkit for Modeling and
+ * Simulation of Clouds Licence: GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.selectionPolicies;
+
+/**
+ * A selection policy that ranks every candidate by a key, so that the candidates can be kept
+ * sorted instead of being scanned at every selection.
+ * <p/>
+ * {@link #select} must select, among the candidates that are not excluded, the one with the lowest
+ * key below {@link #getKeyLimit()}, taking the first one of the list on ties.
+ *
+ * @since CloudSim toolkit 7.0
+ */
+public interface IndexedSelectionPolicy<T> extends SelectionPolicy<T> {
+    /**
+     * Gets the key of a candidate; lower keys are selected first.
+     *
+     * @param candidate the candidate
+     * @return the key of the candidate
+     */
+    double getKey(T candidate);
+
+    /**
+     * Gets the limit of the keys: candidates whose key is not below it are never selected.
+     *
+     * @return the key limit
+     */
+    default double getKeyLimit() {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Checks if the key of a candidate bounds its suitability, that is the candidate cannot be
+     * suitable for an object if its key is below {@link #getKeyBound(Object)}.
+     *
+     * @param candidate the candidate
+     * @return $true if the key bounds the suitability of the candidate
+     */
+    default boolean hasKeyBound(T candidate) {
+        return false;
+    }
+
+    /**
+     * Gets the lowest key a candidate can have to be suitable for an object. It is only used when
+     * {@link #hasKeyBound} holds for all the candidates.
+     *
+     * @param obj the object to be placed
+     * @return the lowest key of a suitable candidate
+     */
+    default double getKeyBound(Object obj) {
+        return Double.NEGATIVE_INFINITY;
+    }
+}
@@ -8,13 +8,12 @@
 
 package org.cloudbus.cloudsim.selectionPolicies;
 
-import java.util.ArrayDeque;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
-import org.apache.commons.math3.linear.Array2DRowRealMatrix;
 import org.cloudbus.cloudsim.core.PowerGuestEntity;
+import org.cloudbus.cloudsim.util.HistoryStat;
 import org.cloudbus.cloudsim.util.MathUtil;
 
 /**
@@ -60,7 +59,7 @@ public class PowerSelectionPolicyMaximumCorrelation implements SelectionPolicy<P
 		List<Double> metrics = null;
 		try {
 			metrics = getCorrelationCoefficients(getUtilizationMatrix(candidates));
-		} catch (IllegalArgumentException e) { // the degrees of freedom must be greater than zero
+		} catch (IllegalArgumentException e) { // not enough data, or linearly dependent utilizations
 			return getFallbackPolicy().select(candidates, host, excludedCandidates);
 		}
 		double maxMetric = Double.MIN_VALUE;
@@ -93,10 +92,9 @@ public class PowerSelectionPolicyMaximumCorrelation implements SelectionPolicy<P
 		int m = getMinUtilizationHistorySize(vmList);
 		double[][] utilization = new double[n][m];
 		for (int i = 0; i < n; i++) {
-			ArrayDeque<Double> vmUtilization = vmList.get(i).getUtilizationHistory();
-			int j = 0;
-			for (double u : vmUtilization)
-				utilization[i][j++] = u;
+			HistoryStat vmUtilization = vmList.get(i).getUtilizationHistory();
+			for (int j = 0; j < vmUtilization.size(); j++)
+				utilization[i][j] = vmUtilization.get(j);
 		}
 		return utilization;
 	}
@@ -119,30 +117,19 @@ public class PowerSelectionPolicyMaximumCorrelation implements SelectionPolicy<P
 	}
 
 	/**
-	 * Gets the correlation coefficients.
+	 * Gets the correlation coefficients: the coefficient of determination of the linear regression
+	 * of the utilization of each VM on the utilization of the other VMs. They are computed together
+	 * from the correlation matrix of the VMs (see {@link MathUtil#coefficientsOfDetermination(double[][])}).
 	 * 
 	 * @param data the data
 	 * @return the correlation coefficients
+	 * @throws IllegalArgumentException if there are not enough data to compute them
 	 */
     public List<Double> getCorrelationCoefficients(final double[][] data) {
-		int n = data.length;
-		int m = data[0].length;
-		List<Double> correlationCoefficients = new LinkedList<>();
-		for (int i = 0; i < n; i++) {
-			double[][] x = new double[n - 1][m];
-			int k = 0;
-			for (int j = 0; j < n; j++) {
-				if (j != i) {
-					x[k++] = data[j];
-				}
-			}
-
-			// Transpose the matrix so that it fits the linear model
-			double[][] xT = new Array2DRowRealMatrix(x).transpose().getData();
-
-			// RSquare is the "coefficient of determination"
-			correlationCoefficients.add(MathUtil.createLinearRegression(xT,
-					data[i]).calculateRSquared());
+		double[] coefficients = MathUtil.coefficientsOfDetermination(data);
+		List<Double> correlationCoefficients = new ArrayList<>(coefficients.length);
+		for (double coefficient : coefficients) {
+			correlationCoefficients.add(coefficient);
 		}
 		return correlationCoefficients;
 	}
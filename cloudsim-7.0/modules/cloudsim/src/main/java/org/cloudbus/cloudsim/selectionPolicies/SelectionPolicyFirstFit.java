@@ -16,11 +16,14 @@ import java.util.Set;
 /**
  * Created by Remo Andreoli (June 2024).
  * For First Fit policy.
+ * <p/>
+ * All the candidates have the same key, so that an index walks them in the order of the list,
+ * as the scan does.
  *
  * @since CloudSim toolkit 7.0
  */
 
-public class SelectionPolicyFirstFit<CandidateEntity> implements SelectionPolicy<CandidateEntity> {
+public class SelectionPolicyFirstFit<CandidateEntity> implements IndexedSelectionPolicy<CandidateEntity> {
     @Override
     public CandidateEntity select(List<CandidateEntity> candidates, Object obj, Set<CandidateEntity> excludedCandidates) {
         CandidateEntity selectedHost = null;
@@ -33,4 +36,9 @@ public class SelectionPolicyFirstFit<CandidateEntity> implements SelectionPolicy
         }
         return selectedHost;
     }
+
+    @Override
+    public double getKey(CandidateEntity candidate) {
+        return 0;
+    }
 }
@@ -19,7 +19,7 @@ import java.util.Set;
  *
  * @since CloudSim toolkit 7.0
  */
-public class SelectionPolicyLeastFull<T extends HostEntity> implements SelectionPolicy<T> {
+public class SelectionPolicyLeastFull<T extends HostEntity> implements IndexedSelectionPolicy<T> {
     @Override
     public T select(List<T> candidates, Object obj, Set<T> excludedCandidates) {
         double maxAvailable = Double.MIN_VALUE;
@@ -30,12 +30,7 @@ public class SelectionPolicyLeastFull<T extends HostEntity> implements Selection
                 continue;
             }
 
-            double hostAvailable;
-            if (hostCandidate instanceof PowerHost powerHost) {
-                hostAvailable = powerHost.getUtilizationOfCpu();
-            } else {
-                hostAvailable = hostCandidate.getGuestScheduler().getAvailableMips();
-            }
+            double hostAvailable = getAvailable(hostCandidate);
 
             if (hostAvailable > maxAvailable) {
                 maxAvailable = hostAvailable;
@@ -44,4 +39,22 @@ public class SelectionPolicyLeastFull<T extends HostEntity> implements Selection
         }
         return selectedHost;
     }
+
+    @Override
+    public double getKey(T candidate) {
+        return -getAvailable(candidate);
+    }
+
+    @Override
+    public double getKeyLimit() {
+        // the scan only selects hosts with more than Double.MIN_VALUE available
+        return -Double.MIN_VALUE;
+    }
+
+    private double getAvailable(T hostCandidate) {
+        if (hostCandidate instanceof PowerHost powerHost) {
+            return powerHost.getUtilizationOfCpu();
+        }
+        return hostCandidate.getGuestScheduler().getAvailableMips();
+    }
 }
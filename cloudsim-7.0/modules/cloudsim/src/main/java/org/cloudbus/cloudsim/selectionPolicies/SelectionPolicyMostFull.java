@@ -7,6 +7,8 @@
 
 package org.cloudbus.cloudsim.selectionPolicies;
 
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.core.HostEntity;
 import org.cloudbus.cloudsim.power.PowerHost;
 
@@ -19,7 +21,7 @@ import java.util.Set;
  *
  * @since CloudSim toolkit 7.0
  */
-public class SelectionPolicyMostFull<T extends HostEntity> implements SelectionPolicy<T> {
+public class SelectionPolicyMostFull<T extends HostEntity> implements IndexedSelectionPolicy<T> {
     @Override
     public T select(List<T> candidates, Object obj, Set<T> excludedCandidates) {
         double minAvailable = Double.MAX_VALUE;
@@ -30,12 +32,7 @@ public class SelectionPolicyMostFull<T extends HostEntity> implements SelectionP
                 continue;
             }
 
-            double hostAvailable;
-            if (hostCandidate instanceof PowerHost powerHost) {
-                hostAvailable = powerHost.getUtilizationOfCpu();
-            } else {
-                hostAvailable = hostCandidate.getGuestScheduler().getAvailableMips();
-            }
+            double hostAvailable = getAvailable(hostCandidate);
 
             if (hostAvailable < minAvailable ) {
                 minAvailable = hostAvailable;
@@ -44,4 +41,38 @@ public class SelectionPolicyMostFull<T extends HostEntity> implements SelectionP
         }
         return selectedHost;
     }
+
+    @Override
+    public double getKey(T candidate) {
+        return getAvailable(candidate);
+    }
+
+    @Override
+    public double getKeyLimit() {
+        return Double.MAX_VALUE;
+    }
+
+    /**
+     * A {@link Host} without enough available MIPS is not suitable for a guest, unless the key of
+     * the host is its CPU utilization.
+     */
+    @Override
+    public boolean hasKeyBound(T candidate) {
+        return candidate instanceof Host && !(candidate instanceof PowerHost);
+    }
+
+    @Override
+    public double getKeyBound(Object obj) {
+        if (obj instanceof GuestEntity guest) {
+            return guest.getCurrentRequestedTotalMips();
+        }
+        return Double.NEGATIVE_INFINITY;
+    }
+
+    private double getAvailable(T hostCandidate) {
+        if (hostCandidate instanceof PowerHost powerHost) {
+            return powerHost.getUtilizationOfCpu();
+        }
+        return hostCandidate.getGuestScheduler().getAvailableMips();
+    }
 }
@@ -1,88 +1,288 @@
 package org.cloudbus.cloudsim.util;
 
-import java.util.ArrayDeque;
-import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntToDoubleFunction;
 
 /**
- * Variant of ArrayDeque that provides fast computation of the mean and median of a moving window of last offer()ed samples.
- * The median uses two heaps that are not used until the first invocation of the getMedian() method.
- * 
- * @TODO The implementation needs to be completed with all methods from the ArrayDeque interface.
+ * A moving window of the last offer()ed samples, kept in a ring buffer of primitive values, that provides fast
+ * computation of their mean, median, percentiles, MAD and IQR.
+ * The order statistics use a sorted copy of the window that is not built until the first invocation of one of them.
+ * It is then kept sorted as samples are offered: a sample is found by binary search, and the shift of the copy is
+ * bounded by the size of the window. The median is read in constant time, the MAD is found in logarithmic time.
  */
-public class HistoryStat extends ArrayDeque<Double> {
+public class HistoryStat {
     private final int max_size;
+    private final double[] values;
+    /** The index of the oldest sample in {@link #values}. */
+    private int head = 0;
+    private int size = 0;
+    /** The number of samples offered since the creation. */
+    private long offered = 0;
     private double sum = 0.0;
-    private PriorityQueue<Double> lower;
-    private PriorityQueue<Double> higher;
+    /** The samples of the window in ascending order, or null until an order statistic is asked for. */
+    private double[] sorted;
 
     public HistoryStat(int max_size) {
-        super(max_size);
         assert(max_size >= 2);
         this.max_size = max_size;
+        this.values = new double[max_size];
     }
 
-    private void enableFastMedian() {
-        lower = new PriorityQueue<>((max_size + 1) / 2, Comparator.reverseOrder());
-        higher  = new PriorityQueue<>((max_size + 1) / 2, Comparator.naturalOrder());
-        for (double val : this)
-            addHeaps(val);
-    }
-
-    private void addHeaps(double val) {
-        double low = Double.MAX_VALUE;
-        if (!lower.isEmpty())
-            low = lower.peek();
-        if (val <= low) {
-            lower.add(val);
-            if (lower.size() > higher.size() + 1)
-                higher.add(lower.poll());
-        } else {
-            higher.add(val);
-            if (higher.size() > lower.size() + 1)
-                lower.add(higher.poll());
-        }
+    public int getMaxSize() {
+        return max_size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
     }
 
-    private void delHeaps(double val) {
-        if (!lower.isEmpty() && val <= lower.peek())
-            lower.remove(val);
-        else
-            higher.remove(val);
+    /**
+     * Gets the number of samples offered since the creation of the window, counting the ones that left the
+     * window and the ones that were cleared. The window holds the last samples offered: if it was full and is
+     * still full, the samples offered since a former count are the newest ones, as long as there are less of
+     * them than the size of the window.
+     *
+     * @return the number of samples offered
+     */
+    public long getOfferedCount() {
+        return offered;
     }
 
-    @Override
-    public boolean offer(Double val) {
-        if (size() == max_size) {
-            double oldest = poll();
+    /**
+     * Adds a sample to the window, removing the oldest one if the window is full.
+     *
+     * @param val the sample
+     * @return always true
+     */
+    public boolean offer(double val) {
+        if (size == max_size) {
+            double oldest = values[head];
+            values[head] = val;
+            head = (head + 1) % max_size;
             sum -= oldest;
-            if (lower != null)
-                delHeaps(oldest);
+            if (sorted != null)
+                removeSorted(oldest);
+        } else {
+            values[(head + size) % max_size] = val;
+            size++;
         }
-        boolean rv = super.offer(val);
         sum += val;
-        if (lower != null)
-            addHeaps(val);
-        return rv;
+        offered++;
+        if (sorted != null)
+            addSorted(val);
+        return true;
+    }
+
+    /**
+     * Removes all the samples.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+        sum = 0.0;
+        sorted = null;
+    }
+
+    /**
+     * Gets a sample of the window.
+     *
+     * @param index the index of the sample, 0 being the oldest one
+     * @return the sample
+     */
+    public double get(int index) {
+        Objects.checkIndex(index, size);
+        return values[(head + index) % max_size];
     }
 
+    /**
+     * Gets the samples of the window.
+     *
+     * @return a new array with the samples, from the oldest to the newest
+     */
+    public double[] toArray() {
+        double[] array = new double[size];
+        int first = Math.min(size, max_size - head);
+        System.arraycopy(values, head, array, 0, first);
+        System.arraycopy(values, 0, array, first, size - first);
+        return array;
+    }
+
+    private void enableFastMedian() {
+        sorted = new double[max_size];
+        for (int i = 0; i < size; i++)
+            sorted[i] = get(i);
+        Arrays.sort(sorted, 0, size);
+    }
+
+    private void addSorted(double val) {
+        // the sample was already counted in size
+        int index = Arrays.binarySearch(sorted, 0, size - 1, val);
+        if (index < 0)
+            index = -index - 1;
+        System.arraycopy(sorted, index, sorted, index + 1, size - 1 - index);
+        sorted[index] = val;
+    }
+
+    private void removeSorted(double val) {
+        int index = Arrays.binarySearch(sorted, 0, size, val);
+        System.arraycopy(sorted, index + 1, sorted, index, size - 1 - index);
+    }
+
+    /**
+     * Gets the median of the window, as the mean of the two middle samples when their number is even.
+     *
+     * @return the median, 0 if the window is empty
+     */
     public double getMedian() {
-        if (lower == null) {
+        if (sorted == null) {
             enableFastMedian();
         }
-        if (lower.isEmpty() && higher.isEmpty())
+        if (size == 0)
             return 0.0;
-        if (lower.isEmpty() || lower.size() < higher.size())
-            return higher.peek();
-        if (higher.isEmpty() || higher.size() < lower.size())
-            return lower.peek();
-        if (lower.size() == higher.size())
-            return (lower.peek() + higher.peek()) / 2.0;
-        assert(false);
-        return 0.0;
+        if (size % 2 == 1)
+            return sorted[size / 2];
+        return (sorted[size / 2 - 1] + sorted[size / 2]) / 2.0;
     }
 
     public double getMean() {
-        return sum / size();
+        return sum / size;
+    }
+
+    /**
+     * Gets a percentile of the window, estimated as {@link MathUtil#getStatistics(double[])} does.
+     *
+     * @param p the percentile, in (0, 100]
+     * @return the percentile, NaN if the window is empty
+     */
+    public double getPercentile(double p) {
+        if (sorted == null) {
+            enableFastMedian();
+        }
+        return percentile(p, i -> sorted[i]);
+    }
+
+    /**
+     * Gets the median absolute deviation (MAD) of the window, as {@link MathUtil#mad(double[])} does.
+     *
+     * @return the MAD, 0 if the window is empty
+     */
+    public double getMad() {
+        if (size == 0)
+            return 0.0;
+        return getMad(getPercentile(50));
+    }
+
+    /**
+     * Gets the median of the absolute deviations of the samples from a given value.
+     *
+     * @param center the value the deviations are taken from, usually the median
+     * @return the median of the deviations, 0 if the window is empty
+     */
+    public double getMad(double center) {
+        if (sorted == null) {
+            enableFastMedian();
+        }
+        if (size == 0)
+            return 0.0;
+        // the deviations of the samples below the center and of the others are both sorted
+        int below = Arrays.binarySearch(sorted, 0, size, center);
+        if (below < 0) {
+            below = -below - 1;
+        } else {
+            while (below > 0 && sorted[below - 1] == center)
+                below--;
+        }
+        final int split = below;
+        return percentile(50, k -> selectDeviation(center, split, k));
+    }
+
+    /**
+     * Gets the interquartile range (IQR) of the window, as {@link MathUtil#iqr(double[])} does.
+     *
+     * @return the IQR, 0 if the window has less than two samples
+     */
+    public double getIqr() {
+        if (sorted == null) {
+            enableFastMedian();
+        }
+        if (size < 2)
+            return 0.0;
+        int q1 = (int) Math.round(0.25 * (size + 1)) - 1;
+        int q3 = (int) Math.round(0.75 * (size + 1)) - 1;
+        return sorted[q3] - sorted[q1];
+    }
+
+    /**
+     * Counts the samples up to the last one different of zero, as {@link MathUtil#countNonZeroBeginning(double[])}
+     * does.
+     *
+     * @return the number of samples
+     */
+    public int countNonZeroBeginning() {
+        int i = size - 1;
+        while (i >= 0) {
+            if (get(i--) != 0) {
+                break;
+            }
+        }
+        return i + 2;
+    }
+
+    /**
+     * Estimates a percentile from the order statistics of the samples, with the default estimation of
+     * Commons Math.
+     *
+     * @param p the percentile, in (0, 100]
+     * @param select gives the k-th smallest value, k starting from 0
+     */
+    private double percentile(double p, IntToDoubleFunction select) {
+        if (size == 0)
+            return Double.NaN;
+        if (size == 1)
+            return select.applyAsDouble(0);
+        double pos = p / 100 * (size + 1);
+        double fpos = Math.floor(pos);
+        int intPos = (int) fpos;
+        double dif = pos - fpos;
+        if (pos < 1)
+            return select.applyAsDouble(0);
+        if (pos >= size)
+            return select.applyAsDouble(size - 1);
+        double lower = select.applyAsDouble(intPos - 1);
+        double upper = select.applyAsDouble(intPos);
+        return lower + dif * (upper - lower);
+    }
+
+    /**
+     * Selects the k-th smallest absolute deviation from a center by a binary search over the two sorted
+     * sequences of deviations: the ones of the samples below the center, read backwards, and the others.
+     *
+     * @param center the center
+     * @param split the number of samples below the center
+     * @param k the rank of the deviation, starting from 0
+     */
+    private double selectDeviation(double center, int split, int k) {
+        int above = size - split;
+        // the number of deviations below the center among the k + 1 smallest ones
+        int lo = Math.max(0, k + 1 - above);
+        int hi = Math.min(k + 1, split);
+        while (lo < hi) {
+            int i = (lo + hi) >>> 1;
+            if (center - sorted[split - 1 - i] < sorted[split + k - i] - center)
+                lo = i + 1;
+            else
+                hi = i;
+        }
+        double deviation = Double.NEGATIVE_INFINITY;
+        if (lo > 0)
+            deviation = center - sorted[split - lo];
+        if (k + 1 - lo > 0)
+            deviation = Math.max(deviation, sorted[split + k - lo] - center);
+        return deviation;
     }
 }
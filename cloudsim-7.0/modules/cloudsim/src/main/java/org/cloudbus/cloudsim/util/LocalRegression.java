@@ -0,0 +1,300 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Arrays;
+
+/**
+ * The local regression (Loess) of a moving window of samples, as {@link MathUtil#getLoessParameterEstimates(double[])}
+ * and {@link MathUtil#getRobustLoessParameterEstimates(double[])} compute it, without allocating anything once created.
+ * The newest sample is regressed at x = 1, the one before at x = 2, and so on, like the reversed history given to
+ * {@link MathUtil}.
+ * <p/>
+ * The tricube weights of {@link MathUtil#getTricubeWeigts(int)} are all positive, so that {@link MathUtil} does not
+ * weight the first regression. Its sums are therefore updated in constant time as samples are offered, and computed
+ * again from the window every {@code length} samples so that their rounding errors do not add up; its estimates are
+ * the ones of {@link MathUtil} within rounding errors. The robust regression weights the samples by the residuals of
+ * the first one, which takes a pass over the window; its estimates are exactly the ones of {@link MathUtil}.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public final class LocalRegression {
+
+	/** The number of samples regressed. */
+	private final int length;
+
+	/** The tricube weights of the samples, by x - 1, computed for the first robust regression. */
+	private double[] tricubeWeights;
+
+	/** The samples, in a ring buffer. */
+	private final double[] window;
+
+	/** The index of the oldest sample in {@link #window}. */
+	private int head;
+
+	/** The number of samples in the window. */
+	private int size;
+
+	/** The sum of the samples. */
+	private double sumY;
+
+	/** The sum of the samples multiplied by their x. */
+	private double sumXY;
+
+	/** The number of samples offered since the sums were computed from the window. */
+	private int updates;
+
+	/** The residuals of the first regression, by x - 1. */
+	private final double[] residuals;
+
+	/** The absolute residuals, sorted, then the weights of the robust regression, by x - 1. */
+	private final double[] weights;
+
+	private double intercept = Double.NaN;
+
+	private double slope = Double.NaN;
+
+	/**
+	 * Creates an empty regression.
+	 *
+	 * @param length the number of samples regressed, at least 3
+	 */
+	public LocalRegression(int length) {
+		if (length < 3) {
+			throw new IllegalArgumentException("回归至少需要 3 个样本：" + length);
+		}
+		this.length = length;
+		window = new double[length];
+		residuals = new double[length];
+		weights = new double[length];
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Checks whether the window holds {@link #getLength()} samples, so that it can be regressed.
+	 *
+	 * @return true if the window is full
+	 */
+	public boolean isFull() {
+		return size == length;
+	}
+
+	/**
+	 * Removes all the samples.
+	 */
+	public void clear() {
+		head = 0;
+		size = 0;
+		sumY = 0;
+		sumXY = 0;
+		updates = 0;
+	}
+
+	/**
+	 * Adds the newest sample, at x = 1. The other samples move to the next x, and the oldest one leaves the window
+	 * if it is full.
+	 *
+	 * @param y the sample
+	 */
+	public void offer(double y) {
+		if (size == length) {
+			double oldest = window[head];
+			window[head] = y;
+			head = (head + 1) % length;
+			sumXY += sumY - oldest * (length + 1) + y;
+			sumY += y - oldest;
+			if (++updates == length) {
+				computeSums();
+			}
+		} else {
+			window[(head + size) % length] = y;
+			size++;
+			sumXY += sumY + y;
+			sumY += y;
+		}
+	}
+
+	/**
+	 * Gets a sample of the window.
+	 *
+	 * @param x the x of the sample, 1 being the newest one
+	 * @return the sample
+	 */
+	public double get(int x) {
+		if (x < 1 || x > size) {
+			throw new IndexOutOfBoundsException("x 超出窗口：" + x);
+		}
+		return window[(head + size - x) % length];
+	}
+
+	/**
+	 * Fits the regression of the window, as {@link MathUtil#getLoessParameterEstimates(double[])} does.
+	 *
+	 * @throws IllegalStateException if the window is not full
+	 */
+	public void fit() {
+		checkFull();
+		double n = length;
+		double sumX = n * (n + 1) / 2;
+		double sumXX = n * (n * n - 1) / 12;
+		slope = (sumXY - sumX / n * sumY) / sumXX;
+		intercept = (sumY - slope * sumX) / n;
+	}
+
+	/**
+	 * Fits the robust regression of the window, as {@link MathUtil#getRobustLoessParameterEstimates(double[])}
+	 * does: the samples are weighted by the bisquare of their residuals in the first regression. As the weights
+	 * depend on residuals that may be exactly zero, the first regression is computed over the window with the
+	 * formulas of {@link MathUtil}, rather than from the sums, so that the estimates are exactly the same.
+	 *
+	 * @throws IllegalStateException if the window is not full
+	 */
+	public void fitRobust() {
+		checkFull();
+		regress(false);
+		for (int i = 0; i < length; i++) {
+			residuals[i] = get(i + 1) - predict(i + 1);
+			weights[i] = Math.abs(residuals[i]);
+		}
+		Arrays.sort(weights);
+		double s6 = median(weights) * 6;
+		if (tricubeWeights == null) {
+			tricubeWeights = MathUtil.getTricubeWeigts(length);
+		}
+
+		int numZeroWeights = 0;
+		for (int i = 2; i < length; i++) {
+			double k = Math.pow(1 - Math.pow(residuals[i] / s6, 2), 2);
+			weights[i] = k > 0 ? (1 / k) * tricubeWeights[i] : Double.MAX_VALUE;
+			if (weights[i] <= 0) {
+				numZeroWeights += i == 2 ? 3 : 1;
+			}
+		}
+		weights[0] = weights[1] = weights[2];
+		if (numZeroWeights < 0.4 * length) {
+			// the samples are not weighted, the estimates are the ones of the first regression
+			return;
+		}
+		double firstIntercept = intercept;
+		double firstSlope = slope;
+		regress(true);
+		if (Double.isNaN(intercept) || Double.isNaN(slope)) {
+			intercept = firstIntercept;
+			slope = firstSlope;
+		}
+	}
+
+	public double getIntercept() {
+		return intercept;
+	}
+
+	public double getSlope() {
+		return slope;
+	}
+
+	/**
+	 * Predicts the sample at an x from the last fitted regression.
+	 *
+	 * @param x the x, which is larger than {@link #getLength()} for the samples to come
+	 * @return the predicted sample
+	 */
+	public double predict(double x) {
+		return intercept + slope * x;
+	}
+
+	private void checkFull() {
+		if (size != length) {
+			throw new IllegalStateException("窗口只有 " + size + " 个样本，需要 " + length + " 个");
+		}
+	}
+
+	/**
+	 * Computes the sums from the samples of the window.
+	 */
+	private void computeSums() {
+		sumY = 0;
+		sumXY = 0;
+		for (int x = 1; x <= size; x++) {
+			double y = get(x);
+			sumY += y;
+			sumXY += x * y;
+		}
+		updates = 0;
+	}
+
+	/**
+	 * Regresses the samples of the window with the updating formulas of the {@code SimpleRegression} of Commons Math,
+	 * as {@link MathUtil#createWeigthedLinearRegression(double[], double[], double[])} does.
+	 *
+	 * @param weighted whether x and the samples are scaled by the square root of {@link #weights}
+	 */
+	private void regress(boolean weighted) {
+		double sumWX = 0;
+		double sumWY = 0;
+		double sumSquaredDX = 0;
+		double sumProductDXDY = 0;
+		double xbar = 0;
+		double ybar = 0;
+		for (int i = 0; i < length; i++) {
+			double x = i + 1;
+			double y = get(i + 1);
+			if (weighted) {
+				x = Math.sqrt(weights[i]) * x;
+				y = Math.sqrt(weights[i]) * y;
+			}
+			if (i == 0) {
+				xbar = x;
+				ybar = y;
+			} else {
+				double fact1 = 1.0 + i;
+				double fact2 = i / (1.0 + i);
+				double dx = x - xbar;
+				double dy = y - ybar;
+				sumSquaredDX += dx * dx * fact2;
+				sumProductDXDY += dx * dy * fact2;
+				xbar += dx / fact1;
+				ybar += dy / fact1;
+			}
+			sumWX += x;
+			sumWY += y;
+		}
+
+		if (Math.abs(sumSquaredDX) > Double.MIN_NORMAL) {
+			slope = sumProductDXDY / sumSquaredDX;
+			intercept = (sumWY - slope * sumWX) / length;
+		} else {
+			// without spread in x, there is no slope
+			slope = Double.NaN;
+			intercept = sumWY / length;
+		}
+	}
+
+	/**
+	 * Gets the median of sorted values, as {@link MathUtil#median(double[])} estimates it.
+	 */
+	private static double median(double[] sorted) {
+		int n = sorted.length;
+		if (n == 1) {
+			return sorted[0];
+		}
+		double pos = 0.5 * (n + 1);
+		double fpos = Math.floor(pos);
+		int intPos = (int) fpos;
+		double dif = pos - fpos;
+		if (pos >= n) {
+			return sorted[n - 1];
+		}
+		double lower = sorted[intPos - 1];
+		double upper = sorted[intPos];
+		return lower + dif * (upper - lower);
+	}
+}
@@ -11,6 +11,9 @@ package org.cloudbus.cloudsim.util;
 import java.util.Arrays;
 import java.util.List;
 
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.commons.math3.stat.regression.OLSMultipleLinearRegression;
 import org.apache.commons.math3.stat.regression.SimpleRegression;
@@ -318,6 +321,72 @@ public class MathUtil {
 		return estimates;
 	}
 
+	/**
+	 * Gets the coefficient of determination (R<sup>2</sup>) of the linear regression, with an intercept,
+	 * of each row of a matrix on all the other rows. They are computed together from the inverse of
+	 * the correlation matrix of the rows: R<sub>i</sub><sup>2</sup> = 1 - 1 / (R<sup>-1</sup>)<sub>ii</sub>,
+	 * instead of fitting a regression per row.
+	 * 
+	 * @param data the data matrix, each row being a variable and each column an observation
+	 * @return the coefficient of determination of each row
+	 * @throws IllegalArgumentException if there are less than 2 rows, not more observations than rows,
+	 * a constant row or rows that are linearly dependent
+	 */
+	public static double[] coefficientsOfDetermination(final double[][] data) {
+		int n = data.length;
+		int m = n == 0 ? 0 : data[0].length;
+		if (n < 2 || m <= n) {
+			throw new IllegalArgumentException("观测数 " + m + " 不足以对 " + n + " 个变量做回归");
+		}
+
+		double[][] deviations = new double[n][m];
+		for (int i = 0; i < n; i++) {
+			double mean = 0;
+			for (int t = 0; t < m; t++) {
+				mean += data[i][t];
+			}
+			mean /= m;
+			for (int t = 0; t < m; t++) {
+				deviations[i][t] = data[i][t] - mean;
+			}
+		}
+
+		double[][] correlation = new double[n][n];
+		double[] norms = new double[n];
+		for (int i = 0; i < n; i++) {
+			for (int j = i; j < n; j++) {
+				double crossProduct = 0;
+				for (int t = 0; t < m; t++) {
+					crossProduct += deviations[i][t] * deviations[j][t];
+				}
+				correlation[i][j] = correlation[j][i] = crossProduct;
+			}
+			if (correlation[i][i] == 0) {
+				throw new IllegalArgumentException("第 " + i + " 行为常数，无法回归");
+			}
+			norms[i] = Math.sqrt(correlation[i][i]);
+		}
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				correlation[i][j] /= norms[i] * norms[j];
+			}
+		}
+
+		if (n == 2) {
+			// both regressions have the square of the correlation of the rows
+			double coefficient = correlation[0][1] * correlation[0][1];
+			return new double[] {coefficient, coefficient};
+		}
+
+		// a singular matrix throws a SingularMatrixException, which is an IllegalArgumentException
+		RealMatrix inverse = new LUDecomposition(new Array2DRowRealMatrix(correlation, false)).getSolver().getInverse();
+		double[] coefficients = new double[n];
+		for (int i = 0; i < n; i++) {
+			coefficients[i] = 1 - 1 / inverse.getEntry(i, i);
+		}
+		return coefficients;
+	}
+
 	/**
 	 * Gets the tricube weigths.
 	 * 
@@ -0,0 +1,204 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.function.IntToDoubleFunction;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+
+/**
+ * Scores candidates, such as the hosts a guest may be placed on, with several threads. The candidates
+ * are split into ranges of consecutive indexes, one per thread, and the calling thread scores the first
+ * range. The result does not depend on the number of threads: the best candidate is always the first
+ * one, in the order of the indexes, with the lowest score, as if the candidates were scored one after
+ * the other.
+ * <p/>
+ * The scores are computed in the simulation context of the calling thread. They must not change any
+ * state that is shared between candidates.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public final class ParallelScorer {
+
+	/** The least number of candidates scored by a thread, so that few candidates are scored by the calling thread. */
+	public static final int MIN_CANDIDATES_PER_THREAD = 128;
+
+	/** How long an idle thread is kept, in seconds. */
+	private static final long KEEP_ALIVE_TIME = 60;
+
+	/** The number of threads scoring the candidates, including the calling thread. */
+	private final int parallelism;
+
+	/** The threads that help the calling thread, created on the first parallel scoring. */
+	private ThreadPoolExecutor executor;
+
+	/**
+	 * Creates a scorer.
+	 *
+	 * @param parallelism the number of threads scoring the candidates, 1 to score them in the calling thread
+	 */
+	public ParallelScorer(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("并行度必须为正数：" + parallelism);
+		}
+		this.parallelism = parallelism;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Scores candidates.
+	 *
+	 * @param count the number of candidates
+	 * @param score gives the score of a candidate from its index
+	 * @return the score of each candidate
+	 */
+	public double[] score(int count, IntToDoubleFunction score) {
+		double[] scores = new double[count];
+		int threads = getThreads(count);
+		run(threads, thread -> {
+			for (int i = getStart(thread, threads, count), end = getStart(thread + 1, threads, count); i < end; i++) {
+				scores[i] = score.applyAsDouble(i);
+			}
+		});
+		return scores;
+	}
+
+	/**
+	 * Finds the candidate with the lowest score. A candidate scored {@link Double#NaN} or
+	 * {@link Double#MAX_VALUE} is never chosen.
+	 *
+	 * @param count the number of candidates
+	 * @param score gives the score of a candidate from its index
+	 * @return the index of the first candidate with the lowest score, or -1 if no candidate can be chosen
+	 */
+	public int findMin(int count, IntToDoubleFunction score) {
+		int threads = getThreads(count);
+		double[] minScores = new double[threads];
+		int[] minIndexes = new int[threads];
+		run(threads, thread -> {
+			double minScore = Double.MAX_VALUE;
+			int minIndex = -1;
+			for (int i = getStart(thread, threads, count), end = getStart(thread + 1, threads, count); i < end; i++) {
+				double value = score.applyAsDouble(i);
+				if (value < minScore) {
+					minScore = value;
+					minIndex = i;
+				}
+			}
+			minScores[thread] = minScore;
+			minIndexes[thread] = minIndex;
+		});
+
+		// the ranges are merged in order, so that ties are won by the first candidate
+		double minScore = Double.MAX_VALUE;
+		int minIndex = -1;
+		for (int thread = 0; thread < threads; thread++) {
+			if (minScores[thread] < minScore) {
+				minScore = minScores[thread];
+				minIndex = minIndexes[thread];
+			}
+		}
+		return minIndex;
+	}
+
+	/**
+	 * Gets the number of threads scoring a number of candidates.
+	 */
+	private int getThreads(int count) {
+		return Math.max(1, Math.min(parallelism, count / MIN_CANDIDATES_PER_THREAD));
+	}
+
+	/**
+	 * Gets the index of the first candidate of the range of a thread.
+	 */
+	private static int getStart(int thread, int threads, int count) {
+		return (int) ((long) count * thread / threads);
+	}
+
+	/**
+	 * Runs a task per thread, the first one in the calling thread, and waits for all of them.
+	 *
+	 * @param threads the number of threads
+	 * @param task the task, given the index of its thread
+	 */
+	private void run(int threads, IntConsumer task) {
+		if (threads == 1) {
+			task.accept(0);
+			return;
+		}
+
+		SimulationContext context = CloudSim.getSimulationContext();
+		List<Future<?>> futures = new ArrayList<>(threads - 1);
+		for (int thread = 1; thread < threads; thread++) {
+			int index = thread;
+			futures.add(getExecutor().submit(() -> {
+				SimulationContext previous = CloudSim.setSimulationContext(context);
+				try {
+					task.accept(index);
+				} finally {
+					CloudSim.setSimulationContext(previous);
+				}
+			}));
+		}
+
+		RuntimeException failure = null;
+		try {
+			task.accept(0);
+		} catch (RuntimeException e) {
+			failure = e;
+		}
+		boolean interrupted = false;
+		for (Future<?> future : futures) {
+			while (true) {
+				try {
+					future.get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					if (failure == null) {
+						failure = e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+					}
+					break;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private synchronized ThreadPoolExecutor getExecutor() {
+		if (executor == null) {
+			executor = new ThreadPoolExecutor(parallelism - 1, parallelism - 1, KEEP_ALIVE_TIME, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), r -> {
+						Thread thread = new Thread(r, "CloudSim-scoring");
+						thread.setDaemon(true);
+						return thread;
+					});
+			executor.allowCoreThreadTimeOut(true);
+		}
+		return executor;
+	}
+}
@@ -0,0 +1,51 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+/**
+ * A workload model that yields its jobs ({@link Cloudlet Cloudlets}) one at a time, in the order
+ * of their submit times, instead of generating them all at once. The jobs are only read and created
+ * when they are asked for, so that a broker can pull them as the simulation time advances (see
+ * {@link org.cloudbus.cloudsim.StreamingDatacenterBroker}) without holding the whole trace in memory.
+ * <p/>
+ * A stream may hold open files: it is closed once all its jobs are read, or by {@link #close()}.
+ * Reading errors are thrown as {@link java.io.UncheckedIOException UncheckedIOExceptions}.
+ *
+ * @since CloudSim Toolkit 7.0
+ * @see WorkloadFileReader#stream()
+ */
+public interface StreamingWorkloadModel extends WorkloadModel, Iterator<Cloudlet>, Closeable {
+
+	/**
+	 * Gets the submit time of the next job, without reading it.
+	 *
+	 * @return the submit time of the next job
+	 * @throws java.util.NoSuchElementException if there is no job left
+	 */
+	double getNextSubmitTime();
+
+	/**
+	 * Reads all the remaining jobs of the stream.
+	 *
+	 * @return the remaining jobs, in the order of their submit times
+	 */
+	@Override
+	default List<Cloudlet> generateWorkload() {
+		List<Cloudlet> cloudlets = new ArrayList<>();
+		forEachRemaining(cloudlets::add);
+		return cloudlets;
+	}
+}
@@ -0,0 +1,354 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A binary file of pre-parsed traces, so that they are loaded without parsing text. The traces are
+ * stored in columns of integers, each one with the smallest width that holds its values: an unsigned
+ * byte, a short or an int. The header of the file indexes the columns by name:
+ * <pre>
+ * int magic, short version, byte kind, int number of columns
+ * for each column: short name length, name (UTF-8), byte width, int length, int offset
+ * the values of each column, at its offset
+ * </pre>
+ * A PlanetLab cache has a column per VM trace, named after its file (see {@link #convertPlanetLab(String, String)}),
+ * and a workload cache has the columns of the jobs of a trace (see {@link WorkloadFileReader#writeCache(String)}).
+ * <p/>
+ * An opened cache is mapped into memory and only read, so that {@link #open(String)} shares it
+ * between all the simulations that load it, including concurrent ones.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public final class TraceCache {
+
+	/** The extension of the cache files. */
+	public static final String EXTENSION = ".tcf";
+
+	/** The kinds of traces a cache holds. */
+	public enum Kind {
+		/** The utilization traces of VMs, in percents. */
+		UTILIZATION,
+		/** The jobs of a workload trace. */
+		WORKLOAD
+	}
+
+	/** The first bytes of a cache file: "CSTC". */
+	private static final int MAGIC = 0x43535443;
+
+	/** The version of the format. */
+	private static final short VERSION = 1;
+
+	/** The caches opened so far, by canonical path. */
+	private static final Map<String, TraceCache> OPENED = new ConcurrentHashMap<>();
+
+	/** The content of the file. */
+	private final ByteBuffer buffer;
+
+	/** The time the file was last modified when it was opened. */
+	private final long lastModified;
+
+	/** The kind of traces. */
+	private final Kind kind;
+
+	/** The name of each column. */
+	private final String[] names;
+
+	/** The number of bytes of each value of each column. */
+	private final byte[] widths;
+
+	/** The number of values of each column. */
+	private final int[] lengths;
+
+	/** The position of each column in the file. */
+	private final int[] offsets;
+
+	/** The index of each column by name. */
+	private final Map<String, Integer> columns = new HashMap<>();
+
+	private TraceCache(File file) throws IOException {
+		lastModified = file.lastModified();
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("轨迹缓存文件过大：" + file);
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		try {
+			if (buffer.getInt(0) != MAGIC) {
+				throw new IOException("不是轨迹缓存文件：" + file);
+			}
+			if (buffer.getShort(4) != VERSION) {
+				throw new IOException("不支持的轨迹缓存版本 " + buffer.getShort(4) + "：" + file);
+			}
+			kind = Kind.values()[buffer.get(6)];
+			int count = buffer.getInt(7);
+			names = new String[count];
+			widths = new byte[count];
+			lengths = new int[count];
+			offsets = new int[count];
+			int position = 11;
+			for (int i = 0; i < count; i++) {
+				byte[] name = new byte[buffer.getShort(position)];
+				buffer.get(position + 2, name);
+				position += 2 + name.length;
+				names[i] = new String(name, StandardCharsets.UTF_8);
+				widths[i] = buffer.get(position);
+				lengths[i] = buffer.getInt(position + 1);
+				offsets[i] = buffer.getInt(position + 5);
+				position += 9;
+				if ((long) offsets[i] + (long) lengths[i] * widths[i] > buffer.capacity()) {
+					throw new IOException("轨迹缓存文件不完整：" + file);
+				}
+				columns.putIfAbsent(names[i], i);
+			}
+		} catch (IndexOutOfBoundsException e) {
+			throw new IOException("轨迹缓存文件不完整：" + file, e);
+		}
+	}
+
+	/**
+	 * Opens a cache file. A file is only mapped once: the following calls share its cache, unless
+	 * the file was modified since.
+	 *
+	 * @param fileName the path of the cache file
+	 * @return the cache
+	 * @throws IOException if the file is not a cache, or cannot be read
+	 */
+	public static TraceCache open(String fileName) throws IOException {
+		File file = new File(fileName);
+		if (!file.exists()) {
+			throw new FileNotFoundException("轨迹缓存文件不存在：" + fileName);
+		}
+		String path = file.getCanonicalPath();
+		TraceCache cache = OPENED.get(path);
+		if (cache == null || cache.lastModified != file.lastModified()) {
+			cache = new TraceCache(file);
+			OPENED.put(path, cache);
+		}
+		return cache;
+	}
+
+	/**
+	 * Checks whether a file is named as a cache file.
+	 *
+	 * @param fileName the name of the file
+	 * @return true if it has the {@link #EXTENSION} of the cache files
+	 */
+	public static boolean isCache(String fileName) {
+		return fileName.endsWith(EXTENSION);
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * Gets the number of columns of the cache, i.e. the number of VM traces of a PlanetLab cache.
+	 *
+	 * @return the number of columns
+	 */
+	public int getColumnCount() {
+		return names.length;
+	}
+
+	public String getColumnName(int column) {
+		return names[column];
+	}
+
+	/**
+	 * Gets the index of a column.
+	 *
+	 * @param name the name of the column
+	 * @return the index of the first column with the name, or -1 if there is none
+	 */
+	public int getColumn(String name) {
+		return columns.getOrDefault(name, -1);
+	}
+
+	/**
+	 * Gets the number of values of a column.
+	 *
+	 * @param column the index of the column
+	 * @return the number of values
+	 */
+	public int getLength(int column) {
+		return lengths[column];
+	}
+
+	/**
+	 * Gets a value of a column.
+	 *
+	 * @param column the index of the column
+	 * @param row the index of the value in the column
+	 * @return the value
+	 */
+	public int get(int column, int row) {
+		if (row < 0 || row >= lengths[column]) {
+			throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + lengths[column]);
+		}
+		int position = offsets[column] + row * widths[column];
+		return switch (widths[column]) {
+			case 1 -> buffer.get(position) & 0xFF;
+			case 2 -> buffer.getShort(position);
+			default -> buffer.getInt(position);
+		};
+	}
+
+	/**
+	 * Copies the values of a column.
+	 *
+	 * @param column the index of the column
+	 * @return the values
+	 */
+	public int[] getValues(int column) {
+		int[] values = new int[lengths[column]];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = get(column, i);
+		}
+		return values;
+	}
+
+	/**
+	 * Writes a cache file. The file is written under a temporary name in the same folder, then
+	 * renamed over the cache file at once, so that a cache of the former file that is still
+	 * mapped keeps reading the former content.
+	 *
+	 * @param fileName the path of the cache file
+	 * @param kind the kind of traces
+	 * @param names the name of each column
+	 * @param columns the values of each column
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(String fileName, Kind kind, List<String> names, List<int[]> columns) throws IOException {
+		if (names.size() != columns.size()) {
+			throw new IllegalArgumentException("列名数量 " + names.size() + " 与列数量 " + columns.size() + " 不一致");
+		}
+		int count = names.size();
+		byte[][] encodedNames = new byte[count][];
+		byte[] widths = new byte[count];
+		long position = 11;
+		for (int i = 0; i < count; i++) {
+			encodedNames[i] = names.get(i).getBytes(StandardCharsets.UTF_8);
+			widths[i] = width(columns.get(i));
+			position += 2 + encodedNames[i].length + 9;
+		}
+
+		Path target = Paths.get(fileName).toAbsolutePath();
+		Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeByte(kind.ordinal());
+			out.writeInt(count);
+			for (int i = 0; i < count; i++) {
+				out.writeShort(encodedNames[i].length);
+				out.write(encodedNames[i]);
+				out.writeByte(widths[i]);
+				out.writeInt(columns.get(i).length);
+				out.writeInt((int) position);
+				position += (long) columns.get(i).length * widths[i];
+				if (position > Integer.MAX_VALUE) {
+					throw new IOException("轨迹缓存文件过大：" + fileName);
+				}
+			}
+			for (int i = 0; i < count; i++) {
+				for (int value : columns.get(i)) {
+					switch (widths[i]) {
+						case 1 -> out.writeByte(value);
+						case 2 -> out.writeShort(value);
+						default -> out.writeInt(value);
+					}
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temporary);
+			throw e;
+		}
+		Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		OPENED.remove(new File(fileName).getCanonicalPath());
+	}
+
+	/**
+	 * Gets the smallest width that holds all the values of a column.
+	 */
+	private static byte width(int[] values) {
+		int min = 0;
+		int max = 0;
+		for (int value : values) {
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+		if (min >= 0 && max <= 0xFF) {
+			return 1;
+		} else if (min >= Short.MIN_VALUE && max <= Short.MAX_VALUE) {
+			return 2;
+		}
+		return 4;
+	}
+
+	/**
+	 * Converts a folder of PlanetLab traces, which have a utilization percentage per line, into a
+	 * cache. The traces are stored in the order of their file names, each one in a column named
+	 * after its file.
+	 *
+	 * @param inputFolderName the folder of the traces
+	 * @param outputFileName the path of the cache file
+	 * @throws IOException if a trace cannot be read or the cache written
+	 * @throws NumberFormatException if a line of a trace is not an integer
+	 */
+	public static void convertPlanetLab(String inputFolderName, String outputFileName) throws IOException {
+		File[] files = new File(inputFolderName).listFiles(File::isFile);
+		if (files == null) {
+			throw new FileNotFoundException("PlanetLab 轨迹目录不存在：" + inputFolderName);
+		}
+		Arrays.sort(files);
+
+		List<String> names = new ArrayList<>(files.length);
+		List<int[]> columns = new ArrayList<>(files.length);
+		for (File file : files) {
+			int[] values = new int[288];
+			int length = 0;
+			try (BufferedReader input = new BufferedReader(new FileReader(file))) {
+				String line;
+				while ((line = input.readLine()) != null) {
+					if (length == values.length) {
+						values = Arrays.copyOf(values, length * 2);
+					}
+					values[length++] = Integer.parseInt(line);
+				}
+			}
+			names.add(file.getName());
+			columns.add(Arrays.copyOf(values, length));
+		}
+		write(outputFileName, Kind.UTILIZATION, names, columns);
+	}
+}
@@ -8,14 +8,30 @@
 
 package org.cloudbus.cloudsim.util;
 
-import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -59,6 +75,13 @@ import org.cloudbus.cloudsim.UtilizationModelFull;
  *   <li> {@link #setComment(String)}
  *   <li> {@link #setField(int, int, int, int, int)}
  * </ul>
+ * <p/>
+ * The trace is parsed from its bytes, without decoding its lines into strings. An uncompressed
+ * trace is mapped into memory and, from {@link #setParallelThreshold(long) a given size}, parsed
+ * in chunks by several threads; the entries of a zip file are parsed in parallel as well. Instead
+ * of creating all the cloudlets at once, {@link #stream()} reads them as they are asked for.
+ * A trace that is read many times can be pre-parsed into a {@link TraceCache} with
+ * {@link #writeCache(String)}, and then read from the cache file.
  * 
  * @author Anthony Sulistio
  * @author Marcos Dias de Assuncao
@@ -145,9 +168,25 @@ public class WorkloadFileReader implements WorkloadModel {
     private static final int IRRELEVANT = -1; 
 
     /**
-     * A temp array storing all the fields read from a line of the trace file.
+     * The columns of the jobs in a {@link TraceCache cache file}.
+     */
+    private static final String[] CACHE_COLUMNS = {"id", "submitTime", "runTime", "numProc"};
+
+    /**
+     * The default number of jobs a {@link #stream() stream} reads ahead, to yield them in the
+     * order of their submit times.
      */
-    private String[] fieldArray = null; 
+    public static final int DEFAULT_LOOKAHEAD = 1024;
+
+    /**
+     * The number of threads that parse the trace.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The size (in bytes) from which an uncompressed trace is parsed in parallel.
+     */
+    private long parallelThreshold = 16L << 20;
 
     /**
      * Create a new WorkloadFileReader object.
@@ -192,20 +231,9 @@ public class WorkloadFileReader implements WorkloadModel {
             if (jobs == null) {
                     jobs = new ArrayList<>();
 
-                    // create a temp array
-                    fieldArray = new String[MAX_FIELD];
-
                     try {
-                            /*//@TODO It would be implemented
-                            using specific classes to avoid using ifs.
-                            If a new format is included, the code has to be
-                            changed to include another if*/
-                            if (file.getName().endsWith(".gz")) {
-                                    readGZIPFile(file);
-                            } else if (file.getName().endsWith(".zip")) {
-                                    readZipFile(file);
-                            } else {
-                                    readFile(file);
+                            for (ParsedJobs parsed : readJobs()) {
+                                    addJobs(parsed);
                             }
                     } catch (final IOException e) {
                     }
@@ -214,6 +242,101 @@ public class WorkloadFileReader implements WorkloadModel {
             return jobs;
     }
 
+    /**
+     * Parses the trace file and writes its jobs into a {@link TraceCache cache file}, so that they
+     * can be read again without parsing the trace. A reader of the cache file (whose name ends with
+     * {@link TraceCache#EXTENSION}) generates the same cloudlets as this reader, whatever its
+     * fields are set to.
+     *
+     * @param fileName the path of the cache file
+     * @throws IOException if the trace cannot be read or the cache written
+     */
+    public void writeCache(final String fileName) throws IOException {
+            final List<ParsedJobs> parts = readJobs();
+            int size = 0;
+            for (ParsedJobs parsed : parts) {
+                    size += parsed.size;
+            }
+
+            final int[] ids = new int[size];
+            final int[] submitTimes = new int[size];
+            final int[] runTimes = new int[size];
+            final int[] numProcs = new int[size];
+            int row = 0;
+            for (ParsedJobs parsed : parts) {
+                    for (int i = 0; i < parsed.size; i++, row++) {
+                            ids[row] = JOB_NUM == IRRELEVANT && !parsed.idsGiven ? row + 1 : parsed.ids[i];
+                            submitTimes[row] = (int) parsed.submitTimes[i];
+                            runTimes[row] = parsed.runTimes[i];
+                            numProcs[row] = parsed.numProcs[i];
+                    }
+            }
+            TraceCache.write(fileName, TraceCache.Kind.WORKLOAD, Arrays.asList(CACHE_COLUMNS),
+                            List.of(ids, submitTimes, runTimes, numProcs));
+    }
+
+    /**
+     * Opens a stream over the jobs of the trace file, that reads and creates them as they are
+     * asked for, in the order of their submit times. The jobs that have the same submit time are
+     * yielded in the order of the file.
+     *
+     * @return the stream, reading {@link #DEFAULT_LOOKAHEAD} jobs ahead
+     * @throws IOException if the trace file cannot be opened
+     * @see #stream(int)
+     */
+    public StreamingWorkloadModel stream() throws IOException {
+            return stream(DEFAULT_LOOKAHEAD);
+    }
+
+    /**
+     * Opens a stream over the jobs of the trace file, that reads and creates them as they are
+     * asked for. The standard workload format lists the jobs by submit time; the stream reads a
+     * few jobs ahead so that a trace which is only roughly sorted is yielded in order as well.
+     *
+     * @param lookahead the number of jobs read ahead, 1 to yield the jobs in the order of the file
+     * @return the stream
+     * @throws IOException if the trace file cannot be opened
+     * @throws IllegalArgumentException if the lookahead is not positive
+     */
+    public StreamingWorkloadModel stream(final int lookahead) throws IOException {
+            if (lookahead <= 0) {
+                    throw new IllegalArgumentException("Lookahead must be > 0.");
+            }
+            return new JobStream(lookahead);
+    }
+
+    /**
+     * Sets the number of threads that parse the trace.
+     *
+     * @param parallelism the number of threads, 1 to parse the trace sequentially
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public void setParallelism(final int parallelism) {
+            if (parallelism <= 0) {
+                    throw new IllegalArgumentException("Parallelism must be > 0.");
+            }
+            this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+            return parallelism;
+    }
+
+    /**
+     * Sets the size from which an uncompressed trace is split into chunks parsed in parallel.
+     * Smaller traces are parsed by a single thread, as starting the others would cost more than
+     * it saves.
+     *
+     * @param parallelThreshold the size of the trace file, in bytes
+     */
+    public void setParallelThreshold(final long parallelThreshold) {
+            this.parallelThreshold = parallelThreshold;
+    }
+
+    public long getParallelThreshold() {
+            return parallelThreshold;
+    }
+
     /**
      * Sets the string that identifies the start of a comment line.
      * 
@@ -306,17 +429,14 @@ public class WorkloadFileReader implements WorkloadModel {
     // ------------------- PRIVATE METHODS -------------------
 
     /**
-     * Creates a Cloudlet with the given information and adds to the list of {@link #jobs}.
+     * Creates a Cloudlet with the given information.
      * 
      * @param id a Cloudlet ID
      * @param submitTime Cloudlet's submit time
      * @param runTime The number of seconds the Cloudlet has to run. Considering that 
      * and the {@link #rating}, the {@link Cloudlet#cloudletLength} is computed.
      * @param numProc number of Cloudlet's PEs
-     * @param reqRunTime user estimated run time 
-     * (//@TODO the parameter is not being used and it is not clear what it is)
-     * @param userID user id
-     * @param groupID user's group id
+     * @return the cloudlet
      * @pre id >= 0
      * @pre submitTime >= 0
      * @pre runTime >= 0
@@ -324,18 +444,15 @@ public class WorkloadFileReader implements WorkloadModel {
      * @post $none
      * @see #rating
      */
-    private void createJob(
+    private Cloudlet createJob(
                     final int id,
                     final long submitTime,
                     final int runTime,
-                    final int numProc,
-                    final int reqRunTime,
-                    final int userID,
-                    final int groupID) {
+                    final int numProc) {
             // create the cloudlet
             final int len = runTime * rating;
-            UtilizationModel utilizationModel = new UtilizationModelFull();
-            final Cloudlet wgl = new Cloudlet(
+            UtilizationModel utilizationModel = UtilizationModelFull.INSTANCE;
+            return new Cloudlet(
                             id,
                             len,
                             numProc,
@@ -344,207 +461,723 @@ public class WorkloadFileReader implements WorkloadModel {
                             utilizationModel,
                             utilizationModel,
                             utilizationModel);
-            jobs.add(wgl);
     }
 
     /**
-     * Extracts relevant information from a given array of fields,
-     * representing a line from the trace file, and create a cloudlet 
-     * using this information.
+     * Creates the cloudlets of some parsed jobs and adds them to the list of {@link #jobs}.
      * 
-     * @param array the array of fields generated from a line of the trace file.
-     * @param line the line number
-     * @pre array != null
-     * @pre line > 0
-     * //@TODO The name of the method doesn't describe what it in fact does.
+     * @param parsed the jobs, in the order of the trace file
      */
-    private void extractField(final String[] array, final int line) {
-            try {
-                    Integer obj = null;
-
-                    // get the job number
-                    int id = 0;
-                    if (JOB_NUM == IRRELEVANT) {
-                            id = jobs.size() + 1;
-                    } else {
-                            obj = Integer.valueOf(array[JOB_NUM].trim());
-                            id = obj;
-                    }
-
-                    // get the submit time
-                    final long l = Long.parseLong(array[SUBMIT_TIME].trim());
-                    final long submitTime = (int) l;
-
-                    // get the user estimated run time
-                    obj = Integer.valueOf(array[REQ_RUN_TIME].trim());
-                    final int reqRunTime = obj;
-
-                    // if the required run time field is ignored, then use
-                    // the actual run time
-                    obj = Integer.valueOf(array[RUN_TIME].trim());
-                    int runTime = obj;
+    private void addJobs(final ParsedJobs parsed) {
+            jobs.ensureCapacity(jobs.size() + parsed.size);
+            for (int i = 0; i < parsed.size; i++) {
+                    final int id = JOB_NUM == IRRELEVANT && !parsed.idsGiven ? jobs.size() + 1 : parsed.ids[i];
+                    jobs.add(createJob(id, parsed.submitTimes[i], parsed.runTimes[i], parsed.numProcs[i]));
+            }
+    }
 
-                    final int userID = Integer.parseInt(array[USER_ID].trim());
-                    final int groupID = Integer.parseInt(array[GROUP_ID].trim());
+    /**
+     * Reads the jobs of the trace file, according to its format.
+     * 
+     * @return the jobs, in parts following the order of the file
+     * @throws IOException if the there was any error reading the file
+     */
+    private List<ParsedJobs> readJobs() throws IOException {
+            /*//@TODO It would be implemented
+            using specific classes to avoid using ifs.
+            If a new format is included, the code has to be
+            changed to include another if*/
+            if (file.getName().endsWith(".gz")) {
+                    return readGZIPFile(file);
+            } else if (file.getName().endsWith(".zip")) {
+                    return readZipFile(file);
+            } else if (TraceCache.isCache(file.getName())) {
+                    return readCache(file);
+            } else {
+                    return readFile(file);
+            }
+    }
 
-                    // according to the SWF manual, runtime of 0 is possible due
-                    // to rounding down. E.g. runtime is 0.4 seconds -> runtime = 0
-                    if (runTime <= 0) {
-                            runTime = 1; // change to 1 second
+    /**
+     * Parses all the lines of a reader.
+     * 
+     * @param reader the reader, which is closed afterwards
+     * @return the jobs of the lines
+     * @throws IOException if the there was any error reading the lines
+     */
+    private ParsedJobs parse(final LineReader reader) throws IOException {
+            final JobParser parser = new JobParser();
+            final ParsedJobs parsed = new ParsedJobs();
+            try (reader) {
+                    while (reader.nextLine()) {
+                            if (parser.parse(reader.buffer, reader.lineStart, reader.lineEnd)) {
+                                    parsed.add(parser.id, parser.submitTime, parser.runTime, parser.numProc);
+                            }
                     }
+            }
+            return parsed;
+    }
 
-                    // get the number of allocated processors
-                    obj = Integer.valueOf(array[REQ_NUM_PROC].trim());
-                    int numProc = obj;
-
-                    // if the required num of allocated processors field is ignored
-                    // or zero, then use the actual field
-                    if (numProc == IRRELEVANT || numProc == 0) {
-                            obj = Integer.valueOf(array[NUM_PROC].trim());
-                            numProc = obj;
+    /**
+     * Runs parsing tasks, in parallel if there are several of them.
+     * 
+     * @param tasks the parsing tasks
+     * @return the jobs parsed by each task, in the order of the tasks
+     * @throws IOException if a task failed to read its part of the trace
+     */
+    private List<ParsedJobs> parseAll(final List<Callable<ParsedJobs>> tasks) throws IOException {
+            final List<ParsedJobs> results = new ArrayList<>(tasks.size());
+            if (tasks.size() == 1 || parallelism == 1) {
+                    for (Callable<ParsedJobs> task : tasks) {
+                            results.add(call(task));
                     }
+                    return results;
+            }
 
-                    // finally, check if the num of PEs required is valid or not
-                    if (numProc <= 0) {
-                            numProc = 1;
+            final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, tasks.size()), r -> {
+                    Thread thread = new Thread(r, "CloudSim-workload");
+                    thread.setDaemon(true);
+                    return thread;
+            });
+            try {
+                    for (Future<ParsedJobs> future : executor.invokeAll(tasks)) {
+                            results.add(future.get());
                     }
-                    createJob(id, submitTime, runTime, numProc, reqRunTime, userID, groupID);
+                    return results;
+            } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while reading the workload trace");
+            } catch (final ExecutionException e) {
+                    throw asIOException(e.getCause());
+            } finally {
+                    executor.shutdownNow();
+            }
+    }
+
+    private static ParsedJobs call(final Callable<ParsedJobs> task) throws IOException {
+            try {
+                    return task.call();
             } catch (final Exception e) {
+                    throw asIOException(e);
+            }
+    }
 
+    private static IOException asIOException(final Throwable e) {
+            if (e instanceof IOException ioException) {
+                    return ioException;
+            } else if (e instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
             }
+            return new IOException(e);
     }
 
     /**
-     * Breaks a line from the trace file into many fields into the
-     * {@link #fieldArray}.
+     * Reads traces from a text file. The file is mapped into memory and, if it is larger
+     * than the {@link #parallelThreshold}, split at line boundaries into chunks that are
+     * parsed in parallel.
      * 
-     * @param line a line from the trace file
-     * @param lineNum the line number
-     * @pre line != null
-     * @pre lineNum > 0
-     * @post $none
+     * @param fl a file name
+     * @return the jobs of each chunk
+     * @throws IOException if the there was any error reading the file
      */
-    private void parseValue(final String line, final int lineNum) {
-            // skip a comment line
-            if (line.startsWith(COMMENT)) {
-                    return;
+    private List<ParsedJobs> readFile(final File fl) throws IOException {
+            try (FileChannel channel = FileChannel.open(fl.toPath(), StandardOpenOption.READ)) {
+                    final long size = channel.size();
+                    final int chunks = size < parallelThreshold ? 1 : parallelism;
+                    final List<Callable<ParsedJobs>> tasks = new ArrayList<>(chunks);
+                    long start = 0;
+                    for (int i = 1; i <= chunks; i++) {
+                            final long chunkStart = start;
+                            final long chunkEnd = i == chunks ? size
+                                    : Math.max(start, nextLineStart(channel, size * i / chunks, size));
+                            tasks.add(() -> parse(new LineReader(channel, chunkStart, chunkEnd, null)));
+                            start = chunkEnd;
+                    }
+                    return parseAll(tasks);
             }
+    }
 
-            final String[] sp = line.split("\\s+"); // split the fields based on a
-            // space
-            int len = 0; // length of a string
-            int index = 0; // the index of an array
+    /**
+     * Finds the start of the line following a position of a file.
+     * 
+     * @param channel the file
+     * @param position the position
+     * @param end the end of the file
+     * @return the position following the first line terminator from the given one, or the end of the file
+     * @throws IOException if the there was any error reading the file
+     */
+    private static long nextLineStart(final FileChannel channel, long position, final long end) throws IOException {
+            final ByteBuffer buffer = ByteBuffer.allocate(4096);
+            while (position < end) {
+                    buffer.clear();
+                    final int read = channel.read(buffer, position);
+                    if (read <= 0) {
+                            break;
+                    }
+                    for (int i = 0; i < read; i++) {
+                            if (LineReader.isLineEnd(buffer.get(i))) {
+                                    return position + i + 1;
+                            }
+                    }
+                    position += read;
+            }
+            return end;
+    }
 
-            // check for each field in the array
-            for (final String elem : sp) {
-                    len = elem.length(); // get the length of a string
+    /**
+     * Reads traces from a gzip file, one line at a time.
+     * 
+     * @param fl a gzip file name
+     * @return the jobs of the file
+     * @throws IOException if the there was any error reading the file
+     */
+    private List<ParsedJobs> readGZIPFile(final File fl) throws IOException {
+            return List.of(parse(new LineReader(new GZIPInputStream(new FileInputStream(fl)))));
+    }
 
-                    // if it is empty then ignore
-                    if (len == 0) {
-                            continue;
+    /**
+     * Reads traces from a Zip file, its entries being parsed in parallel.
+     * 
+     * @param fl a zip file name
+     * @return the jobs of each entry
+     * @throws IOException if the there was any error reading the file
+     */
+    private List<ParsedJobs> readZipFile(final File fl) throws IOException {
+            try (ZipFile zipFile = new ZipFile(fl)) {
+                    final List<Callable<ParsedJobs>> tasks = new ArrayList<>();
+                    final Enumeration<? extends ZipEntry> e = zipFile.entries();
+                    while (e.hasMoreElements()) {
+                            final ZipEntry zipEntry = e.nextElement();
+                            tasks.add(() -> parse(new LineReader(zipFile.getInputStream(zipEntry))));
                     }
-                    fieldArray[index] = elem;
-                    index++;
+                    return parseAll(tasks);
             }
+    }
 
-            if (index == MAX_FIELD) {
-                    extractField(fieldArray, lineNum);
+    /**
+     * Reads the jobs of a {@link TraceCache cache file}, without parsing them.
+     * 
+     * @param fl a cache file name
+     * @return the jobs of the file
+     * @throws IOException if the file is not a workload cache, or cannot be read
+     */
+    private List<ParsedJobs> readCache(final File fl) throws IOException {
+            final TraceCache cache = TraceCache.open(fl.getPath());
+            final int[] columns = getCacheColumns(cache, fl);
+            final ParsedJobs parsed = new ParsedJobs();
+            parsed.idsGiven = true;
+            for (int row = 0; row < cache.getLength(columns[0]); row++) {
+                    parsed.add(cache.get(columns[0], row), cache.get(columns[1], row),
+                                    cache.get(columns[2], row), cache.get(columns[3], row));
             }
+            return List.of(parsed);
     }
 
     /**
-     * Reads traces from a text file, one line at a time.
+     * Gets the columns of the jobs in a cache file.
      * 
-     * @param fl a file name
-     * @return <code>true</code> if successful, <code>false</code> otherwise.
-     * @throws IOException if the there was any error reading the file
-     * @throws FileNotFoundException if the file was not found
+     * @param cache the cache
+     * @param fl the cache file name
+     * @return the index of each of the {@link #CACHE_COLUMNS}
+     * @throws IOException if the cache is not a workload cache
      */
-    private boolean readFile(final File fl) throws IOException, FileNotFoundException {
-            boolean success = false;
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(fl)))) {
+    private static int[] getCacheColumns(final TraceCache cache, final File fl) throws IOException {
+            if (cache.getKind() != TraceCache.Kind.WORKLOAD) {
+                    throw new IOException("Not a workload cache: " + fl);
+            }
+            final int[] columns = new int[CACHE_COLUMNS.length];
+            for (int i = 0; i < columns.length; i++) {
+                    columns[i] = cache.getColumn(CACHE_COLUMNS[i]);
+                    if (columns[i] < 0 || cache.getLength(columns[i]) != cache.getLength(columns[0])) {
+                            throw new IOException("Invalid column " + CACHE_COLUMNS[i] + " in workload cache: " + fl);
+                    }
+            }
+            return columns;
+    }
+
+    /**
+     * Reads the lines of a trace as ranges of a byte buffer, without decoding them. A part of
+     * an uncompressed trace is mapped into memory, a compressed one is read through a stream.
+     * Both "\n" and "\r" end a line, so that "\r\n" is followed by an empty line.
+     */
+    private static final class LineReader implements Closeable {
 
-            // read one line at the time
-            int line = 1;
-            String readLine = null;
-            while (reader.ready() && (readLine = reader.readLine()) != null) {
-                parseValue(readLine, line);
-                line++;
+        /** The initial size of the buffer of a stream. */
+        private static final int STREAM_BUFFER_SIZE = 1 << 16;
+
+        /** The size of the regions of a file mapped at once. */
+        private static final long MAP_SIZE = 1L << 28;
+
+        /** The stream that is read, or null if a file is mapped. */
+        private final InputStream in;
+
+        /** The file that is mapped, or null if a stream is read. */
+        private final FileChannel channel;
+
+        /** The end of the mapped part of the file. */
+        private final long end;
+
+        /** What is closed with the reader. */
+        private final Closeable resource;
+
+        /** The position in the file of the mapped region. */
+        private long mapStart;
+
+        /** The bytes read. */
+        private ByteBuffer buffer;
+
+        /** The index of the next byte to read in the buffer. */
+        private int position;
+
+        /** The number of bytes in the buffer. */
+        private int limit;
+
+        /** Whether all the bytes were read into the buffer. */
+        private boolean eof;
+
+        /** The index of the first byte of the current line. */
+        private int lineStart;
+
+        /** The index following the last byte of the current line. */
+        private int lineEnd;
+
+        LineReader(final InputStream in) {
+            this.in = in;
+            this.channel = null;
+            this.end = 0;
+            this.resource = in;
+            this.buffer = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+        }
+
+        LineReader(final FileChannel channel, final long start, final long end, final Closeable resource) {
+            this.in = null;
+            this.channel = channel;
+            this.end = end;
+            this.resource = resource;
+            this.mapStart = start;
+            this.buffer = ByteBuffer.allocate(0);
+        }
+
+        static boolean isLineEnd(final byte b) {
+            return b == '\n' || b == '\r';
+        }
+
+        /**
+         * Moves to the next line.
+         * 
+         * @return true if there is a line, which is then in [{@link #lineStart}, {@link #lineEnd})
+         * @throws IOException if the there was any error reading the line
+         */
+        boolean nextLine() throws IOException {
+            int from = position;
+            while (true) {
+                for (int i = from; i < limit; i++) {
+                    if (isLineEnd(buffer.get(i))) {
+                        lineStart = position;
+                        lineEnd = i;
+                        position = i + 1;
+                        return true;
+                    }
+                }
+                final int scanned = limit - position;
+                if (!fill()) {
+                    if (position < limit) {
+                        lineStart = position;
+                        lineEnd = limit;
+                        position = limit;
+                        return true;
+                    }
+                    return false;
+                }
+                from = position + scanned;
             }
+        }
 
-            reader.close();
-            success = true;
+        /**
+         * Reads more bytes into the buffer, keeping the unread ones at its start.
+         * 
+         * @return false if there is no byte left
+         */
+        private boolean fill() throws IOException {
+            if (eof) {
+                return false;
+            }
+            final int remaining = limit - position;
+            if (in != null) {
+                byte[] array = buffer.array();
+                if (remaining == array.length) {
+                    array = Arrays.copyOf(array, array.length * 2);
+                    buffer = ByteBuffer.wrap(array);
+                } else {
+                    System.arraycopy(array, position, array, 0, remaining);
+                }
+                position = 0;
+                limit = remaining;
+                final int read = in.read(array, limit, array.length - limit);
+                if (read < 0) {
+                    eof = true;
+                    return false;
+                }
+                limit += read;
+                return true;
+            }
+
+            final long start = mapStart + position;
+            final long size = Math.min(end - start, Math.min(Integer.MAX_VALUE, Math.max(MAP_SIZE, 2L * remaining)));
+            if (size <= remaining) {
+                eof = true;
+                return false;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+            mapStart = start;
+            position = 0;
+            limit = (int) size;
+            return true;
         }
 
-            return success;
+        @Override
+        public void close() throws IOException {
+            if (resource != null) {
+                resource.close();
+            }
+        }
     }
 
     /**
-     * Reads traces from a gzip file, one line at a time.
-     * 
-     * @param fl a gzip file name
-     * @return <code>true</code> if successful; <code>false</code> otherwise.
-     * @throws IOException if the there was any error reading the file
-     * @throws FileNotFoundException if the file was not found
+     * Parses the lines of a trace, splitting them into fields on white spaces as in the
+     * standard workload format, and reading the fields of a job as integers. A line is
+     * skipped if it is a comment, has not exactly {@link #MAX_FIELD} fields, or one of
+     * the fields of the job is not an integer.
      */
-    private boolean readGZIPFile(final File fl) throws IOException, FileNotFoundException {
-            boolean success = false;
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(fl))))) {
+    private final class JobParser {
+
+        /** The bytes that start a comment line. */
+        private final byte[] comment = COMMENT.getBytes(Charset.defaultCharset());
+
+        /** The number of fields of a line. */
+        private final int maxField = MAX_FIELD;
+
+        /** The index of the first byte of each field of the line. */
+        private final int[] starts = new int[MAX_FIELD];
 
-            // read one line at the time
-            int line = 1;
-            String readLine = null;
-            while (reader.ready() && (readLine = reader.readLine()) != null) {
-                parseValue(readLine, line);
-                line++;
+        /** The index following the last byte of each field of the line. */
+        private final int[] ends = new int[MAX_FIELD];
+
+        /** The line being parsed. */
+        private ByteBuffer buffer;
+
+        /** The job number, 0 if it is not read from the trace. */
+        private int id;
+
+        /** The submit time of the job. */
+        private long submitTime;
+
+        /** The run time of the job. */
+        private int runTime;
+
+        /** The number of processors of the job. */
+        private int numProc;
+
+        /**
+         * Parses a line.
+         * 
+         * @param buffer the bytes read
+         * @param start the index of the first byte of the line
+         * @param end the index following the last byte of the line
+         * @return true if the line is a job, whose fields are then kept by the parser
+         */
+        boolean parse(final ByteBuffer buffer, final int start, final int end) {
+            if (isComment(buffer, start, end)) {
+                return false;
             }
 
-            reader.close();
-            success = true;
+            int count = 0;
+            int i = start;
+            while (i < end) {
+                while (i < end && isSpace(buffer.get(i))) {
+                    i++;
+                }
+                if (i == end) {
+                    break;
+                }
+                if (count == maxField) {
+                    return false;
+                }
+                starts[count] = i;
+                while (i < end && !isSpace(buffer.get(i))) {
+                    i++;
+                }
+                ends[count++] = i;
+            }
+            if (count != maxField) {
+                return false;
+            }
+
+            this.buffer = buffer;
+            try {
+                id = JOB_NUM == IRRELEVANT ? 0 : parseInt(JOB_NUM);
+                submitTime = (int) parseLong(SUBMIT_TIME);
+
+                // the user estimated run time, the user and the group are not used,
+                // but the line is skipped if they are invalid
+                parseInt(REQ_RUN_TIME);
+                runTime = parseInt(RUN_TIME);
+                parseInt(USER_ID);
+                parseInt(GROUP_ID);
+
+                // according to the SWF manual, runtime of 0 is possible due
+                // to rounding down. E.g. runtime is 0.4 seconds -> runtime = 0
+                if (runTime <= 0) {
+                    runTime = 1; // change to 1 second
+                }
+
+                // if the required num of allocated processors field is ignored
+                // or zero, then use the actual field
+                numProc = parseInt(REQ_NUM_PROC);
+                if (numProc == IRRELEVANT || numProc == 0) {
+                    numProc = parseInt(NUM_PROC);
+                }
+
+                // finally, check if the num of PEs required is valid or not
+                if (numProc <= 0) {
+                    numProc = 1;
+                }
+                return true;
+            } catch (final NumberFormatException | IndexOutOfBoundsException e) {
+                return false;
+            }
         }
 
-            return success;
+        private boolean isComment(final ByteBuffer buffer, final int start, final int end) {
+            if (end - start < comment.length) {
+                return false;
+            }
+            for (int i = 0; i < comment.length; i++) {
+                if (buffer.get(start + i) != comment[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isSpace(final byte b) {
+            return b == ' ' || b == '\t' || b == 0x0B || b == '\f';
+        }
+
+        private int parseInt(final int field) {
+            final long value = parseLong(field);
+            if (value != (int) value) {
+                throw new NumberFormatException("Value out of range");
+            }
+            return (int) value;
+        }
+
+        /**
+         * Parses a field as {@link Long#parseLong(String)} does, without creating a string.
+         */
+        private long parseLong(final int field) {
+            int i = starts[field];
+            final int end = ends[field];
+            final byte sign = buffer.get(i);
+            if (sign == '-' || sign == '+') {
+                i++;
+            }
+            if (i == end) {
+                throw new NumberFormatException("No digit");
+            }
+            if (end - i > 18) {
+                // may overflow
+                final byte[] bytes = new byte[end - starts[field]];
+                buffer.get(starts[field], bytes);
+                return Long.parseLong(new String(bytes, Charset.defaultCharset()));
+            }
+            long value = 0;
+            for (; i < end; i++) {
+                final int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new NumberFormatException("Not a digit");
+                }
+                value = value * 10 + digit;
+            }
+            return sign == '-' ? -value : value;
+        }
+    }
+
+    /**
+     * The jobs parsed from (a part of) a trace, in the order of the file, kept in primitive
+     * columns until their cloudlets are created.
+     */
+    private static final class ParsedJobs {
+
+        private long[] submitTimes = new long[64];
+
+        private int[] ids = new int[64];
+
+        private int[] runTimes = new int[64];
+
+        private int[] numProcs = new int[64];
+
+        private int size;
+
+        /** Whether the IDs are given, rather than generated from the order of the jobs. */
+        private boolean idsGiven;
+
+        void add(final int id, final long submitTime, final int runTime, final int numProc) {
+            if (size == ids.length) {
+                submitTimes = Arrays.copyOf(submitTimes, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+                runTimes = Arrays.copyOf(runTimes, size * 2);
+                numProcs = Arrays.copyOf(numProcs, size * 2);
+            }
+            submitTimes[size] = submitTime;
+            ids[size] = id;
+            runTimes[size] = runTime;
+            numProcs[size] = numProc;
+            size++;
+        }
     }
 
     /**
-     * Reads traces from a Zip file, one line at a time.
+     * A job read ahead by a stream.
      * 
-     * @param fl a zip file name
-     * @return <code>true</code> if reading a file is successful; <code>false</code> otherwise.
-     * @throws IOException if the there was any error reading the file
+     * @param submitTime the submit time of the job
+     * @param sequence the number of the job in the trace file
+     * @param id the cloudlet ID
+     * @param runTime the run time of the job
+     * @param numProc the number of processors of the job
      */
-    private boolean readZipFile(final File fl) throws IOException {
-            boolean success = false;
-            ZipFile zipFile = null;
-            try {
-                    BufferedReader reader = null;
+    private record Job(long submitTime, long sequence, int id, int runTime, int numProc) {
+    }
 
-                    // ZipFile offers an Enumeration of all the files in the file
-                    zipFile = new ZipFile(fl);
-                    final Enumeration<? extends ZipEntry> e = zipFile.entries();
-                    while (e.hasMoreElements()) {
-                            success = false; // reset the value again
-                            final ZipEntry zipEntry = e.nextElement();
+    /**
+     * Reads the jobs of the trace file as they are asked for. It keeps the next jobs in a heap
+     * ordered by submit time, and reads a new one each time one is taken.
+     */
+    private final class JobStream implements StreamingWorkloadModel {
 
-                            reader = new BufferedReader(new InputStreamReader(zipFile.getInputStream(zipEntry)));
+        private final JobParser parser = new JobParser();
 
-                            // read one line at the time
-                            int line = 1;                       
-                            String readLine = null;
-                            while (reader.ready() && (readLine = reader.readLine()) != null)  {
-                                    parseValue(readLine, line);
-                                    line++;
-                            }
+        /** The jobs read ahead. */
+        private final PriorityQueue<Job> pending;
 
-                            reader.close();
-                            success = true;
+        /** The number of jobs read ahead. */
+        private final int lookahead;
+
+        /** The zip file being read, or null if it is not a zip file. */
+        private ZipFile zipFile;
+
+        /** The entries of the zip file left to read. */
+        private Enumeration<? extends ZipEntry> entries;
+
+        /** The reader of the trace, or of the current zip entry. */
+        private LineReader reader;
+
+        /** The cache being read, or null if it is not a cache file. */
+        private TraceCache cache;
+
+        /** The columns of the jobs in the cache. */
+        private int[] cacheColumns;
+
+        /** The number of jobs read. */
+        private long read;
+
+        JobStream(final int lookahead) throws IOException {
+            this.lookahead = lookahead;
+            pending = new PriorityQueue<>(Math.min(lookahead, DEFAULT_LOOKAHEAD) + 1,
+                    Comparator.comparingLong(Job::submitTime).thenComparingLong(Job::sequence));
+            if (file.getName().endsWith(".gz")) {
+                reader = new LineReader(new GZIPInputStream(new FileInputStream(file)));
+            } else if (file.getName().endsWith(".zip")) {
+                zipFile = new ZipFile(file);
+                entries = zipFile.entries();
+            } else if (TraceCache.isCache(file.getName())) {
+                cache = TraceCache.open(file.getPath());
+                cacheColumns = getCacheColumns(cache, file);
+            } else {
+                final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                reader = new LineReader(channel, 0, channel.size(), channel);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (pending.size() < lookahead && readJob()) {
+                    // read ahead
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public Cloudlet next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Job job = pending.poll();
+            return createJob(job.id(), job.submitTime(), job.runTime(), job.numProc());
+        }
+
+        @Override
+        public double getNextSubmitTime() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pending.peek().submitTime();
+        }
+
+        /**
+         * Reads the next job of the trace into the {@link #pending} ones.
+         * 
+         * @return false if there is no job left, the trace being closed
+         */
+        private boolean readJob() throws IOException {
+            if (cache != null) {
+                if (read == cache.getLength(cacheColumns[0])) {
+                    return false;
+                }
+                final int row = (int) read++;
+                pending.add(new Job(cache.get(cacheColumns[1], row), read, cache.get(cacheColumns[0], row),
+                        cache.get(cacheColumns[2], row), cache.get(cacheColumns[3], row)));
+                return true;
+            }
+            while (true) {
+                if (reader == null) {
+                    if (entries == null || !entries.hasMoreElements()) {
+                        close();
+                        return false;
                     }
-            } finally {
-                    if (zipFile != null) {
-                            zipFile.close();
+                    reader = new LineReader(zipFile.getInputStream(entries.nextElement()));
+                }
+                while (reader.nextLine()) {
+                    if (parser.parse(reader.buffer, reader.lineStart, reader.lineEnd)) {
+                        read++;
+                        final int id = JOB_NUM == IRRELEVANT ? (int) read : parser.id;
+                        pending.add(new Job(parser.submitTime, read, id, parser.runTime, parser.numProc));
+                        return true;
                     }
+                }
+                reader.close();
+                reader = null;
             }
+        }
 
-            return success;
+        @Override
+        public void close() throws IOException {
+            try {
+                if (reader != null) {
+                    reader.close();
+                }
+            } finally {
+                reader = null;
+                entries = null;
+                if (zipFile != null) {
+                    zipFile.close();
+                    zipFile = null;
+                }
+            }
+        }
     }
 }
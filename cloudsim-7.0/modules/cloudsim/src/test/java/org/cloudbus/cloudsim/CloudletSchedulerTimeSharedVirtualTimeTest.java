@@ -0,0 +1,138 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the virtual time scheduler shares the PEs as a time-shared scheduler.
+ */
+public class CloudletSchedulerTimeSharedVirtualTimeTest {
+
+	private static final double MIPS = 1000;
+
+	private CloudletSchedulerTimeSharedVirtualTime scheduler;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		scheduler = new CloudletSchedulerTimeSharedVirtualTime();
+	}
+
+	@Test
+	public void testUpdateCloudletsProcessing() {
+		Cloudlet cloudlet0 = createCloudlet(0, 1000);
+		Cloudlet cloudlet1 = createCloudlet(1, 3000);
+		scheduler.cloudletSubmit(cloudlet0);
+		scheduler.cloudletSubmit(cloudlet1);
+
+		// both cloudlets share the PE: the first one finishes after 2 seconds
+		assertEquals(2.0, scheduler.updateCloudletsProcessing(0, mipsShare()), 1e-9);
+		assertEquals(MIPS / 2, scheduler.getCurrentCapacity(), 0);
+
+		// the second one then runs alone for its last 2000 MI
+		assertEquals(4.0, scheduler.updateCloudletsProcessing(2.0, mipsShare()), 1e-9);
+		assertEquals(Cloudlet.CloudletStatus.SUCCESS, cloudlet0.getStatus());
+		assertSame(cloudlet0, scheduler.getNextFinishedCloudlet());
+		assertEquals(1, scheduler.runningCloudlets());
+		assertEquals(MIPS, scheduler.getCurrentCapacity(), 0);
+
+		assertEquals(0.0, scheduler.updateCloudletsProcessing(4.0, mipsShare()), 0);
+		assertEquals(Cloudlet.CloudletStatus.SUCCESS, cloudlet1.getStatus());
+		assertEquals(0, scheduler.runningCloudlets());
+	}
+
+	@Test
+	public void testPauseAndResume() {
+		Cloudlet cloudlet = createCloudlet(0, 3000);
+		scheduler.cloudletSubmit(cloudlet);
+		scheduler.updateCloudletsProcessing(0, mipsShare());
+		scheduler.updateCloudletsProcessing(1.0, mipsShare());
+
+		assertEquals(3000, cloudlet.getRemainingCloudletLength());
+		scheduler.updateCloudletsFinishedSoFar();
+		assertEquals(2000, cloudlet.getRemainingCloudletLength());
+
+		assertTrue(scheduler.cloudletPause(0));
+		assertEquals(Cloudlet.CloudletStatus.PAUSED, cloudlet.getStatus());
+		assertEquals(0, scheduler.runningCloudlets());
+		// the paused cloudlet makes no progress
+		scheduler.updateCloudletsProcessing(5.0, mipsShare());
+		assertEquals(2000, cloudlet.getRemainingCloudletLength());
+
+		scheduler.cloudletResume(0);
+		assertEquals(7.0, scheduler.updateCloudletsProcessing(5.0, mipsShare()), 1e-9);
+		assertEquals(0.0, scheduler.updateCloudletsProcessing(7.0, mipsShare()), 0);
+		assertEquals(Cloudlet.CloudletStatus.SUCCESS, cloudlet.getStatus());
+	}
+
+	@Test
+	public void testCancel() {
+		Cloudlet cloudlet0 = createCloudlet(0, 1000);
+		Cloudlet cloudlet1 = createCloudlet(1, 1000);
+		scheduler.cloudletSubmit(cloudlet0);
+		scheduler.cloudletSubmit(cloudlet1);
+		scheduler.updateCloudletsProcessing(0, mipsShare());
+		scheduler.updateCloudletsProcessing(1.0, mipsShare());
+
+		assertSame(cloudlet0, scheduler.cloudletCancel(0));
+		assertEquals(Cloudlet.CloudletStatus.CANCELED, cloudlet0.getStatus());
+		assertEquals(500, cloudlet0.getRemainingCloudletLength());
+
+		// the remaining cloudlet gets the whole PE
+		assertEquals(1.5, scheduler.updateCloudletsProcessing(1.0, mipsShare()), 1e-9);
+	}
+
+	@Test
+	public void testFinishTimesInSimulation() throws Exception {
+		SimulationFixture.init();
+		SimulationFixture.createDatacenter(List.of(SimulationFixture.createHost(0, 1, MIPS)));
+
+		DatacenterBroker broker = new DatacenterBroker("Broker");
+		List<Vm> vmList = new ArrayList<>();
+		vmList.add(new Vm(0, broker.getId(), MIPS, 1, 512, 1000, 10000, "Xen", scheduler));
+		List<Cloudlet> cloudletList = new ArrayList<>();
+		UtilizationModel model = new UtilizationModelFull();
+		for (int i = 0; i < 3; i++) {
+			Cloudlet cloudlet = new Cloudlet(i, 1000 * (i + 1), 1, 300, 300, model, model, model);
+			cloudlet.setUserId(broker.getId());
+			cloudletList.add(cloudlet);
+		}
+		broker.submitGuestList(vmList);
+		broker.submitCloudletList(cloudletList);
+
+		SimulationFixture.run();
+
+		// three cloudlets share the PE until the first finishes, then two, then one
+		double[] expectedCpuTimes = {3.0, 5.0, 6.0};
+		for (int i = 0; i < 3; i++) {
+			Cloudlet cloudlet = cloudletList.get(i);
+			assertEquals(Cloudlet.CloudletStatus.SUCCESS, cloudlet.getStatus());
+			assertEquals(expectedCpuTimes[i], cloudlet.getExecFinishTime() - cloudlet.getExecStartTime(), 1e-6);
+		}
+	}
+
+	private static Cloudlet createCloudlet(int id, long length) {
+		UtilizationModel model = new UtilizationModelFull();
+		Cloudlet cloudlet = new Cloudlet(id, length, 1, 300, 300, model, model, model);
+		cloudlet.setResourceParameter(0, 0, 0);
+		return cloudlet;
+	}
+
+	private static List<Double> mipsShare() {
+		List<Double> mipsShare = new ArrayList<>();
+		mipsShare.add(MIPS);
+		return mipsShare;
+	}
+}
@@ -12,13 +12,15 @@ c) 2009-2010, The University of Melbourne, Australia
 package org.cloudbus.cloudsim;
 
 
+import org.cloudbus.cloudsim.core.CloudSim;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Calendar;
 import java.util.LinkedList;
+import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * @author		Anton Beloglazov
@@ -94,4 +96,97 @@ public class CloudletTest {
 		testGetUtilizationOfBw();
 	}
 
+	@Test
+	public void testResources() {
+		assertEquals(-1, cloudlet.getResourceId());
+		assertNull(cloudlet.getAllResourceId());
+		assertEquals(0, cloudlet.getCloudletFinishedSoFar());
+
+		cloudlet.setResourceParameter(3, 1.0);
+		cloudlet.setCloudletFinishedSoFar(100);
+		cloudlet.setResourceParameter(4, 2.0);
+		cloudlet.setCloudletFinishedSoFar(200);
+
+		assertEquals(4, cloudlet.getResourceId());
+		assertArrayEquals(new int[] {3, 4}, cloudlet.getAllResourceId());
+		assertEquals(2.0, cloudlet.getCostPerSec(), 0);
+		assertEquals(1.0, cloudlet.getCostPerSec(3), 0);
+		assertEquals(100, cloudlet.getCloudletFinishedSoFar(3));
+		assertEquals(200, cloudlet.getCloudletFinishedSoFar());
+		assertNull(cloudlet.getResourceById(5));
+	}
+
+	@Test
+	public void testRequiredFiles() {
+		assertTrue(cloudlet.getRequiredFiles().isEmpty());
+		assertFalse(cloudlet.requiresFiles());
+		assertFalse(cloudlet.deleteRequiredFile("file"));
+
+		assertFalse(cloudlet.addRequiredFile("file"));
+		assertTrue(cloudlet.addRequiredFile("file"));
+		assertEquals(List.of("file"), cloudlet.getRequiredFiles());
+		assertTrue(cloudlet.deleteRequiredFile("file"));
+		assertFalse(cloudlet.requiresFiles());
+
+		// the list is modifiable even before a file has been added
+		Cloudlet other = new Cloudlet(1, CLOUDLET_LENGTH, PES_NUMBER, CLOUDLET_FILE_SIZE, CLOUDLET_OUTPUT_SIZE,
+				utilizationModelCpu, utilizationModelRam, utilizationModelBw);
+		assertFalse(other.requiresFiles());
+		other.getRequiredFiles().add("file");
+		assertTrue(other.requiresFiles());
+		assertEquals(List.of("file"), other.getRequiredFiles());
+	}
+
+	@Test
+	public void testUid() {
+		assertEquals("-1-0", cloudlet.getUid());
+		cloudlet.setUserId(2);
+		assertEquals("2-0", cloudlet.getUid());
+	}
+
+	@Test
+	public void testHistory() {
+		CloudSim.init(1, Calendar.getInstance(), false);
+		String newline = System.getProperty("line.separator");
+		Cloudlet recorded = new Cloudlet(1, CLOUDLET_LENGTH, PES_NUMBER, CLOUDLET_FILE_SIZE, CLOUDLET_OUTPUT_SIZE,
+				utilizationModelCpu, utilizationModelRam, utilizationModelBw, true);
+		Cloudlet other = new Cloudlet(2, CLOUDLET_LENGTH, PES_NUMBER, CLOUDLET_FILE_SIZE, CLOUDLET_OUTPUT_SIZE,
+				utilizationModelCpu, utilizationModelRam, utilizationModelBw, true);
+
+		recorded.setExecStartTime(1.5);
+		other.setExecStartTime(2);
+		cloudlet.setExecStartTime(3);
+		recorded.setExecStartTime(2.125);
+
+		assertEquals("Time below denotes the simulation time." + newline
+				+ "Time (sec)       Description Cloudlet #1" + newline
+				+ "------------------------------------------" + newline
+				+ "0.00   Creates Cloudlet ID #1" + newline
+				+ "0.00   Sets the execution start time to 1.50" + newline
+				+ "0.00   Sets the execution start time to 2.125" + newline,
+				recorded.getCloudletHistory());
+		assertTrue(other.getCloudletHistory().endsWith("0.00   Sets the execution start time to 2.00" + newline));
+		assertEquals("No history is recorded for Cloudlet #0", cloudlet.getCloudletHistory());
+		assertEquals(3, CloudSim.getSimulationContext().getCloudletHistory().size());
+	}
+
+	@Test
+	public void testHistoryOutsideOfItsSimulation() throws Exception {
+		CloudSim.init(1, Calendar.getInstance(), false);
+		Cloudlet recorded = new Cloudlet(1, CLOUDLET_LENGTH, PES_NUMBER, CLOUDLET_FILE_SIZE, CLOUDLET_OUTPUT_SIZE,
+				utilizationModelCpu, utilizationModelRam, utilizationModelBw, true);
+		recorded.setExecStartTime(1.5);
+		String history = recorded.getCloudletHistory();
+		assertTrue(history.endsWith("0.00   Sets the execution start time to 1.50" + System.getProperty("line.separator")));
+
+		String[] read = new String[1];
+		Thread thread = new Thread(() -> read[0] = recorded.getCloudletHistory());
+		thread.start();
+		thread.join();
+		assertEquals(history, read[0]);
+
+		CloudSim.init(1, Calendar.getInstance(), false);
+		assertEquals(history, recorded.getCloudletHistory());
+	}
+
 }
@@ -0,0 +1,130 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that submitting the cloudlets in batches runs them as submitting them one by one.
+ */
+public class DatacenterBrokerTest {
+
+	private static final int CLOUDLETS = 40;
+
+	private static final int HOSTS = 3;
+
+	private static final int VMS = 4;
+
+	/** The number of host updates at each simulation time, filled by the hosts of the run. */
+	private Map<Double, Integer> hostUpdates;
+
+	@Test
+	public void testBatchSubmissionMatchesSingleSubmission() throws Exception {
+		assertSameExecution(runSimulation(false, CloudletSchedulerSpaceShared::new, 9),
+				runSimulation(true, CloudletSchedulerSpaceShared::new, 9));
+	}
+
+	/**
+	 * The cloudlets of a time-shared VM have the same length here: the estimated finish times of
+	 * the time-shared scheduler ignore the share the cloudlets that have just finished release, and
+	 * the extra event the single submission schedules for each cloudlet would correct them earlier
+	 * than the single event of a batch.
+	 */
+	@Test
+	public void testBatchSubmissionMatchesSingleSubmissionTimeShared() throws Exception {
+		assertSameExecution(runSimulation(false, CloudletSchedulerTimeShared::new, VMS),
+				runSimulation(true, CloudletSchedulerTimeShared::new, VMS));
+	}
+
+	@Test
+	public void testBatchSubmissionUpdatesHostsOncePerBatch() throws Exception {
+		List<Cloudlet> single = runSimulation(false, CloudletSchedulerTimeShared::new, VMS);
+		int singleUpdates = hostUpdates.get(single.get(0).getExecStartTime());
+		List<Cloudlet> batch = runSimulation(true, CloudletSchedulerTimeShared::new, VMS);
+		int batchUpdates = hostUpdates.get(batch.get(0).getExecStartTime());
+
+		assertTrue(singleUpdates >= CLOUDLETS, "host updates at the submission time: " + singleUpdates);
+		// once before the batch and once to estimate the next event, plus the VM creation
+		assertTrue(batchUpdates <= 4 * HOSTS, "host updates at the submission time: " + batchUpdates);
+	}
+
+	private static void assertSameExecution(List<Cloudlet> single, List<Cloudlet> batch) {
+		assertEquals(CLOUDLETS, single.size());
+		assertEquals(CLOUDLETS, batch.size());
+		for (int i = 0; i < CLOUDLETS; i++) {
+			Cloudlet expected = single.get(i);
+			Cloudlet actual = batch.get(i);
+			assertEquals(expected.getCloudletId(), actual.getCloudletId());
+			assertEquals(expected.getGuestId(), actual.getGuestId());
+			assertEquals(expected.getStatus(), actual.getStatus());
+			assertEquals(expected.getExecStartTime(), actual.getExecStartTime(), 1e-6);
+			assertEquals(expected.getExecFinishTime(), actual.getExecFinishTime(), 1e-6);
+		}
+	}
+
+	/**
+	 * Runs the cloudlets on VMs placed round-robin, the length of each cloudlet cycling through
+	 * the given number of lengths.
+	 */
+	private List<Cloudlet> runSimulation(boolean batchSubmission,
+			Supplier<CloudletScheduler> cloudletScheduler, int lengths) throws Exception {
+		SimulationFixture.init();
+		hostUpdates = new HashMap<>();
+		List<Host> hostList = new ArrayList<>();
+		for (int i = 0; i < HOSTS; i++) {
+			hostList.add(createCountingHost(i));
+		}
+		SimulationFixture.createDatacenter(hostList);
+
+		DatacenterBroker broker = new DatacenterBroker("Broker");
+		broker.setBatchCloudletSubmission(batchSubmission);
+		List<Vm> vmList = new ArrayList<>();
+		for (int i = 0; i < VMS; i++) {
+			vmList.add(new Vm(i, broker.getId(), 1000, 1, 512, 1000, 10000, "Xen", cloudletScheduler.get()));
+		}
+		List<Cloudlet> cloudletList = new ArrayList<>();
+		UtilizationModel model = new UtilizationModelFull();
+		for (int i = 0; i < CLOUDLETS; i++) {
+			Cloudlet cloudlet = new Cloudlet(i, 5000 + 700 * (i % lengths), 1, 300, 300, model, model, model);
+			cloudlet.setUserId(broker.getId());
+			cloudletList.add(cloudlet);
+		}
+		broker.submitGuestList(vmList);
+		broker.submitCloudletList(cloudletList);
+
+		SimulationFixture.run();
+
+		List<Cloudlet> received = new ArrayList<>(broker.getCloudletReceivedList());
+		received.sort((a, b) -> Integer.compare(a.getCloudletId(), b.getCloudletId()));
+		return received;
+	}
+
+	private Host createCountingHost(int id) {
+		List<Pe> peList = SimulationFixture.createPeList(2, 1000);
+		return new Host(id, new RamProvisionerSimple(2048), new BwProvisionerSimple(10000), 1000000, peList,
+				new VmSchedulerTimeShared(peList)) {
+			@Override
+			public double updateCloudletsProcessing(double currentTime) {
+				hostUpdates.merge(currentTime, 1, Integer::sum);
+				return super.updateCloudletsProcessing(currentTime);
+			}
+		};
+	}
+}
@@ -0,0 +1,165 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.core.CloudActionTags;
+import org.cloudbus.cloudsim.core.HostEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the datacenter only updates the hosts that have cloudlets, but the ones recording
+ * a state history, and that an idle host receiving a new cloudlet runs it from the time it is
+ * submitted.
+ */
+public class DatacenterTest {
+
+	private static final int HOSTS = 20;
+
+	private List<CountingHost> hostList;
+	private Vm busyVm;
+	private Vm idleVm;
+	private HostEntity busyHost;
+	private HostEntity idleHost;
+	private Cloudlet lateCloudlet;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		SimulationFixture.init();
+		hostList = new ArrayList<>();
+		for (int i = 0; i < HOSTS; i++) {
+			hostList.add(new CountingHost(i, SimulationFixture.createPeList(1, 1000)));
+		}
+		SimulationFixture.createDatacenter(hostList);
+	}
+
+	@Test
+	public void testIdleHostsAreNotUpdated() throws Exception {
+		List<Cloudlet> received = runSimulation();
+
+		assertEquals(3, received.size());
+		assertTrue(((CountingHost) busyHost).updates > 3);
+		for (CountingHost host : hostList) {
+			if (host != busyHost && host != idleHost) {
+				assertTrue(host.updates <= 2, "idle host #" + host.getId() + " updated " + host.updates + " times");
+			}
+		}
+	}
+
+	@Test
+	public void testCloudletSubmittedToIdleHostStartsOnSubmission() throws Exception {
+		runSimulation();
+
+		assertEquals(Cloudlet.CloudletStatus.SUCCESS, lateCloudlet.getStatus());
+		double submitted = lateCloudlet.getSubmissionTime();
+		assertTrue(submitted >= 15.0);
+		assertEquals(submitted + 20.0, lateCloudlet.getExecFinishTime(), 0.2);
+	}
+
+	@Test
+	public void testIdleDynamicWorkloadHostsKeepTheirStateHistory() throws Exception {
+		SimulationFixture.init();
+		List<HostDynamicWorkload> dynamicHostList = new ArrayList<>();
+		for (int i = 0; i < HOSTS; i++) {
+			List<Pe> peList = SimulationFixture.createPeList(1, 1000);
+			dynamicHostList.add(new HostDynamicWorkload(i, new RamProvisionerSimple(2048),
+					new BwProvisionerSimple(10000), 1000000, peList, new VmSchedulerTimeShared(peList)));
+		}
+		SimulationFixture.createDatacenter(dynamicHostList);
+
+		runSimulation();
+
+		HostStateHistory busyHistory = ((HostDynamicWorkload) busyHost).getStateHistory();
+		assertTrue(busyHistory.size() > 3);
+		for (HostDynamicWorkload host : dynamicHostList) {
+			HostStateHistory history = host.getStateHistory();
+			assertEquals(busyHistory.size(), history.size(), "state history of host #" + host.getId());
+			for (int i = 0; i < history.size(); i++) {
+				assertEquals(busyHistory.getTime(i), history.getTime(i), 1e-9);
+			}
+		}
+	}
+
+	private List<Cloudlet> runSimulation() throws Exception {
+		ResubmittingBroker broker = new ResubmittingBroker("Broker");
+		busyVm = new Vm(0, broker.getId(), 1000, 1, 512, 1000, 10000, "Xen", new CloudletSchedulerTimeShared());
+		idleVm = new Vm(1, broker.getId(), 1000, 1, 512, 1000, 10000, "Xen", new CloudletSchedulerTimeShared());
+		List<Vm> vmList = new ArrayList<>();
+		vmList.add(busyVm);
+		vmList.add(idleVm);
+
+		UtilizationModel model = new UtilizationModelFull();
+		List<Cloudlet> cloudletList = new ArrayList<>();
+		cloudletList.add(new Cloudlet(0, 25000, 1, 300, 300, model, model, model));
+		cloudletList.add(new Cloudlet(1, 5000, 1, 300, 300, model, model, model));
+		lateCloudlet = new Cloudlet(2, 20000, 1, 300, 300, model, model, model);
+		for (Cloudlet cloudlet : cloudletList) {
+			cloudlet.setUserId(broker.getId());
+		}
+		lateCloudlet.setUserId(broker.getId());
+		broker.submitGuestList(vmList);
+		broker.submitCloudletList(cloudletList);
+		broker.bindCloudletToVm(0, busyVm.getId());
+		broker.bindCloudletToVm(1, idleVm.getId());
+
+		SimulationFixture.run();
+		return broker.getCloudletReceivedList();
+	}
+
+	/**
+	 * Submits a last cloudlet to the idle VM some time after its first cloudlet returned, while
+	 * its host is idle.
+	 */
+	private class ResubmittingBroker extends DatacenterBroker {
+
+		public ResubmittingBroker(String name) throws Exception {
+			super(name);
+		}
+
+		@Override
+		protected void processCloudletReturn(SimEvent ev) {
+			Cloudlet cloudlet = (Cloudlet) ev.getData();
+			if (cloudlet.getCloudletId() == 1) {
+				busyHost = busyVm.getHost();
+				idleHost = idleVm.getHost();
+				lateCloudlet.setGuestId(idleVm.getId());
+				cloudletsSubmitted++;
+				send(getVmsToDatacentersMap().get(idleVm.getId()), 10.0, CloudActionTags.CLOUDLET_SUBMIT, lateCloudlet);
+			}
+			super.processCloudletReturn(ev);
+		}
+	}
+
+	/**
+	 * A host counting the updates of its cloudlets processing.
+	 */
+	private static class CountingHost extends Host {
+
+		private int updates;
+
+		public CountingHost(int id, List<Pe> peList) {
+			super(id, new RamProvisionerSimple(2048), new BwProvisionerSimple(10000), 1000000, peList,
+					new VmSchedulerTimeShared(peList));
+		}
+
+		@Override
+		public double updateCloudletsProcessing(double currentTime) {
+			updates++;
+			return super.updateCloudletsProcessing(currentTime);
+		}
+	}
+}
@@ -174,4 +174,75 @@ public class LogTest {
 		OUTPUT.reset();
 	}
 
+	@Test
+	public void testLevels() throws IOException {
+		OUTPUT.reset();
+		try {
+			Log.logConcat(Log.Level.DEBUG, Log.Category.HOST, "test ", 123);
+			assertEquals("test 123" + LINE_SEPARATOR, OUTPUT.toString());
+			OUTPUT.reset();
+
+			Log.setLevel(Log.Category.HOST, Log.Level.WARN);
+			assertFalse(Log.isEnabled(Log.Level.INFO, Log.Category.HOST));
+			assertTrue(Log.isEnabled(Log.Level.WARN, Log.Category.HOST));
+			assertTrue(Log.isEnabled(Log.Level.DEBUG, Log.Category.POWER));
+
+			Log.logConcat(Log.Level.INFO, Log.Category.HOST, "test ", 123);
+			Log.logFormat(Log.Level.DEBUG, Log.Category.HOST, "test %s test", "test");
+			Log.log(Log.Level.INFO, Log.Category.HOST, () -> {
+				fail("the message should not be built");
+				return "";
+			});
+			assertEquals("", OUTPUT.toString());
+
+			Log.log(Log.Level.ERROR, Log.Category.HOST, () -> "test test");
+			Log.logFormat(Log.Level.DEBUG, Log.Category.POWER, "test %s test", "test");
+			assertEquals("test test" + LINE_SEPARATOR + "test test test" + LINE_SEPARATOR, OUTPUT.toString());
+			OUTPUT.reset();
+
+			Log.disable();
+			assertFalse(Log.isEnabled(Log.Level.ERROR, Log.Category.HOST));
+			Log.log(Log.Level.ERROR, Log.Category.POWER, "test test");
+			assertEquals("", OUTPUT.toString());
+			Log.enable();
+
+			Log.setLevel(Log.Level.OFF);
+			assertFalse(Log.isEnabled(Log.Level.ERROR, Log.Category.GENERAL));
+			Log.println("test test");
+			assertEquals("test test" + LINE_SEPARATOR, OUTPUT.toString());
+		} finally {
+			Log.enable();
+			Log.setLevel(Log.Level.DEBUG);
+			OUTPUT.reset();
+		}
+	}
+
+	@Test
+	public void testBuffer() throws IOException {
+		OUTPUT.reset();
+		try {
+			Log.setBufferSize(16);
+			Log.print("test");
+			Log.printlnConcat("test ", 123);
+			assertEquals("", OUTPUT.toString());
+
+			Log.println("test test");
+			assertEquals("testtest 123" + LINE_SEPARATOR + "test test" + LINE_SEPARATOR, OUTPUT.toString());
+			OUTPUT.reset();
+
+			Log.print("test");
+			Log.flush();
+			assertEquals("test", OUTPUT.toString());
+			OUTPUT.reset();
+
+			Log.print("test");
+			Log.setOutput(new ByteArrayOutputStream());
+			assertEquals("test", OUTPUT.toString());
+		} finally {
+			Log.setBufferSize(0);
+			Log.setOutput(OUTPUT);
+			OUTPUT.reset();
+		}
+	}
+
 }
@@ -0,0 +1,76 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the share behaves as a list of MIPS.
+ */
+public class MipsShareTest {
+
+	private MipsShare mipsShare;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		mipsShare = new MipsShare(1);
+	}
+
+	@Test
+	public void testAddAndGet() {
+		mipsShare.addMips(250);
+		mipsShare.addMips(500, 2);
+		mipsShare.add(1, 100.0);
+
+		assertEquals(List.of(250.0, 100.0, 500.0, 500.0), mipsShare);
+		assertEquals(100, mipsShare.getMips(1), 0);
+		assertEquals(1350, mipsShare.getTotalMips(), 0);
+		assertEquals(100.0, mipsShare.remove(1).doubleValue(), 0);
+		assertEquals(3, mipsShare.size());
+		assertThrows(IndexOutOfBoundsException.class, () -> mipsShare.getMips(3));
+
+		mipsShare.clear();
+		assertTrue(mipsShare.isEmpty());
+		assertEquals(0, mipsShare.getTotalMips(), 0);
+	}
+
+	@Test
+	public void testRemoveNonPositive() {
+		mipsShare.addMips(0);
+		mipsShare.addMips(300);
+		mipsShare.addMips(-1);
+		mipsShare.addMips(200);
+
+		assertTrue(mipsShare.removeNonPositive());
+		assertEquals(List.of(300.0, 200.0), mipsShare);
+		assertFalse(mipsShare.removeNonPositive());
+	}
+
+	@Test
+	public void testCopies() {
+		List<Double> list = new ArrayList<>(List.of(1.0, 2.0, 3.0));
+		MipsShare copy = MipsShare.of(list);
+		assertEquals(list, copy);
+		assertSame(copy, MipsShare.of(copy));
+
+		mipsShare.addMips(7);
+		mipsShare.setAll(copy);
+		mipsShare.addAll(copy);
+		assertEquals(List.of(1.0, 2.0, 3.0, 1.0, 2.0, 3.0), mipsShare);
+		// the copy does not follow the list
+		list.set(0, 10.0);
+		assertEquals(1, copy.getMips(0), 0);
+	}
+}
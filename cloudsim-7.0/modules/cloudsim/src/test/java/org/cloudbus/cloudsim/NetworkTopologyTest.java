@@ -0,0 +1,94 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.network.DelayMatrix_Float;
+import org.cloudbus.cloudsim.network.DelayRowCache;
+import org.cloudbus.cloudsim.network.TopologicalGraph;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the links added in on-demand mode only drop the delay rows, which are computed
+ * again from all the links on the next lookup.
+ */
+public class NetworkTopologyTest {
+
+	/** The id of the first entity linked, far from the ids of the entities of a simulation. */
+	private static final int FIRST_ENTITY = 100000;
+
+	private static final int NODES = 30;
+
+	@BeforeEach
+	public void setUp() {
+		resetTopology();
+		NetworkTopology.setOnDemandDelays(4);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		resetTopology();
+		NetworkTopology.setOnDemandDelays(0);
+	}
+
+	private static void resetTopology() {
+		NetworkTopology.graph = new TopologicalGraph();
+		NetworkTopology.map = new HashMap<>();
+		NetworkTopology.nextIdx = 0;
+		NetworkTopology.delayRows = null;
+	}
+
+	@Test
+	public void testOnDemandLinksAreComputedOnLookup() {
+		Random random = new Random(5);
+		for (int i = 1; i < NODES; i++) {
+			// a tree, then some shortcuts, with small integer delays so that the sums are exact
+			NetworkTopology.addLink(FIRST_ENTITY + random.nextInt(i), FIRST_ENTITY + i, 100, 1 + random.nextInt(9));
+			assertNull(NetworkTopology.delayRows);
+		}
+		for (int i = 0; i < NODES; i++) {
+			NetworkTopology.addLink(FIRST_ENTITY + random.nextInt(NODES), FIRST_ENTITY + random.nextInt(NODES), 100,
+					1 + random.nextInt(9));
+		}
+		assertNull(NetworkTopology.delayRows);
+
+		assertSameDelays();
+		DelayRowCache rows = NetworkTopology.delayRows;
+		assertNotNull(rows);
+		assertSameDelays();
+		assertSame(rows, NetworkTopology.delayRows);
+
+		// a shortcut between two nodes is seen by the next lookup
+		int src = FIRST_ENTITY;
+		int dest = FIRST_ENTITY + NODES - 1;
+		assertTrue(NetworkTopology.getDelay(src, dest) > 1);
+		NetworkTopology.addLink(src, dest, 100, 1);
+		assertNull(NetworkTopology.delayRows);
+		assertEquals(1, NetworkTopology.getDelay(src, dest), 0);
+		assertSameDelays();
+	}
+
+	private static void assertSameDelays() {
+		DelayMatrix_Float expected = new DelayMatrix_Float(NetworkTopology.graph, false);
+		for (int src = 0; src < NODES; src++) {
+			for (int dest = 0; dest < NODES; dest++) {
+				int srcNode = NetworkTopology.map.get(FIRST_ENTITY + src);
+				int destNode = NetworkTopology.map.get(FIRST_ENTITY + dest);
+				assertEquals(expected.getDelay(srcNode, destNode),
+						NetworkTopology.getDelay(FIRST_ENTITY + src, FIRST_ENTITY + dest), 0, src + " -> " + dest);
+			}
+		}
+	}
+}
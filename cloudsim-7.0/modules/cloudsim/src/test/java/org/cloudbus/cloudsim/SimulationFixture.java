@@ -0,0 +1,83 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+/**
+ * Sets up the small simulations of the tests: the simulation is initialized with the log
+ * disabled, a datacenter of time-shared hosts is created, and the log is enabled again once the
+ * simulation has run.
+ */
+public final class SimulationFixture {
+
+	private SimulationFixture() {
+	}
+
+	/**
+	 * Initializes a simulation of one user and disables the log until {@link #run()} ends.
+	 */
+	public static void init() {
+		Log.disable();
+		CloudSim.init(1, Calendar.getInstance(), false);
+	}
+
+	public static List<Pe> createPeList(int pes, double mips) {
+		List<Pe> peList = new ArrayList<>();
+		for (int i = 0; i < pes; i++) {
+			peList.add(new Pe(i, new PeProvisionerSimple(mips)));
+		}
+		return peList;
+	}
+
+	/**
+	 * Creates a host of 2048 MB of RAM with a time-shared VM scheduler.
+	 *
+	 * @param id the id of the host
+	 * @param pes the number of PEs of the host
+	 * @param mips the MIPS of each PE
+	 * @return the host
+	 */
+	public static Host createHost(int id, int pes, double mips) {
+		List<Pe> peList = createPeList(pes, mips);
+		return new Host(id, new RamProvisionerSimple(2048), new BwProvisionerSimple(10000), 1000000, peList,
+				new VmSchedulerTimeShared(peList));
+	}
+
+	/**
+	 * Creates the datacenter of the simulation, which places the VMs with the simple policy.
+	 *
+	 * @param hostList the hosts of the datacenter
+	 * @return the datacenter
+	 */
+	public static Datacenter createDatacenter(List<? extends Host> hostList) throws Exception {
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics(
+				"x86", "Linux", "Xen", hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+		return new Datacenter("Datacenter_0", characteristics, new VmAllocationPolicySimple(hostList),
+				new ArrayList<>(), 0);
+	}
+
+	/**
+	 * Runs the simulation, then enables the log again.
+	 */
+	public static void run() {
+		try {
+			CloudSim.startSimulation();
+		} finally {
+			Log.enable();
+		}
+	}
+}
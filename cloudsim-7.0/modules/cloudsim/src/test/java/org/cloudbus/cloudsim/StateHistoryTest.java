@@ -0,0 +1,98 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StateHistoryTest {
+
+	@Test
+	public void testKeepAll() {
+		HostStateHistory history = new HostStateHistory();
+		for (int i = 0; i < 100; i++) {
+			history.record(i * 300, i, 2 * i, i % 2 == 0);
+		}
+		// a state at the same time replaces the last one
+		history.record(99 * 300, 1000, 2000, true);
+
+		assertEquals(100, history.size());
+		assertEquals(0, history.get(0).getTime(), 0);
+		assertEquals(1000, history.getLast().getAllocatedMips(), 0);
+		assertEquals(2000, history.getRequestedMips(99), 0);
+		assertTrue(history.getLast().isActive());
+		assertFalse(history.getFlag(1));
+
+		List<Double> times = new ArrayList<>();
+		for (HostStateHistoryEntry entry : history) {
+			times.add(entry.getTime());
+		}
+		assertEquals(100, times.size());
+		assertEquals(300 * 42, times.get(42), 0);
+	}
+
+	@Test
+	public void testKeepLast() {
+		VmStateHistory history = new VmStateHistory();
+		history.setRetention(StateHistoryRetention.keepLast(10));
+		for (int i = 0; i < 25; i++) {
+			history.record(i, i, i, i == 24);
+		}
+
+		assertEquals(10, history.size());
+		for (int i = 0; i < 10; i++) {
+			assertEquals(15 + i, history.get(i).getTime(), 0);
+		}
+		assertTrue(history.getLast().isInMigration());
+
+		history.set(0, new VmStateHistoryEntry(15, 7, 8, true));
+		assertEquals(7, history.getAllocatedMips(0), 0);
+
+		history.setRetention(StateHistoryRetention.keepLast(4));
+		assertEquals(4, history.size());
+		assertEquals(21, history.getTime(0), 0);
+	}
+
+	@Test
+	public void testDownsample() {
+		HostStateHistory history = new HostStateHistory();
+		history.setRetention(StateHistoryRetention.downsample(1000));
+		for (int i = 0; i < 10; i++) {
+			history.record(i * 300, i, i, true);
+		}
+
+		// the first state of each interval: 0, 1200, 2100
+		assertEquals(3, history.size());
+		assertEquals(0, history.getTime(0), 0);
+		assertEquals(1200, history.getTime(1), 0);
+		assertEquals(2100, history.getTime(2), 0);
+	}
+
+	@Test
+	public void testDefaultRetention() {
+		StateHistoryRetention previous = StateHistory.getDefaultRetention();
+		try {
+			StateHistory.setDefaultRetention(StateHistoryRetention.keepLast(3));
+			HostStateHistory history = new HostStateHistory();
+			for (int i = 0; i < 5; i++) {
+				history.add(new HostStateHistoryEntry(i, i, i, false));
+			}
+			assertEquals(3, history.size());
+			assertEquals(2, history.getFirst().getTime(), 0);
+		} finally {
+			StateHistory.setDefaultRetention(previous);
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.util.StreamingWorkloadModel;
+import org.cloudbus.cloudsim.util.WorkloadFileReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the broker submits the cloudlets of a trace when their submit times are reached,
+ * and only finishes once all of them have returned.
+ */
+public class StreamingDatacenterBrokerTest {
+
+	/** The submit time of each job of the trace. */
+	private static final Map<Integer, Double> SUBMIT_TIMES = Map.of(1, 0.0, 2, 50.0, 3, 50.0, 4, 200.0, 5, 1000.0);
+
+	private Path trace;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		SimulationFixture.init();
+		SimulationFixture.createDatacenter(List.of(SimulationFixture.createHost(0, 2, 1000)));
+
+		List<String> lines = new ArrayList<>();
+		lines.add("; a trace of 5 jobs");
+		for (int id = 1; id <= 5; id++) {
+			long submitTime = SUBMIT_TIMES.get(id).longValue();
+			lines.add(id + " " + submitTime + " 0 100 1 -1 -1 1 100 -1 1 1 1 1 1 1 -1 -1");
+		}
+		trace = Files.createTempFile("trace", ".swf");
+		Files.write(trace, lines);
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		// the log stays disabled if a test fails before running the simulation
+		Log.enable();
+		Files.delete(trace);
+	}
+
+	@Test
+	public void testCloudletsPulledOnSubmitTime() throws Exception {
+		StreamingDatacenterBroker broker = new StreamingDatacenterBroker("Broker");
+		List<Vm> vmList = new ArrayList<>();
+		vmList.add(new Vm(0, broker.getId(), 1000, 1, 512, 1000, 10000, "Xen", new CloudletSchedulerTimeShared()));
+		vmList.add(new Vm(1, broker.getId(), 1000, 1, 512, 1000, 10000, "Xen", new CloudletSchedulerTimeShared()));
+		broker.submitGuestList(vmList);
+
+		try (StreamingWorkloadModel workload = new WorkloadFileReader(trace.toString(), 1000).stream()) {
+			broker.submitWorkload(workload);
+			SimulationFixture.run();
+		}
+
+		List<Cloudlet> received = broker.getCloudletReceivedList();
+		assertEquals(5, received.size());
+		assertTrue(broker.getCloudletList().isEmpty());
+		for (Cloudlet cloudlet : received) {
+			assertEquals(Cloudlet.CloudletStatus.SUCCESS, cloudlet.getStatus());
+			assertEquals(broker.getId(), cloudlet.getUserId());
+			double submitTime = SUBMIT_TIMES.get(cloudlet.getCloudletId());
+			assertTrue(cloudlet.getSubmissionTime() >= submitTime);
+			assertTrue(cloudlet.getSubmissionTime() < submitTime + 1, "cloudlet #" + cloudlet.getCloudletId()
+					+ " submitted at " + cloudlet.getSubmissionTime());
+		}
+		assertEquals(1100, received.getLast().getExecFinishTime(), 1);
+	}
+
+	@Test
+	public void testReturnedCloudletsNotRetained() throws Exception {
+		List<String> lines = new ArrayList<>();
+		for (int id = 1; id <= 500; id++) {
+			lines.add(id + " " + id * 50 + " 0 100 1 -1 -1 1 100 -1 1 1 1 1 1 1 -1 -1");
+		}
+		Files.write(trace, lines);
+
+		StreamingDatacenterBroker broker = new StreamingDatacenterBroker("Broker");
+		List<Vm> vmList = new ArrayList<>();
+		vmList.add(new Vm(0, broker.getId(), 1000, 1, 512, 1000, 10000, "Xen", new CloudletSchedulerTimeShared()));
+		broker.submitGuestList(vmList);
+		int[] returned = new int[1];
+		int[] retained = new int[1];
+		broker.setReturnedCloudletConsumer(cloudlet -> {
+			assertEquals(Cloudlet.CloudletStatus.SUCCESS, cloudlet.getStatus());
+			returned[0]++;
+			retained[0] = Math.max(retained[0],
+					broker.getCloudletReceivedList().size() + broker.getCloudletSubmittedList().size());
+		});
+
+		try (StreamingWorkloadModel workload = new WorkloadFileReader(trace.toString(), 1000).stream()) {
+			broker.submitWorkload(workload);
+			SimulationFixture.run();
+		}
+
+		assertEquals(500, returned[0]);
+		assertEquals(0, retained[0]);
+		assertTrue(broker.getCloudletReceivedList().isEmpty());
+		assertTrue(broker.getCloudletSubmittedList().isEmpty());
+	}
+}
@@ -1,8 +1,14 @@
 package org.cloudbus.cloudsim;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.cloudbus.cloudsim.util.TraceCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class UtilizationModelPlanetLabInMemoryTest {
@@ -35,4 +41,21 @@ public class UtilizationModelPlanetLabInMemoryTest {
 				0.01);
 		assertEquals(0.51, utilizationModel.getUtilization(287 * SCHEDULING_INTERVAL), 0);
 	}
+
+	@Test
+	public void testLoadFromCache() throws Exception {
+		File trace = new File(getClass().getClassLoader().getResource(FILE).getPath());
+		Path cacheFile = Files.createTempFile("planetlab", TraceCache.EXTENSION);
+		try {
+			TraceCache.convertPlanetLab(trace.getParent(), cacheFile.toString());
+			TraceCache cache = TraceCache.open(cacheFile.toString());
+			UtilizationModelPlanetLabInMemory cached = new UtilizationModelPlanetLabInMemory(
+					cache, cache.getColumn(FILE), SCHEDULING_INTERVAL);
+			assertArrayEquals(utilizationModel.getData(), cached.getData());
+			assertEquals(utilizationModel.getUtilization(136.7 * SCHEDULING_INTERVAL),
+					cached.getUtilization(136.7 * SCHEDULING_INTERVAL), 0);
+		} finally {
+			Files.delete(cacheFile);
+		}
+	}
 }
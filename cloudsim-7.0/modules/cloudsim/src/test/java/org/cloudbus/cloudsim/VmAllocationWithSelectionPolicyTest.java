@@ -0,0 +1,148 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.core.HostEntity;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicy;
+import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicyFirstFit;
+import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicyLeastFull;
+import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicyMostFull;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the indexed host selection places the guests as the scan of the selection policy.
+ */
+public class VmAllocationWithSelectionPolicyTest {
+
+	private static final int HOSTS = 50;
+
+	private static final int VMS = 400;
+
+	@Test
+	public void testLeastFullMatchesScan() {
+		checkMatchesScan(new SelectionPolicyLeastFull<>());
+	}
+
+	@Test
+	public void testMostFullMatchesScan() {
+		checkMatchesScan(new SelectionPolicyMostFull<>());
+	}
+
+	@Test
+	public void testFirstFitMatchesScan() {
+		checkMatchesScan(new SelectionPolicyFirstFit<>());
+	}
+
+	@Test
+	public void testHostChangesAreSeen() {
+		List<Host> hosts = createHosts(new Random(1));
+		VmAllocationWithSelectionPolicy policy = new VmAllocationWithSelectionPolicy(hosts, new SelectionPolicyMostFull<>());
+
+		Vm vm0 = createVm(0, 1000, 1);
+		HostEntity host = policy.findHostForGuest(vm0);
+		assertTrue(host.guestCreate(vm0));
+		Vm vm1 = createVm(1, 1000, 1);
+		assertSame(scan(new SelectionPolicyMostFull<>(), hosts, vm1), policy.findHostForGuest(vm1));
+
+		host.guestDestroy(vm0);
+		assertSame(scan(new SelectionPolicyMostFull<>(), hosts, vm1), policy.findHostForGuest(vm1));
+	}
+
+	@Test
+	public void testHostChangesAreSeenByEveryIndex() {
+		List<Host> hosts = createHosts(new Random(1));
+		VmAllocationWithSelectionPolicy first = new VmAllocationWithSelectionPolicy(hosts, new SelectionPolicyMostFull<>());
+		VmAllocationWithSelectionPolicy second = new VmAllocationWithSelectionPolicy(hosts, new SelectionPolicyMostFull<>());
+		Vm vm1 = createVm(1, 250, 1);
+		first.findHostForGuest(vm1);
+		second.findHostForGuest(vm1);
+
+		// the emptiest host becomes the fullest one, which both indexes must see
+		Host host = hosts.getFirst();
+		for (Host candidate : hosts) {
+			if (candidate.getNumberOfPes() > host.getNumberOfPes()) {
+				host = candidate;
+			}
+		}
+		Vm vm0 = createVm(0, 900, host.getNumberOfPes());
+		assertTrue(host.guestCreate(vm0));
+		for (VmAllocationWithSelectionPolicy policy : List.of(first, second)) {
+			assertSame(host, scan(new SelectionPolicyMostFull<>(), hosts, vm1));
+			assertSame(host, policy.findHostForGuest(vm1));
+		}
+	}
+
+	private void checkMatchesScan(SelectionPolicy<HostEntity> selectionPolicy) {
+		Random random = new Random(7);
+		List<Host> hosts = createHosts(random);
+		VmAllocationWithSelectionPolicy policy = new VmAllocationWithSelectionPolicy(hosts, selectionPolicy);
+
+		List<Vm> allocated = new ArrayList<>();
+		for (int id = 0; id < VMS; id++) {
+			if (!allocated.isEmpty() && random.nextInt(4) == 0) {
+				Vm vm = allocated.remove(random.nextInt(allocated.size()));
+				vm.getHost().guestDestroy(vm);
+			}
+			Vm vm = createVm(id, 250 * (1 + random.nextInt(4)), 1 + random.nextInt(2));
+			HostEntity expected = scan(selectionPolicy, hosts, vm);
+			HostEntity host = policy.findHostForGuest(vm);
+			assertSame(expected, host, "VM #" + id);
+			if (host != null) {
+				assertTrue(host.guestCreate(vm));
+				allocated.add(vm);
+			}
+		}
+	}
+
+	/** The selection loop without the index. */
+	private static HostEntity scan(SelectionPolicy<HostEntity> selectionPolicy, List<Host> hosts, Vm vm) {
+		List<HostEntity> candidates = new ArrayList<>(hosts);
+		Set<HostEntity> excluded = new HashSet<>();
+		for (int tries = 0; tries < candidates.size(); tries++) {
+			HostEntity host = selectionPolicy.select(candidates, vm, excluded);
+			if (host == null) {
+				return null;
+			}
+			if (host.isSuitableForGuest(vm)) {
+				return host;
+			}
+			excluded.add(host);
+		}
+		return null;
+	}
+
+	private static List<Host> createHosts(Random random) {
+		List<Host> hosts = new ArrayList<>();
+		for (int id = 0; id < HOSTS; id++) {
+			List<Pe> peList = new ArrayList<>();
+			int pes = 1 + random.nextInt(4);
+			for (int pe = 0; pe < pes; pe++) {
+				peList.add(new Pe(pe, new PeProvisionerSimple(1000)));
+			}
+			hosts.add(new Host(id, new RamProvisionerSimple(1024 * (1 + random.nextInt(4))),
+					new BwProvisionerSimple(10000), 1000000, peList, new VmSchedulerTimeShared(peList)));
+		}
+		return hosts;
+	}
+
+	private static Vm createVm(int id, double mips, int pes) {
+		return new Vm(id, 0, mips, pes, 512, 100, 0, "", new CloudletSchedulerTimeShared());
+	}
+}
@@ -9,15 +9,22 @@ package org.cloudbus.cloudsim;
 
 
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
 
+import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.lists.PeList;
 import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
  * @author Anton Beloglazov
@@ -159,4 +166,200 @@ public class VmSchedulerTimeSharedTest {
 		assertEquals(0, vmScheduler.getTotalAllocatedMipsForGuest(vm2), 0);
 	}
 
+	@Test
+	public void testReallocationReusesShares() {
+		MipsShare mipsShare1 = new MipsShare();
+		mipsShare1.addMips(MIPS / 4);
+		MipsShare mipsShare2 = new MipsShare();
+		mipsShare2.addMips(MIPS / 2, 2);
+
+		assertTrue(vmScheduler.allocatePesForGuest(vm1, mipsShare1));
+		assertTrue(vmScheduler.allocatePesForGuest(vm2, mipsShare2));
+		List<Double> allocatedMips1 = vmScheduler.getAllocatedMipsForGuest(vm1);
+		List<Pe> pes1 = vmScheduler.getPesAllocatedForGuest(vm1);
+		assertEquals(MIPS / 4, allocatedMips1.get(0), 0);
+
+		// the guest left on the host is re-allocated in the same share and PE list
+		vmScheduler.deallocatePesForGuest(vm2);
+		assertSame(allocatedMips1, vmScheduler.getAllocatedMipsForGuest(vm1));
+		assertSame(pes1, vmScheduler.getPesAllocatedForGuest(vm1));
+		assertEquals(MIPS / 4, vmScheduler.getTotalAllocatedMipsForGuest(vm1), 0);
+		assertEquals(1, pes1.size());
+		assertNull(vmScheduler.getAllocatedMipsForGuest(vm2));
+		for (Pe pe : peList) {
+			assertNull(pe.getPeProvisioner().getAllocatedMipsForGuest(vm2));
+			assertEquals(0, pe.getPeProvisioner().getTotalAllocatedMipsForGuest(vm2), 0);
+		}
+		assertEquals(PeList.getTotalMips(peList) - MIPS / 4, vmScheduler.getAvailableMips(), 0);
+
+		// a new request refills the share
+		vmScheduler.deallocatePesForGuest(vm1);
+		mipsShare1.setMips(0, MIPS / 8);
+		assertTrue(vmScheduler.allocatePesForGuest(vm1, mipsShare1));
+		assertSame(allocatedMips1, vmScheduler.getAllocatedMipsForGuest(vm1));
+		assertEquals(MIPS / 8, vmScheduler.getTotalAllocatedMipsForGuest(vm1), 0);
+		assertEquals(MIPS / 8, peList.get(0).getPeProvisioner().getTotalAllocatedMipsForGuest(vm1), 0);
+	}
+
+	@Test
+	public void testReallocatePesForGuests() {
+		checkReallocatePesForGuests(VmSchedulerTimeShared::new);
+		checkReallocatePesForGuests(VmSchedulerTimeSharedOverSubscription::new);
+	}
+
+	/**
+	 * Checks that re-allocating the guests together ends with the same allocation as
+	 * deallocating then allocating each of them.
+	 */
+	private static void checkReallocatePesForGuests(Function<List<Pe>, VmSchedulerTimeShared> factory) {
+		List<Pe> expectedPes = createPes(4);
+		List<Pe> actualPes = createPes(4);
+		VmSchedulerTimeShared expected = factory.apply(expectedPes);
+		VmSchedulerTimeShared actual = factory.apply(actualPes);
+
+		List<Vm> guests = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			guests.add(new Vm(i, 0, MIPS, 1 + i % 2, 0, 0, 0, "", null));
+		}
+		// a guest migrating in the host, which is not one of its guests
+		Vm migratingIn = new Vm(10, 0, MIPS, 1, 0, 0, 0, "", null);
+		List<Double> migratingInMips = List.of(MIPS / 2);
+		for (VmSchedulerTimeShared scheduler : List.of(expected, actual)) {
+			scheduler.getGuestsMigratingIn().add(migratingIn.getUid());
+			scheduler.allocatePesForGuest(migratingIn, new ArrayList<>(migratingInMips));
+		}
+
+		Random random = new Random(1);
+		Map<GuestEntity, MipsShare> requested = new HashMap<>();
+		for (int tick = 0; tick < 300; tick++) {
+			Map<GuestEntity, MipsShare> previous = requested;
+			requested = new HashMap<>();
+			for (Vm guest : guests) {
+				if (previous.containsKey(guest) && random.nextInt(3) > 0) {
+					requested.put(guest, new MipsShare(previous.get(guest)));
+					continue;
+				}
+				MipsShare mipsShare = new MipsShare();
+				for (int pe = 0; pe < guest.getNumberOfPes(); pe++) {
+					mipsShare.addMips(random.nextInt(5) == 0 ? 0 : random.nextInt(600));
+				}
+				requested.put(guest, mipsShare);
+			}
+			if (random.nextInt(10) == 0) {
+				Vm guest = guests.get(random.nextInt(guests.size()));
+				guest.setInMigration(!guest.isInMigration());
+			}
+			if (random.nextInt(10) == 0) {
+				// a guest leaves and comes back between two updates
+				Vm guest = guests.get(random.nextInt(guests.size()));
+				for (VmSchedulerTimeShared scheduler : List.of(expected, actual)) {
+					scheduler.deallocatePesForGuest(guest);
+					scheduler.allocatePesForGuest(guest, new ArrayList<>(requested.get(guest)));
+				}
+			}
+
+			for (Vm guest : guests) {
+				expected.deallocatePesForGuest(guest);
+			}
+			for (Vm guest : guests) {
+				expected.allocatePesForGuest(guest, new ArrayList<>(requested.get(guest)));
+			}
+			actual.reallocatePesForGuests(guests, requested);
+
+			List<Vm> allGuests = new ArrayList<>(guests);
+			allGuests.add(migratingIn);
+			assertEquals(expected.getAvailableMips(), actual.getAvailableMips(), 0);
+			for (Vm guest : allGuests) {
+				assertEquals(expected.getAllocatedMipsForGuest(guest), actual.getAllocatedMipsForGuest(guest));
+				assertEquals(peIds(expected.getPesAllocatedForGuest(guest)), peIds(actual.getPesAllocatedForGuest(guest)));
+				for (int pe = 0; pe < expectedPes.size(); pe++) {
+					assertEquals(expectedPes.get(pe).getPeProvisioner().getAllocatedMipsForGuest(guest),
+							actualPes.get(pe).getPeProvisioner().getAllocatedMipsForGuest(guest));
+				}
+			}
+			for (int pe = 0; pe < expectedPes.size(); pe++) {
+				assertEquals(expectedPes.get(pe).getPeProvisioner().getAvailableMips(),
+						actualPes.get(pe).getPeProvisioner().getAvailableMips(), 0);
+			}
+
+			// the cloudlet schedulers drop the PEs without MIPS from the shares they are given
+			for (Vm guest : guests) {
+				for (VmSchedulerTimeShared scheduler : List.of(expected, actual)) {
+					List<Double> allocatedMips = scheduler.getAllocatedMipsForGuest(guest);
+					if (allocatedMips != null) {
+						allocatedMips.removeIf(mips -> mips <= 0);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testReallocatePesForGuestsAllocatesNothing() {
+		checkReallocatePesForGuestsAllocatesNothing(VmSchedulerTimeShared::new, MIPS / 4);
+		// the second shares over-subscribe the host
+		checkReallocatePesForGuestsAllocatesNothing(VmSchedulerTimeSharedOverSubscription::new, MIPS * 0.9);
+	}
+
+	/**
+	 * Checks that re-allocating the same guests at each scheduling interval, for shares that
+	 * change, allocates no memory once the guests have been allocated.
+	 */
+	private static void checkReallocatePesForGuestsAllocatesNothing(
+			Function<List<Pe>, VmSchedulerTimeShared> factory, double secondMips) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+		VmSchedulerTimeShared scheduler = factory.apply(createPes(4));
+		List<Vm> guests = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			guests.add(new Vm(i, 0, MIPS, 1 + i % 2, 0, 0, 0, "", null));
+		}
+		MipsShare[][] requested = new MipsShare[2][guests.size()];
+		for (int i = 0; i < guests.size(); i++) {
+			requested[0][i] = new MipsShare();
+			requested[1][i] = new MipsShare();
+			for (int pe = 0; pe < guests.get(i).getNumberOfPes(); pe++) {
+				requested[0][i].addMips(MIPS / 10 + pe);
+				requested[1][i].addMips(secondMips);
+			}
+		}
+
+		int ticks = 1000;
+		for (int tick = 0; tick < ticks; tick++) {
+			scheduler.reallocatePesForGuests(guests, requested[tick % 2]);
+		}
+		long threadId = Thread.currentThread().threadId();
+		long start = threads.getThreadAllocatedBytes(threadId);
+		long empty = threads.getThreadAllocatedBytes(threadId) - start;
+		start = threads.getThreadAllocatedBytes(threadId);
+		for (int tick = 0; tick < ticks; tick++) {
+			scheduler.reallocatePesForGuests(guests, requested[tick % 2]);
+		}
+		long allocated = threads.getThreadAllocatedBytes(threadId) - start - empty;
+
+		// less than a byte by interval, as no object is that small
+		assertTrue(allocated < ticks, allocated + " bytes allocated in " + ticks + " intervals");
+		assertEquals(guests.size(), scheduler.getMipsMapAllocated().size());
+	}
+
+	private static List<Pe> createPes(int count) {
+		List<Pe> pes = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			pes.add(new Pe(i, new PeProvisionerSimple(MIPS)));
+		}
+		return pes;
+	}
+
+	private static List<Integer> peIds(List<Pe> pes) {
+		if (pes == null) {
+			return null;
+		}
+		List<Integer> ids = new ArrayList<>();
+		for (Pe pe : pes) {
+			ids.add(pe.getId());
+		}
+		return ids;
+	}
+
 }
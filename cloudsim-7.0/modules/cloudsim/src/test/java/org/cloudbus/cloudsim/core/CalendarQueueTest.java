@@ -0,0 +1,102 @@
+package org.cloudbus.cloudsim.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link CalendarQueue} delivers events in the order defined by {@link SimEvent}.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class CalendarQueueTest {
+
+    private static SimEvent event(double time) {
+        return new SimEvent(SimEvent.SEND, time, 0, 0, CloudActionTags.BLANK, null);
+    }
+
+    @Test
+    public void testSameTimeEventsKeepInsertionOrder() {
+        CalendarQueue queue = new CalendarQueue();
+        SimEvent a = event(5);
+        SimEvent b = event(5);
+        SimEvent c = event(1);
+        SimEvent first = event(5);
+        queue.addEvent(a);
+        queue.addEvent(b);
+        queue.addEvent(c);
+        queue.addEventFirst(first);
+
+        assertEquals(4, queue.size());
+        assertSame(c, queue.peek());
+        assertSame(c, queue.poll());
+        assertSame(first, queue.poll());
+        assertSame(a, queue.poll());
+        assertSame(b, queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testRandomWorkloadMatchesSortedOrder() {
+        Random random = new Random(42);
+        CalendarQueue queue = new CalendarQueue();
+        List<SimEvent> delivered = new ArrayList<>();
+        double clock = 0;
+
+        // interleave additions and removals, as a simulation does, to exercise the resizes
+        for (int round = 0; round < 200; round++) {
+            int additions = random.nextInt(400);
+            for (int i = 0; i < additions; i++) {
+                double delay = random.nextInt(4) == 0 ? 0 : random.nextInt(10) == 0
+                        ? random.nextDouble() * 100000 : random.nextDouble() * 10;
+                queue.addEvent(event(clock + delay));
+            }
+            int removals = random.nextInt(400);
+            for (int i = 0; i < removals && !queue.isEmpty(); i++) {
+                SimEvent ev = queue.poll();
+                clock = ev.eventTime();
+                delivered.add(ev);
+            }
+        }
+        while (!queue.isEmpty()) {
+            delivered.add(queue.poll());
+        }
+
+        for (int i = 1; i < delivered.size(); i++) {
+            assertTrue(delivered.get(i - 1).compareTo(delivered.get(i)) < 0, "Event " + i + " out of order");
+        }
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        CalendarQueue queue = new CalendarQueue();
+        for (int i = 0; i < 100; i++) {
+            queue.addEvent(event(i % 7));
+        }
+        int removed = 0;
+        for (Iterator<SimEvent> iter = queue.iterator(); iter.hasNext(); ) {
+            if (iter.next().eventTime() == 3) {
+                iter.remove();
+                removed++;
+            }
+        }
+        assertEquals(100 - removed, queue.size());
+
+        int count = 0;
+        double last = -1;
+        while (!queue.isEmpty()) {
+            SimEvent ev = queue.poll();
+            assertTrue(ev.eventTime() != 3);
+            assertTrue(ev.eventTime() >= last);
+            last = ev.eventTime();
+            count++;
+        }
+        assertEquals(100 - removed, count);
+    }
+}
@@ -0,0 +1,75 @@
+package org.cloudbus.cloudsim.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the deferred events of an entity are processed in time order, also when the
+ * entity is paused while some of them are still waiting.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class DeferredEventsTest {
+
+    private static class Receiver extends SimEntity {
+        final List<String> processed = new ArrayList<>();
+
+        Receiver(String name) {
+            super(name);
+        }
+
+        @Override
+        public void processEvent(SimEvent ev) {
+            processed.add(CloudSim.clock() + ":" + ev.getData());
+            if ("pause".equals(ev.getData())) {
+                pause(10);
+            }
+        }
+
+        @Override
+        public void shutdownEntity() {
+        }
+    }
+
+    private static class Sender extends SimEntity {
+        private final int receiverId;
+
+        Sender(String name, int receiverId) {
+            super(name);
+            this.receiverId = receiverId;
+        }
+
+        @Override
+        public void startEntity() {
+            schedule(receiverId, 1, CloudActionTags.BLANK, "pause");
+            schedule(receiverId, 1, CloudActionTags.BLANK, "a");
+            schedule(receiverId, 5, CloudActionTags.BLANK, "b");
+            schedule(receiverId, 20, CloudActionTags.BLANK, "c");
+            scheduleFirst(receiverId, 5, CloudActionTags.BLANK, "first");
+        }
+
+        @Override
+        public void processEvent(SimEvent ev) {
+        }
+
+        @Override
+        public void shutdownEntity() {
+        }
+    }
+
+    @Test
+    public void testDeferredEventsAfterPause() {
+        CloudSim.init(0, Calendar.getInstance(), false);
+        Receiver receiver = new Receiver("Receiver");
+        new Sender("Sender", receiver.getId());
+        CloudSim.startSimulation();
+
+        // the events received while holding are processed when the pause ends, at time 11
+        assertEquals(List.of("1.0:pause", "11.0:a", "11.0:first", "11.0:b", "20.0:c"), receiver.processed);
+    }
+}
@@ -0,0 +1,88 @@
+package org.cloudbus.cloudsim.core;
+
+import org.cloudbus.cloudsim.core.predicates.PredicateFrom;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the cancellation of events waiting in the future queue.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class EventCancellationTest {
+
+    /** Schedules a burst of events to itself and cancels some of them at time 1. */
+    private static class Ticker extends SimEntity {
+        final List<Double> ticks = new ArrayList<>();
+        final List<Double> packets = new ArrayList<>();
+        boolean cancelledAny;
+        SimEvent cancelledPacket;
+
+        Ticker(String name) {
+            super(name);
+        }
+
+        @Override
+        public void startEntity() {
+            for (int i = 2; i <= 1000; i++) {
+                schedule(getId(), i, CloudActionTags.VM_DATACENTER_EVENT);
+                schedule(getId(), i, CloudActionTags.NETWORK_PKT_FORWARD);
+            }
+            schedule(getId(), 1, CloudActionTags.BLANK);
+        }
+
+        @Override
+        public void processEvent(SimEvent ev) {
+            if (ev.getTag() == CloudActionTags.BLANK) {
+                cancelledAny = CloudSim.cancelAll(getId(), new PredicateType(CloudActionTags.VM_DATACENTER_EVENT));
+                cancelledPacket = CloudSim.cancel(getId(), new PredicateFrom(getId()));
+                schedule(getId(), 5, CloudActionTags.VM_DATACENTER_EVENT);
+            } else if (ev.getTag() == CloudActionTags.VM_DATACENTER_EVENT) {
+                ticks.add(ev.eventTime());
+            } else {
+                packets.add(ev.eventTime());
+            }
+        }
+
+        @Override
+        public void shutdownEntity() {
+        }
+    }
+
+    @Test
+    public void testCancelledEventsAreNotDelivered() {
+        for (boolean calendarQueue : new boolean[] { false, true }) {
+            if (calendarQueue) {
+                CloudSim.init(0, Calendar.getInstance(), false, CalendarQueue::new);
+            } else {
+                CloudSim.init(0, Calendar.getInstance(), false);
+            }
+            Ticker ticker = new Ticker("Ticker");
+            CloudSim.startSimulation();
+
+            assertTrue(ticker.cancelledAny);
+            assertEquals(List.of(6.0), ticker.ticks);
+
+            // the oldest pending event of the entity is cancelled first
+            assertNotNull(ticker.cancelledPacket);
+            assertEquals(2.0, ticker.cancelledPacket.eventTime());
+            assertEquals(CloudActionTags.NETWORK_PKT_FORWARD, ticker.cancelledPacket.getTag());
+            assertEquals(998, ticker.packets.size());
+            assertEquals(3.0, ticker.packets.get(0).doubleValue());
+        }
+    }
+
+    @Test
+    public void testCancelAllWithoutMatchingEvents() {
+        CloudSim.init(0, Calendar.getInstance(), false);
+        Ticker ticker = new Ticker("Ticker");
+        assertFalse(CloudSim.cancelAll(ticker.getId(), new PredicateType(CloudActionTags.VM_DATACENTER_EVENT)));
+        assertNull(CloudSim.cancel(ticker.getId(), CloudSim.SIM_ANY));
+    }
+}
@@ -0,0 +1,111 @@
+package org.cloudbus.cloudsim.core;
+
+import org.cloudbus.cloudsim.*;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that a simulation split into partitions gives the same results when its partitions are
+ * simulated in parallel.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class ParallelEngineTest {
+
+    private static Datacenter createDatacenter(String name, int hosts) throws Exception {
+        List<Host> hostList = new ArrayList<>();
+        for (int i = 0; i < hosts; i++) {
+            List<Pe> peList = new ArrayList<>();
+            peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+            peList.add(new Pe(1, new PeProvisionerSimple(1000)));
+            hostList.add(new Host(i, new RamProvisionerSimple(2048), new BwProvisionerSimple(10000), 1000000,
+                    peList, new VmSchedulerTimeShared(peList)));
+        }
+        DatacenterCharacteristics characteristics = new DatacenterCharacteristics(
+                "x86", "Linux", "Xen", hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+        return new Datacenter(name, characteristics, new VmAllocationPolicySimple(hostList), new ArrayList<>(), 0);
+    }
+
+    private static DatacenterBroker createBroker(String name, int vmId, int cloudletId) throws Exception {
+        DatacenterBroker broker = new DatacenterBroker(name);
+        List<Vm> vmList = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            vmList.add(new Vm(vmId + i, broker.getId(), 1000, 1, 512, 1000, 10000, "Xen",
+                    new CloudletSchedulerTimeShared()));
+        }
+        List<Cloudlet> cloudletList = new ArrayList<>();
+        UtilizationModel model = new UtilizationModelFull();
+        for (int i = 0; i < 12; i++) {
+            Cloudlet cloudlet = new Cloudlet(cloudletId + i, 7000 + 1300 * i, 1, 300, 300, model, model, model);
+            cloudlet.setUserId(broker.getId());
+            cloudletList.add(cloudlet);
+        }
+        broker.submitGuestList(vmList);
+        broker.submitCloudletList(cloudletList);
+        return broker;
+    }
+
+    private static List<String> runSimulation(int threads, double terminateAt) throws Exception {
+        Log.disable();
+        CloudSim.init(2, Calendar.getInstance(), false);
+        Datacenter dc1 = createDatacenter("Datacenter_1", 2);
+        Datacenter dc2 = createDatacenter("Datacenter_2", 2);
+        DatacenterBroker broker1 = createBroker("Broker_1", 0, 0);
+        DatacenterBroker broker2 = createBroker("Broker_2", 100, 100);
+
+        // the two sites are far apart, each broker is close to its own datacenter
+        NetworkTopology.addLink(dc1.getId(), broker1.getId(), 10000, 0.3);
+        NetworkTopology.addLink(dc2.getId(), broker2.getId(), 10000, 0.3);
+        NetworkTopology.addLink(broker1.getId(), broker2.getId(), 10000, 1.0);
+
+        CloudSim.setEntityPartition(dc1.getId(), 1);
+        CloudSim.setEntityPartition(broker1.getId(), 1);
+        CloudSim.setEntityPartition(dc2.getId(), 2);
+        CloudSim.setEntityPartition(broker2.getId(), 2);
+        CloudSim.setParallelThreads(threads);
+        if (terminateAt > 0) {
+            CloudSim.terminateSimulation(terminateAt);
+        }
+
+        List<String> results = new ArrayList<>();
+        try {
+            results.add("clock " + CloudSim.startSimulation());
+        } finally {
+            for (int id : new int[] { dc1.getId(), dc2.getId(), broker1.getId(), broker2.getId() }) {
+                NetworkTopology.unmapNode(id);
+            }
+            Log.enable();
+        }
+        for (DatacenterBroker broker : List.of(broker1, broker2)) {
+            for (Cloudlet cloudlet : broker.getCloudletReceivedList()) {
+                results.add("cloudlet " + cloudlet.getCloudletId() + " vm " + cloudlet.getGuestId()
+                        + " dc " + cloudlet.getResourceId() + " " + cloudlet.getStatus()
+                        + " " + cloudlet.getExecStartTime() + " " + cloudlet.getExecFinishTime());
+            }
+        }
+        return results;
+    }
+
+    @Test
+    public void testParallelRunMatchesSequentialRun() throws Exception {
+        List<String> sequential = runSimulation(1, -1);
+        assertEquals(1 + 24, sequential.size());
+        assertEquals(sequential, runSimulation(2, -1));
+        assertEquals(sequential, runSimulation(3, -1));
+    }
+
+    @Test
+    public void testParallelRunMatchesSequentialRunWithTerminationTime() throws Exception {
+        List<String> sequential = runSimulation(1, 40);
+        assertEquals("clock 40.0", sequential.get(0));
+        assertEquals(sequential, runSimulation(3, 40));
+    }
+}
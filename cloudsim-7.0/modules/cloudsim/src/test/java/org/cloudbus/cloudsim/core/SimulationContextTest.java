@@ -0,0 +1,104 @@
+package org.cloudbus.cloudsim.core;
+
+import org.cloudbus.cloudsim.*;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that simulations bound to different {@link SimulationContext}s do not interfere with each other.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class SimulationContextTest {
+
+    private static double[] runSimulation(int cloudlets) throws Exception {
+        CloudSim.init(1, Calendar.getInstance(), false);
+
+        List<Pe> peList = new ArrayList<>();
+        peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+        List<Host> hostList = new ArrayList<>();
+        hostList.add(new Host(0, new RamProvisionerSimple(2048), new BwProvisionerSimple(10000), 1000000,
+                peList, new VmSchedulerTimeShared(peList)));
+        DatacenterCharacteristics characteristics = new DatacenterCharacteristics(
+                "x86", "Linux", "Xen", hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+        new Datacenter("Datacenter_0", characteristics, new VmAllocationPolicySimple(hostList), new ArrayList<>(), 0);
+
+        DatacenterBroker broker = new DatacenterBroker("Broker");
+        List<Vm> vmList = new ArrayList<>();
+        vmList.add(new Vm(0, broker.getId(), 1000, 1, 512, 1000, 10000, "Xen", new CloudletSchedulerTimeShared()));
+        List<Cloudlet> cloudletList = new ArrayList<>();
+        UtilizationModel model = new UtilizationModelFull();
+        for (int i = 0; i < cloudlets; i++) {
+            Cloudlet cloudlet = new Cloudlet(i, 10000 * (i + 1), 1, 300, 300, model, model, model);
+            cloudlet.setUserId(broker.getId());
+            cloudletList.add(cloudlet);
+        }
+        broker.submitGuestList(vmList);
+        broker.submitCloudletList(cloudletList);
+
+        CloudSim.startSimulation();
+        CloudSim.stopSimulation();
+
+        List<Cloudlet> received = broker.getCloudletReceivedList();
+        double[] finishTimes = new double[received.size()];
+        for (Cloudlet cloudlet : received) {
+            finishTimes[cloudlet.getCloudletId()] = cloudlet.getExecFinishTime();
+        }
+        return finishTimes;
+    }
+
+    @Test
+    public void testConcurrentSimulations() throws Exception {
+        Log.disable();
+        final int N = 8;
+        double[][] expected = new double[N][];
+        for (int i = 0; i < N; i++) {
+            expected[i] = runSimulation(i + 1);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<double[]>> futures = new ArrayList<>();
+            for (int i = 0; i < N; i++) {
+                final int cloudlets = i + 1;
+                futures.add(pool.submit(() -> runSimulation(cloudlets)));
+            }
+            for (int i = 0; i < N; i++) {
+                assertArrayEquals(expected[i], futures.get(i).get(), 0);
+            }
+        } finally {
+            pool.shutdown();
+            Log.enable();
+        }
+    }
+
+    @Test
+    public void testContextIsThreadBound() throws Exception {
+        CloudSim.init(1, Calendar.getInstance(), false);
+        SimulationContext mine = CloudSim.getSimulationContext();
+        SimulationContext[] other = new SimulationContext[2];
+        Thread thread = new Thread(() -> {
+            other[0] = CloudSim.getSimulationContext();
+            CloudSim.init(1, Calendar.getInstance(), false);
+            other[1] = CloudSim.getSimulationContext();
+        });
+        thread.start();
+        thread.join();
+
+        // threads started by a simulation share its context, until they set up their own simulation
+        assertSame(mine, other[0]);
+        assertNotSame(mine, other[1]);
+        assertSame(mine, CloudSim.getSimulationContext());
+    }
+}
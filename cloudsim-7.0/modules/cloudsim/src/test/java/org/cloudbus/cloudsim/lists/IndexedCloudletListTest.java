@@ -0,0 +1,136 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.lists;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the id index of the list follows all the list operations.
+ */
+public class IndexedCloudletListTest {
+
+	private IndexedCloudletList<Cloudlet> list;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		list = new IndexedCloudletList<>();
+	}
+
+	@Test
+	public void testGetById() {
+		for (int i = 0; i < 100; i++) {
+			list.add(createCloudlet(i, 0));
+		}
+		assertEquals(100, list.size());
+		assertEquals(42, list.getById(42).getCloudletId());
+		assertEquals(42, CloudletList.getById(list, 42).getCloudletId());
+		assertNull(list.getById(100));
+
+		Cloudlet cloudlet = list.getById(42);
+		assertTrue(list.contains(cloudlet));
+		assertTrue(list.remove(cloudlet));
+		assertFalse(list.contains(cloudlet));
+		assertNull(list.getById(42));
+		assertEquals(99, list.size());
+		assertEquals(43, list.get(42).getCloudletId());
+	}
+
+	@Test
+	public void testSharedIds() {
+		Cloudlet first = createCloudlet(7, 1);
+		Cloudlet second = createCloudlet(7, 2);
+		list.add(first);
+		list.add(second);
+
+		assertSame(first, list.getById(7));
+		assertSame(second, CloudletList.getByIdAndUserId(list, 7, 2));
+		assertTrue(list.remove(first));
+		assertSame(second, list.getById(7));
+		assertTrue(list.remove(second));
+		assertNull(list.getById(7));
+	}
+
+	@Test
+	public void testIteratorKeepsIndex() {
+		for (int i = 0; i < 10; i++) {
+			list.add(createCloudlet(i, 0));
+		}
+		list.removeIf(cloudlet -> cloudlet.getCloudletId() % 2 == 0);
+		ListIterator<Cloudlet> iterator = list.listIterator(2);
+		iterator.add(createCloudlet(20, 0));
+		iterator.next();
+		iterator.set(createCloudlet(21, 0));
+
+		assertNull(list.getById(4));
+		assertNull(list.getById(5));
+		assertEquals(21, list.getById(21).getCloudletId());
+		assertEquals(List.of(1, 3, 20, 21, 7, 9), ids(list));
+
+		list.clear();
+		assertTrue(list.isEmpty());
+		assertNull(list.getById(1));
+	}
+
+	@Test
+	public void testMatchesLinkedList() {
+		Random random = new Random(1);
+		List<Cloudlet> expected = new LinkedList<>();
+		for (int step = 0; step < 5000; step++) {
+			int id = random.nextInt(200);
+			switch (random.nextInt(4)) {
+				case 0, 1 -> {
+					Cloudlet cloudlet = createCloudlet(id, 0);
+					expected.add(cloudlet);
+					list.add(cloudlet);
+				}
+				case 2 -> {
+					Cloudlet cloudlet = CloudletList.getById(expected, id);
+					assertSame(cloudlet, list.getById(id));
+					assertEquals(expected.remove(cloudlet), list.remove(cloudlet));
+				}
+				default -> {
+					if (!expected.isEmpty()) {
+						assertSame(expected.removeFirst(), list.removeFirst());
+					}
+				}
+			}
+			assertEquals(expected.size(), list.size());
+		}
+		assertEquals(ids(expected), ids(list));
+		for (int id = 0; id < 200; id++) {
+			assertSame(CloudletList.getById(expected, id), list.getById(id));
+		}
+	}
+
+	private static List<Integer> ids(List<Cloudlet> cloudlets) {
+		List<Integer> ids = new ArrayList<>();
+		for (Cloudlet cloudlet : cloudlets) {
+			ids.add(cloudlet.getCloudletId());
+		}
+		return ids;
+	}
+
+	private static Cloudlet createCloudlet(int id, int userId) {
+		UtilizationModelFull model = new UtilizationModelFull();
+		Cloudlet cloudlet = new Cloudlet(id, 1000, 1, 300, 300, model, model, model);
+		cloudlet.setUserId(userId);
+		return cloudlet;
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the incremental and on-demand delay computations against the Floyd-Warshall matrix.
+ * Link delays are small integers, so that the sums of delays are exact.
+ */
+public class DelayMatrixTest {
+
+	private static final int NODES = 40;
+
+	private static TopologicalGraph createGraph(long seed, int links, boolean distinctPairs) {
+		Random random = new Random(seed);
+		TopologicalGraph graph = new TopologicalGraph();
+		for (int i = 0; i < NODES; i++) {
+			graph.addNode(new TopologicalNode(i));
+		}
+		Set<Long> pairs = new HashSet<>();
+		while (graph.getNumberOfLinks() < links) {
+			int src = random.nextInt(NODES);
+			int dest = random.nextInt(NODES);
+			long pair = (long) Math.min(src, dest) << 32 | Math.max(src, dest);
+			if (src == dest || !pairs.add(pair) && distinctPairs) {
+				continue;
+			}
+			// some links have no delay, which means no link for the delay matrix
+			graph.addLink(new TopologicalLink(src, dest, random.nextInt(10), 100));
+		}
+		return graph;
+	}
+
+	@Test
+	public void testIncrementalLinksMatchFullComputation() {
+		TopologicalGraph graph = createGraph(7, 90, true);
+		DelayMatrix_Float expected = new DelayMatrix_Float(graph, false);
+
+		// the nodes are created by the links, in the order of their ids
+		DelayMatrix_Float incremental = new DelayMatrix_Float(new TopologicalGraph(), false);
+		var links = graph.getLinkIterator();
+		while (links.hasNext()) {
+			TopologicalLink link = links.next();
+			incremental.addLink(link.getSrcNodeID(), link.getDestNodeID(), link.getLinkDelay(), false);
+		}
+		incremental.addLink(NODES - 1, NODES - 1, 0, false);
+
+		for (int src = 0; src < NODES; src++) {
+			for (int dest = 0; dest < NODES; dest++) {
+				assertEquals(expected.getDelay(src, dest), incremental.getDelay(src, dest), 0, src + " -> " + dest);
+			}
+		}
+	}
+
+	@Test
+	public void testDelayRowsMatchFullComputation() {
+		// repeated links between the same nodes replace the previous ones
+		TopologicalGraph graph = createGraph(11, 150, false);
+		DelayMatrix_Float expected = new DelayMatrix_Float(graph, false);
+		DelayRowCache rows = new DelayRowCache(graph, false, 3);
+
+		for (int src = 0; src < NODES; src++) {
+			for (int dest = 0; dest < NODES; dest++) {
+				assertEquals(expected.getDelay(src, dest), rows.getDelay(src, dest), 0, src + " -> " + dest);
+			}
+			assertTrue(rows.getCachedRows() <= 3);
+		}
+		assertEquals(expected.getDelay(0, NODES - 1), rows.getDelay(0, NODES - 1), 0);
+	}
+}
@@ -0,0 +1,262 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.core.PowerHostEntity;
+import org.cloudbus.cloudsim.power.models.PowerModelLinear;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicyMinimumMigrationTime;
+import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.ParallelScorer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the shadow of a host answers as the host would once a guest is created on it,
+ * and that placing guests on the shadow, with one or several threads, leaves the host unchanged.
+ * Also checks that the utilization history the host keeps follows the histories of its guests.
+ */
+public class PowerHostShadowTest {
+
+	private PowerHost host;
+
+	private PowerVm vm1;
+
+	private PowerVm vm2;
+
+	private PowerVm vm3;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		Log.disable();
+		CloudSim.init(1, Calendar.getInstance(), false);
+		host = createHost(0);
+		vm1 = createVm(1, 500, 512);
+		vm2 = createVm(2, 800, 1024);
+		vm3 = createVm(3, 900, 1024);
+		for (int i = 0; i < 5; i++) {
+			vm1.addUtilizationHistoryValue(0.1 * i);
+			vm2.addUtilizationHistoryValue(0.7);
+		}
+		vm2.addUtilizationHistoryValue(0.3);
+		assertTrue(host.guestCreate(vm1));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		Log.enable();
+	}
+
+	@Test
+	public void testWhatIfMatchesHost() {
+		PowerHostShadow shadow = new PowerHostShadow(host);
+		assertTrue(shadow.isSuitableForGuest(vm2));
+		double requestedTotalMips = shadow.getRequestedTotalMips(vm2);
+		double[] utilizationHistory = shadow.getUtilizationHistory(vm2);
+		assertEquals(500, shadow.getUtilizationOfCpuMips(), 0);
+		assertEquals(1024, shadow.getMaxRam(vm2));
+		assertEquals(1, host.getGuestList().size());
+
+		assertTrue(host.guestCreate(vm2));
+		assertEquals(vm1.getCurrentRequestedTotalMips() + vm2.getCurrentRequestedTotalMips(), requestedTotalMips, 0);
+		assertArrayEquals(host.getUtilizationHistory(), utilizationHistory);
+		assertEquals(6, utilizationHistory.length);
+		assertEquals(1300, new PowerHostShadow(host).getUtilizationOfCpuMips(), 0);
+	}
+
+	@Test
+	public void testPlaceAndRemove() {
+		PowerHostShadow shadow = new PowerHostShadow(host);
+		double availableMips = host.getGuestScheduler().getAvailableMips();
+		int availableRam = host.getGuestRamProvisioner().getAvailableRam();
+
+		assertTrue(shadow.guestCreate(vm2));
+		assertFalse(shadow.isSuitableForGuest(vm3));
+		assertFalse(shadow.guestCreate(vm3));
+		assertEquals(List.of(vm1, vm2), shadow.getGuestList());
+		assertEquals(1300, shadow.getRequestedTotalMips(null), 0);
+		assertArrayEquals(new double[] {0.28, 0.305, 0.33, 0.355, 0.38, 0.12},
+				shadow.getUtilizationHistory(null), 1e-12);
+
+		assertEquals(List.of(vm1), host.getGuestList());
+		assertEquals(availableMips, host.getGuestScheduler().getAvailableMips(), 0);
+		assertEquals(availableRam, host.getGuestRamProvisioner().getAvailableRam());
+		assertNull(vm2.getHost());
+
+		shadow.guestDestroy(vm1);
+		assertTrue(shadow.guestCreate(vm3));
+		assertEquals(List.of(vm2, vm3), shadow.getGuestList());
+		assertEquals(1700, shadow.getUtilizationOfCpuMips(), 0);
+	}
+
+	@Test
+	public void testFindHostForGuestLeavesHostsUnchanged() {
+		PowerHost emptyHost = createHost(1);
+		List<PowerHost> hostList = new ArrayList<>();
+		hostList.add(host);
+		hostList.add(emptyHost);
+		PowerVmAllocationPolicyMigrationStaticThreshold policy = new PowerVmAllocationPolicyMigrationStaticThreshold(
+				hostList, new SelectionPolicyMinimumMigrationTime<>(), 0.6);
+		int availableRam = host.getGuestRamProvisioner().getAvailableRam();
+
+		// the host would be over utilized with both guests
+		assertSame(emptyHost, policy.findHostForGuest(vm2, new HashSet<>()));
+		assertNull(policy.findHostForGuest(vm2, new HashSet<>(hostList)));
+
+		assertEquals(List.of(vm1), host.getGuestList());
+		assertTrue(emptyHost.getGuestList().isEmpty());
+		assertEquals(availableRam, host.getGuestRamProvisioner().getAvailableRam());
+		assertSame(host, vm1.getHost());
+		assertNull(vm2.getHost());
+		assertNull(policy.getTimeHistory(host.getId()));
+	}
+
+	@Test
+	public void testDefaultShadowCheckMatchesOverride() {
+		PowerHost emptyHost = createHost(1);
+		PowerHost loadedHost = createHost(2);
+		assertTrue(loadedHost.guestCreate(createVm(4, 1000, 256)));
+		List<PowerHost> hostList = List.of(host, emptyHost, loadedHost);
+		PowerVmAllocationPolicyMigrationStaticThreshold policy = new PowerVmAllocationPolicyMigrationStaticThreshold(
+				hostList, new SelectionPolicyMinimumMigrationTime<>(), 0.6);
+		// a policy written before the shadows, which only checks the hosts
+		PowerVmAllocationPolicyMigrationAbstract hostCheckPolicy = new PowerVmAllocationPolicyMigrationAbstract(
+				hostList, new SelectionPolicyMinimumMigrationTime<>()) {
+			@Override
+			protected boolean isHostOverUtilized(PowerHost host) {
+				double totalRequestedMips = 0;
+				for (GuestEntity vm : host.getGuestList()) {
+					totalRequestedMips += vm.getCurrentRequestedTotalMips();
+				}
+				return totalRequestedMips / host.getTotalMips() > 0.6;
+			}
+		};
+		double availableMips = host.getGuestScheduler().getAvailableMips();
+		int availableRam = host.getGuestRamProvisioner().getAvailableRam();
+
+		Set<PowerHost> excludedHosts = new HashSet<>();
+		for (PowerVm vm : List.of(vm2, vm3, createVm(5, 200, 256))) {
+			PowerHost expected = policy.findHostForGuest(vm, excludedHosts);
+			assertSame(expected, hostCheckPolicy.findHostForGuest(vm, excludedHosts));
+			assertNull(vm.getHost());
+			if (expected != null) {
+				excludedHosts.add(expected);
+			}
+		}
+
+		assertEquals(List.of(vm1), host.getGuestList());
+		assertTrue(emptyHost.getGuestList().isEmpty());
+		assertEquals(1, loadedHost.getGuestList().size());
+		assertSame(host, vm1.getHost());
+		assertEquals(availableMips, host.getGuestScheduler().getAvailableMips(), 0);
+		assertEquals(availableRam, host.getGuestRamProvisioner().getAvailableRam());
+	}
+
+	@Test
+	public void testFindHostForGuestInParallel() {
+		// enough hosts to be scored by several threads, most of them equally loaded
+		List<PowerHost> hostList = new ArrayList<>();
+		for (int i = 0; i < 4 * ParallelScorer.MIN_CANDIDATES_PER_THREAD; i++) {
+			PowerHost candidate = createHost(10 + i);
+			if (i % 3 != 0) {
+				assertTrue(candidate.guestCreate(createVm(1000 + i, 300 + i % 7 * 100, 256)));
+			}
+			hostList.add(candidate);
+		}
+		PowerVmAllocationPolicyMigrationStaticThreshold serial = new PowerVmAllocationPolicyMigrationStaticThreshold(
+				hostList, new SelectionPolicyMinimumMigrationTime<>(), 0.7);
+		PowerVmAllocationPolicyMigrationStaticThreshold parallel = new PowerVmAllocationPolicyMigrationStaticThreshold(
+				hostList, new SelectionPolicyMinimumMigrationTime<>(), 0.7);
+		parallel.setParallelism(4);
+		assertEquals(4, parallel.getParallelism());
+
+		Set<PowerHost> excludedHosts = new HashSet<>();
+		for (PowerVm vm : List.of(vm2, vm3, createVm(4, 1000, 256))) {
+			PowerHost found = serial.findHostForGuest(vm, excludedHosts);
+			assertNotNull(found);
+			assertSame(found, parallel.findHostForGuest(vm, excludedHosts));
+			excludedHosts.add(found);
+		}
+		excludedHosts.addAll(hostList);
+		assertNull(parallel.findHostForGuest(vm2, excludedHosts));
+	}
+
+	@Test
+	public void testHostUtilizationHistoryFollowsGuests() {
+		assertTrue(host.guestCreate(vm2));
+		assertArrayEquals(sumUtilizationHistories(), host.getUtilizationHistory());
+		for (int i = 0; i < 3 * PowerHostEntity.HISTORY_LENGTH; i++) {
+			vm1.addUtilizationHistoryValue(0.01 * (i % 17));
+			vm2.addUtilizationHistoryValue(0.03 * (i % 5));
+			if (i == PowerHostEntity.HISTORY_LENGTH + 4) {
+				// a guest with a short history
+				vm3.addUtilizationHistoryValue(0.9);
+				host.guestDestroy(vm2);
+				assertTrue(host.guestCreate(vm3));
+			} else if (i == 2 * PowerHostEntity.HISTORY_LENGTH) {
+				host.guestDestroy(vm3);
+				assertTrue(host.guestCreate(vm2));
+			}
+			if (i % 7 != 0) {
+				// the history of the host is also brought up to date after several values
+				assertArrayEquals(sumUtilizationHistories(), host.getUtilizationHistory());
+				assertArrayEquals(host.getUtilizationHistory(), new PowerHostShadow(host).getUtilizationHistory(null));
+			}
+		}
+		double[] history = sumUtilizationHistories();
+		assertEquals(MathUtil.mad(history), host.getUtilizationHistoryStat().getMad(), 0);
+		assertEquals(MathUtil.iqr(history), host.getUtilizationHistoryStat().getIqr(), 0);
+	}
+
+	/**
+	 * Sums the utilization histories of the guests of the host, as the host used to compute its own.
+	 */
+	private double[] sumUtilizationHistories() {
+		double[] history = new double[PowerHostEntity.HISTORY_LENGTH];
+		int length = 0;
+		for (PowerVm vm : host.<PowerVm>getGuestList()) {
+			double[] vmHistory = vm.getUtilizationHistory().toArray();
+			for (int i = 0; i < vmHistory.length; i++) {
+				history[i] += vmHistory[i] * vm.getMips() / host.getTotalMips();
+			}
+			length = Math.max(length, vmHistory.length);
+		}
+		return Arrays.copyOf(history, length);
+	}
+
+	private PowerHost createHost(int id) {
+		List<Pe> peList = new ArrayList<>();
+		peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+		peList.add(new Pe(1, new PeProvisionerSimple(1000)));
+		return new PowerHost(id, new RamProvisionerSimple(2048), new BwProvisionerSimple(10000), 100000, peList,
+				new VmSchedulerTimeShared(peList), new PowerModelLinear(200, 0.3));
+	}
+
+	private PowerVm createVm(int id, double mips, int ram) {
+		return new PowerVm(id, 0, mips, 1, ram, 1000, 1000, 1, "Xen", new CloudletSchedulerTimeShared(), 300);
+	}
+}
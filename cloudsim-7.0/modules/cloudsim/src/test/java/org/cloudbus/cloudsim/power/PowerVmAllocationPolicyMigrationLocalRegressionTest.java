@@ -0,0 +1,153 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.power.models.PowerModelLinear;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicyMinimumMigrationTime;
+import org.cloudbus.cloudsim.util.LocalRegression;
+import org.cloudbus.cloudsim.util.MathUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the regression kept for a host follows its utilization history as guests are given
+ * utilization values, come and leave, and that the regression reused for the checks of host
+ * shadows is fitted on the history of each shadow.
+ */
+public class PowerVmAllocationPolicyMigrationLocalRegressionTest {
+
+	private PowerHost host;
+
+	private List<PowerHost> hostList;
+
+	private LocalRegression fitted;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		Log.disable();
+		CloudSim.init(1, Calendar.getInstance(), false);
+		List<Pe> peList = new ArrayList<>();
+		peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+		peList.add(new Pe(1, new PeProvisionerSimple(1000)));
+		host = new PowerHost(0, new RamProvisionerSimple(4096), new BwProvisionerSimple(10000), 100000, peList,
+				new VmSchedulerTimeShared(peList), new PowerModelLinear(200, 0.3));
+		hostList = new ArrayList<>();
+		hostList.add(host);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		Log.enable();
+	}
+
+	@Test
+	public void testRegressionFollowsHost() {
+		checkRegressionFollowsHost(new PowerVmAllocationPolicyMigrationLocalRegression(hostList,
+				new SelectionPolicyMinimumMigrationTime<>(), 1.2, 300, createFallbackPolicy()) {
+			@Override
+			protected void fitRegression(LocalRegression regression) {
+				super.fitRegression(regression);
+				fitted = regression;
+			}
+		}, false);
+	}
+
+	@Test
+	public void testRobustRegressionFollowsHost() {
+		checkRegressionFollowsHost(new PowerVmAllocationPolicyMigrationLocalRegressionRobust(hostList,
+				new SelectionPolicyMinimumMigrationTime<>(), 1.2, 300, createFallbackPolicy()) {
+			@Override
+			protected void fitRegression(LocalRegression regression) {
+				super.fitRegression(regression);
+				fitted = regression;
+			}
+		}, true);
+	}
+
+	private void checkRegressionFollowsHost(PowerVmAllocationPolicyMigrationLocalRegression policy, boolean robust) {
+		Random random = new Random(2);
+		PowerVm vm1 = createVm(1, 500);
+		PowerVm vm2 = createVm(2, 800);
+		PowerVm vm3 = createVm(3, 300);
+		assertTrue(host.guestCreate(vm1));
+		assertTrue(host.guestCreate(vm2));
+		LocalRegression shadowRegression = null;
+		for (int t = 0; t < 200; t++) {
+			vm1.addUtilizationHistoryValue(random.nextDouble());
+			vm2.addUtilizationHistoryValue(t % 40 < 20 ? 0.25 : random.nextDouble());
+			vm3.addUtilizationHistoryValue(0.5);
+			if (t % 50 == 45) {
+				// a guest migrates in, and another one leaves later
+				assertTrue(host.guestCreate(vm3));
+			} else if (t % 50 == 48) {
+				host.guestDestroy(vm3);
+			}
+
+			fitted = null;
+			policy.isHostOverUtilized(host);
+			double[] utilizationHistory = host.getUtilizationHistory();
+			if (utilizationHistory.length < 10) {
+				assertNull(fitted);
+				continue;
+			}
+			assertFitted(utilizationHistory, robust);
+
+			// the shadow of the host, with the guest that is not on it as candidate
+			PowerHostShadow shadow = new PowerHostShadow(host);
+			GuestEntity candidate = host.getGuestList().contains(vm3) ? null : vm3;
+			fitted = null;
+			policy.isHostOverUtilized(shadow, candidate);
+			assertFitted(shadow.getUtilizationHistory(candidate), robust);
+			if (shadowRegression != null) {
+				assertSame(shadowRegression, fitted);
+			}
+			shadowRegression = fitted;
+		}
+	}
+
+	/**
+	 * Checks that the last regression fitted is the one of the first 10 values of a history.
+	 */
+	private void assertFitted(double[] utilizationHistory, boolean robust) {
+		double[] reversed = new double[10];
+		for (int i = 0; i < 10; i++) {
+			reversed[i] = utilizationHistory[9 - i];
+		}
+		double[] estimates = robust ? MathUtil.getRobustLoessParameterEstimates(reversed)
+				: MathUtil.getLoessParameterEstimates(reversed);
+		double delta = robust ? 0 : 1e-12;
+		assertEquals(estimates[0], fitted.getIntercept(), delta);
+		assertEquals(estimates[1], fitted.getSlope(), delta);
+	}
+
+	private PowerVmAllocationPolicyMigrationAbstract createFallbackPolicy() {
+		return new PowerVmAllocationPolicyMigrationStaticThreshold(hostList, new SelectionPolicyMinimumMigrationTime<>(), 0.7);
+	}
+
+	private PowerVm createVm(int id, double mips) {
+		return new PowerVm(id, 0, mips, 1, 512, 1000, 1000, 1, "Xen", new CloudletSchedulerTimeShared(), 300);
+	}
+}
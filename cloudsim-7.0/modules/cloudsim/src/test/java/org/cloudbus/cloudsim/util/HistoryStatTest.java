@@ -10,6 +10,8 @@ import java.util.Random;
 
 import static org.cloudbus.cloudsim.core.PowerGuestEntity.HISTORY_LENGTH;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class HistoryStatTest {
     HistoryStat stat;
@@ -38,6 +40,46 @@ public class HistoryStatTest {
         assertEquals(10.0, stat.getMedian(), 0);
     }
 
+    @Test
+    public void testRing() {
+        for (double val = 0.0; val < HISTORY_LENGTH + 5; val += 1.0) {
+            stat.offer(val);
+        }
+        assertEquals(HISTORY_LENGTH, stat.size());
+        assertEquals(HISTORY_LENGTH + 5, stat.getOfferedCount());
+        assertEquals(5.0, stat.get(0), 0);
+        assertEquals(HISTORY_LENGTH + 4.0, stat.get(HISTORY_LENGTH - 1), 0);
+        double[] values = stat.toArray();
+        for (int i = 0; i < HISTORY_LENGTH; i++) {
+            assertEquals(i + 5.0, values[i], 0);
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> stat.get(HISTORY_LENGTH));
+
+        stat.clear();
+        assertTrue(stat.isEmpty());
+        assertEquals(0, stat.toArray().length);
+        assertEquals(0.0, stat.getMedian(), 0);
+    }
+
+    @Test
+    public void testOrderStatistics() {
+        assertEquals(0.0, stat.getMad(), 0);
+        assertEquals(0.0, stat.getIqr(), 0);
+        Random gen = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            // a few repeated values, as the ties are the hard cases
+            double val = gen.nextInt(4) == 0 ? gen.nextInt(3) / 2.0 : gen.nextDouble();
+            stat.offer(val);
+            addUtilizationHistoryValue(history, val);
+            double[] data = MathUtil.listToArray(history);
+            assertEquals(MathUtil.median(data), stat.getPercentile(50), 0);
+            assertEquals(MathUtil.mad(data), stat.getMad(), 0);
+            assertEquals(MathUtil.countNonZeroBeginning(stat.toArray()), stat.countNonZeroBeginning());
+            if (data.length > 1)
+                assertEquals(MathUtil.iqr(data), stat.getIqr(), 0);
+        }
+    }
+
     @Test
     public void testExpunge() {
         for (double val = 0.0; val < 2 * HISTORY_LENGTH; val += 1.0) {
@@ -0,0 +1,81 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the regressions of a moving window are the ones {@link MathUtil} computes over the window.
+ */
+public class LocalRegressionTest {
+
+	private static final int LENGTH = 10;
+
+	@Test
+	public void testFollowsMathUtil() {
+		Random random = new Random(1);
+		LocalRegression regression = new LocalRegression(LENGTH);
+		double[] reversed = new double[LENGTH];
+		for (int t = 0; t < 1000; t++) {
+			// some constant stretches, whose residuals are exactly zero
+			double y = t % 100 < 30 ? 0.5 : random.nextDouble();
+			regression.offer(y);
+			System.arraycopy(reversed, 0, reversed, 1, LENGTH - 1);
+			reversed[0] = y;
+			assertEquals(y, regression.get(1), 0);
+			if (t < LENGTH - 1) {
+				assertFalse(regression.isFull());
+				continue;
+			}
+
+			double[] estimates = MathUtil.getLoessParameterEstimates(reversed);
+			regression.fit();
+			assertEquals(estimates[0], regression.getIntercept(), 1e-12);
+			assertEquals(estimates[1], regression.getSlope(), 1e-12);
+
+			estimates = MathUtil.getRobustLoessParameterEstimates(reversed);
+			regression.fitRobust();
+			assertEquals(estimates[0], regression.getIntercept(), 0);
+			assertEquals(estimates[1], regression.getSlope(), 0);
+		}
+	}
+
+	@Test
+	public void testWeightedRobustRegression() {
+		// the regression goes through six samples, so that the four others get a zero weight
+		double[] reversed = {0.5, 0.5, 0.75, 0.25, 0.5, 0.5, 0.25, 0.75, 0.5, 0.5};
+		LocalRegression regression = new LocalRegression(LENGTH);
+		for (int i = LENGTH - 1; i >= 0; i--) {
+			regression.offer(reversed[i]);
+		}
+		double[] estimates = MathUtil.getRobustLoessParameterEstimates(reversed);
+		regression.fitRobust();
+		assertEquals(estimates[0], regression.getIntercept(), 0);
+		assertEquals(estimates[1], regression.getSlope(), 0);
+		assertEquals(0.5, regression.predict(LENGTH + 3), 0);
+	}
+
+	@Test
+	public void testNotFull() {
+		LocalRegression regression = new LocalRegression(LENGTH);
+		regression.offer(1);
+		assertThrows(IllegalStateException.class, regression::fit);
+		assertThrows(IndexOutOfBoundsException.class, () -> regression.get(2));
+		for (int i = 0; i < LENGTH; i++) {
+			regression.offer(i);
+		}
+		regression.clear();
+		assertFalse(regression.isFull());
+		assertThrows(IllegalArgumentException.class, () -> new LocalRegression(2));
+	}
+}
@@ -4,10 +4,12 @@ package org.cloudbus.cloudsim.util;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class MathUtilTest {
 
@@ -32,6 +34,30 @@ public class MathUtilTest {
 
 	public static final double[] NON_ZERO_TAIL = { 1, 1, 2, 2, 4, 6, 9, 0, 10 };
 
+	public static final double[][] DATA5 = { { 1, 2, 2, 4, 3, 6 }, { 14, 23, 30, 50, 39, 67 }, { 4, 4, 7, 7, 10, 10 } };
+
+	public static final double[] DETERMINATION5 = { 0.9834528493463638, 0.986553560148001, 0.732289527720739 };
+
+	@Test
+	public void testCoefficientsOfDetermination() {
+		assertArrayEquals(DETERMINATION5, MathUtil.coefficientsOfDetermination(DATA5), 1e-12);
+
+		// with two rows, both are the square of their correlation
+		double[] coefficients = MathUtil.coefficientsOfDetermination(new double[][] { DATA5[0], DATA5[2] });
+		assertEquals(0.5625, coefficients[0], 1e-12);
+		assertEquals(coefficients[0], coefficients[1], 0);
+
+		assertThrows(IllegalArgumentException.class, () -> MathUtil.coefficientsOfDetermination(new double[][] { DATA5[0] }));
+		assertThrows(IllegalArgumentException.class, () -> MathUtil.coefficientsOfDetermination(
+				new double[][] { { 1, 2, 3 }, { 3, 1, 2 }, { 2, 2, 1 } }));
+		assertThrows(IllegalArgumentException.class, () -> MathUtil.coefficientsOfDetermination(
+				new double[][] { DATA5[0], { 5, 5, 5, 5, 5, 5 }, DATA5[2] }));
+		double[] sum = new double[6];
+		Arrays.setAll(sum, i -> DATA5[0][i] + DATA5[2][i]);
+		assertThrows(IllegalArgumentException.class, () -> MathUtil.coefficientsOfDetermination(
+				new double[][] { DATA5[0], sum, DATA5[2] }));
+	}
+
 	@Test
 	public void testMad() {
 		assertEquals(MAD, MathUtil.mad(DATA3), 0);
@@ -0,0 +1,77 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the candidates found with several threads are the ones found with a single thread.
+ */
+public class ParallelScorerTest {
+
+	private static final int COUNT = 10 * ParallelScorer.MIN_CANDIDATES_PER_THREAD + 7;
+
+	@Test
+	public void testFindMinBreaksTiesInOrder() {
+		ParallelScorer serial = new ParallelScorer(1);
+		ParallelScorer parallel = new ParallelScorer(4);
+		// the lowest score is given to a candidate of each range, the first one to be found
+		assertEquals(300, parallel.findMin(COUNT, i -> i % 300 == 0 && i > 0 ? 1 : 2));
+		assertEquals(300, serial.findMin(COUNT, i -> i % 300 == 0 && i > 0 ? 1 : 2));
+		assertEquals(0, parallel.findMin(COUNT, i -> 5));
+		assertEquals(COUNT - 1, parallel.findMin(COUNT, i -> i == COUNT - 1 ? -1 : 0));
+	}
+
+	@Test
+	public void testFindMinSkipsNotEligible() {
+		ParallelScorer parallel = new ParallelScorer(3);
+		assertEquals(-1, parallel.findMin(COUNT, i -> Double.NaN));
+		assertEquals(-1, parallel.findMin(COUNT, i -> Double.MAX_VALUE));
+		assertEquals(-1, parallel.findMin(0, i -> 0));
+		assertEquals(COUNT / 2, parallel.findMin(COUNT, i -> i < COUNT / 2 ? Double.NaN : 3));
+	}
+
+	@Test
+	public void testScore() {
+		double[] scores = new ParallelScorer(4).score(COUNT, i -> i * 0.5);
+		assertEquals(COUNT, scores.length);
+		for (int i = 0; i < COUNT; i++) {
+			assertEquals(i * 0.5, scores[i], 0);
+		}
+	}
+
+	@Test
+	public void testSimulationContext() {
+		SimulationContext context = new SimulationContext();
+		SimulationContext previous = CloudSim.setSimulationContext(context);
+		try {
+			assertEquals(-1, new ParallelScorer(4).findMin(COUNT,
+					i -> CloudSim.getSimulationContext() == context ? Double.NaN : 0));
+		} finally {
+			CloudSim.setSimulationContext(previous);
+		}
+	}
+
+	@Test
+	public void testExceptions() {
+		ParallelScorer parallel = new ParallelScorer(4);
+		IllegalStateException e = assertThrows(IllegalStateException.class, () -> parallel.score(COUNT, i -> {
+			if (i == COUNT - 1) {
+				throw new IllegalStateException("last");
+			}
+			return 0;
+		}));
+		assertEquals("last", e.getMessage());
+		assertThrows(IllegalArgumentException.class, () -> new ParallelScorer(0));
+	}
+}
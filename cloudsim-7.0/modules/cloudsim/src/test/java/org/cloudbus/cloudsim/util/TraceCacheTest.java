@@ -0,0 +1,105 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the columns written into a cache are read back, with the width of their values.
+ */
+public class TraceCacheTest {
+
+	private Path folder;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		folder = Files.createTempDirectory("traces");
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		for (File file : folder.toFile().listFiles()) {
+			Files.delete(file.toPath());
+		}
+		Files.delete(folder);
+	}
+
+	@Test
+	public void testWriteAndOpen() throws IOException {
+		String fileName = folder.resolve("columns" + TraceCache.EXTENSION).toString();
+		int[] bytes = {0, 100, 255};
+		int[] shorts = {-1, 0, 256, Short.MAX_VALUE};
+		int[] ints = {Integer.MIN_VALUE, 70000, Integer.MAX_VALUE};
+		TraceCache.write(fileName, TraceCache.Kind.WORKLOAD, List.of("bytes", "shorts", "ints", "empty"),
+				List.of(bytes, shorts, ints, new int[0]));
+		assertEquals(11 + 4 * 11 + "bytesshortsintsempty".length() + 3 + 4 * 2 + 3 * 4, new File(fileName).length());
+
+		TraceCache cache = TraceCache.open(fileName);
+		assertEquals(TraceCache.Kind.WORKLOAD, cache.getKind());
+		assertEquals(4, cache.getColumnCount());
+		assertEquals("shorts", cache.getColumnName(1));
+		assertEquals(2, cache.getColumn("ints"));
+		assertEquals(-1, cache.getColumn("missing"));
+		assertArrayEquals(bytes, cache.getValues(0));
+		assertArrayEquals(shorts, cache.getValues(1));
+		assertArrayEquals(ints, cache.getValues(2));
+		assertEquals(0, cache.getLength(3));
+		assertEquals(256, cache.get(1, 2));
+		assertThrows(IndexOutOfBoundsException.class, () -> cache.get(0, 3));
+
+		assertSame(cache, TraceCache.open(fileName));
+		TraceCache.write(fileName, TraceCache.Kind.WORKLOAD, List.of("bytes"), List.of(bytes));
+		TraceCache rewritten = TraceCache.open(fileName);
+		assertNotSame(cache, rewritten);
+		assertEquals(1, rewritten.getColumnCount());
+		// the former file is replaced, not overwritten, so that its cache can still be read
+		assertArrayEquals(ints, cache.getValues(2));
+		assertEquals(1, folder.toFile().listFiles().length);
+	}
+
+	@Test
+	public void testInvalidFile() throws IOException {
+		Path file = folder.resolve("text" + TraceCache.EXTENSION);
+		Files.write(file, List.of("1 2 3"));
+		assertThrows(IOException.class, () -> TraceCache.open(file.toString()));
+
+		String fileName = folder.resolve("truncated" + TraceCache.EXTENSION).toString();
+		TraceCache.write(fileName, TraceCache.Kind.WORKLOAD, List.of("ints"), List.of(new int[] {70000, 70001}));
+		byte[] content = Files.readAllBytes(Path.of(fileName));
+		Files.write(Path.of(fileName), Arrays.copyOf(content, content.length - 1));
+		assertThrows(IOException.class, () -> TraceCache.open(fileName));
+	}
+
+	@Test
+	public void testConvertPlanetLab() throws IOException {
+		Files.write(folder.resolve("b"), List.of("24", "34", "29"));
+		Files.write(folder.resolve("a"), List.of("0", "100"));
+		String fileName = folder.resolve("planetlab" + TraceCache.EXTENSION).toString();
+		TraceCache.convertPlanetLab(folder.toString(), fileName);
+
+		TraceCache cache = TraceCache.open(fileName);
+		assertEquals(TraceCache.Kind.UTILIZATION, cache.getKind());
+		assertEquals(2, cache.getColumnCount());
+		assertEquals("a", cache.getColumnName(0));
+		assertArrayEquals(new int[] {0, 100}, cache.getValues(0));
+		assertEquals("b", cache.getColumnName(1));
+		assertArrayEquals(new int[] {24, 34, 29}, cache.getValues(1));
+	}
+}
@@ -1,17 +1,32 @@
 package org.cloudbus.cloudsim.util;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.cloudbus.cloudsim.Cloudlet;
 import org.junit.jupiter.api.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class WorkloadFileReaderTest {
 
+    private static final String TRACE = "src" + File.separator + "test" + File.separator + "LCG.swf.gz";
+
     @BeforeAll
     public static void setUpBeforeClass() throws Exception {
     }
@@ -43,4 +58,137 @@ public class WorkloadFileReaderTest {
 	    assertTrue(cloudlet.getCloudletLength() > 0);
 	}
     }
+
+    @Test
+    public void readPlainInParallel() throws IOException {
+        List<String> expected = describe(new WorkloadFileReader(TRACE, 1).generateWorkload());
+        Path plain = Files.createTempFile("LCG", ".swf");
+        try {
+            Files.write(plain, readTrace());
+
+            WorkloadFileReader sequential = new WorkloadFileReader(plain.toString(), 1);
+            sequential.setParallelism(1);
+            assertEquals(expected, describe(sequential.generateWorkload()));
+
+            WorkloadFileReader parallel = new WorkloadFileReader(plain.toString(), 1);
+            parallel.setParallelism(4);
+            parallel.setParallelThreshold(0);
+            assertEquals(expected, describe(parallel.generateWorkload()));
+        } finally {
+            Files.delete(plain);
+        }
+    }
+
+    @Test
+    public void readZipEntries() throws IOException {
+        List<String> expected = describe(new WorkloadFileReader(TRACE, 1).generateWorkload());
+        List<String> lines = readTrace();
+        Path zip = Files.createTempFile("LCG", ".zip");
+        try {
+            try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+                writeEntry(out, "first.swf", lines.subList(0, lines.size() / 2));
+                writeEntry(out, "second.swf", lines.subList(lines.size() / 2, lines.size()));
+            }
+            assertEquals(expected, describe(new WorkloadFileReader(zip.toString(), 1).generateWorkload()));
+
+            WorkloadFileReader streamed = new WorkloadFileReader(zip.toString(), 1);
+            try (StreamingWorkloadModel stream = streamed.stream(1)) {
+                assertEquals(expected, describe(stream.generateWorkload()));
+            }
+        } finally {
+            Files.delete(zip);
+        }
+    }
+
+    @Test
+    public void stream() throws IOException {
+        List<String> expected = describe(new WorkloadFileReader(TRACE, 1).generateWorkload());
+        List<Cloudlet> streamed = new ArrayList<>();
+        try (StreamingWorkloadModel stream = new WorkloadFileReader(TRACE, 1).stream()) {
+            double previous = 0;
+            while (stream.hasNext()) {
+                double submitTime = stream.getNextSubmitTime();
+                assertTrue(submitTime >= previous);
+                previous = submitTime;
+                streamed.add(stream.next());
+            }
+        }
+        assertEquals(expected.size(), streamed.size());
+        assertEquals(expected, describe(streamed));
+    }
+
+    @Test
+    public void streamInSubmitTimeOrder() throws IOException {
+        Path trace = Files.createTempFile("trace", ".swf");
+        try {
+            Files.write(trace, List.of(
+                    "; Version: 2.2",
+                    job(1, 30, 10, 1),
+                    job(2, 10, 0, 2),
+                    "3 x 0 10 1 -1 -1 1 10 -1 1 1 1 1 1 1 -1 -1",
+                    job(4, 20, 10, 0),
+                    job(5, 10, 10, 4)));
+
+            WorkloadFileReader reader = new WorkloadFileReader(trace.toString(), 100);
+            assertEquals(List.of("1:1000:1", "2:100:2", "4:1000:1", "5:1000:4"), describe(reader.generateWorkload()));
+
+            try (StreamingWorkloadModel stream = reader.stream(1)) {
+                assertEquals(30, stream.getNextSubmitTime(), 0);
+                assertEquals(List.of("1:1000:1", "2:100:2", "4:1000:1", "5:1000:4"), describe(stream.generateWorkload()));
+            }
+
+            try (StreamingWorkloadModel stream = reader.stream()) {
+                assertEquals(10, stream.getNextSubmitTime(), 0);
+                assertEquals(List.of("2:100:2", "5:1000:4", "4:1000:1", "1:1000:1"), describe(stream.generateWorkload()));
+                assertFalse(stream.hasNext());
+                assertThrows(NoSuchElementException.class, stream::next);
+            }
+        } finally {
+            Files.delete(trace);
+        }
+    }
+
+    @Test
+    public void readCache() throws IOException {
+        List<String> expected = describe(new WorkloadFileReader(TRACE, 1).generateWorkload());
+        Path cache = Files.createTempFile("LCG", TraceCache.EXTENSION);
+        try {
+            new WorkloadFileReader(TRACE, 1).writeCache(cache.toString());
+
+            WorkloadFileReader reader = new WorkloadFileReader(cache.toString(), 1);
+            reader.setField(18, -1, 2, 4, 8);
+            assertEquals(expected, describe(reader.generateWorkload()));
+            try (StreamingWorkloadModel stream = new WorkloadFileReader(cache.toString(), 1).stream(1)) {
+                assertEquals(expected, describe(stream.generateWorkload()));
+            }
+        } finally {
+            Files.delete(cache);
+        }
+    }
+
+    private static String job(int id, long submitTime, int runTime, int numProc) {
+        return id + " " + submitTime + " 0 " + runTime + " " + numProc + " -1 -1 " + numProc + " " + runTime
+                + " -1 1 1 1 1 1 1 -1 -1";
+    }
+
+    private static List<String> describe(List<Cloudlet> cloudlets) {
+        List<String> descriptions = new ArrayList<>(cloudlets.size());
+        for (Cloudlet cloudlet : cloudlets) {
+            descriptions.add(cloudlet.getCloudletId() + ":" + cloudlet.getCloudletLength() + ":" + cloudlet.getNumberOfPes());
+        }
+        return descriptions;
+    }
+
+    private static List<String> readTrace() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(TRACE))))) {
+            return reader.lines().toList();
+        }
+    }
+
+    private static void writeEntry(ZipOutputStream out, String name, List<String> lines) throws IOException {
+        out.putNextEntry(new ZipEntry(name));
+        out.write((String.join("\n", lines) + "\n").getBytes());
+        out.closeEntry();
+    }
 }